@@ -0,0 +1,863 @@
+package net.amcintosh.freshbooks.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a <code>JsonCodec</code> for each class with <code>@Key</code> fields, reading and writing the
+ * same names google-http-client binds by reflection, and a <code>GeneratedJsonCodecs</code> registry
+ * of them for <code>JsonCodecs</code>.
+ * <br><br>
+ * Codecs are only generated for classes they can bind without reflection: non-private, static, concrete
+ * classes with a no-arg constructor whose <code>@Key</code> fields are not private or final. Other
+ * classes are left to google-http-client.
+ * <br><br>
+ * Models annotated with <code>@LazyDecoding</code> also get a <code>&lt;Model&gt;_Lazy</code> subclass, which
+ * their codec reads when asked to read lazily.
+ */
+@SupportedAnnotationTypes(JsonCodecProcessor.KEY)
+public class JsonCodecProcessor extends AbstractProcessor {
+
+    static final String KEY = "com.google.api.client.util.Key";
+    private static final String VALUE = "com.google.api.client.util.Value";
+    private static final String NULL_VALUE = "com.google.api.client.util.NullValue";
+    private static final String JSON_STRING = "com.google.api.client.json.JsonString";
+    private static final String GENERIC_DATA = "com.google.api.client.util.GenericData";
+    private static final String GENERIC_JSON = "com.google.api.client.json.GenericJson";
+    private static final String DEFAULT_NAME = "##default";
+    private static final String LAZY_DECODING = "net.amcintosh.freshbooks.json.LazyDecoding";
+    private static final String LAZY_MODEL = "net.amcintosh.freshbooks.json.LazyModel";
+    private static final String UNDECODED_FIELDS = "net.amcintosh.freshbooks.json.UndecodedFields";
+
+    static final String REGISTRY_PACKAGE = "net.amcintosh.freshbooks.json";
+    static final String REGISTRY_NAME = "GeneratedJsonCodecs";
+
+    private final Set<String> generated = new HashSet<>();
+    private final Set<TypeElement> lazyModels = new LinkedHashSet<>();
+    private boolean registryWritten = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver() || this.registryWritten) {
+            return false;
+        }
+        Set<TypeElement> candidates = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            if (!annotation.getQualifiedName().contentEquals(KEY)) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    candidates.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        Set<TypeElement> eligible = new LinkedHashSet<>();
+        for (TypeElement type : candidates) {
+            if (this.isEligible(type)) {
+                eligible.add(type);
+            }
+        }
+        Map<TypeElement, List<KeyField>> models = new LinkedHashMap<>();
+        for (TypeElement type : eligible) {
+            List<KeyField> fields = this.keyFields(type, eligible);
+            if (fields != null) {
+                models.put(type, fields);
+            }
+        }
+        // A model referring to one that turned out to be unsupported reads it through google-http-client
+        if (models.size() < eligible.size()) {
+            eligible.retainAll(models.keySet());
+            models.replaceAll((type, fields) -> this.keyFields(type, eligible));
+        }
+
+        try {
+            for (Map.Entry<TypeElement, List<KeyField>> model : models.entrySet()) {
+                this.writeCodec(model.getKey(), model.getValue());
+            }
+            this.writeRegistry(models.keySet());
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write JSON codecs: " + e.getMessage());
+        }
+        this.registryWritten = true;
+        return false;
+    }
+
+    /**
+     * A <code>@Key</code> field and how its value is read and written.
+     */
+    private static class KeyField {
+        final String name;
+        final String jsonName;
+        final ValueType type;
+
+        KeyField(String name, String jsonName, ValueType type) {
+            this.name = name;
+            this.jsonName = jsonName;
+            this.type = type;
+        }
+    }
+
+    private boolean isEligible(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)
+                || !type.getTypeParameters().isEmpty()) {
+            return false;
+        }
+        if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        if (!this.isAccessible(type, this.packageOf(type))) {
+            return false;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the <code>@Key</code> fields of a class and its superclasses, in the order google-http-client
+     * writes them.
+     *
+     * @return The fields, or null if a codec cannot bind them
+     */
+    private List<KeyField> keyFields(TypeElement type, Set<TypeElement> models) {
+        PackageElement codecPackage = this.packageOf(type);
+        Map<String, KeyField> fields = new TreeMap<>();
+        Set<String> fieldNames = new HashSet<>();
+        for (TypeElement current = type; current != null; current = this.superclassOf(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                AnnotationMirror key = this.annotation(field, KEY);
+                if (key == null || field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                        || this.annotation(field, JSON_STRING) != null
+                        || (!modifiers.contains(Modifier.PUBLIC) && !this.packageOf(current).equals(codecPackage))
+                        || !fieldNames.add(field.getSimpleName().toString())) {
+                    return null;
+                }
+                String jsonName = this.annotationValue(key);
+                if (jsonName == null || jsonName.equals(DEFAULT_NAME)) {
+                    jsonName = field.getSimpleName().toString();
+                }
+                ValueType valueType = this.valueType(field.asType(), type, models, true);
+                if (valueType == null || fields.containsKey(jsonName)) {
+                    return null;
+                }
+                fields.put(jsonName, new KeyField(field.getSimpleName().toString(), jsonName, valueType));
+            }
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    private ValueType valueType(TypeMirror mirror, TypeElement model, Set<TypeElement> models, boolean allowList) {
+        switch (mirror.getKind()) {
+            case LONG:
+                return new ValueType.Primitive("LongValue", "writeNumber");
+            case INT:
+                return new ValueType.Primitive("IntValue", "writeNumber");
+            case BOOLEAN:
+                return new ValueType.Primitive("BooleanValue", "writeBoolean");
+            case DOUBLE:
+                return new ValueType.OtherPrimitive("double", "java.lang.Double");
+            case FLOAT:
+                return new ValueType.OtherPrimitive("float", "java.lang.Float");
+            case SHORT:
+                return new ValueType.OtherPrimitive("short", "java.lang.Short");
+            case BYTE:
+                return new ValueType.OtherPrimitive("byte", "java.lang.Byte");
+            case DECLARED:
+                break;
+            default:
+                return null;
+        }
+        DeclaredType declared = (DeclaredType) mirror;
+        TypeElement element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        switch (name) {
+            case "java.lang.String":
+                return new ValueType.Helper("String");
+            case "java.lang.Long":
+                return new ValueType.Helper("Long");
+            case "java.lang.Integer":
+                return new ValueType.Helper("Integer");
+            case "java.lang.Boolean":
+                return new ValueType.Helper("Boolean");
+            case "java.util.List":
+            case "java.util.ArrayList":
+            case "java.util.Collection":
+                if (!allowList || declared.getTypeArguments().size() != 1) {
+                    return null;
+                }
+                ValueType elementType = this.valueType(declared.getTypeArguments().get(0), model, models, false);
+                return elementType != null ? new ValueType.ListOf(elementType) : null;
+            default:
+                break;
+        }
+        if (!declared.getTypeArguments().isEmpty() || !this.isAccessible(element, this.packageOf(model))) {
+            return null;
+        }
+        if (models.contains(element)) {
+            return new ValueType.Model(name, this.qualifiedCodecName(element));
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            return new ValueType.Enum(this.codecName(model), this.flatName(element));
+        }
+        return new ValueType.Other(name);
+    }
+
+    private void writeCodec(TypeElement type, List<KeyField> fields) throws IOException {
+        String packageName = this.packageOf(type).getQualifiedName().toString();
+        String codecName = this.codecName(type);
+        String typeName = type.getQualifiedName().toString();
+        if (!this.generated.add(packageName + "." + codecName)) {
+            return;
+        }
+        boolean genericData = this.isSubtype(type, GENERIC_DATA);
+        boolean genericJson = this.isSubtype(type, GENERIC_JSON);
+        Set<String> index = this.lazyIndex(type, fields, genericJson);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import com.google.api.client.json.JsonGenerator;\n")
+                .append("import com.google.api.client.json.JsonParser;\n")
+                .append("import com.google.api.client.json.JsonToken;\n")
+                .append("import java.io.IOException;\n\n")
+                .append("/**\n")
+                .append(" * JSON codec for {@link ").append(typeName).append("}, generated from its @Key fields.\n")
+                .append(" */\n")
+                .append("public final class ").append(codecName)
+                .append(" implements net.amcintosh.freshbooks.json.JsonCodec<").append(typeName).append("> {\n\n")
+                .append("    public static final ").append(codecName).append(" INSTANCE = new ")
+                .append(codecName).append("();\n\n");
+        if (index != null) {
+            source.append("    /**\n")
+                    .append("     * Length of the fields last copied by a lazy read, to size the next copy.")
+                    .append(" Racy updates only\n")
+                    .append("     * make the estimate less recent.\n")
+                    .append("     */\n")
+                    .append("    private int undecodedLength = 256;\n\n");
+        }
+        source.append("    private ").append(codecName).append("() {\n    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public ").append(typeName)
+                .append(" read(JsonParser parser, boolean lazy) throws IOException {\n");
+        String indent = "        ";
+        if (index != null) {
+            source.append("        if (!lazy) {\n");
+            indent = "            ";
+        }
+        source.append(indent).append(typeName).append(" value = new ").append(typeName).append("();\n");
+        if (genericJson) {
+            source.append(indent).append("value.setFactory(parser.getFactory());\n");
+        }
+        source.append(indent).append("this.readFields(parser, value, lazy);\n")
+                .append(indent).append("return value;\n");
+        if (index != null) {
+            source.append("        }\n");
+            this.appendReadLazy(source, type, fields, index);
+        }
+        source.append("    }\n\n");
+
+        source.append("    private void readFields(JsonParser parser, ").append(typeName)
+                .append(" value, boolean lazy) throws IOException {\n")
+                .append("        for (JsonToken token = ").append(ValueType.CODECS).append(".startObject(parser);\n")
+                .append("                token == JsonToken.FIELD_NAME; token = parser.nextToken()) {\n")
+                .append("            String name = parser.getText();\n")
+                .append("            parser.nextToken();\n")
+                .append("            switch (name) {\n");
+        for (KeyField field : fields) {
+            source.append("                case ").append(this.literal(field.jsonName)).append(":\n")
+                    .append("                    value.").append(field.name).append(" = ")
+                    .append(field.type.read()).append(";\n")
+                    .append("                    break;\n");
+        }
+        source.append("                default:\n");
+        if (genericData) {
+            source.append("                    value.set(name, ").append(ValueType.CODECS)
+                    .append(".readUnknown(parser));\n");
+        } else {
+            source.append("                    parser.skipChildren();\n");
+        }
+        source.append("                    break;\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        if (index != null) {
+            this.appendDecode(source, type, fields, index);
+        }
+
+        source.append("    @Override\n")
+                .append("    public void write(JsonGenerator generator, ").append(typeName)
+                .append(" value) throws IOException {\n");
+        if (index != null) {
+            source.append("        if (value instanceof ").append(LAZY_MODEL).append(") {\n")
+                    .append("            ((").append(LAZY_MODEL).append(") value).decode();\n")
+                    .append("        }\n");
+        }
+        source.append("        generator.writeStartObject();\n");
+        for (KeyField field : fields) {
+            String value = "value." + field.name;
+            indent = "        ";
+            if (!field.type.isPrimitive()) {
+                source.append(indent).append("if (").append(value).append(" != null) {\n");
+                indent = "            ";
+            }
+            source.append(indent).append("generator.writeFieldName(").append(this.literal(field.jsonName))
+                    .append(");\n")
+                    .append(indent).append(field.type.write(value)).append("\n");
+            if (!field.type.isPrimitive()) {
+                source.append("        }\n");
+            }
+        }
+        if (genericData) {
+            source.append("        ").append(ValueType.CODECS).append(".writeUnknownKeys(generator, value);\n");
+        }
+        source.append("        generator.writeEndObject();\n")
+                .append("    }\n");
+
+        this.appendEnumMethods(source, type, fields);
+        source.append("}\n");
+
+        this.writeSource(packageName + "." + codecName, source, type);
+        if (index != null) {
+            this.writeLazyModel(type, fields, index);
+        }
+    }
+
+    /**
+     * Add methods reading and writing each enum the codec's fields use, by the <code>@Value</code>
+     * names of its constants.
+     */
+    private void appendEnumMethods(StringBuilder source, TypeElement model, List<KeyField> fields) {
+        Set<TypeElement> enums = new LinkedHashSet<>();
+        for (VariableElement field : this.allKeyFields(model)) {
+            TypeMirror mirror = field.asType();
+            if (mirror.getKind() == TypeKind.DECLARED && !((DeclaredType) mirror).getTypeArguments().isEmpty()) {
+                mirror = ((DeclaredType) mirror).getTypeArguments().get(0);
+            }
+            if (mirror.getKind() == TypeKind.DECLARED) {
+                Element element = ((DeclaredType) mirror).asElement();
+                if (element.getKind() == ElementKind.ENUM) {
+                    enums.add((TypeElement) element);
+                }
+            }
+        }
+        for (TypeElement enumType : enums) {
+            String typeName = enumType.getQualifiedName().toString();
+            String methodName = this.flatName(enumType);
+            Map<String, String> names = new LinkedHashMap<>();
+            Set<String> nullConstants = new LinkedHashSet<>();
+            for (VariableElement constant : ElementFilter.fieldsIn(enumType.getEnclosedElements())) {
+                if (constant.getKind() != ElementKind.ENUM_CONSTANT) {
+                    continue;
+                }
+                AnnotationMirror value = this.annotation(constant, VALUE);
+                if (value != null) {
+                    String jsonName = this.annotationValue(value);
+                    if (jsonName == null || jsonName.equals(DEFAULT_NAME)) {
+                        jsonName = constant.getSimpleName().toString();
+                    }
+                    names.put(constant.getSimpleName().toString(), jsonName);
+                } else if (this.annotation(constant, NULL_VALUE) != null) {
+                    nullConstants.add(constant.getSimpleName().toString());
+                }
+            }
+
+            source.append("\n    private static ").append(typeName).append(" read").append(methodName)
+                    .append("(JsonParser parser) throws IOException {\n")
+                    .append("        if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {\n")
+                    .append("            switch (parser.getText()) {\n");
+            for (Map.Entry<String, String> name : names.entrySet()) {
+                source.append("                case ").append(this.literal(name.getValue())).append(":\n")
+                        .append("                    return ").append(typeName).append(".").append(name.getKey())
+                        .append(";\n");
+            }
+            source.append("                default:\n")
+                    .append("                    break;\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        return parser.parse(").append(typeName).append(".class);\n")
+                    .append("    }\n");
+
+            source.append("\n    private static void write").append(methodName).append("(JsonGenerator generator, ")
+                    .append(typeName).append(" value) throws IOException {\n");
+            String prefix = "        if";
+            for (Map.Entry<String, String> name : names.entrySet()) {
+                source.append(prefix).append(" (value == ").append(typeName).append(".").append(name.getKey())
+                        .append(") {\n")
+                        .append("            generator.writeString(").append(this.literal(name.getValue()))
+                        .append(");\n");
+                prefix = "        } else if";
+            }
+            for (String constant : nullConstants) {
+                source.append(prefix).append(" (value == ").append(typeName).append(".").append(constant)
+                        .append(") {\n")
+                        .append("            generator.writeNull();\n");
+                prefix = "        } else if";
+            }
+            if (prefix.equals("        if")) {
+                source.append("        ").append(ValueType.CODECS).append(".writeValue(generator, value);\n");
+            } else {
+                source.append("        } else {\n")
+                        .append("            ").append(ValueType.CODECS).append(".writeValue(generator, value);\n")
+                        .append("        }\n");
+            }
+            source.append("    }\n");
+        }
+    }
+
+    /**
+     * Get the index fields of a model annotated with <code>@LazyDecoding</code>.
+     *
+     * @return The JSON names of the fields, or null if the model is not read lazily
+     */
+    private Set<String> lazyIndex(TypeElement type, List<KeyField> fields, boolean genericJson) {
+        AnnotationMirror lazyDecoding = this.annotation(type, LAZY_DECODING);
+        if (lazyDecoding == null) {
+            return null;
+        }
+        if (!genericJson || type.getModifiers().contains(Modifier.FINAL)) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "@LazyDecoding is only supported on non-final GenericJson models", type);
+            return null;
+        }
+        Set<String> jsonNames = new HashSet<>();
+        for (KeyField field : fields) {
+            jsonNames.add(field.jsonName);
+        }
+        Set<String> index = new LinkedHashSet<>();
+        for (String name : this.annotationValues(lazyDecoding)) {
+            if (!jsonNames.contains(name)) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@LazyDecoding index field '" + name + "' is not a @Key field", type, lazyDecoding);
+                return null;
+            }
+            index.add(name);
+        }
+        return index;
+    }
+
+    /**
+     * Add the lazy branch of a codec's <code>read</code>, which decodes the index fields and copies the
+     * others to be decoded later.
+     */
+    private void appendReadLazy(StringBuilder source, TypeElement type, List<KeyField> fields, Set<String> index) {
+        String lazyName = this.lazyName(type);
+        source.append("        ").append(lazyName).append(" value = new ").append(lazyName).append("();\n")
+                .append("        value.setFactory(parser.getFactory());\n")
+                .append("        ").append(UNDECODED_FIELDS).append(" undecoded = null;\n")
+                .append("        for (JsonToken token = ").append(ValueType.CODECS).append(".startObject(parser);\n")
+                .append("                token == JsonToken.FIELD_NAME; token = parser.nextToken()) {\n")
+                .append("            String name = parser.getText();\n")
+                .append("            parser.nextToken();\n")
+                .append("            switch (name) {\n");
+        boolean copied = false;
+        for (KeyField field : fields) {
+            if (index.contains(field.jsonName)) {
+                source.append("                case ").append(this.literal(field.jsonName)).append(":\n")
+                        .append("                    value.").append(field.name).append(" = ")
+                        .append(field.type.read()).append(";\n")
+                        .append("                    break;\n");
+            }
+        }
+        for (KeyField field : fields) {
+            if (!index.contains(field.jsonName)) {
+                source.append("                case ").append(this.literal(field.jsonName)).append(":\n");
+                copied = true;
+            }
+        }
+        if (copied) {
+            source.append("                    if (undecoded == null) {\n")
+                    .append("                        undecoded = new ").append(UNDECODED_FIELDS)
+                    .append("(this.undecodedLength);\n")
+                    .append("                    }\n")
+                    .append("                    undecoded.copy(name, parser);\n")
+                    .append("                    break;\n");
+        }
+        source.append("                default:\n")
+                .append("                    value.set(name, ").append(ValueType.CODECS)
+                .append(".readUnknown(parser));\n")
+                .append("                    break;\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        if (undecoded != null) {\n")
+                .append("            value.undecodedJson = undecoded.toJson();\n")
+                .append("            this.undecodedLength = value.undecodedJson.length();\n")
+                .append("        }\n")
+                .append("        return value;\n");
+    }
+
+    /**
+     * Add the <code>decode</code> method of a lazy codec, which reads the fields copied by a lazy read.
+     * Fields already given a value, eg. with <code>GenericData.put</code>, keep it.
+     */
+    private void appendDecode(StringBuilder source, TypeElement type, List<KeyField> fields, Set<String> index) {
+        String typeName = type.getQualifiedName().toString();
+        source.append("    /**\n")
+                .append("     * Decode the fields of a model read lazily, keeping any already set.\n")
+                .append("     */\n")
+                .append("    void decode(").append(typeName).append(" value, String json) {\n")
+                .append("        // Nested models are decoded in full\n")
+                .append("        boolean lazy = false;\n")
+                .append("        try (JsonParser parser = ").append(UNDECODED_FIELDS)
+                .append(".parser(value.getFactory(), json)) {\n")
+                .append("            for (JsonToken token = ").append(ValueType.CODECS)
+                .append(".startObject(parser);\n")
+                .append("                    token == JsonToken.FIELD_NAME; token = parser.nextToken()) {\n")
+                .append("                String name = parser.getText();\n")
+                .append("                parser.nextToken();\n")
+                .append("                switch (name) {\n");
+        for (KeyField field : fields) {
+            if (index.contains(field.jsonName)) {
+                continue;
+            }
+            source.append("                    case ").append(this.literal(field.jsonName)).append(":\n");
+            if (field.type.isPrimitive()) {
+                source.append("                        value.").append(field.name).append(" = ")
+                        .append(field.type.read()).append(";\n");
+            } else {
+                source.append("                        if (value.").append(field.name).append(" == null) {\n")
+                        .append("                            value.").append(field.name).append(" = ")
+                        .append(field.type.read()).append(";\n")
+                        .append("                        } else {\n")
+                        .append("                            parser.skipChildren();\n")
+                        .append("                        }\n");
+            }
+            source.append("                        break;\n");
+        }
+        source.append("                    default:\n")
+                .append("                        parser.skipChildren();\n")
+                .append("                        break;\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("        } catch (IOException e) {\n")
+                .append("            throw new java.io.UncheckedIOException(\"Unable to decode fields of ")
+                .append(type.getSimpleName()).append("\", e);\n")
+                .append("        }\n")
+                .append("    }\n\n");
+    }
+
+    /**
+     * Write the <code>&lt;Model&gt;_Lazy</code> subclass of a model, which overrides each of the model's
+     * public methods to decode its remaining fields first. Accessors of index fields are left as they are.
+     */
+    private void writeLazyModel(TypeElement type, List<KeyField> fields, Set<String> index) throws IOException {
+        String packageName = this.packageOf(type).getQualifiedName().toString();
+        String lazyName = this.lazyName(type);
+        String typeName = type.getQualifiedName().toString();
+
+        Set<String> indexAccessors = new HashSet<>();
+        for (KeyField field : fields) {
+            if (index.contains(field.jsonName)) {
+                String capitalized = Character.toUpperCase(field.name.charAt(0)) + field.name.substring(1);
+                indexAccessors.add("get" + capitalized);
+                indexAccessors.add("is" + capitalized);
+                indexAccessors.add("set" + capitalized);
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * {@link ").append(typeName).append("} read lazily, generated from its @LazyDecoding")
+                .append(" index fields.\n")
+                .append(" */\n")
+                .append("public final class ").append(lazyName).append(" extends ").append(typeName)
+                .append(" implements ").append(LAZY_MODEL).append(" {\n\n")
+                .append("    volatile String undecodedJson;\n\n")
+                .append("    ").append(lazyName).append("() {\n    }\n\n")
+                .append("    @Override\n")
+                .append("    public void decode() {\n")
+                .append("        if (this.undecodedJson != null) {\n")
+                .append("            synchronized (this) {\n")
+                .append("                String json = this.undecodedJson;\n")
+                .append("                if (json != null) {\n")
+                .append("                    ").append(this.codecName(type)).append(".INSTANCE.decode(this, json);\n")
+                .append("                    this.undecodedJson = null;\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean isDecoded() {\n")
+                .append("        return this.undecodedJson == null;\n")
+                .append("    }\n");
+
+        Types types = this.processingEnv.getTypeUtils();
+        for (ExecutableElement method
+                : ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            String owner = ((TypeElement) method.getEnclosingElement()).getQualifiedName().toString();
+            String name = method.getSimpleName().toString();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)
+                    || modifiers.contains(Modifier.FINAL) || owner.startsWith("java.")
+                    || indexAccessors.contains(name)) {
+                continue;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "@LazyDecoding models cannot have generic methods", method);
+                return;
+            }
+            ExecutableType signature = (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+            List<? extends TypeMirror> parameters = signature.getParameterTypes();
+            StringBuilder declaration = new StringBuilder();
+            StringBuilder arguments = new StringBuilder();
+            for (int i = 0; i < parameters.size(); i++) {
+                String separator = i == 0 ? "" : ", ";
+                TypeMirror parameter = parameters.get(i);
+                if (method.isVarArgs() && i == parameters.size() - 1) {
+                    declaration.append(separator).append(((ArrayType) parameter).getComponentType()).append("...");
+                } else {
+                    declaration.append(separator).append(parameter);
+                }
+                declaration.append(" arg").append(i);
+                arguments.append(separator).append("arg").append(i);
+            }
+            boolean returns = signature.getReturnType().getKind() != TypeKind.VOID;
+            source.append("\n    @Override\n")
+                    .append("    public ").append(signature.getReturnType()).append(" ").append(name)
+                    .append("(").append(declaration).append(")");
+            String thrownSeparator = " throws ";
+            for (TypeMirror thrown : signature.getThrownTypes()) {
+                source.append(thrownSeparator).append(thrown);
+                thrownSeparator = ", ";
+            }
+            source.append(" {\n")
+                    .append("        this.decode();\n")
+                    .append("        ").append(returns ? "return " : "").append("super.").append(name)
+                    .append("(").append(arguments).append(");\n")
+                    .append("    }\n");
+        }
+        source.append("}\n");
+
+        this.lazyModels.add(type);
+        this.writeSource(packageName.isEmpty() ? lazyName : packageName + "." + lazyName, source, type);
+    }
+
+    private void writeRegistry(Set<TypeElement> models) throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(REGISTRY_PACKAGE).append(";\n\n")
+                .append("import java.util.HashMap;\n")
+                .append("import java.util.Map;\n\n")
+                .append("/**\n")
+                .append(" * The generated JSON codecs, by model class.\n")
+                .append(" */\n")
+                .append("final class ").append(REGISTRY_NAME).append(" {\n\n")
+                .append("    private ").append(REGISTRY_NAME).append("() {\n    }\n\n")
+                .append("    static Map<Class<?>, JsonCodec<?>> create() {\n")
+                .append("        Map<Class<?>, JsonCodec<?>> codecs = new HashMap<>();\n");
+        for (TypeElement model : models) {
+            source.append("        codecs.put(").append(model.getQualifiedName()).append(".class, ")
+                    .append(this.qualifiedCodecName(model)).append(".INSTANCE);\n");
+            if (this.lazyModels.contains(model)) {
+                source.append("        codecs.put(").append(this.qualifiedLazyName(model)).append(".class, ")
+                        .append(this.qualifiedCodecName(model)).append(".INSTANCE);\n");
+            }
+        }
+        source.append("        return codecs;\n")
+                .append("    }\n")
+                .append("}\n");
+        this.writeSource(REGISTRY_PACKAGE + "." + REGISTRY_NAME, source,
+                models.toArray(new Element[0]));
+    }
+
+    private List<VariableElement> allKeyFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement current = type; current != null; current = this.superclassOf(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (this.annotation(field, KEY) != null && !field.getModifiers().contains(Modifier.STATIC)) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        String name = element.getQualifiedName().toString();
+        if (name.startsWith("java.") || name.startsWith("com.google.")) {
+            return null;
+        }
+        return element;
+    }
+
+    private boolean isSubtype(TypeElement type, String superName) {
+        TypeElement superType = this.processingEnv.getElementUtils().getTypeElement(superName);
+        return superType != null && this.processingEnv.getTypeUtils().isSubtype(
+                this.processingEnv.getTypeUtils().erasure(type.asType()),
+                this.processingEnv.getTypeUtils().erasure(superType.asType()));
+    }
+
+    /**
+     * Check a type and the types enclosing it can be used from generated code in a package.
+     */
+    private boolean isAccessible(TypeElement type, PackageElement from) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !this.packageOf(current).equals(from)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PackageElement packageOf(Element element) {
+        return this.processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    /**
+     * @return The simple names of a type and those enclosing it joined by underscores,
+     * eg. <code>AccountingListResponse_AccountingListResult</code>
+     */
+    private String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element current = type.getEnclosingElement(); current instanceof TypeElement;
+             current = current.getEnclosingElement()) {
+            name.insert(0, current.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+
+    private String codecName(TypeElement type) {
+        return this.flatName(type) + "_JsonCodec";
+    }
+
+    private String qualifiedCodecName(TypeElement type) {
+        String packageName = this.packageOf(type).getQualifiedName().toString();
+        return packageName.isEmpty() ? this.codecName(type) : packageName + "." + this.codecName(type);
+    }
+
+    private String lazyName(TypeElement type) {
+        return this.flatName(type) + "_Lazy";
+    }
+
+    private String qualifiedLazyName(TypeElement type) {
+        String packageName = this.packageOf(type).getQualifiedName().toString();
+        return packageName.isEmpty() ? this.lazyName(type) : packageName + "." + this.lazyName(type);
+    }
+
+    private AnnotationMirror annotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The <code>value</code> of an annotation, or null if it is not set
+     */
+    private String annotationValue(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The elements of an annotation's array <code>value</code>
+     */
+    private List<String> annotationValues(AnnotationMirror mirror) {
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof List<?>) {
+                    for (Object element : (List<?>) value) {
+                        values.add(String.valueOf(((AnnotationValue) element).getValue()));
+                    }
+                } else {
+                    values.add(String.valueOf(value));
+                }
+            }
+        }
+        return values;
+    }
+
+    private String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void writeSource(String name, CharSequence source, Element... originatingElements) throws IOException {
+        JavaFileObject file = this.processingEnv.getFiler().createSourceFile(name, originatingElements);
+        try (Writer writer = file.openWriter()) {
+            writer.append(source);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package net.amcintosh.freshbooks.codegen;
+
+/**
+ * How a generated codec reads and writes one kind of field value.
+ */
+abstract class ValueType {
+
+    static final String CODECS = "net.amcintosh.freshbooks.json.JsonCodecs";
+
+    /**
+     * @return An expression reading the value at the parser's current token, with the <code>lazy</code>
+     * flag of the read in scope
+     */
+    abstract String read();
+
+    /**
+     * @return A <code>JsonCodecs.ValueReader</code> expression for reading list elements
+     */
+    abstract String reader();
+
+    /**
+     * @param value Expression of a non-null value
+     * @return A statement writing the value
+     */
+    abstract String write(String value);
+
+    /**
+     * @return A <code>JsonCodecs.ValueWriter</code> expression for writing list elements
+     */
+    abstract String writer();
+
+    boolean isPrimitive() {
+        return false;
+    }
+
+    /**
+     * A type with <code>read</code> and <code>write</code> helpers in <code>JsonCodecs</code>,
+     * eg. <code>String</code> or <code>Long</code>.
+     */
+    static class Helper extends ValueType {
+        private final String name;
+
+        Helper(String name) {
+            this.name = name;
+        }
+
+        @Override
+        String read() {
+            return CODECS + ".read" + this.name + "(parser)";
+        }
+
+        @Override
+        String reader() {
+            return CODECS + "::read" + this.name;
+        }
+
+        @Override
+        String write(String value) {
+            return CODECS + ".write" + this.name + "(generator, " + value + ");";
+        }
+
+        @Override
+        String writer() {
+            return CODECS + "::write" + this.name;
+        }
+    }
+
+    /**
+     * A primitive <code>long</code>, <code>int</code>, or <code>boolean</code>.
+     */
+    static class Primitive extends ValueType {
+        private final String readHelper;
+        private final String writeMethod;
+
+        Primitive(String readHelper, String writeMethod) {
+            this.readHelper = readHelper;
+            this.writeMethod = writeMethod;
+        }
+
+        @Override
+        String read() {
+            return CODECS + ".read" + this.readHelper + "(parser)";
+        }
+
+        @Override
+        String reader() {
+            throw new UnsupportedOperationException("Primitives are not list elements");
+        }
+
+        @Override
+        String write(String value) {
+            return "generator." + this.writeMethod + "(" + value + ");";
+        }
+
+        @Override
+        String writer() {
+            throw new UnsupportedOperationException("Primitives are not list elements");
+        }
+
+        @Override
+        boolean isPrimitive() {
+            return true;
+        }
+    }
+
+    /**
+     * Any other primitive, read and written through google-http-client.
+     */
+    static class OtherPrimitive extends Primitive {
+        private final String primitive;
+        private final String boxed;
+
+        OtherPrimitive(String primitive, String boxed) {
+            super(null, null);
+            this.primitive = primitive;
+            this.boxed = boxed;
+        }
+
+        @Override
+        String read() {
+            return "(" + this.boxed + ") parser.parse(" + this.primitive + ".class, false)";
+        }
+
+        @Override
+        String write(String value) {
+            return CODECS + ".writeValue(generator, " + value + ");";
+        }
+    }
+
+    /**
+     * A model with a generated codec.
+     */
+    static class Model extends ValueType {
+        private final String typeName;
+        private final String codecName;
+
+        Model(String typeName, String codecName) {
+            this.typeName = typeName;
+            this.codecName = codecName;
+        }
+
+        @Override
+        String read() {
+            return CODECS + ".readObject(parser, " + this.codecName + ".INSTANCE, " + this.typeName
+                    + ".class, lazy)";
+        }
+
+        @Override
+        String reader() {
+            return "element -> " + CODECS + ".readObject(element, " + this.codecName + ".INSTANCE, "
+                    + this.typeName + ".class, lazy)";
+        }
+
+        @Override
+        String write(String value) {
+            return CODECS + ".writeObject(generator, " + this.codecName + ".INSTANCE, " + value + ");";
+        }
+
+        @Override
+        String writer() {
+            return "(elementGenerator, element) -> " + CODECS + ".writeObject(elementGenerator, "
+                    + this.codecName + ".INSTANCE, element)";
+        }
+    }
+
+    /**
+     * An enum, read and written with the <code>@Value</code> names of its constants by methods
+     * generated in the codec.
+     */
+    static class Enum extends ValueType {
+        private final String codecName;
+        private final String methodName;
+
+        Enum(String codecName, String methodName) {
+            this.codecName = codecName;
+            this.methodName = methodName;
+        }
+
+        @Override
+        String read() {
+            return "read" + this.methodName + "(parser)";
+        }
+
+        @Override
+        String reader() {
+            return this.codecName + "::read" + this.methodName;
+        }
+
+        @Override
+        String write(String value) {
+            return "write" + this.methodName + "(generator, " + value + ");";
+        }
+
+        @Override
+        String writer() {
+            return this.codecName + "::write" + this.methodName;
+        }
+    }
+
+    /**
+     * A class without a codec, read and written through google-http-client.
+     */
+    static class Other extends ValueType {
+        private final String typeName;
+
+        Other(String typeName) {
+            this.typeName = typeName;
+        }
+
+        @Override
+        String read() {
+            return "parser.parse(" + this.typeName + ".class)";
+        }
+
+        @Override
+        String reader() {
+            return "element -> element.parse(" + this.typeName + ".class)";
+        }
+
+        @Override
+        String write(String value) {
+            return CODECS + ".writeValue(generator, " + value + ");";
+        }
+
+        @Override
+        String writer() {
+            return CODECS + "::writeValue";
+        }
+    }
+
+    /**
+     * A <code>List</code>, <code>ArrayList</code>, or <code>Collection</code> of any other supported type.
+     */
+    static class ListOf extends ValueType {
+        private final ValueType element;
+
+        ListOf(ValueType element) {
+            this.element = element;
+        }
+
+        @Override
+        String read() {
+            return CODECS + ".readList(parser, " + this.element.reader() + ")";
+        }
+
+        @Override
+        String reader() {
+            throw new UnsupportedOperationException("Lists are not list elements");
+        }
+
+        @Override
+        String write(String value) {
+            return CODECS + ".writeList(generator, " + value + ", " + this.element.writer() + ");";
+        }
+
+        @Override
+        String writer() {
+            throw new UnsupportedOperationException("Lists are not list elements");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.api.AccountingListResponse;
+import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ProjectListResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares google-http-client's reflective binding with the generated codecs, reading and writing
+ * sample responses. Run with <code>./gradlew jmh</code>, adding <code>-prof gc</code> to the JMH
+ * arguments to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    @Param({"get_invoice_response", "list_invoices_response", "list_projects_response"})
+    public String fixture;
+
+    private Class<?> responseClass;
+    private byte[] body;
+    private Object model;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (this.fixture.startsWith("get_")) {
+            this.responseClass = AccountingResponse.class;
+        } else if (this.fixture.contains("projects")) {
+            this.responseClass = ProjectListResponse.class;
+        } else {
+            this.responseClass = AccountingListResponse.class;
+        }
+        String json = TestUtil.loadTestJson("fixtures/" + this.fixture + ".json");
+        this.body = json.getBytes(StandardCharsets.UTF_8);
+        this.model = JSON_FACTORY.fromString(json, this.responseClass);
+    }
+
+    private JsonParser parser() throws IOException {
+        return JSON_FACTORY.createJsonParser(new ByteArrayInputStream(this.body), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readReflection() throws IOException {
+        return this.parser().parseAndClose(this.responseClass);
+    }
+
+    @Benchmark
+    public Object readCodec() throws IOException {
+        return JsonCodecs.parseAndClose(this.parser(), this.responseClass);
+    }
+
+    @Benchmark
+    public byte[] writeReflection() throws IOException {
+        return JSON_FACTORY.toByteArray(this.model);
+    }
+
+    @Benchmark
+    public byte[] writeCodec() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = JSON_FACTORY.createJsonGenerator(out, StandardCharsets.UTF_8);
+        JsonCodecs.serialize(generator, this.model);
+        generator.flush();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,112 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.api.AccountingListResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a page of invoices, each with its lines, eagerly and lazily. The <code>index</code>
+ * benchmarks only read the fields <code>Invoice</code> decodes up front, as when filtering a page by due
+ * date or outstanding amount, while the <code>all</code> benchmarks read a field of every invoice so each
+ * is fully decoded. Run with <code>./gradlew jmh</code>, adding <code>-prof gc</code> to the JMH arguments
+ * to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyDecodingBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    @Param({"100"})
+    public int perPage;
+
+    private String body;
+
+    @Setup
+    public void setUp() throws IOException {
+        GenericJson json = JSON_FACTORY.fromString(
+                TestUtil.loadTestJson("fixtures/list_invoices_response.json"), GenericJson.class);
+        GenericJson invoiceResponse = JSON_FACTORY.fromString(
+                TestUtil.loadTestJson("fixtures/get_invoice_response.json"), GenericJson.class);
+        Map<String, Object> result = child(child(json, "response"), "result");
+        Object invoice = child(child(child(invoiceResponse, "response"), "result"), "invoice");
+        List<Object> invoices = new ArrayList<>();
+        for (int i = 0; i < this.perPage; i++) {
+            invoices.add(invoice);
+        }
+        result.put("invoices", invoices);
+        result.put("per_page", this.perPage);
+        result.put("total", this.perPage);
+        this.body = JSON_FACTORY.toString(json);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> map, String key) {
+        return (Map<String, Object>) map.get(key);
+    }
+
+    private List<Invoice> read(boolean lazy) throws IOException {
+        return JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(this.body), AccountingListResponse.class, lazy)
+                .response.result.invoices;
+    }
+
+    private static void readIndex(List<Invoice> invoices, Blackhole blackhole) {
+        for (Invoice invoice : invoices) {
+            blackhole.consume(invoice.getId());
+            blackhole.consume(invoice.getOutstanding());
+            blackhole.consume(invoice.getDueDate());
+            blackhole.consume(invoice.getVisState());
+        }
+    }
+
+    private static void readAll(List<Invoice> invoices, Blackhole blackhole) {
+        for (Invoice invoice : invoices) {
+            blackhole.consume(invoice.getLines());
+        }
+    }
+
+    @Benchmark
+    public void eagerIndex(Blackhole blackhole) throws IOException {
+        readIndex(this.read(false), blackhole);
+    }
+
+    @Benchmark
+    public void lazyIndex(Blackhole blackhole) throws IOException {
+        readIndex(this.read(true), blackhole);
+    }
+
+    @Benchmark
+    public void eagerAll(Blackhole blackhole) throws IOException {
+        readAll(this.read(false), blackhole);
+    }
+
+    @Benchmark
+    public void lazyAll(Blackhole blackhole) throws IOException {
+        readAll(this.read(true), blackhole);
+    }
+}
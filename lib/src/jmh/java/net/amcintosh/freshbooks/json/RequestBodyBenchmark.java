@@ -0,0 +1,78 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.LineItem;
+import net.amcintosh.freshbooks.models.Money;
+import net.amcintosh.freshbooks.models.api.ContentMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the request body of an invoice <code>create</code> from its <code>getContent()</code>
+ * Map with writing it straight from the model through a <code>ContentMap</code>. Run with
+ * <code>./gradlew jmh</code>, adding <code>-prof gc</code> to the JMH arguments to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    @Param({"10", "500"})
+    public int lines;
+
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        List<LineItem> lineItems = new ArrayList<>();
+        for (int i = 0; i < this.lines; i++) {
+            LineItem line = new LineItem();
+            line.setName("Line " + i);
+            line.setDescription("Description of line " + i);
+            line.setUnitCost(new Money(new BigDecimal("20.00"), "CAD"));
+            line.setQuantity(new BigDecimal(i + 1));
+            lineItems.add(line);
+        }
+        this.invoice = new Invoice();
+        this.invoice.setCustomerId(12345);
+        this.invoice.setCurrencyCode("CAD");
+        this.invoice.setNotes("Bulk invoice");
+        this.invoice.setLines(lineItems);
+    }
+
+    @Benchmark
+    public void contentMap() throws IOException {
+        new JsonCodecContent(JSON_FACTORY, ImmutableMap.of("invoice", this.invoice.getContent()))
+                .writeTo(ByteStreams.nullOutputStream());
+    }
+
+    @Benchmark
+    public void streamed() throws IOException {
+        new JsonCodecContent(JSON_FACTORY, ImmutableMap.of("invoice", new ContentMap(this.invoice)))
+                .writeTo(ByteStreams.nullOutputStream());
+    }
+}
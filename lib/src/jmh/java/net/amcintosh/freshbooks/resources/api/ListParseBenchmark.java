@@ -0,0 +1,121 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.Pages;
+import net.amcintosh.freshbooks.models.api.AccountingListResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a page of invoices into an <code>AccountingListResponse</code> with streaming it
+ * through <code>ListStreamParser</code>, both for the whole page and for the time until the first
+ * invoice is available. Run with <code>./gradlew jmh</code>, adding <code>-prof gc</code> to the
+ * JMH arguments to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListParseBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    /**
+     * Stops a streamed parse once the first item has been read. Preallocated without a stack trace
+     * so throwing it costs about as much as a return.
+     */
+    private static final RuntimeException FIRST_ITEM = new RuntimeException("First item", null, false, false) {
+    };
+
+    @Param({"15", "100"})
+    public int perPage;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        GenericJson json = JSON_FACTORY.fromString(
+                TestUtil.loadTestJson("fixtures/list_invoices_response.json"), GenericJson.class);
+        Map<String, Object> result = child(child(json, "response"), "result");
+        Object invoice = ((List<?>) result.get("invoices")).get(0);
+        List<Object> invoices = new ArrayList<>();
+        for (int i = 0; i < this.perPage; i++) {
+            invoices.add(invoice);
+        }
+        result.put("invoices", invoices);
+        result.put("per_page", this.perPage);
+        result.put("total", this.perPage);
+        this.body = JSON_FACTORY.toByteArray(json);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> map, String key) {
+        return (Map<String, Object>) map.get(key);
+    }
+
+    private JsonParser parser() throws IOException {
+        return JSON_FACTORY.createJsonParser(new ByteArrayInputStream(this.body), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void parseAs(Blackhole blackhole) throws IOException {
+        AccountingListResponse response = this.parser().parseAndClose(AccountingListResponse.class);
+        for (Invoice invoice : response.response.result.invoices) {
+            blackhole.consume(invoice);
+        }
+    }
+
+    @Benchmark
+    public Pages streamed(Blackhole blackhole) throws IOException {
+        try (JsonParser parser = this.parser()) {
+            return ListStreamParser.accounting("invoices", Invoice.class, false).parse(parser, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public Invoice parseAsFirstItem() throws IOException {
+        AccountingListResponse response = this.parser().parseAndClose(AccountingListResponse.class);
+        return response.response.result.invoices.get(0);
+    }
+
+    @Benchmark
+    public Invoice streamedFirstItem() throws IOException {
+        Invoice[] first = new Invoice[1];
+        try (JsonParser parser = this.parser()) {
+            ListStreamParser.accounting("invoices", Invoice.class, false).parse(parser, invoice -> {
+                first[0] = invoice;
+                throw FIRST_ITEM;
+            });
+        } catch (RuntimeException e) {
+            if (e != FIRST_ITEM) {
+                throw e;
+            }
+        }
+        return first[0];
+    }
+}
@@ -0,0 +1,169 @@
+package net.amcintosh.freshbooks;
+
+import net.amcintosh.freshbooks.models.Identity;
+import net.amcintosh.freshbooks.resources.*;
+import net.amcintosh.freshbooks.resources.async.AsyncResource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Asynchronous view of a FreshBooks API client.
+ * <br><br>
+ * Obtained from {@link FreshBooksClient#async()}. Each resource returned here wraps the matching resource
+ * on <code>FreshBooksClient</code> in an {@link AsyncResource}, which makes any of its calls on the executor
+ * configured with {@link FreshBooksClient.FreshBooksClientBuilder#withExecutor(Executor)} and returns a
+ * <code>CompletableFuture</code> of the result. Cancelling the future cancels the call.
+ *
+ * <pre>{@code
+ * CompletableFuture<InvoiceList> invoices = freshBooksClient.async().invoices()
+ *     .call(resource -> resource.list(accountId));
+ * }</pre>
+ */
+public class AsyncFreshBooksClient {
+    private final FreshBooksClient freshBooksClient;
+    private final Executor executor;
+
+    /**
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param executor Executor to run calls on
+     */
+    public AsyncFreshBooksClient(FreshBooksClient freshBooksClient, Executor executor) {
+        this.freshBooksClient = freshBooksClient;
+        this.executor = executor;
+    }
+
+    /**
+     * The identity details of the currently authenticated user. The call does not take request options, so
+     * cancelling the future does not stop it.
+     *
+     * @see FreshBooksClient#currentUser()
+     *
+     * @return Future of the Identity of the authorized user
+     */
+    public CompletableFuture<Identity> currentUser() {
+        return this.resource(options -> new CurrentUser(this.freshBooksClient)).call(CurrentUser::get);
+    }
+
+    /**
+     * FreshBooks clients resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Clients resource
+     */
+    public AsyncResource<Clients> clients() {
+        return this.resource(this.freshBooksClient::clients);
+    }
+
+    /**
+     * FreshBooks expenses resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Expenses resource
+     */
+    public AsyncResource<Expenses> expenses() {
+        return this.resource(this.freshBooksClient::expenses);
+    }
+
+    /**
+     * FreshBooks invoices resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Invoices resource
+     */
+    public AsyncResource<Invoices> invoices() {
+        return this.resource(this.freshBooksClient::invoices);
+    }
+
+    /**
+     * FreshBooks items resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Items resource
+     */
+    public AsyncResource<Items> items() {
+        return this.resource(this.freshBooksClient::items);
+    }
+
+    /**
+     * FreshBooks other income resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the OtherIncomes resource
+     */
+    public AsyncResource<OtherIncomes> otherIncomes() {
+        return this.resource(this.freshBooksClient::otherIncomes);
+    }
+
+    /**
+     * FreshBooks payments resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Payments resource
+     */
+    public AsyncResource<Payments> payments() {
+        return this.resource(this.freshBooksClient::payments);
+    }
+
+    /**
+     * FreshBooks projects resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Projects resource
+     */
+    public AsyncResource<Projects> projects() {
+        return this.resource(this.freshBooksClient::projects);
+    }
+
+    /**
+     * FreshBooks reports resource with calls the various reports available.
+     *
+     * @return AsyncResource making calls on the AccountingReports resource
+     */
+    public AsyncResource<AccountingReports> reports() {
+        return this.resource(this.freshBooksClient::reports);
+    }
+
+    /**
+     * FreshBooks services resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Services resource
+     */
+    public AsyncResource<Services> services() {
+        return this.resource(this.freshBooksClient::services);
+    }
+
+    /**
+     * FreshBooks service rates resource with calls to get, list, create, update.
+     *
+     * @return AsyncResource making calls on the ServiceRates resource
+     */
+    public AsyncResource<ServiceRates> serviceRates() {
+        return this.resource(this.freshBooksClient::serviceRates);
+    }
+
+    /**
+     * FreshBooks tasks resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Tasks resource
+     */
+    public AsyncResource<Tasks> tasks() {
+        return this.resource(this.freshBooksClient::tasks);
+    }
+
+    /**
+     * FreshBooks taxes resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the Taxes resource
+     */
+    public AsyncResource<Taxes> taxes() {
+        return this.resource(this.freshBooksClient::taxes);
+    }
+
+    /**
+     * FreshBooks time entries resource with calls to get, list, create, update, delete.
+     *
+     * @return AsyncResource making calls on the TimeEntries resource
+     */
+    public AsyncResource<TimeEntries> timeEntries() {
+        return this.resource(this.freshBooksClient::timeEntries);
+    }
+
+    private <R> AsyncResource<R> resource(Function<RequestOptions, R> resources) {
+        return new AsyncResource<>(resources, this.executor);
+    }
+}
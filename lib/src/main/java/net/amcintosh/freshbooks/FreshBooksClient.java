@@ -1,26 +1,61 @@
 package net.amcintosh.freshbooks;
 
 import com.google.api.client.http.*;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
 import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.http.json.JsonHttpContent;
 import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.JsonObjectParser;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.client.util.Sleeper;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.amcintosh.freshbooks.cache.InMemoryResponseCache;
+import net.amcintosh.freshbooks.auth.FileRefreshLock;
+import net.amcintosh.freshbooks.auth.FileTokenStore;
+import net.amcintosh.freshbooks.auth.RefreshLock;
+import net.amcintosh.freshbooks.auth.TenantTokens;
+import net.amcintosh.freshbooks.auth.TokenManager;
+import net.amcintosh.freshbooks.auth.TokenStore;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreaker;
+import net.amcintosh.freshbooks.concurrency.Bulkhead;
+import net.amcintosh.freshbooks.concurrency.ConcurrencyLimiter;
+import net.amcintosh.freshbooks.cache.ResponseCache;
+import net.amcintosh.freshbooks.json.JsonCodecContent;
+import net.amcintosh.freshbooks.json.JsonCodecParser;
 import net.amcintosh.freshbooks.models.AuthorizationToken;
 import net.amcintosh.freshbooks.models.Identity;
+import net.amcintosh.freshbooks.ratelimit.RateLimiter;
+import net.amcintosh.freshbooks.retry.RetryPolicy;
 import net.amcintosh.freshbooks.resources.*;
+import net.amcintosh.freshbooks.resources.api.RequestCoalescer;
+import net.amcintosh.freshbooks.resources.api.RequestHedger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.http.impl.client.HttpClientBuilder;
+
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -31,8 +66,11 @@ import java.util.Properties;
  *     .withToken("a valid token")
  *     .build();
  * }</pre>
+ *
+ * The client holds a single HTTP transport and connection pool for its lifetime and is safe to share
+ * between threads. Call {@link #close()} when finished with it to release pooled connections.
  */
-public class FreshBooksClient {
+public class FreshBooksClient implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(FreshBooksClient.class);
     private static final JsonFactory JSON_FACTORY = new GsonFactory();
 
@@ -46,7 +84,12 @@ public class FreshBooksClient {
     private final String authorizationUrl;
     private final String tokenUrl;
 
-    private AuthorizationToken authorizationToken;
+    private final TokenManager tokenManager;
+    private final TenantTokens tenantTokens;
+    private final String tenantId;
+    private final long businessesTtlMillis;
+    private final Businesses businesses;
+    private final ConcurrentMap<String, Businesses> tenantBusinesses;
 
     private final String userAgent;
     private static Optional<String> version = Optional.empty();
@@ -55,6 +98,24 @@ public class FreshBooksClient {
     private final int readTimeout;
     private final int writeTimeout;
     private final boolean shouldRetry;
+    private final boolean refreshOnUnauthorized;
+    private final boolean compressRequests;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final boolean lazyDecoding;
+    private final RequestHedger requestHedger;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Bulkhead bulkhead;
+
+    private final HttpTransport httpTransport;
+    private final boolean ownsHttpTransport;
+    private final HttpRequestFactory requestFactory;
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
 
     /**
      * Create a new API client instance from the FreshBooks client builder.
@@ -78,13 +139,139 @@ public class FreshBooksClient {
         this.clientId = builder.clientId;
         this.clientSecret = builder.clientSecret;
         this.redirectUri = builder.redirectUri;
-        this.authorizationToken = builder.authorizationToken;
+        this.tokenManager = new TokenManager(builder.authorizationToken, this::requestTokenRefresh);
+        if (builder.tokenRefreshMarginMillis >= 0) {
+            this.tokenManager.withRefreshMargin(builder.tokenRefreshMarginMillis, TimeUnit.MILLISECONDS);
+        }
+        this.tenantTokens = builder.tokenStore == null ? null : new TenantTokens(builder.tokenStore,
+                tenant -> token -> this.forTenant(tenant).requestTokenRefresh(token),
+                builder.maximumTenants, builder.tokenRefreshMarginMillis);
+        if (this.tenantTokens != null && builder.refreshLock != null) {
+            this.tenantTokens.withRefreshLock(builder.refreshLock, builder.refreshLockTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        this.tenantId = null;
+        this.businessesTtlMillis = builder.businessesTtlMillis;
+        this.businesses = new Businesses(this, this.businessesTtlMillis, TimeUnit.MILLISECONDS);
+        this.tenantBusinesses = this.tenantTokens == null ? null : CacheBuilder.newBuilder()
+                .maximumSize(builder.maximumTenants)
+                .<String, Businesses>build()
+                .asMap();
 
         this.userAgent = Optional.ofNullable(builder.userAgent).orElseGet(this::defaultUserAgent);
         this.connectTimeout = builder.connectTimeout;
         this.readTimeout = builder.readTimeout;
         this.writeTimeout = builder.writeTimeout;
         this.shouldRetry = builder.shouldRetry;
+        this.refreshOnUnauthorized = builder.refreshOnUnauthorized;
+        this.compressRequests = builder.compressRequests;
+        this.responseCache = builder.responseCache;
+        this.requestCoalescer = builder.coalesceRequests ? new RequestCoalescer() : null;
+        this.lazyDecoding = builder.lazyDecoding;
+        this.requestHedger = builder.requestHedger;
+        this.rateLimiter = builder.rateLimiter;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.bulkhead = builder.bulkhead;
+
+        this.httpTransport = builder.httpTransport;
+        this.ownsHttpTransport = builder.customHttpTransport == null;
+        JsonCodecParser jsonParser = new JsonCodecParser(JSON_FACTORY, this.lazyDecoding);
+        this.requestFactory = this.httpTransport.createRequestFactory(
+                new HttpRequestInitializer() {
+                    @Override
+                    public void initialize(HttpRequest request) {
+                        request.setParser(jsonParser);
+                    }
+                });
+
+        this.ownsExecutor = builder.executor == null;
+        if (!this.ownsExecutor) {
+            this.executor = builder.executor;
+        } else if (builder.useVirtualThreads) {
+            this.executor = virtualThreadExecutor();
+        } else {
+            this.executor = this.defaultExecutor();
+        }
+    }
+
+    /**
+     * Create a client for one tenant that shares everything with the provided client except its token.
+     */
+    private FreshBooksClient(FreshBooksClient client, String tenantId) {
+        this.baseUrl = client.baseUrl;
+        this.authorizationUrl = client.authorizationUrl;
+        this.tokenUrl = client.tokenUrl;
+
+        this.clientId = client.clientId;
+        this.clientSecret = client.clientSecret;
+        this.redirectUri = client.redirectUri;
+        this.tokenManager = null;
+        this.tenantTokens = client.tenantTokens;
+        this.tenantId = tenantId;
+        this.businessesTtlMillis = client.businessesTtlMillis;
+        this.businesses = null;
+        this.tenantBusinesses = client.tenantBusinesses;
+
+        this.userAgent = client.userAgent;
+        this.connectTimeout = client.connectTimeout;
+        this.readTimeout = client.readTimeout;
+        this.writeTimeout = client.writeTimeout;
+        this.shouldRetry = client.shouldRetry;
+        this.refreshOnUnauthorized = client.refreshOnUnauthorized;
+        this.compressRequests = client.compressRequests;
+        this.responseCache = client.responseCache;
+        this.requestCoalescer = client.requestCoalescer;
+        this.lazyDecoding = client.lazyDecoding;
+        this.requestHedger = client.requestHedger;
+        this.rateLimiter = client.rateLimiter;
+        this.retryPolicy = client.retryPolicy;
+        this.circuitBreaker = client.circuitBreaker;
+        this.concurrencyLimiter = client.concurrencyLimiter;
+        this.bulkhead = client.bulkhead;
+
+        // The transport and executor belong to the original client, so are not closed with this one
+        this.httpTransport = client.httpTransport;
+        this.ownsHttpTransport = false;
+        this.requestFactory = client.requestFactory;
+        this.executor = client.executor;
+        this.ownsExecutor = false;
+    }
+
+    /**
+     * Look up <code>Executors.newVirtualThreadPerTaskExecutor()</code>, which only exists on Java 21+.
+     * The SDK is built for Java 8, so it cannot be referenced directly.
+     */
+    private static Method virtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) virtualThreadExecutorFactory().invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * A pool of at most {@value FreshBooksClientBuilder#DEFAULT_ASYNC_THREADS} daemon threads. Calls beyond that
+     * queue until a thread is free, and idle threads exit after a minute.
+     */
+    private ExecutorService defaultExecutor() {
+        int threads = FreshBooksClientBuilder.DEFAULT_ASYNC_THREADS;
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("freshbooks-async-%d")
+                .setDaemon(true)
+                .build();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     private String defaultUserAgent() {
@@ -120,6 +307,76 @@ public class FreshBooksClient {
         return version.get();
     }
 
+    /**
+     * Get the tenant of a client made with {@link #forTenant(String)}.
+     *
+     * @return The tenant id, or <code>null</code> if the client uses its own token
+     */
+    @Nullable
+    public String getTenant() {
+        return this.tenantId;
+    }
+
+    /**
+     * Get the cache of <code>get</code> and <code>list</code> responses set on the builder.
+     *
+     * @return The response cache, or <code>null</code> if responses are not cached
+     */
+    @Nullable
+    public ResponseCache getResponseCache() {
+        return this.responseCache;
+    }
+
+    /**
+     * Get the coalescer that shares responses between identical concurrent <code>get</code> and
+     * <code>list</code> calls.
+     *
+     * @return The request coalescer, or <code>null</code> if requests are not coalesced
+     */
+    @Nullable
+    public RequestCoalescer getRequestCoalescer() {
+        return this.requestCoalescer;
+    }
+
+    /**
+     * Check if models annotated with <code>@LazyDecoding</code> are read lazily, as set on the builder.
+     *
+     * @return If responses are decoded lazily
+     */
+    public boolean isLazyDecoding() {
+        return this.lazyDecoding;
+    }
+
+    /**
+     * Get the hedger that sends a second request for slow <code>get</code> and <code>list</code> calls.
+     *
+     * @return The request hedger, or <code>null</code> if requests are not hedged
+     */
+    @Nullable
+    public RequestHedger getRequestHedger() {
+        return this.requestHedger;
+    }
+
+    /**
+     * Get the circuit breaker set on the builder.
+     *
+     * @return The circuit breaker, or <code>null</code> if calls are not guarded by one
+     */
+    @Nullable
+    public CircuitBreaker getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    /**
+     * Get the bulkhead set on the builder.
+     *
+     * @return The bulkhead, or <code>null</code> if calls are not limited per account, business, or resource
+     */
+    @Nullable
+    public Bulkhead getBulkhead() {
+        return this.bulkhead;
+    }
+
     @Override
     public String toString() {
         return "Client{"
@@ -192,7 +449,16 @@ public class FreshBooksClient {
                 "redirect_uri", this.redirectUri,
                 "code", code
         );
-        authorizationToken = new Authorization(this).getToken(payload);
+        AuthorizationToken authorizationToken = new Authorization(this).getToken(payload);
+        if (this.tenantId == null) {
+            this.tokenManager.setToken(authorizationToken);
+            return authorizationToken;
+        }
+        try {
+            this.tenantTokens.put(this.tenantId, authorizationToken);
+        } catch (IOException e) {
+            throw new FreshBooksException("Unable to save authorization token", null, 0, e);
+        }
         return authorizationToken;
     }
 
@@ -202,20 +468,80 @@ public class FreshBooksClient {
      * This requires the AuthorizationToken on the client to have a valid refreshToken
      * <br><br>
      * This call sets the authorization token details on the FreshBooksClient instance and then returns
-     * those values in an {@link AuthorizationToken AuthorizationToken}.
+     * those values in an {@link AuthorizationToken AuthorizationToken}. If another thread is already
+     * refreshing the token, this waits for and returns the result of that refresh instead.
      *
      * @return
      */
     public AuthorizationToken refreshAccessToken() throws FreshBooksException {
+        try {
+            return this.resolveTokenManager().refresh();
+        } catch (IOException e) {
+            throw new FreshBooksException("Unable to load authorization token", null, 0, e);
+        }
+    }
+
+    private AuthorizationToken requestTokenRefresh(AuthorizationToken token) throws FreshBooksException {
         ImmutableMap<String, Object> payload = ImmutableMap.of(
                 "client_id", this.clientId,
                 "client_secret", this.clientSecret,
                 "grant_type", "refresh_token",
                 "redirect_uri", this.redirectUri,
-                "refresh_token", this.authorizationToken.getRefreshToken()
+                "refresh_token", token.getRefreshToken()
         );
-        authorizationToken = new Authorization(this).getToken(payload);
-        return authorizationToken;
+        return new Authorization(this).getToken(payload);
+    }
+
+    /**
+     * Get the manager holding the client's authorization token.
+     *
+     * @return The token manager
+     * @throws UncheckedIOException If this is a tenant's client and its token cannot be loaded
+     */
+    public TokenManager getTokenManager() {
+        try {
+            return this.resolveTokenManager();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TokenManager resolveTokenManager() throws IOException {
+        if (this.tenantId == null) {
+            return this.tokenManager;
+        }
+        return this.tenantTokens.get(this.tenantId);
+    }
+
+    /**
+     * Get a client that makes calls with a tenant's token from the {@link TokenStore} set with
+     * {@link FreshBooksClientBuilder#withTokenStore(TokenStore)}.
+     * <br><br>
+     * Tenant clients are cheap to create: they share this client's connections, executor, and configuration
+     * such as retries and limiters, so one can be made for each call. The tenant's token is looked up for each
+     * request, cached in memory, and saved back to the store when refreshed. Closing a tenant client does not
+     * close this client.
+     * <br><br>
+     * Eg. <code>freshBooksClient.forTenant(tenantId).invoices().list(accountId)</code>
+     *
+     * @param tenantId The id the tenant's token is stored under
+     * @return A FreshBooksClient for the tenant
+     * @throws IllegalStateException If the client was built without a token store
+     */
+    public FreshBooksClient forTenant(String tenantId) {
+        if (this.tenantTokens == null) {
+            throw new IllegalStateException("Client was built without a token store");
+        }
+        return new FreshBooksClient(this, tenantId);
+    }
+
+    /**
+     * Get the cache of tenant tokens loaded from the token store.
+     *
+     * @return The tenant tokens, or null if the client was built without a token store
+     */
+    public TenantTokens getTenantTokens() {
+        return this.tenantTokens;
     }
 
     /**
@@ -240,37 +566,269 @@ public class FreshBooksClient {
      */
     public HttpRequest request(String requestMethod, String resourceUrl, @Nullable Map<String, Object> data)
             throws IOException {
+        return this.request(requestMethod, resourceUrl, data, null);
+    }
+
+    /**
+     * Make a request to FreshBooks with a data payload and per-call options.
+     *
+     * @param requestMethod GET, POST, PUT, DELETE
+     * @param resourceUrl Relative URL (eg. <code>/accounting/account/{accountId}/users/clients</code>)
+     * @param data
+     * @param options Deadline and cancellation for the call, including its retries
+     * @return HttpRequest object
+     * @throws IOException
+     */
+    public HttpRequest request(String requestMethod, String resourceUrl, @Nullable Map<String, Object> data,
+                               @Nullable RequestOptions options) throws IOException {
         GenericUrl requestUrl = new GenericUrl(this.baseUrl + resourceUrl);
+        TokenManager tokenManager = this.resolveTokenManager();
+        String accessToken;
+        try {
+            accessToken = tokenManager.getAccessToken();
+        } catch (FreshBooksException e) {
+            throw new IOException("Unable to refresh access token", e);
+        }
         HttpHeaders requestHeaders = new HttpHeaders()
-                .setAuthorization("Bearer " + this.authorizationToken.getAccessToken())
+                .setAuthorization("Bearer " + accessToken)
                 .setUserAgent(this.userAgent);
 
-        HttpRequestFactory requestFactory = new NetHttpTransport().createRequestFactory(
-                new HttpRequestInitializer() {
-                    @Override
-                    public void initialize(HttpRequest request) {
-                        request.setParser(new JsonObjectParser(JSON_FACTORY));
-                    }
-                });
-
         HttpRequest request;
         HttpContent content = null;
         if (data != null) {
-            content = new JsonHttpContent(JSON_FACTORY, data);
+            content = new JsonCodecContent(JSON_FACTORY, data);
         }
-        request = requestFactory.buildRequest(requestMethod, requestUrl, content)
+        request = this.requestFactory.buildRequest(requestMethod, requestUrl, content)
                 .setHeaders(requestHeaders)
                 .setConnectTimeout(this.connectTimeout)
                 .setReadTimeout(this.readTimeout)
                 .setWriteTimeout(this.writeTimeout)
                 .setThrowExceptionOnExecuteError(false);
-        if (this.shouldRetry) {
-            request.setUnsuccessfulResponseHandler(this.createUnsuccessfulResponseHandler());
+        if (content != null && this.compressRequests) {
+            request.setEncoding(new GZipEncoding());
+        }
+        Sleeper sleeper = options != null ? options.getSleeper() : Sleeper.DEFAULT;
+        if (this.shouldRetry && this.retryPolicy != null) {
+            this.retryPolicy.applyTo(request, sleeper);
+        } else if (this.shouldRetry) {
+            request.setUnsuccessfulResponseHandler(this.createUnsuccessfulResponseHandler(sleeper));
+        }
+        if (this.refreshOnUnauthorized && !this.clientSecret.isEmpty() && accessToken != null
+                && !resourceUrl.equals(Authorization.API_TOKEN_PATH)) {
+            // A rejected token request is not fixed by refreshing, which is itself a token request
+            this.applyUnauthorizedRefresh(request, tokenManager, accessToken);
+        }
+        if (this.rateLimiter != null) {
+            this.applyRateLimiter(request, getTenantId(resourceUrl), options);
+        }
+        if (options != null) {
+            options.applyTo(request);
+        }
+        if (this.concurrencyLimiter != null) {
+            this.applyConcurrencyLimiter(request, options);
         }
 
         return request;
     }
 
+    /**
+     * Get the accountId or businessId a request is made to from the start of its relative URL,
+     * eg. <code>/accounting/account/{accountId}/...</code> or <code>/projects/business/{businessId}/...</code>.
+     *
+     * @param resourceUrl Relative URL of the request
+     * @return The accountId or businessId, or null if the URL does not have one
+     */
+    @Nullable
+    public static String getTenantId(String resourceUrl) {
+        String[] segments = resourceUrl.split("[/?]", 5);
+        if (segments.length >= 4 && (segments[2].equals("account") || segments[2].equals("business"))) {
+            return segments[3];
+        }
+        return null;
+    }
+
+    /**
+     * On the first 401 response to the request, refresh the access token and replay the request with the new one.
+     * Concurrent requests rejected with the same token share a single refresh. Requests whose authorization
+     * header has been replaced with other credentials are not replayed.
+     */
+    private void applyUnauthorizedRefresh(HttpRequest request, TokenManager tokenManager, String accessToken) {
+        AtomicBoolean replayed = new AtomicBoolean();
+        String authorization = "Bearer " + accessToken;
+        // The replay is an extra attempt, outside any retry limit
+        request.setNumberOfRetries(request.getNumberOfRetries() + 1);
+        HttpUnsuccessfulResponseHandler retryHandler = request.getUnsuccessfulResponseHandler();
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            if (response.getStatusCode() == 401 && supportsRetry
+                    && authorization.equals(httpRequest.getHeaders().getAuthorization())
+                    && replayed.compareAndSet(false, true)) {
+                AuthorizationToken refreshed = null;
+                try {
+                    refreshed = tokenManager.refreshRejected(accessToken);
+                } catch (FreshBooksException e) {
+                    LOGGER.warn("Unable to refresh access token after it was rejected", e);
+                }
+                if (refreshed != null) {
+                    httpRequest.getHeaders().setAuthorization("Bearer " + refreshed.getAccessToken());
+                    return true;
+                }
+            }
+            return retryHandler != null && retryHandler.handleResponse(httpRequest, response, supportsRetry);
+        });
+    }
+
+    /**
+     * Wait for the rate limiter before each attempt of the request, and adjust its rate from the responses.
+     * With request options, the wait stops at the deadline or when the call is cancelled.
+     */
+    private void applyRateLimiter(HttpRequest request, @Nullable String tenantId, @Nullable RequestOptions options) {
+        request.setInterceptor(httpRequest -> {
+            if (options != null) {
+                options.await(timeout -> this.acquireRateLimit(tenantId, timeout));
+            } else {
+                this.acquireRateLimit(tenantId, Long.MAX_VALUE);
+            }
+        });
+        HttpUnsuccessfulResponseHandler retryHandler = request.getUnsuccessfulResponseHandler();
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            if (response.getStatusCode() == 429) {
+                this.rateLimiter.onRateLimited(tenantId);
+            }
+            return retryHandler != null && retryHandler.handleResponse(httpRequest, response, supportsRetry);
+        });
+        HttpResponseInterceptor responseInterceptor = request.getResponseInterceptor();
+        request.setResponseInterceptor(response -> {
+            if (response.getStatusCode() != 429) {
+                this.rateLimiter.onSuccess(tenantId);
+            }
+            if (responseInterceptor != null) {
+                responseInterceptor.interceptResponse(response);
+            }
+        });
+    }
+
+    private void acquireRateLimit(@Nullable String tenantId, long timeoutNanos) throws IOException {
+        try {
+            if (!this.rateLimiter.acquire(tenantId, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IOException("Client rate limit exceeded");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the client rate limit");
+        }
+    }
+
+    /**
+     * Hold a concurrency limiter permit for each attempt of the request, from just before it is sent
+     * until its response is received, and report the outcome to the limiter. With request options, the
+     * wait stops at the deadline or when the call is cancelled, and the request's timeouts are shortened
+     * to the time left after it.
+     */
+    private void applyConcurrencyLimiter(HttpRequest request, @Nullable RequestOptions options) {
+        AtomicReference<ConcurrencyLimiter.Permit> permit = new AtomicReference<>();
+        HttpExecuteInterceptor interceptor = request.getInterceptor();
+        request.setInterceptor(httpRequest -> {
+            if (interceptor != null) {
+                interceptor.intercept(httpRequest);
+            }
+            if (options != null) {
+                options.await(timeout -> permit.set(this.acquireConcurrencyPermit(timeout)));
+                options.capTimeouts(httpRequest);
+            } else {
+                permit.set(this.acquireConcurrencyPermit(Long.MAX_VALUE));
+            }
+        });
+        HttpUnsuccessfulResponseHandler retryHandler = request.getUnsuccessfulResponseHandler();
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            releasePermit(permit.getAndSet(null), response.getStatusCode());
+            return retryHandler != null && retryHandler.handleResponse(httpRequest, response, supportsRetry);
+        });
+        HttpIOExceptionHandler ioExceptionHandler = request.getIOExceptionHandler();
+        request.setIOExceptionHandler((httpRequest, supportsRetry) -> {
+            ConcurrencyLimiter.Permit held = permit.getAndSet(null);
+            if (held != null) {
+                held.onDropped();
+            }
+            return ioExceptionHandler != null && ioExceptionHandler.handleIOException(httpRequest, supportsRetry);
+        });
+        HttpResponseInterceptor responseInterceptor = request.getResponseInterceptor();
+        request.setResponseInterceptor(response -> {
+            releasePermit(permit.getAndSet(null), response.getStatusCode());
+            if (responseInterceptor != null) {
+                responseInterceptor.interceptResponse(response);
+            }
+        });
+    }
+
+    private ConcurrencyLimiter.Permit acquireConcurrencyPermit(long timeoutNanos) throws IOException {
+        try {
+            ConcurrencyLimiter.Permit acquired = this.concurrencyLimiter.acquire(timeoutNanos, TimeUnit.NANOSECONDS);
+            if (acquired == null) {
+                throw new IOException("Client concurrency limit exceeded");
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the client concurrency limit");
+        }
+    }
+
+    private static void releasePermit(@Nullable ConcurrencyLimiter.Permit permit, int statusCode) {
+        if (permit == null) {
+            return;
+        }
+        if (statusCode == 429 || statusCode / 100 == 5) {
+            permit.onDropped();
+        } else {
+            permit.onSuccess();
+        }
+    }
+
+    /**
+     * Open a connection to the FreshBooks API ahead of the first call, so that it does not pay for the
+     * DNS lookup, TCP connect, and TLS handshake.
+     * <br><br>
+     * A <code>HEAD</code> request is made to the API base URL through the client's transport. Its
+     * connection is kept alive for reuse, and the TLS session is cached by the JVM so that later
+     * connections can resume it. Failures are logged and otherwise ignored.
+     */
+    public void warmUpConnections() {
+        try {
+            HttpResponse response = this.requestFactory.buildHeadRequest(new GenericUrl(this.baseUrl))
+                    .setHeaders(new HttpHeaders().setUserAgent(this.userAgent))
+                    .setConnectTimeout(this.connectTimeout)
+                    .setReadTimeout(this.readTimeout)
+                    .setThrowExceptionOnExecuteError(false)
+                    .execute();
+            response.ignore();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to warm up connection to {}", this.baseUrl, e);
+        }
+    }
+
+    /**
+     * Shut down the HTTP transport, releasing any pooled connections, and the request hedger's threads.
+     * <br><br>
+     * The client should not be used to make further requests once closed.
+     * A transport provided through {@link FreshBooksClientBuilder#withHttpTransport(HttpTransport)}
+     * or an executor provided through {@link FreshBooksClientBuilder#withExecutor(Executor)}
+     * is owned by the caller and is left open.
+     *
+     * @throws IOException If the transport fails to shut down cleanly
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.ownsExecutor) {
+            ((ExecutorService) this.executor).shutdown();
+        }
+        if (this.requestHedger != null && this.tenantId == null) {
+            this.requestHedger.shutdown();
+        }
+        if (this.ownsHttpTransport) {
+            this.httpTransport.shutdown();
+        }
+    }
+
     /**
      * Creates a UnsuccessfulResponseHandler to enable retries.
      * Handler will retry on any 5xx error or a 429 error and will use an
@@ -278,10 +836,11 @@ public class FreshBooksClient {
      *
      * @return Configured HttpUnsuccessfulResponseHandler
      */
-    private HttpUnsuccessfulResponseHandler createUnsuccessfulResponseHandler() {
+    private HttpUnsuccessfulResponseHandler createUnsuccessfulResponseHandler(Sleeper sleeper) {
         HttpBackOffUnsuccessfulResponseHandler handler = new HttpBackOffUnsuccessfulResponseHandler(
                 new ExponentialBackOff()
         );
+        handler.setSleeper(sleeper);
         HttpBackOffUnsuccessfulResponseHandler.BackOffRequired ON_SERVER_ERROR_OR_RATE_LIMIT =
                 new HttpBackOffUnsuccessfulResponseHandler.BackOffRequired() {
                     public boolean isRequired(HttpResponse response) {
@@ -293,6 +852,23 @@ public class FreshBooksClient {
         return handler;
     }
 
+    /**
+     * Cached businesses of the currently authenticated user, to map between the <code>accountId</code>
+     * of accounting resources and the <code>businessId</code> of project-like resources without calling
+     * the /me endpoint each time.
+     * <br><br>
+     * Eg. <code>freshBooksClient.businesses().getBusinessId(accountId)</code>
+     *
+     * @return Businesses shared by all calls made with this client, or with this tenant's clients
+     */
+    public Businesses businesses() {
+        if (this.tenantId == null) {
+            return this.businesses;
+        }
+        return this.tenantBusinesses.computeIfAbsent(this.tenantId,
+                tenant -> new Businesses(this, this.businessesTtlMillis, TimeUnit.MILLISECONDS));
+    }
+
     /**
      * The identity details of the currently authenticated user.
      *
@@ -304,6 +880,21 @@ public class FreshBooksClient {
         return new CurrentUser(this).get();
     }
 
+    /**
+     * Asynchronous versions of the FreshBooks resources.
+     * <br><br>
+     * Calls return a <code>CompletableFuture</code> and run on the executor set with
+     * {@link FreshBooksClientBuilder#withExecutor(Executor)}, or on a pool of at most
+     * {@value FreshBooksClientBuilder#DEFAULT_ASYNC_THREADS} daemon threads owned by this client if none was set.
+     * <br><br>
+     * Eg. <code>freshBooksClient.async().invoices().call(invoices -&gt; invoices.list(accountId))</code>
+     *
+     * @return AsyncFreshBooksClient initialized with this FreshBooksClient
+     */
+    public AsyncFreshBooksClient async() {
+        return new AsyncFreshBooksClient(this, this.executor);
+    }
+
     /**
      * FreshBooks clients resource with calls to get, list, create, update, delete.
      *
@@ -313,6 +904,16 @@ public class FreshBooksClient {
         return new Clients(this);
     }
 
+    /**
+     * Clients resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Clients resource initialized with this FreshBooksClient
+     */
+    public Clients clients(RequestOptions options) {
+        return new Clients(this, options);
+    }
+
     /**
      * FreshBooks expenses resource with calls to get, list, create, update, delete.
      *
@@ -322,6 +923,16 @@ public class FreshBooksClient {
         return new Expenses(this);
     }
 
+    /**
+     * Expenses resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Expenses resource initialized with this FreshBooksClient
+     */
+    public Expenses expenses(RequestOptions options) {
+        return new Expenses(this, options);
+    }
+
     /**
      * FreshBooks invoices resource with calls to get, list, create, update, delete.
      *
@@ -331,6 +942,16 @@ public class FreshBooksClient {
         return new Invoices(this);
     }
 
+    /**
+     * Invoices resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Invoices resource initialized with this FreshBooksClient
+     */
+    public Invoices invoices(RequestOptions options) {
+        return new Invoices(this, options);
+    }
+
     /**
      * FreshBooks items resource with calls to get, list, create, update, delete.
      *
@@ -340,6 +961,16 @@ public class FreshBooksClient {
         return new Items(this);
     }
 
+    /**
+     * Items resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Items resource initialized with this FreshBooksClient
+     */
+    public Items items(RequestOptions options) {
+        return new Items(this, options);
+    }
+
     /**
      * FreshBooks other income resource with calls to get, list, create, update, delete.
      *
@@ -349,6 +980,16 @@ public class FreshBooksClient {
         return new OtherIncomes(this);
     }
 
+    /**
+     * OtherIncomes resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return OtherIncomes resource initialized with this FreshBooksClient
+     */
+    public OtherIncomes otherIncomes(RequestOptions options) {
+        return new OtherIncomes(this, options);
+    }
+
     /**
      * FreshBooks payments resource with calls to get, list, create, update, delete.
      *
@@ -358,6 +999,16 @@ public class FreshBooksClient {
         return new Payments(this);
     }
 
+    /**
+     * Payments resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Payments resource initialized with this FreshBooksClient
+     */
+    public Payments payments(RequestOptions options) {
+        return new Payments(this, options);
+    }
+
     /**
      * FreshBooks projects resource with calls to get, list, create, update, delete.
      *
@@ -367,6 +1018,16 @@ public class FreshBooksClient {
         return new Projects(this);
     }
 
+    /**
+     * Projects resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Projects resource initialized with this FreshBooksClient
+     */
+    public Projects projects(RequestOptions options) {
+        return new Projects(this, options);
+    }
+
     /**
      * FreshBooks reports resource with calls the various reports available.
      * <br><br>
@@ -378,6 +1039,16 @@ public class FreshBooksClient {
         return new AccountingReports(this);
     }
 
+    /**
+     * AccountingReports resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return AccountingReports resource initialized with this FreshBooksClient
+     */
+    public AccountingReports reports(RequestOptions options) {
+        return new AccountingReports(this, options);
+    }
+
     /**
      * FreshBooks services resource with calls to get, list, create, update, delete.
      *
@@ -387,6 +1058,16 @@ public class FreshBooksClient {
         return new Services(this);
     }
 
+    /**
+     * Services resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Services resource initialized with this FreshBooksClient
+     */
+    public Services services(RequestOptions options) {
+        return new Services(this, options);
+    }
+
     /**
      * FreshBooks service rates resource with calls to get, list, create, update.
      *
@@ -396,6 +1077,16 @@ public class FreshBooksClient {
         return new ServiceRates(this);
     }
 
+    /**
+     * ServiceRates resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return ServiceRates resource initialized with this FreshBooksClient
+     */
+    public ServiceRates serviceRates(RequestOptions options) {
+        return new ServiceRates(this, options);
+    }
+
     /**
      * FreshBooks tasks resource with calls to get, list, create, update, delete.
      *
@@ -405,6 +1096,16 @@ public class FreshBooksClient {
         return new Tasks(this);
     }
 
+    /**
+     * Tasks resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Tasks resource initialized with this FreshBooksClient
+     */
+    public Tasks tasks(RequestOptions options) {
+        return new Tasks(this, options);
+    }
+
     /**
      * FreshBooks taxes resource with calls to get, list, create, update, delete.
      *
@@ -414,6 +1115,16 @@ public class FreshBooksClient {
         return new Taxes(this);
     }
 
+    /**
+     * Taxes resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return Taxes resource initialized with this FreshBooksClient
+     */
+    public Taxes taxes(RequestOptions options) {
+        return new Taxes(this, options);
+    }
+
     /**
      * FreshBooks time entries resource with calls to get, list, create, update, delete.
      *
@@ -423,6 +1134,16 @@ public class FreshBooksClient {
         return new TimeEntries(this);
     }
 
+    /**
+     * TimeEntries resource whose calls are made with the provided options, eg. a deadline.
+     *
+     * @param options Deadline and cancellation for calls made through the resource
+     * @return TimeEntries resource initialized with this FreshBooksClient
+     */
+    public TimeEntries timeEntries(RequestOptions options) {
+        return new TimeEntries(this, options);
+    }
+
     /**
      * Builder for FreshBooksClient.
      */
@@ -431,6 +1152,7 @@ public class FreshBooksClient {
         private static final String AUTH_BASE_URL = "https://auth.freshbooks.com";
         private static final int DEFAULT_TIMEOUT = 20000;
         private static final int DEFAULT_WRITE_TIMEOUT = 60000;
+        private static final int DEFAULT_ASYNC_THREADS = 20;
 
         private String baseUrl;
         private String authorizationUrl;
@@ -441,12 +1163,39 @@ public class FreshBooksClient {
         private String redirectUri = "";
 
         private AuthorizationToken authorizationToken = new AuthorizationToken();
+        private long tokenRefreshMarginMillis = -1;
+        private TokenStore tokenStore;
+        private long maximumTenants;
+        private RefreshLock refreshLock;
+        private long businessesTtlMillis = TimeUnit.MINUTES.toMillis(10);
+        private long refreshLockTimeoutMillis;
 
         private String userAgent;
         private int connectTimeout = -1;
         private int readTimeout = -1;
         private int writeTimeout = -1;
         private boolean shouldRetry = true;
+        private boolean refreshOnUnauthorized = true;
+        private boolean compressRequests = false;
+        private ResponseCache responseCache;
+        private boolean coalesceRequests = false;
+        private boolean lazyDecoding = false;
+        private boolean warmUpConnections = false;
+        private RequestHedger requestHedger;
+        private RateLimiter rateLimiter;
+        private RetryPolicy retryPolicy;
+        private CircuitBreaker circuitBreaker;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private Bulkhead bulkhead;
+
+        private int maxConnections = -1;
+        private int maxConnectionsPerHost = -1;
+        private int connectionTimeToLive = -1;
+        private int idleConnectionTimeout = -1;
+        private HttpTransport customHttpTransport;
+        private HttpTransport httpTransport;
+        private Executor executor;
+        private boolean useVirtualThreads = false;
 
         /**
          * Builder for FreshBooksClient. Requires a <code>clientId</code>, which will then allow you
@@ -496,6 +1245,117 @@ public class FreshBooksClient {
             return this;
         }
 
+        /**
+         * Load tenants' tokens from a token store, for clients made with {@link FreshBooksClient#forTenant(String)}.
+         * Up to 10,000 tenants' tokens are cached in memory.
+         *
+         * @param tokenStore Store of the tenants' tokens, eg. a {@link FileTokenStore}
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withTokenStore(TokenStore tokenStore) {
+            return this.withTokenStore(tokenStore, 10_000);
+        }
+
+        /**
+         * Load tenants' tokens from a token store, for clients made with {@link FreshBooksClient#forTenant(String)}.
+         * <br><br>
+         * Refreshed tokens are saved to the store. Tokens of the least recently used tenants are evicted from
+         * memory once <code>maximumTenants</code> are cached, and expired tokens are loaded from the store again
+         * in case another process has refreshed them.
+         *
+         * @param tokenStore Store of the tenants' tokens
+         * @param maximumTenants Maximum number of tenants' tokens to cache in memory
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withTokenStore(TokenStore tokenStore, long maximumTenants) {
+            this.tokenStore = tokenStore;
+            this.maximumTenants = maximumTenants;
+            return this;
+        }
+
+        /**
+         * Hold a lock while refreshing a tenant's token, so that processes sharing the token store do not
+         * refresh the same single-use refresh token. Waits up to 30 seconds for the lock.
+         * See {@link #withRefreshLock(RefreshLock, long, TimeUnit)}.
+         *
+         * @param refreshLock Lock to hold around refreshes, eg. a {@link FileRefreshLock}
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRefreshLock(RefreshLock refreshLock) {
+            return this.withRefreshLock(refreshLock, 30, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Hold a lock while refreshing a tenant's token, so that processes sharing the token store do not
+         * refresh the same single-use refresh token.
+         * <br><br>
+         * Once the lock is held the token is loaded from the store again, and is only refreshed if another
+         * process has not already done so. Applies to clients made with {@link FreshBooksClient#forTenant(String)},
+         * so requires {@link #withTokenStore(TokenStore)}.
+         *
+         * @param refreshLock Lock to hold around refreshes
+         * @param timeout Longest time to wait for the lock before the refresh fails
+         * @param unit Time unit of the timeout
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRefreshLock(RefreshLock refreshLock, long timeout, TimeUnit unit) {
+            this.refreshLock = refreshLock;
+            this.refreshLockTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Set how long the identity behind {@link FreshBooksClient#businesses()} is cached for before it is
+         * loaded again. Defaults to 10 minutes.
+         *
+         * @param ttl Time-to-live of the cached identity
+         * @param unit Time unit of the time-to-live
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withBusinessesTtl(long ttl, TimeUnit unit) {
+            this.businessesTtlMillis = unit.toMillis(ttl);
+            return this;
+        }
+
+        /**
+         * Do not refresh the access token and replay the request when FreshBooks responds with a 401.
+         * <br><br>
+         * By default, if the client has a <code>clientSecret</code> and the token has a refresh token,
+         * the first 401 response to a request refreshes the token and replays the request once.
+         *
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withoutTokenRefreshOnUnauthorized() {
+            this.refreshOnUnauthorized = false;
+            return this;
+        }
+
+        /**
+         * Refresh the access token automatically when a request is made within a minute of its expiry.
+         * See {@link #withAutomaticTokenRefresh(long, TimeUnit)}.
+         *
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withAutomaticTokenRefresh() {
+            return this.withAutomaticTokenRefresh(60, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Refresh the access token automatically when a request is made within the margin of its expiry.
+         * <br><br>
+         * Requires a <code>clientSecret</code> and a token with a refresh token and expiry, such as one
+         * from {@link FreshBooksClient#getAccessToken(String)}. Only one thread refreshes the token; other
+         * threads keep using the current token until it expires, then wait for the new one.
+         *
+         * @param margin How long before expiry to refresh
+         * @param unit Time unit of the margin
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withAutomaticTokenRefresh(long margin, TimeUnit unit) {
+            this.tokenRefreshMarginMillis = unit.toMillis(margin);
+            return this;
+        }
+
         /**
          * Override the default user-agent header.
          *
@@ -543,6 +1403,18 @@ public class FreshBooksClient {
             return this;
         }
 
+        /**
+         * Set how requests are retried. By default a 429 or 5xx response is retried for any request method
+         * with exponential back off, up to 10 times.
+         *
+         * @param retryPolicy The retry policy to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
         /**
          * Set the timeout in milliseconds to send POST/PUT data (0 for infinite).
          *
@@ -556,6 +1428,271 @@ public class FreshBooksClient {
             return this;
         }
 
+        /**
+         * Open a connection to the FreshBooks API when the client is built, so that the first call does
+         * not pay for the DNS lookup, TCP connect, and TLS handshake. Useful for short-lived processes
+         * where the first call is a large share of the work. See {@link FreshBooksClient#warmUpConnections()}.
+         * <br><br>
+         * This makes <code>build()</code> block for up to the connect and read timeouts.
+         *
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withConnectionWarmUp() {
+            this.warmUpConnections = true;
+            return this;
+        }
+
+        /**
+         * Gzip compress the JSON body of <code>create</code> and <code>update</code> calls.
+         * <br><br>
+         * Responses are always requested with <code>Accept-Encoding: gzip</code> and are decompressed
+         * as they are parsed, so this only affects the request direction.
+         *
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withGzipCompression() {
+            this.compressRequests = true;
+            return this;
+        }
+
+        /**
+         * Cache successful <code>get</code> and <code>list</code> responses.
+         * <br><br>
+         * Cached responses are invalidated by <code>create</code>, <code>update</code>, and <code>delete</code>
+         * calls on the same resource made through this client, but not by changes made elsewhere. A cache
+         * should not be shared by clients authorized as different users.
+         *
+         * @param responseCache The cache to use, eg. an {@link InMemoryResponseCache}
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withResponseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Share one request between identical <code>get</code> and <code>list</code> calls made at the same time.
+         * <br><br>
+         * While a call is in flight, other calls for the same URL wait for it rather than making their
+         * own request, and receive the same result or <code>FreshBooksException</code>. As waiting calls
+         * share the returned model objects, they should not be modified.
+         *
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRequestCoalescing() {
+            this.coalesceRequests = true;
+            return this;
+        }
+
+        /**
+         * Read large models lazily. Invoices, expenses, and clients in responses only decode a few index
+         * fields, such as their id and <code>vis_state</code>, as they are read. The JSON of their other
+         * fields is kept and decoded the first time any other getter of the model is called.
+         * <br><br>
+         * This saves time and memory when only some of the models in a page are looked at closely. Lazy
+         * models are instances of a generated subclass, so they are not <code>equal</code> to the same model
+         * read eagerly.
+         *
+         * @return The builder instance
+         * @see net.amcintosh.freshbooks.json.LazyModel
+         */
+        public FreshBooksClientBuilder withLazyDecoding() {
+            this.lazyDecoding = true;
+            return this;
+        }
+
+        /**
+         * Send a second, identical request for <code>get</code> and <code>list</code> calls that have not
+         * answered within a percentile of the recently observed latency of their endpoint, and use
+         * whichever answers first.
+         * <br><br>
+         * Hedging trades a small number of extra requests for a shorter tail latency. The extra requests
+         * count towards FreshBooks rate limits and any rate limiter set on the client. The hedger is shut down
+         * when the client is closed.
+         *
+         * @param requestHedger The request hedger to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRequestHedging(RequestHedger requestHedger) {
+            this.requestHedger = requestHedger;
+            return this;
+        }
+
+        /**
+         * Throttle requests on the client before they are sent, rather than only backing off after
+         * FreshBooks responds with a 429.
+         * <br><br>
+         * The limiter is applied to each attempt of a request, including retries.
+         *
+         * @param rateLimiter The rate limiter to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withRateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Fail calls to a FreshBooks endpoint immediately with a <code>CircuitBreakerOpenException</code> while
+         * recent calls to it have been failing or slow.
+         *
+         * @param circuitBreaker The circuit breaker to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Limit the number of requests in flight, adjusting the limit from observed latency and from
+         * 429 and 5xx responses.
+         * <br><br>
+         * A permit is held for each attempt of a request, including retries, but not while waiting
+         * between attempts.
+         *
+         * @param concurrencyLimiter The concurrency limiter to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Limit the calls in flight to each account or business, and to each resource, failing calls with
+         * a <code>BulkheadFullException</code> when their bulkhead is full.
+         *
+         * @param bulkhead The bulkhead to use
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withBulkhead(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+
+        /**
+         * Use a pooled connection manager and limit the number of open connections.
+         * <br><br>
+         * By default the client uses the JDK <code>HttpURLConnection</code> keep-alive cache, which is
+         * shared by the whole JVM and can only be tuned through system properties. Setting any of the
+         * connection pool options switches the client to an Apache HttpClient transport with its own pool.
+         *
+         * @param maxConnections Maximum number of open connections in total
+         * @param maxConnectionsPerHost Maximum number of open connections to any one host
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withConnectionPool(int maxConnections, int maxConnectionsPerHost) {
+            this.maxConnections = maxConnections;
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Set the maximum time in milliseconds a pooled connection may be kept alive and reused.
+         * <br><br>
+         * Switches the client to a pooled transport. See {@link #withConnectionPool(int, int)}.
+         *
+         * @param timeToLive Connection time-to-live in milliseconds
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withConnectionTimeToLive(int timeToLive) {
+            this.connectionTimeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Close pooled connections that have been idle for longer than the given time in milliseconds.
+         * <br><br>
+         * Switches the client to a pooled transport. See {@link #withConnectionPool(int, int)}.
+         *
+         * @param timeout Idle time in milliseconds before a connection is evicted
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withIdleConnectionTimeout(int timeout) {
+            this.idleConnectionTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Use the provided HTTP transport for all requests instead of the default <code>NetHttpTransport</code>.
+         * <br><br>
+         * Any google-http-client <code>HttpTransport</code> can be used, for example an
+         * <code>ApacheHttpTransport</code> with a custom <code>HttpClient</code>, or an HTTP/2 capable
+         * transport built on <code>java.net.http.HttpClient</code> on Java 11+. The transport should be
+         * safe to share between threads. Connection pool options on this builder do not apply to a
+         * provided transport, and it is not shut down when the client is closed.
+         *
+         * @param httpTransport The transport to make requests with
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withHttpTransport(HttpTransport httpTransport) {
+            this.customHttpTransport = httpTransport;
+            return this;
+        }
+
+        /**
+         * Set the executor that calls made through {@link FreshBooksClient#async()} run on.
+         * <br><br>
+         * If not set, the client uses its own pool of at most {@value #DEFAULT_ASYNC_THREADS} daemon threads,
+         * which is shut down when the client is closed. Calls made while all its threads are busy queue
+         * until one is free. A provided executor is not shut down by the client.
+         *
+         * @param executor Executor to run asynchronous calls on
+         * @return The builder instance
+         */
+        public FreshBooksClientBuilder withExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Run calls made through {@link FreshBooksClient#async()} on virtual threads, one per call,
+         * rather than on a platform thread pool. Requires Java 21 or later.
+         * <br><br>
+         * Blocking calls made from your own virtual threads work without this option, as the client does
+         * not hold any monitors while waiting on the network. This option only changes the executor the
+         * client creates for itself, and is ignored if one is provided with {@link #withExecutor(Executor)}.
+         *
+         * @return The builder instance
+         * @throws UnsupportedOperationException If the running JVM does not support virtual threads
+         */
+        public FreshBooksClientBuilder withVirtualThreads() {
+            if (virtualThreadExecutorFactory() == null) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+            }
+            this.useVirtualThreads = true;
+            return this;
+        }
+
+        private boolean usesConnectionPool() {
+            return this.maxConnections > 0 || this.maxConnectionsPerHost > 0
+                    || this.connectionTimeToLive > 0 || this.idleConnectionTimeout > 0;
+        }
+
+        private HttpTransport buildHttpTransport() {
+            if (this.customHttpTransport != null) {
+                return this.customHttpTransport;
+            }
+            if (!this.usesConnectionPool()) {
+                return new NetHttpTransport();
+            }
+            HttpClientBuilder clientBuilder = ApacheHttpTransport.newDefaultHttpClientBuilder();
+            if (this.maxConnections > 0) {
+                clientBuilder.setMaxConnTotal(this.maxConnections);
+            }
+            if (this.maxConnectionsPerHost > 0) {
+                clientBuilder.setMaxConnPerRoute(this.maxConnectionsPerHost);
+            }
+            if (this.connectionTimeToLive > 0) {
+                clientBuilder.setConnectionTimeToLive(this.connectionTimeToLive, TimeUnit.MILLISECONDS);
+            }
+            if (this.idleConnectionTimeout > 0) {
+                clientBuilder.evictIdleConnections(this.idleConnectionTimeout, TimeUnit.MILLISECONDS);
+            }
+            return new ApacheHttpTransport(clientBuilder.build());
+        }
+
         private String getEnvDefault(String var, String defaultValue) {
             String value = System.getenv(var);
             if (value == null) {
@@ -582,7 +1719,12 @@ public class FreshBooksClient {
             if (this.writeTimeout < 0) {
                 this.writeTimeout = DEFAULT_WRITE_TIMEOUT;
             }
-            return new FreshBooksClient(this);
+            this.httpTransport = this.buildHttpTransport();
+            FreshBooksClient client = new FreshBooksClient(this);
+            if (this.warmUpConnections) {
+                client.warmUpConnections();
+            }
+            return client;
         }
     }
 }
@@ -0,0 +1,15 @@
+package net.amcintosh.freshbooks;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request could not be sent to FreshBooks or its response could not be received,
+ * such as when the connection is refused or reset. Failures in the client's own handling of a call,
+ * such as its rate limit, a deadline, or cancellation, are not connection failures.
+ */
+public class FreshBooksConnectionException extends FreshBooksException {
+
+    public FreshBooksConnectionException(String message, IOException cause) {
+        super(message, null, 0, cause);
+    }
+}
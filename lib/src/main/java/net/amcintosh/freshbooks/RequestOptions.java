@@ -0,0 +1,245 @@
+package net.amcintosh.freshbooks;
+
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.api.client.util.Sleeper;
+import net.amcintosh.freshbooks.resources.api.RequestCoalescer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options for a single call, such as a deadline, and a handle to cancel it from another thread.
+ * <br><br>
+ * The deadline caps the whole call, including retries, the back off between them, and waiting for the
+ * client's rate limiter, concurrency limiter, or bulkhead. Connect and read timeouts are shortened to the
+ * time remaining, waits stop at the deadline, and no further attempts are made once it has passed. Eg.
+ * <pre>
+ * RequestOptions options = new RequestOptions().withTimeout(2, TimeUnit.SECONDS);
+ * InvoiceList invoices = freshBooksClient.invoices(options).list(accountId);
+ * </pre>
+ * A call that runs out of time or is cancelled fails with a <code>FreshBooksException</code> caused by
+ * an <code>InterruptedIOException</code>. Options apply to every call made through the resource they are
+ * given to, so one deadline can cover several calls, such as fetching each page of a list.
+ */
+public class RequestOptions {
+
+    private long deadlineNanos;
+    private boolean hasDeadline = false;
+    private volatile boolean cancelled = false;
+    private final CountDownLatch cancelledLatch = new CountDownLatch(1);
+    private final Map<Thread, HttpResponse> reading = new ConcurrentHashMap<>();
+    private final Set<Thread> waiting = new HashSet<>();
+
+    /**
+     * Set a deadline for the call, measured from now.
+     *
+     * @param timeout Time the call may take, including retries
+     * @param unit Time unit of the timeout
+     * @return The options instance
+     */
+    public RequestOptions withTimeout(long timeout, TimeUnit unit) {
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        this.hasDeadline = true;
+        return this;
+    }
+
+    /**
+     * Cancel the call. Waiting between retries or for the client's limits stops, no further attempts are
+     * made, and the connection of a response being read is closed. Connecting and waiting for a response
+     * are bounded by the client's timeouts and any deadline, but cannot be interrupted.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.cancelledLatch.countDown();
+        synchronized (this.waiting) {
+            for (Thread thread : this.waiting) {
+                thread.interrupt();
+            }
+            this.waiting.clear();
+        }
+        for (HttpResponse response : this.reading.values()) {
+            try {
+                response.disconnect();
+            } catch (IOException | RuntimeException e) {
+                // The response is being abandoned; there is nothing else to release.
+            }
+        }
+    }
+
+    /**
+     * @return If the call has been cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Get the time left before the deadline.
+     *
+     * @param unit Time unit of the result
+     * @return The time remaining, which is negative once the deadline has passed,
+     * or <code>Long.MAX_VALUE</code> if there is no deadline
+     */
+    public long getRemaining(TimeUnit unit) {
+        if (!this.hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(this.deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Make a call with these options on the current thread. The response the call reads can be closed by
+     * {@link #cancel()} until the call returns, after which it is no longer held.
+     *
+     * @param call Makes the request and handles the response
+     * @return The result of the call
+     * @throws FreshBooksException If the call fails
+     */
+    public <T> T track(RequestCoalescer.Call<T> call) throws FreshBooksException {
+        Thread thread = Thread.currentThread();
+        try {
+            return call.call();
+        } finally {
+            this.reading.remove(thread);
+        }
+    }
+
+    /**
+     * Wait for a limit shared with other calls, such as the client's rate limiter, concurrency limiter,
+     * or bulkhead, for no longer than the time remaining. Cancelling the call interrupts the wait.
+     *
+     * @param wait The wait, given the time remaining
+     * @throws E If the wait fails
+     * @throws InterruptedIOException If the call is cancelled or its deadline passes before the wait succeeds
+     */
+    public <E extends Exception> void await(Wait<E> wait) throws E, InterruptedIOException {
+        this.checkActive();
+        Thread thread = Thread.currentThread();
+        synchronized (this.waiting) {
+            this.waiting.add(thread);
+        }
+        try {
+            wait.await(this.getRemaining(TimeUnit.NANOSECONDS));
+        } catch (Exception e) {
+            this.stopWaiting(thread);
+            this.checkActive();
+            throw e;
+        }
+        this.stopWaiting(thread);
+    }
+
+    /**
+     * Stop interrupting the thread on cancellation, clearing the interrupt if it was cancelled already.
+     */
+    private void stopWaiting(Thread thread) {
+        synchronized (this.waiting) {
+            if (!this.waiting.remove(thread)) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Check the call may continue, before an attempt is made.
+     *
+     * @throws InterruptedIOException If the call has been cancelled or its deadline has passed
+     */
+    void checkActive() throws InterruptedIOException {
+        if (this.cancelled) {
+            throw new InterruptedIOException("Request cancelled");
+        }
+        if (this.getRemaining(TimeUnit.NANOSECONDS) <= 0) {
+            throw new InterruptedIOException("Request deadline exceeded");
+        }
+    }
+
+    /**
+     * A sleeper for back off between attempts that wakes at the deadline or when the call is cancelled.
+     */
+    Sleeper getSleeper() {
+        return millis -> {
+            long wait = Math.min(millis, Math.max(this.getRemaining(TimeUnit.MILLISECONDS), 0));
+            this.cancelledLatch.await(wait, TimeUnit.MILLISECONDS);
+        };
+    }
+
+    /**
+     * Check the options before each attempt of the request, shorten its timeouts to the time remaining,
+     * and track its response so it can be closed on cancellation.
+     */
+    void applyTo(HttpRequest request) {
+        int connectTimeout = request.getConnectTimeout();
+        int readTimeout = request.getReadTimeout();
+        int writeTimeout = request.getWriteTimeout();
+        HttpExecuteInterceptor interceptor = request.getInterceptor();
+        request.setInterceptor(httpRequest -> {
+            this.checkActive();
+            if (interceptor != null) {
+                interceptor.intercept(httpRequest);
+                this.checkActive();
+            }
+            httpRequest.setConnectTimeout(this.capTimeout(connectTimeout));
+            httpRequest.setReadTimeout(this.capTimeout(readTimeout));
+            httpRequest.setWriteTimeout(this.capTimeout(writeTimeout));
+        });
+        HttpResponseInterceptor responseInterceptor = request.getResponseInterceptor();
+        request.setResponseInterceptor(response -> {
+            this.reading.put(Thread.currentThread(), response);
+            if (this.cancelled) {
+                response.disconnect();
+                throw new InterruptedIOException("Request cancelled");
+            }
+            if (responseInterceptor != null) {
+                responseInterceptor.interceptResponse(response);
+            }
+        });
+    }
+
+    /**
+     * Shorten the request's timeouts again after waiting, such as for a concurrency limiter permit.
+     */
+    void capTimeouts(HttpRequest request) {
+        request.setConnectTimeout(this.capTimeout(request.getConnectTimeout()));
+        request.setReadTimeout(this.capTimeout(request.getReadTimeout()));
+        request.setWriteTimeout(this.capTimeout(request.getWriteTimeout()));
+    }
+
+    /**
+     * Shorten a timeout to the time remaining. A timeout of 0 is infinite.
+     */
+    private int capTimeout(int timeoutMillis) {
+        long remaining = this.getRemaining(TimeUnit.MILLISECONDS);
+        if (remaining == Long.MAX_VALUE) {
+            return timeoutMillis;
+        }
+        remaining = Math.max(remaining, 1);
+        if (timeoutMillis == 0 || remaining < timeoutMillis) {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+        return timeoutMillis;
+    }
+
+    /**
+     * A wait for a limit shared with other calls.
+     *
+     * @param <E> The exception thrown if the wait fails
+     */
+    @FunctionalInterface
+    public interface Wait<E extends Exception> {
+
+        /**
+         * @param timeoutNanos Time remaining before the deadline in nanoseconds, or <code>Long.MAX_VALUE</code>
+         * @throws E If the wait fails
+         */
+        void await(long timeoutNanos) throws E;
+    }
+}
@@ -0,0 +1,94 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.common.util.concurrent.Striped;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link RefreshLock} using a file lock on a file for each key in a directory, for processes sharing a
+ * file system, eg. alongside a {@link FileTokenStore}, or in tests.
+ * <br><br>
+ * The lock files are left in place after the lock is released, as removing them would let two processes
+ * lock different files for the same key.
+ */
+public class FileRefreshLock implements RefreshLock {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Path directory;
+    // A JVM holds file locks for the whole process, so threads are locked out of each other first
+    private final Striped<Semaphore> localLocks = Striped.lazyWeakSemaphore(1024, 1);
+
+    /**
+     * @param directory Directory to keep the lock files in, which is created if it does not exist
+     * @throws IOException If the directory cannot be created
+     */
+    public FileRefreshLock(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Nullable
+    @Override
+    public Lease acquire(String key, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Semaphore localLock = this.localLocks.get(key);
+        if (!localLock.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        FileChannel channel = null;
+        FileLock fileLock = null;
+        try {
+            channel = FileChannel.open(this.path(key), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            while (fileLock == null) {
+                try {
+                    fileLock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    // Held by another FileRefreshLock on the same directory in this JVM
+                }
+                long remaining = deadline - System.nanoTime();
+                if (fileLock == null && remaining <= 0) {
+                    return null;
+                }
+                if (fileLock == null) {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(remaining, POLL_INTERVAL_NANOS));
+                }
+            }
+            FileChannel heldChannel = channel;
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (!released.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    // Closing the channel releases its file lock
+                    heldChannel.close();
+                } finally {
+                    localLock.release();
+                }
+            };
+        } finally {
+            if (fileLock == null) {
+                if (channel != null) {
+                    channel.close();
+                }
+                localLock.release();
+            }
+        }
+    }
+
+    private Path path(String key) throws IOException {
+        return this.directory.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8.name()) + ".lock");
+    }
+}
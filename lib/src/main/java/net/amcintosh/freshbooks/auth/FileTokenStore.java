@@ -0,0 +1,82 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link TokenStore} that keeps each tenant's token in a JSON file in a directory.
+ * <br><br>
+ * Tokens are written to a temporary file which is then moved into place, so a token being read is
+ * never partly written. The files hold OAuth secrets, so the directory should only be readable by the
+ * application.
+ *
+ * <pre>{@code
+ * TokenStore tokenStore = new FileTokenStore(Paths.get("/var/lib/my-app/freshbooks-tokens"));
+ * }</pre>
+ */
+public class FileTokenStore implements TokenStore {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final Path directory;
+
+    /**
+     * @param directory Directory to keep the token files in, which is created if it does not exist
+     * @throws IOException If the directory cannot be created
+     */
+    public FileTokenStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Nullable
+    @Override
+    public AuthorizationToken load(String tenantId) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(this.path(tenantId));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return JSON_FACTORY.fromString(new String(content, StandardCharsets.UTF_8), AuthorizationToken.class);
+    }
+
+    @Override
+    public void save(String tenantId, AuthorizationToken token) throws IOException {
+        Path temporary = Files.createTempFile(this.directory, ".token", ".tmp");
+        try {
+            Files.write(temporary, JSON_FACTORY.toByteArray(token));
+            try {
+                Files.move(temporary, this.path(tenantId),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, this.path(tenantId), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public void delete(String tenantId) throws IOException {
+        Files.deleteIfExists(this.path(tenantId));
+    }
+
+    /**
+     * Tenant ids are encoded so they cannot name a file outside the directory.
+     */
+    private Path path(String tenantId) throws UnsupportedEncodingException {
+        return this.directory.resolve(URLEncoder.encode(tenantId, StandardCharsets.UTF_8.name()) + ".json");
+    }
+}
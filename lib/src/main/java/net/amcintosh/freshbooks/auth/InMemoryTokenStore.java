@@ -0,0 +1,32 @@
+package net.amcintosh.freshbooks.auth;
+
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TokenStore} that keeps tokens in memory only, for tests or applications that load their
+ * tokens from elsewhere at start up.
+ */
+public class InMemoryTokenStore implements TokenStore {
+
+    private final Map<String, AuthorizationToken> tokens = new ConcurrentHashMap<>();
+
+    @Nullable
+    @Override
+    public AuthorizationToken load(String tenantId) {
+        return this.tokens.get(tenantId);
+    }
+
+    @Override
+    public void save(String tenantId, AuthorizationToken token) {
+        this.tokens.put(tenantId, token);
+    }
+
+    @Override
+    public void delete(String tenantId) {
+        this.tokens.remove(tenantId);
+    }
+}
@@ -0,0 +1,46 @@
+package net.amcintosh.freshbooks.auth;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock held around refreshing a tenant's token, so that only one process refreshes it at a time.
+ * <br><br>
+ * FreshBooks refresh tokens can only be used once. When several processes share a {@link TokenStore},
+ * the process holding the lock reloads the token from the store and only refreshes it if no other process
+ * already has. The SDK includes {@link FileRefreshLock} for processes sharing a file system; distributed
+ * locks such as a Redis lease or a database row lock can be used by implementing this interface.
+ * <br><br>
+ * A lease based lock should be held for longer than a token request takes, including retries.
+ * Implementations must be safe to use from multiple threads.
+ */
+public interface RefreshLock {
+
+    /**
+     * A held lock, released by closing it.
+     */
+    interface Lease extends AutoCloseable {
+
+        /**
+         * Release the lock.
+         *
+         * @throws IOException If the lock could not be released
+         */
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * Acquire the lock for a key, waiting up to the timeout.
+     *
+     * @param key The key to lock, eg. the tenant id
+     * @param timeout Longest time to wait for the lock
+     * @param unit Time unit of the timeout
+     * @return The held lock, or <code>null</code> if it was not acquired within the timeout
+     * @throws IOException If the lock could not be acquired
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    @Nullable
+    Lease acquire(String key, long timeout, TimeUnit unit) throws IOException, InterruptedException;
+}
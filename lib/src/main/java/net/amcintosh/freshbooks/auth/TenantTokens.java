@@ -0,0 +1,192 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-memory cache of a {@link TokenManager} for each tenant, loaded from and saved to a {@link TokenStore}.
+ * <br><br>
+ * A tenant's token is loaded from the store the first time it is needed, and again once the cached token
+ * has expired, in case another process has refreshed it. Tokens refreshed here are saved to the store.
+ * The least recently used tenants are evicted once the maximum number of tenants is cached.
+ */
+public class TenantTokens {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantTokens.class);
+
+    private final TokenStore tokenStore;
+    private final Function<String, TokenManager.Refresher> refreshers;
+    private final long refreshMarginMillis;
+    private final Clock clock;
+    private final Cache<String, TokenManager> tokenManagers;
+    private RefreshLock refreshLock;
+    private long refreshLockTimeoutNanos;
+
+    /**
+     * @param tokenStore Store to load and save tokens with
+     * @param refreshers Creates the refresher for a tenant id
+     * @param maximumTenants Maximum number of tenants to cache tokens for
+     * @param refreshMarginMillis Refresh margin of each tenant's token manager, or -1 to not refresh automatically
+     */
+    public TenantTokens(TokenStore tokenStore, Function<String, TokenManager.Refresher> refreshers,
+                        long maximumTenants, long refreshMarginMillis) {
+        this(tokenStore, refreshers, maximumTenants, refreshMarginMillis, Clock.systemUTC());
+    }
+
+    TenantTokens(TokenStore tokenStore, Function<String, TokenManager.Refresher> refreshers,
+                 long maximumTenants, long refreshMarginMillis, Clock clock) {
+        this.tokenStore = tokenStore;
+        this.refreshers = refreshers;
+        this.refreshMarginMillis = refreshMarginMillis;
+        this.clock = clock;
+        this.tokenManagers = CacheBuilder.newBuilder().maximumSize(maximumTenants).build();
+    }
+
+    /**
+     * Hold a lock while refreshing a tenant's token, so processes sharing the token store do not refresh
+     * the same token. Once the lock is held, the token is loaded from the store again and is only refreshed
+     * if no other process already has.
+     *
+     * @param refreshLock Lock to hold around refreshes
+     * @param timeout Longest time to wait for the lock
+     * @param unit Time unit of the timeout
+     * @return The tenant tokens instance
+     */
+    public TenantTokens withRefreshLock(RefreshLock refreshLock, long timeout, TimeUnit unit) {
+        this.refreshLock = refreshLock;
+        this.refreshLockTimeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * Get the token manager of a tenant, loading its token from the store if it is not cached or has expired.
+     *
+     * @param tenantId The tenant id
+     * @return The tenant's token manager
+     * @throws IOException If the token cannot be loaded, or there is no token stored for the tenant
+     */
+    public TokenManager get(String tenantId) throws IOException {
+        TokenManager cached = this.tokenManagers.getIfPresent(tenantId);
+        if (cached != null && !this.isExpired(cached)) {
+            return cached;
+        }
+        // The store is read outside the cache's lock, which would otherwise block other tenants during its I/O
+        TokenManager loaded = this.load(tenantId, cached);
+        return this.tokenManagers.asMap().compute(tenantId, (key, current) -> {
+            if (current != null && current != cached && !this.isExpired(current)) {
+                // Another thread loaded or put a token for the tenant in the meantime
+                return current;
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Save a new token for a tenant, eg. from the authorization flow, and cache it.
+     *
+     * @param tenantId The tenant id
+     * @param token The tenant's new token
+     * @throws IOException If the token cannot be saved
+     */
+    public void put(String tenantId, AuthorizationToken token) throws IOException {
+        this.tokenStore.save(tenantId, token);
+        this.tokenManagers.put(tenantId, this.create(tenantId, token));
+    }
+
+    /**
+     * Remove a tenant's token from the cache, so it is next loaded from the store.
+     *
+     * @param tenantId The tenant id
+     */
+    public void invalidate(String tenantId) {
+        this.tokenManagers.invalidate(tenantId);
+    }
+
+    private boolean isExpired(TokenManager tokenManager) {
+        AuthorizationToken token = tokenManager.getToken();
+        // A token being refreshed is replaced once the refresh completes
+        return token.hasExpiry() && !tokenManager.isRefreshing()
+                && !this.clock.instant().isBefore(token.getExpiresAt().toInstant());
+    }
+
+    private TokenManager load(String tenantId, TokenManager cached) throws IOException {
+        AuthorizationToken token = this.tokenStore.load(tenantId);
+        if (token == null) {
+            throw new IOException("No authorization token stored for tenant " + tenantId);
+        }
+        if (cached != null && token.getAccessToken().equals(cached.getToken().getAccessToken())) {
+            // The stored token has not been refreshed elsewhere
+            return cached;
+        }
+        return this.create(tenantId, token);
+    }
+
+    private AuthorizationToken refreshAndSave(String tenantId, TokenManager.Refresher refresher,
+                                              AuthorizationToken stale) throws FreshBooksException {
+        AuthorizationToken refreshed = refresher.refresh(stale);
+        try {
+            this.tokenStore.save(tenantId, refreshed);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save refreshed access token for tenant {}", tenantId, e);
+        }
+        return refreshed;
+    }
+
+    private AuthorizationToken refreshWithLock(String tenantId, TokenManager.Refresher refresher,
+                                               AuthorizationToken stale) throws FreshBooksException {
+        RefreshLock.Lease lease;
+        try {
+            lease = this.refreshLock.acquire(tenantId, this.refreshLockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FreshBooksException("Interrupted waiting for the token refresh lock", null, 0, e);
+        } catch (IOException e) {
+            throw new FreshBooksException("Unable to acquire the token refresh lock", null, 0, e);
+        }
+        if (lease == null) {
+            throw new FreshBooksException("Timed out waiting for the token refresh lock", null, 0);
+        }
+        try {
+            AuthorizationToken stored;
+            try {
+                stored = this.tokenStore.load(tenantId);
+            } catch (IOException e) {
+                throw new FreshBooksException("Unable to load authorization token", null, 0, e);
+            }
+            if (stored != null && !Objects.equals(stored.getRefreshToken(), stale.getRefreshToken())) {
+                // Another process refreshed the token while this one waited for the lock
+                return stored;
+            }
+            return this.refreshAndSave(tenantId, refresher, stale);
+        } finally {
+            try {
+                lease.close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to release the token refresh lock for tenant {}", tenantId, e);
+            }
+        }
+    }
+
+    private TokenManager create(String tenantId, AuthorizationToken token) {
+        TokenManager.Refresher refresher = this.refreshers.apply(tenantId);
+        TokenManager tokenManager = new TokenManager(token, stale -> {
+            if (this.refreshLock == null) {
+                return this.refreshAndSave(tenantId, refresher, stale);
+            }
+            return this.refreshWithLock(tenantId, refresher, stale);
+        }, this.clock);
+        if (this.refreshMarginMillis >= 0) {
+            tokenManager.withRefreshMargin(this.refreshMarginMillis, TimeUnit.MILLISECONDS);
+        }
+        return tokenManager;
+    }
+}
@@ -0,0 +1,245 @@
+package net.amcintosh.freshbooks.auth;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the client's authorization token and refreshes it, safely shared between threads.
+ * <br><br>
+ * Only one thread refreshes the token at a time. Other threads that need a token while it is being
+ * refreshed keep using the current one if it has not yet expired, or wait for the refresh if it has.
+ * New tokens are published to all threads as soon as the refresh completes.
+ * <br><br>
+ * With a refresh margin set, the token is refreshed automatically when a request is made within that
+ * margin of {@link AuthorizationToken#getExpiresAt()}. This requires a token with a refresh token and
+ * an expiry, as returned by the FreshBooks token endpoint.
+ */
+public class TokenManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenManager.class);
+
+    /**
+     * Exchanges a token for a new one, eg. by calling the FreshBooks token endpoint with its refresh token.
+     */
+    @FunctionalInterface
+    public interface Refresher {
+        AuthorizationToken refresh(AuthorizationToken token) throws FreshBooksException;
+    }
+
+    private final Refresher refresher;
+    private final Clock clock;
+    private volatile AuthorizationToken token;
+    private volatile Thread refreshingThread;
+    private CompletableFuture<AuthorizationToken> refreshInFlight;
+    private long refreshMarginMillis = -1;
+    private final AtomicLong authorizationVersion = new AtomicLong();
+
+    /**
+     * @param token The initial token
+     * @param refresher Exchanges a token for a new one
+     */
+    public TokenManager(AuthorizationToken token, Refresher refresher) {
+        this(token, refresher, Clock.systemUTC());
+    }
+
+    TokenManager(AuthorizationToken token, Refresher refresher, Clock clock) {
+        this.token = token;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * Refresh the token automatically once it is within the margin of its expiry.
+     *
+     * @param margin How long before expiry to refresh
+     * @param unit Time unit of the margin
+     * @return The token manager instance
+     */
+    public TokenManager withRefreshMargin(long margin, TimeUnit unit) {
+        this.refreshMarginMillis = unit.toMillis(margin);
+        return this;
+    }
+
+    /**
+     * @return The current token
+     */
+    public AuthorizationToken getToken() {
+        return this.token;
+    }
+
+    /**
+     * Replace the current token, eg. with one from a new authorization. A refresh of the old token that is
+     * still in flight will not overwrite it.
+     *
+     * @param token The new token
+     */
+    public synchronized void setToken(AuthorizationToken token) {
+        this.token = token;
+        this.authorizationVersion.incrementAndGet();
+    }
+
+    /**
+     * Get a version number that changes each time the token is replaced with {@link #setToken(AuthorizationToken)},
+     * but not when it is refreshed, so data cached for the authorized user can be invalidated.
+     *
+     * @return The authorization version
+     */
+    public long getAuthorizationVersion() {
+        return this.authorizationVersion.get();
+    }
+
+    /**
+     * Get a bearer token for a request, refreshing the token first if it is due and automatic refresh
+     * is enabled.
+     * <br><br>
+     * If the token is still valid but within the refresh margin, only the first thread to see this
+     * refreshes it; other threads use the current token rather than wait. A failed refresh is logged
+     * and the current token is used until it expires.
+     *
+     * @return The bearer token
+     * @throws FreshBooksException If the token has expired and could not be refreshed
+     */
+    public String getAccessToken() throws FreshBooksException {
+        AuthorizationToken current = this.token;
+        if (!this.canRefresh(current) || Thread.currentThread() == this.refreshingThread) {
+            // The refresh request itself is made with the current token
+            return current.getAccessToken();
+        }
+        Instant expiresAt = current.getExpiresAt().toInstant();
+        Instant now = this.clock.instant();
+        if (now.isBefore(expiresAt.minusMillis(this.refreshMarginMillis))) {
+            return current.getAccessToken();
+        }
+        if (!now.isBefore(expiresAt)) {
+            return this.refresh(current, true).getAccessToken();
+        }
+        try {
+            AuthorizationToken refreshed = this.refresh(current, false);
+            return (refreshed != null ? refreshed : current).getAccessToken();
+        } catch (FreshBooksException e) {
+            LOGGER.warn("Unable to refresh access token ahead of expiry", e);
+            return current.getAccessToken();
+        }
+    }
+
+    /**
+     * Refresh the token now. If another thread is already refreshing it, wait for and return its result.
+     *
+     * @return The new token
+     * @throws FreshBooksException If the refresh fails
+     */
+    public AuthorizationToken refresh() throws FreshBooksException {
+        return this.refresh(this.token, true);
+    }
+
+    /**
+     * Get a new token after FreshBooks rejected an access token, eg. because it was revoked or expired early.
+     * <br><br>
+     * If the rejected token has already been replaced, such as by another thread that got the same rejection,
+     * the current token is returned without refreshing again. Otherwise the token is refreshed, sharing one
+     * refresh between all threads.
+     *
+     * @param accessToken The access token that was rejected
+     * @return The token to retry with, or null if the token cannot be refreshed
+     * @throws FreshBooksException If the refresh fails
+     */
+    @Nullable
+    public AuthorizationToken refreshRejected(String accessToken) throws FreshBooksException {
+        AuthorizationToken current = this.token;
+        if (current.getRefreshToken() == null || Thread.currentThread() == this.refreshingThread) {
+            return null;
+        }
+        if (!accessToken.equals(current.getAccessToken())) {
+            return current;
+        }
+        return this.refresh(current, true);
+    }
+
+    /**
+     * @return If a thread is refreshing the token
+     */
+    public synchronized boolean isRefreshing() {
+        return this.refreshInFlight != null;
+    }
+
+    private boolean canRefresh(AuthorizationToken current) {
+        return this.refreshMarginMillis >= 0 && current.hasExpiry() && current.getRefreshToken() != null;
+    }
+
+    /**
+     * Refresh the stale token, unless another thread already has.
+     *
+     * @param stale The token to replace
+     * @param wait Whether to wait for a refresh another thread is making
+     * @return The new token, or null if another thread is refreshing and <code>wait</code> is false
+     */
+    @Nullable
+    private AuthorizationToken refresh(AuthorizationToken stale, boolean wait) throws FreshBooksException {
+        CompletableFuture<AuthorizationToken> future;
+        boolean leader = false;
+        synchronized (this) {
+            if (this.token != stale) {
+                return this.token;
+            }
+            if (this.refreshInFlight == null) {
+                this.refreshInFlight = new CompletableFuture<>();
+                this.refreshingThread = Thread.currentThread();
+                leader = true;
+            }
+            future = this.refreshInFlight;
+        }
+        if (!leader) {
+            return wait ? this.await(future) : null;
+        }
+
+        try {
+            AuthorizationToken refreshed = this.refresher.refresh(stale);
+            synchronized (this) {
+                if (this.token == stale) {
+                    this.token = refreshed;
+                } else {
+                    // Replaced by setToken during the refresh, so the result is for an old authorization
+                    refreshed = this.token;
+                }
+                this.refreshInFlight = null;
+                this.refreshingThread = null;
+            }
+            future.complete(refreshed);
+            return refreshed;
+        } catch (FreshBooksException | RuntimeException | Error e) {
+            synchronized (this) {
+                this.refreshInFlight = null;
+                this.refreshingThread = null;
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private AuthorizationToken await(CompletableFuture<AuthorizationToken> future) throws FreshBooksException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FreshBooksException("Interrupted waiting for the access token to refresh", null, 0, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FreshBooksException) {
+                throw (FreshBooksException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+}
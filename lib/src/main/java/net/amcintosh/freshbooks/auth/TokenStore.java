@@ -0,0 +1,45 @@
+package net.amcintosh.freshbooks.auth;
+
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * Persistent storage of the authorization tokens of many tenants, eg. one token for each FreshBooks
+ * account an application is connected to. The tenant id is chosen by the application.
+ * <br><br>
+ * Tokens refreshed by a client made with {@link net.amcintosh.freshbooks.FreshBooksClient#forTenant(String)}
+ * are saved back to the store, so refresh tokens are not lost between processes or restarts.
+ * <br><br>
+ * Implementations must be safe to use from multiple threads.
+ */
+public interface TokenStore {
+
+    /**
+     * Load the token of a tenant.
+     *
+     * @param tenantId The tenant id
+     * @return The stored token, or <code>null</code> if there is none
+     * @throws IOException If the store cannot be read
+     */
+    @Nullable
+    AuthorizationToken load(String tenantId) throws IOException;
+
+    /**
+     * Save the token of a tenant, replacing any stored token.
+     *
+     * @param tenantId The tenant id
+     * @param token The token to store
+     * @throws IOException If the store cannot be written
+     */
+    void save(String tenantId, AuthorizationToken token) throws IOException;
+
+    /**
+     * Remove the token of a tenant, eg. when it disconnects the application.
+     *
+     * @param tenantId The tenant id
+     * @throws IOException If the store cannot be written
+     */
+    void delete(String tenantId) throws IOException;
+}
@@ -0,0 +1,114 @@
+package net.amcintosh.freshbooks.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory {@link ResponseCache} bounded by the approximate number of bytes held.
+ * <br><br>
+ * Entries expire after a time-to-live that can be set per resource, and the least recently used
+ * entries are evicted once the size bound is reached.
+ *
+ * <pre>{@code
+ * ResponseCache cache = new InMemoryResponseCache(10 * 1024 * 1024, 30, TimeUnit.SECONDS)
+ *     .withResourceTtl(Taxes.class, 10, TimeUnit.MINUTES);
+ * }</pre>
+ */
+public class InMemoryResponseCache implements ResponseCache {
+
+    // Strings are held as UTF-16, plus a rough allowance for the entry and key objects
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final Cache<String, Entry> cache;
+    private final Ticker ticker;
+    private final long defaultTtlNanos;
+    private final Map<Class<?>, Long> resourceTtlNanos = new ConcurrentHashMap<>();
+
+    /**
+     * @param maximumBytes Approximate maximum size of the cached URLs and response bodies in bytes
+     * @param defaultTtl Time-to-live of cached responses for resources without their own time-to-live
+     * @param unit Time unit of <code>defaultTtl</code>
+     */
+    public InMemoryResponseCache(long maximumBytes, long defaultTtl, TimeUnit unit) {
+        this(maximumBytes, defaultTtl, unit, Ticker.systemTicker());
+    }
+
+    InMemoryResponseCache(long maximumBytes, long defaultTtl, TimeUnit unit, Ticker ticker) {
+        this.ticker = ticker;
+        this.defaultTtlNanos = unit.toNanos(defaultTtl);
+        // Guava divides the weight bound between segments, so use one to allow large list responses
+        this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maximumBytes)
+                .weigher((String url, Entry entry) -> entry.weight)
+                .build();
+    }
+
+    /**
+     * Set the time-to-live of cached responses for one resource.
+     *
+     * @param resourceClass The resource class, eg. <code>Clients.class</code>
+     * @param ttl Time-to-live of cached responses
+     * @param unit Time unit of <code>ttl</code>
+     * @return The cache instance
+     */
+    public InMemoryResponseCache withResourceTtl(Class<?> resourceClass, long ttl, TimeUnit unit) {
+        this.resourceTtlNanos.put(resourceClass, unit.toNanos(ttl));
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public String get(String url) {
+        Entry entry = this.cache.getIfPresent(url);
+        if (entry == null) {
+            return null;
+        }
+        if (this.ticker.read() - entry.expiresAt >= 0) {
+            this.cache.asMap().remove(url, entry);
+            return null;
+        }
+        return entry.body;
+    }
+
+    @Override
+    public void put(Class<?> resourceClass, String url, String body) {
+        long ttl = this.resourceTtlNanos.getOrDefault(resourceClass, this.defaultTtlNanos);
+        if (ttl <= 0) {
+            return;
+        }
+        long weight = 2L * (url.length() + body.length()) + ENTRY_OVERHEAD_BYTES;
+        Entry entry = new Entry(body, this.ticker.read() + ttl, (int) Math.min(weight, Integer.MAX_VALUE));
+        this.cache.put(url, entry);
+    }
+
+    @Override
+    public void invalidate(String urlPrefix) {
+        this.cache.asMap().keySet().removeIf(url -> url.startsWith(urlPrefix));
+    }
+
+    /**
+     * @return The number of cached responses, including any that have expired but not yet been removed
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    private static class Entry {
+        private final String body;
+        private final long expiresAt;
+        private final int weight;
+
+        Entry(String body, long expiresAt, int weight) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
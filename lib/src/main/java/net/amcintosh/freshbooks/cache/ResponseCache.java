@@ -0,0 +1,45 @@
+package net.amcintosh.freshbooks.cache;
+
+import javax.annotation.Nullable;
+
+/**
+ * Cache of successful <code>get</code> and <code>list</code> response bodies, keyed by the request URL.
+ * <br><br>
+ * The URL includes the account or business id and the query string built from any <code>QueryBuilder</code>s,
+ * so different filters and pages are cached separately. Successful <code>create</code>, <code>update</code>,
+ * and <code>delete</code> calls made through the same client invalidate the cached responses of that resource.
+ * <br><br>
+ * Clients made with <code>FreshBooksClient.forTenant</code> share their parent's cache, but their keys are
+ * prefixed with the tenant, eg. <code>tenant:8:tenant-1/accounting/account/ABC123/users/clients</code>, so one
+ * tenant's token is never answered with a response fetched with another's. Keys without a tenant start with
+ * <code>/</code>.
+ * <br><br>
+ * Implementations must be safe to use from multiple threads.
+ */
+public interface ResponseCache {
+
+    /**
+     * Get a cached response body.
+     *
+     * @param url The relative URL of the request, including the query string
+     * @return The cached response body, or <code>null</code> if there is no unexpired entry
+     */
+    @Nullable
+    String get(String url);
+
+    /**
+     * Cache a successful response body.
+     *
+     * @param resourceClass The resource class that made the request, eg. <code>Clients.class</code>
+     * @param url The relative URL of the request, including the query string
+     * @param body The response body
+     */
+    void put(Class<?> resourceClass, String url, String body);
+
+    /**
+     * Remove all cached responses whose URL starts with the provided prefix.
+     *
+     * @param urlPrefix Relative URL prefix of the resource, eg. <code>/accounting/account/ABC123/users/clients</code>
+     */
+    void invalidate(String urlPrefix);
+}
@@ -0,0 +1,237 @@
+package net.amcintosh.freshbooks.circuitbreaker;
+
+import com.google.common.base.Ticker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to a FreshBooks endpoint that is failing or slow, so that callers fail fast rather than
+ * waiting on it until they time out.
+ * <br><br>
+ * Each endpoint, identified by its resource type and path, has its own breaker. A breaker starts
+ * <b>closed</b> and tracks the outcome of the most recent calls. Once enough calls have been made, if
+ * the rate of failed calls (network errors and 5xx responses) or of slow calls reaches its threshold,
+ * the breaker <b>opens</b> and calls fail immediately with a {@link CircuitBreakerOpenException}.
+ * After a wait, the breaker is <b>half-open</b> and lets a few trial calls through. It closes again if
+ * they are under the thresholds, and otherwise opens again.
+ *
+ * <pre>{@code
+ * CircuitBreaker circuitBreaker = new CircuitBreaker()
+ *     .withFailureRateThreshold(50)
+ *     .withSlowCallThreshold(80, 5, TimeUnit.SECONDS)
+ *     .withWaitInOpenState(30, TimeUnit.SECONDS);
+ * }</pre>
+ */
+public class CircuitBreaker {
+
+    /**
+     * States of an endpoint's circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Ticker ticker;
+    private final Map<String, EndpointBreaker> breakers = new ConcurrentHashMap<>();
+
+    private double failureRateThreshold = 50;
+    private double slowCallRateThreshold = 100;
+    private long slowCallDurationNanos = TimeUnit.SECONDS.toNanos(10);
+    private int slidingWindowSize = 20;
+    private int minimumNumberOfCalls = 10;
+    private long waitInOpenStateNanos = TimeUnit.SECONDS.toNanos(30);
+    private int halfOpenCalls = 3;
+
+    public CircuitBreaker() {
+        this(Ticker.systemTicker());
+    }
+
+    CircuitBreaker(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * Set the percentage of failed calls at which the breaker opens. Defaults to 50.
+     *
+     * @param percentage Failure rate threshold, from 1 to 100
+     * @return The circuit breaker instance
+     */
+    public CircuitBreaker withFailureRateThreshold(double percentage) {
+        this.failureRateThreshold = percentage;
+        return this;
+    }
+
+    /**
+     * Set the percentage of slow calls at which the breaker opens, and how long a call must take to be
+     * considered slow. Defaults to 100 percent of calls taking 10 seconds or longer.
+     *
+     * @param percentage Slow call rate threshold, from 1 to 100
+     * @param duration Duration at which a call is slow
+     * @param unit Time unit of <code>duration</code>
+     * @return The circuit breaker instance
+     */
+    public CircuitBreaker withSlowCallThreshold(double percentage, long duration, TimeUnit unit) {
+        this.slowCallRateThreshold = percentage;
+        this.slowCallDurationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Set how many of the most recent calls the failure and slow call rates are calculated from, and
+     * how many calls must be made before the breaker can open. Defaults to the last 20 calls, with at least 10.
+     *
+     * @param size Number of recent calls to track
+     * @param minimumNumberOfCalls Number of calls required before the rates are checked
+     * @return The circuit breaker instance
+     */
+    public CircuitBreaker withSlidingWindow(int size, int minimumNumberOfCalls) {
+        if (size <= 0 || minimumNumberOfCalls <= 0 || minimumNumberOfCalls > size) {
+            throw new IllegalArgumentException("Minimum number of calls must be between 1 and the window size");
+        }
+        this.slidingWindowSize = size;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    /**
+     * Set how long the breaker stays open before allowing trial calls. Defaults to 30 seconds.
+     *
+     * @param wait Time to stay open
+     * @param unit Time unit of <code>wait</code>
+     * @return The circuit breaker instance
+     */
+    public CircuitBreaker withWaitInOpenState(long wait, TimeUnit unit) {
+        this.waitInOpenStateNanos = unit.toNanos(wait);
+        return this;
+    }
+
+    /**
+     * Set the number of trial calls allowed while half-open. Defaults to 3.
+     *
+     * @param calls Number of trial calls
+     * @return The circuit breaker instance
+     */
+    public CircuitBreaker withHalfOpenCalls(int calls) {
+        if (calls <= 0) {
+            throw new IllegalArgumentException("Half-open calls must be positive, got " + calls);
+        }
+        this.halfOpenCalls = calls;
+        return this;
+    }
+
+    /**
+     * Check that a call to the endpoint may be made.
+     *
+     * @param endpoint The endpoint, eg. <code>ACCOUNTING_LIKE users/clients</code>
+     * @throws CircuitBreakerOpenException If the breaker for the endpoint is open
+     */
+    public void acquirePermission(String endpoint) throws CircuitBreakerOpenException {
+        if (!this.getBreaker(endpoint).tryAcquire()) {
+            throw new CircuitBreakerOpenException(endpoint);
+        }
+    }
+
+    /**
+     * Record the outcome of a call to the endpoint that was allowed by {@link #acquirePermission(String)}.
+     *
+     * @param endpoint The endpoint
+     * @param durationNanos How long the call took
+     * @param failed Whether the call failed with a network error or server error
+     */
+    public void onResult(String endpoint, long durationNanos, boolean failed) {
+        this.getBreaker(endpoint).record(failed, durationNanos >= this.slowCallDurationNanos);
+    }
+
+    /**
+     * Get the current state of an endpoint's breaker.
+     *
+     * @param endpoint The endpoint
+     * @return The breaker state
+     */
+    public State getState(String endpoint) {
+        return this.getBreaker(endpoint).getState();
+    }
+
+    private EndpointBreaker getBreaker(String endpoint) {
+        return this.breakers.computeIfAbsent(endpoint, key -> new EndpointBreaker());
+    }
+
+    private class EndpointBreaker {
+        private State state = State.CLOSED;
+        // Ring buffer of recent outcomes
+        private boolean[] failures = new boolean[slidingWindowSize];
+        private boolean[] slowCalls = new boolean[slidingWindowSize];
+        private int calls = 0;
+        private int position = 0;
+        private long openedAt;
+        private int halfOpenPermits;
+
+        synchronized boolean tryAcquire() {
+            if (this.state == State.OPEN) {
+                if (ticker.read() - this.openedAt < waitInOpenStateNanos) {
+                    return false;
+                }
+                this.transition(State.HALF_OPEN);
+            }
+            if (this.state == State.HALF_OPEN) {
+                if (this.halfOpenPermits == 0) {
+                    return false;
+                }
+                this.halfOpenPermits--;
+            }
+            return true;
+        }
+
+        synchronized void record(boolean failed, boolean slow) {
+            if (this.state == State.OPEN) {
+                return;
+            }
+            this.failures[this.position] = failed;
+            this.slowCalls[this.position] = slow;
+            this.position = (this.position + 1) % this.failures.length;
+            this.calls = Math.min(this.calls + 1, this.failures.length);
+
+            if (this.state == State.HALF_OPEN) {
+                if (this.calls >= Math.min(halfOpenCalls, this.failures.length)) {
+                    this.transition(this.exceedsThresholds() ? State.OPEN : State.CLOSED);
+                }
+            } else if (this.calls >= minimumNumberOfCalls && this.exceedsThresholds()) {
+                this.transition(State.OPEN);
+            }
+        }
+
+        synchronized State getState() {
+            if (this.state == State.OPEN && ticker.read() - this.openedAt >= waitInOpenStateNanos) {
+                return State.HALF_OPEN;
+            }
+            return this.state;
+        }
+
+        private boolean exceedsThresholds() {
+            int failed = 0;
+            int slow = 0;
+            for (int i = 0; i < this.calls; i++) {
+                int index = (this.position - 1 - i + this.failures.length) % this.failures.length;
+                failed += this.failures[index] ? 1 : 0;
+                slow += this.slowCalls[index] ? 1 : 0;
+            }
+            return failed * 100.0 / this.calls >= failureRateThreshold
+                    || slow * 100.0 / this.calls >= slowCallRateThreshold;
+        }
+
+        private void transition(State newState) {
+            this.state = newState;
+            this.calls = 0;
+            this.position = 0;
+            if (newState == State.OPEN) {
+                this.openedAt = ticker.read();
+            } else if (newState == State.HALF_OPEN) {
+                this.halfOpenPermits = halfOpenCalls;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package net.amcintosh.freshbooks.circuitbreaker;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+
+/**
+ * Thrown without making a request when the circuit breaker for the endpoint is open
+ * because recent calls to it have been failing or slow.
+ */
+public class CircuitBreakerOpenException extends FreshBooksException {
+    public final String endpoint;
+
+    public CircuitBreakerOpenException(String endpoint) {
+        super("Circuit breaker is open for " + endpoint, null, 0);
+        this.endpoint = endpoint;
+    }
+}
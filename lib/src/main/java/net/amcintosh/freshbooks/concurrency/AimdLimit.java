@@ -0,0 +1,64 @@
+package net.amcintosh.freshbooks.concurrency;
+
+/**
+ * Additive increase, multiplicative decrease limit.
+ * <br><br>
+ * The limit grows by one after each successful request sent while at least half of the limit was in use,
+ * and is multiplied by the back off ratio (0.9 by default) after each dropped request.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double backOffRatio = 0.9;
+    private int limit;
+
+    /**
+     * Create a limit starting at 20, between 1 and 200.
+     */
+    public AimdLimit() {
+        this(20, 1, 200);
+    }
+
+    /**
+     * @param initialLimit Limit to start at
+     * @param minLimit Lowest the limit can fall to
+     * @param maxLimit Highest the limit can grow to
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Set the ratio the limit is multiplied by when a request is dropped.
+     *
+     * @param backOffRatio Ratio greater than 0 and less than 1
+     * @return The limit instance
+     */
+    public AimdLimit withBackOffRatio(double backOffRatio) {
+        if (backOffRatio <= 0 || backOffRatio >= 1) {
+            throw new IllegalArgumentException("Back off ratio must be between 0 and 1, got " + backOffRatio);
+        }
+        this.backOffRatio = backOffRatio;
+        return this;
+    }
+
+    @Override
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            this.limit = Math.max(this.minLimit, (int) (this.limit * this.backOffRatio));
+        } else if (inFlight * 2 >= this.limit) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1);
+        }
+    }
+}
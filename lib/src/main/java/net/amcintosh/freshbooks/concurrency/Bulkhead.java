@@ -0,0 +1,207 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the calls in flight to each account or business, and to each resource, so that one busy
+ * tenant or resource cannot take every connection and thread shared by the client.
+ * <br><br>
+ * Eg. at most 4 calls to any one account or business, 10 to account <code>ABC123</code>, and 2
+ * expense calls across all tenants, waiting up to a second for a place:
+ * <pre>{@code
+ * Bulkhead bulkhead = new Bulkhead()
+ *     .withTenantLimit(4)
+ *     .withTenantLimit("ABC123", 10)
+ *     .withResourceLimit(Expenses.class, 2)
+ *     .withMaxWait(1, TimeUnit.SECONDS);
+ * }</pre>
+ * A call holds its places for its whole duration, including retries. Calls that cannot get a place in
+ * time fail with a {@link BulkheadFullException}.
+ */
+public class Bulkhead {
+
+    private int defaultTenantLimit = 0;
+    private final Map<String, Integer> tenantLimits = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Integer> resourceLimits = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> tenantPermits = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Semaphore> resourcePermits = new ConcurrentHashMap<>();
+    private long maxWaitNanos = 0;
+
+    /**
+     * Limit the calls in flight to each account or business.
+     *
+     * @param maxConcurrentCalls Maximum calls in flight to any one account or business
+     * @return The bulkhead instance
+     */
+    public Bulkhead withTenantLimit(int maxConcurrentCalls) {
+        checkLimit(maxConcurrentCalls);
+        this.defaultTenantLimit = maxConcurrentCalls;
+        this.tenantPermits.clear();
+        return this;
+    }
+
+    /**
+     * Limit the calls in flight to one account or business, overriding {@link #withTenantLimit(int)}.
+     *
+     * @param tenantId The accountId or businessId
+     * @param maxConcurrentCalls Maximum calls in flight to the account or business
+     * @return The bulkhead instance
+     */
+    public Bulkhead withTenantLimit(String tenantId, int maxConcurrentCalls) {
+        checkLimit(maxConcurrentCalls);
+        this.tenantLimits.put(tenantId, maxConcurrentCalls);
+        this.tenantPermits.remove(tenantId);
+        return this;
+    }
+
+    /**
+     * Limit the calls in flight to a resource across all accounts and businesses.
+     *
+     * @param resourceClass The resource, eg. <code>Expenses.class</code>
+     * @param maxConcurrentCalls Maximum calls in flight to the resource
+     * @return The bulkhead instance
+     */
+    public Bulkhead withResourceLimit(Class<?> resourceClass, int maxConcurrentCalls) {
+        checkLimit(maxConcurrentCalls);
+        this.resourceLimits.put(resourceClass, maxConcurrentCalls);
+        this.resourcePermits.remove(resourceClass);
+        return this;
+    }
+
+    /**
+     * Set how long a call waits for a place before failing. By default calls fail immediately
+     * if the bulkhead is full.
+     *
+     * @param maxWait Maximum time to wait
+     * @param unit Time unit of <code>maxWait</code>
+     * @return The bulkhead instance
+     */
+    public Bulkhead withMaxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * Take a place for a call to the tenant and resource, waiting up to the maximum wait.
+     * Each successful call must be matched by a call to {@link #release(String, Class)}.
+     *
+     * @param tenantId The accountId or businessId of the call, or null if it has none
+     * @param resourceClass The resource making the call
+     * @throws BulkheadFullException If no place became available within the maximum wait
+     * @throws FreshBooksException If the thread is interrupted while waiting
+     */
+    public void acquire(@Nullable String tenantId, Class<?> resourceClass) throws FreshBooksException {
+        this.acquire(tenantId, resourceClass, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Take a place for a call to the tenant and resource, waiting up to the maximum wait or the provided
+     * timeout, whichever is shorter. Each successful call must be matched by a call to
+     * {@link #release(String, Class)}.
+     *
+     * @param tenantId The accountId or businessId of the call, or null if it has none
+     * @param resourceClass The resource making the call
+     * @param timeout Maximum time to wait, such as the time left before a deadline
+     * @param unit Time unit of <code>timeout</code>
+     * @throws BulkheadFullException If no place became available within the wait
+     * @throws FreshBooksException If the thread is interrupted while waiting
+     */
+    public void acquire(@Nullable String tenantId, Class<?> resourceClass, long timeout, TimeUnit unit)
+            throws FreshBooksException {
+        long start = System.nanoTime();
+        long waitNanos = Math.min(this.maxWaitNanos, unit.toNanos(timeout));
+        Semaphore tenant = this.getTenantPermits(tenantId);
+        Semaphore resource = this.getResourcePermits(resourceClass);
+        boolean tenantAcquired = false;
+        try {
+            if (tenant != null && !tenant.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException(tenantId);
+            }
+            tenantAcquired = tenant != null;
+            if (resource != null && !resource.tryAcquire(waitNanos - (System.nanoTime() - start), TimeUnit.NANOSECONDS)) {
+                if (tenantAcquired) {
+                    tenant.release();
+                }
+                throw new BulkheadFullException(resourceClass.getSimpleName());
+            }
+        } catch (InterruptedException e) {
+            if (tenantAcquired) {
+                tenant.release();
+            }
+            Thread.currentThread().interrupt();
+            throw new FreshBooksException("Interrupted waiting for the bulkhead", null, 0, e);
+        }
+    }
+
+    /**
+     * Give up the places taken by {@link #acquire(String, Class)} once a call completes.
+     *
+     * @param tenantId The accountId or businessId of the call, or null if it has none
+     * @param resourceClass The resource that made the call
+     */
+    public void release(@Nullable String tenantId, Class<?> resourceClass) {
+        Semaphore resource = this.getResourcePermits(resourceClass);
+        if (resource != null) {
+            resource.release();
+        }
+        Semaphore tenant = this.getTenantPermits(tenantId);
+        if (tenant != null) {
+            tenant.release();
+        }
+    }
+
+    /**
+     * Get the number of calls that can currently start for an account or business.
+     *
+     * @param tenantId The accountId or businessId
+     * @return The number of free places, or <code>Integer.MAX_VALUE</code> if it is not limited
+     */
+    public int getAvailable(String tenantId) {
+        Semaphore tenant = this.getTenantPermits(tenantId);
+        return tenant != null ? tenant.availablePermits() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of calls that can currently start for a resource.
+     *
+     * @param resourceClass The resource
+     * @return The number of free places, or <code>Integer.MAX_VALUE</code> if it is not limited
+     */
+    public int getAvailable(Class<?> resourceClass) {
+        Semaphore resource = this.getResourcePermits(resourceClass);
+        return resource != null ? resource.availablePermits() : Integer.MAX_VALUE;
+    }
+
+    @Nullable
+    private Semaphore getTenantPermits(@Nullable String tenantId) {
+        if (tenantId == null) {
+            return null;
+        }
+        int limit = this.tenantLimits.getOrDefault(tenantId, this.defaultTenantLimit);
+        if (limit == 0) {
+            return null;
+        }
+        return this.tenantPermits.computeIfAbsent(tenantId, key -> new Semaphore(limit, true));
+    }
+
+    @Nullable
+    private Semaphore getResourcePermits(Class<?> resourceClass) {
+        Integer limit = this.resourceLimits.get(resourceClass);
+        if (limit == null) {
+            return null;
+        }
+        return this.resourcePermits.computeIfAbsent(resourceClass, key -> new Semaphore(limit, true));
+    }
+
+    private static void checkLimit(int maxConcurrentCalls) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("Maximum concurrent calls must be at least 1, got " + maxConcurrentCalls);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+
+/**
+ * Thrown without making a request when the bulkhead for the account or business, or for the resource,
+ * already has its maximum number of calls in flight.
+ */
+public class BulkheadFullException extends FreshBooksException {
+    public final String compartment;
+
+    public BulkheadFullException(String compartment) {
+        super("Bulkhead is full for " + compartment, null, 0);
+        this.compartment = compartment;
+    }
+}
@@ -0,0 +1,249 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import com.google.common.base.Ticker;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of requests in flight to FreshBooks, adjusting the limit from observed latency and
+ * from 429 and 5xx responses rather than using a fixed pool size.
+ * <br><br>
+ * A {@link LimitAlgorithm} decides the limit: {@link AimdLimit} (the default) backs off on dropped requests,
+ * while {@link GradientLimit} also backs off as round trip times rise. Eg.
+ * <pre>{@code
+ * ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(10, 2, 100))
+ *     .withMaxWait(5, TimeUnit.SECONDS);
+ * }</pre>
+ * Each request holds a {@link Permit} while it is sent and its response received. Requests over the limit
+ * wait in order for a permit, either blocking with {@link #acquire()} or with {@link #acquireAsync()}.
+ */
+public class ConcurrencyLimiter {
+
+    private final LimitAlgorithm algorithm;
+    private final Ticker ticker;
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private long maxWaitNanos = Long.MAX_VALUE;
+    private int inFlight = 0;
+
+    /**
+     * Create a limiter with the default {@link AimdLimit}.
+     */
+    public ConcurrencyLimiter() {
+        this(new AimdLimit());
+    }
+
+    /**
+     * @param algorithm The algorithm that sets the limit
+     */
+    public ConcurrencyLimiter(LimitAlgorithm algorithm) {
+        this(algorithm, Ticker.systemTicker());
+    }
+
+    ConcurrencyLimiter(LimitAlgorithm algorithm, Ticker ticker) {
+        this.algorithm = algorithm;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Set the longest {@link #acquire()} waits for a permit before giving up. By default it waits as
+     * long as needed. A wait of 0 fails immediately if the limit has been reached.
+     *
+     * @param maxWait Maximum time to wait
+     * @param unit Time unit of <code>maxWait</code>
+     * @return The limiter instance
+     */
+    public ConcurrencyLimiter withMaxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * Get a permit, waiting up to the maximum wait if the limit has been reached.
+     *
+     * @return The permit, or null if none became available within the maximum wait
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    @Nullable
+    public Permit acquire() throws InterruptedException {
+        return this.acquire(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get a permit, waiting up to the maximum wait or the provided timeout, whichever is shorter,
+     * if the limit has been reached.
+     *
+     * @param timeout Maximum time to wait, such as the time left before a deadline
+     * @param unit Time unit of <code>timeout</code>
+     * @return The permit, or null if none became available within the wait
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    @Nullable
+    public Permit acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long waitNanos = Math.min(this.maxWaitNanos, unit.toNanos(timeout));
+        if (waitNanos <= 0) {
+            return this.tryAcquire();
+        }
+        CompletableFuture<Permit> future = this.acquireAsync();
+        try {
+            if (waitNanos == Long.MAX_VALUE) {
+                return future.get();
+            }
+            return future.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return this.abandon(future);
+        } catch (InterruptedException e) {
+            Permit permit = this.abandon(future);
+            if (permit != null) {
+                permit.release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Get a permit if one is available now.
+     *
+     * @return The permit, or null if the limit has been reached
+     */
+    @Nullable
+    public synchronized Permit tryAcquire() {
+        if (this.waiters.isEmpty() && this.inFlight < this.algorithm.getLimit()) {
+            return this.newPermit();
+        }
+        return null;
+    }
+
+    /**
+     * Get a permit without blocking. The future completes once a permit is available, in the order
+     * permits were requested. Cancelling the future gives up its place.
+     *
+     * @return Future of the permit
+     */
+    public synchronized CompletableFuture<Permit> acquireAsync() {
+        Permit permit = this.tryAcquire();
+        if (permit != null) {
+            return CompletableFuture.completedFuture(permit);
+        }
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        this.waiters.add(future);
+        return future;
+    }
+
+    /**
+     * @return The current limit on requests in flight
+     */
+    public synchronized int getLimit() {
+        return this.algorithm.getLimit();
+    }
+
+    /**
+     * @return The number of permits currently held
+     */
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    /**
+     * @return The number of callers waiting for a permit
+     */
+    public synchronized int getWaiting() {
+        return this.waiters.size();
+    }
+
+    /**
+     * Give up waiting on a future, returning its permit if it completed in the meantime.
+     */
+    @Nullable
+    private Permit abandon(CompletableFuture<Permit> future) {
+        if (future.cancel(false)) {
+            synchronized (this) {
+                this.waiters.remove(future);
+            }
+            return null;
+        }
+        return future.join();
+    }
+
+    private Permit newPermit() {
+        this.inFlight++;
+        return new Permit(this.inFlight, this.ticker.read());
+    }
+
+    private void release(@Nullable Permit permit, boolean dropped, boolean sample) {
+        List<CompletableFuture<Permit>> ready = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+        synchronized (this) {
+            this.inFlight--;
+            if (sample) {
+                this.algorithm.onSample(this.ticker.read() - permit.startNanos, permit.inFlight, dropped);
+            }
+            while (!this.waiters.isEmpty() && this.inFlight < this.algorithm.getLimit()) {
+                CompletableFuture<Permit> waiter = this.waiters.poll();
+                if (!waiter.isDone()) {
+                    ready.add(waiter);
+                    permits.add(this.newPermit());
+                }
+            }
+        }
+        for (int i = 0; i < ready.size(); i++) {
+            if (!ready.get(i).complete(permits.get(i))) {
+                // Cancelled after it was chosen; pass the permit on
+                permits.get(i).release();
+            }
+        }
+    }
+
+    /**
+     * Permission to send one request. Exactly one of {@link #onSuccess()}, {@link #onDropped()}, or
+     * {@link #release()} should be called when the request completes; later calls are ignored.
+     */
+    public final class Permit {
+        private final int inFlight;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlight, long startNanos) {
+            this.inFlight = inFlight;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Release the permit after a successful response, recording its round trip time.
+         */
+        public void onSuccess() {
+            if (this.released.compareAndSet(false, true)) {
+                ConcurrencyLimiter.this.release(this, false, true);
+            }
+        }
+
+        /**
+         * Release the permit after a request was rejected or failed from overload, eg. a 429 or 5xx
+         * response or a timeout.
+         */
+        public void onDropped() {
+            if (this.released.compareAndSet(false, true)) {
+                ConcurrencyLimiter.this.release(this, true, true);
+            }
+        }
+
+        /**
+         * Release the permit without affecting the limit, eg. if the request was never sent.
+         */
+        public void release() {
+            if (this.released.compareAndSet(false, true)) {
+                ConcurrencyLimiter.this.release(this, false, false);
+            }
+        }
+    }
+}
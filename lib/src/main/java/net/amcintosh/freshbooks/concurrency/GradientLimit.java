@@ -0,0 +1,125 @@
+package net.amcintosh.freshbooks.concurrency;
+
+/**
+ * Latency gradient limit, which grows while round trip times stay near their long term average and
+ * shrinks as they rise above it, ie. as requests start to queue at FreshBooks.
+ * <br><br>
+ * Each sample moves the limit towards <code>limit * gradient + sqrt(limit)</code>, where the gradient is
+ * the ratio of the long term average round trip time (with some tolerance) to the latest one, between
+ * 0.5 and 1. The square root term lets the limit probe for more capacity. Dropped requests multiply
+ * the limit by 0.9.
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private static final double BACK_OFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double tolerance = 1.5;
+    private double smoothing = 0.2;
+    private int longWindow = 600;
+    private double limit;
+    private double longRttNanos = 0;
+
+    /**
+     * Create a limit starting at 20, between 1 and 200.
+     */
+    public GradientLimit() {
+        this(20, 1, 200);
+    }
+
+    /**
+     * @param initialLimit Limit to start at
+     * @param minLimit Lowest the limit can fall to
+     * @param maxLimit Highest the limit can grow to
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Set how far the latest round trip time may exceed the long term average before the limit
+     * shrinks. Defaults to 1.5.
+     *
+     * @param tolerance Tolerance, at least 1
+     * @return The limit instance
+     */
+    public GradientLimit withTolerance(double tolerance) {
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("Tolerance must be at least 1, got " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Set how far each sample moves the limit towards its new value. Defaults to 0.2.
+     *
+     * @param smoothing Smoothing factor greater than 0 and up to 1
+     * @return The limit instance
+     */
+    public GradientLimit withSmoothing(double smoothing) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Smoothing must be greater than 0 and up to 1, got " + smoothing);
+        }
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    /**
+     * Set the number of samples the long term average round trip time covers. Defaults to 600.
+     *
+     * @param samples Number of samples
+     * @return The limit instance
+     */
+    public GradientLimit withLongWindow(int samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("Long window must be at least 1 sample, got " + samples);
+        }
+        this.longWindow = samples;
+        return this;
+    }
+
+    @Override
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    /**
+     * @return The long term average round trip time in nanoseconds
+     */
+    public long getLongRttNanos() {
+        return (long) this.longRttNanos;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            this.limit = Math.max(this.minLimit, this.limit * BACK_OFF_RATIO);
+            return;
+        }
+        rttNanos = Math.max(rttNanos, 1);
+        if (this.longRttNanos == 0) {
+            this.longRttNanos = rttNanos;
+        } else {
+            this.longRttNanos += (rttNanos - this.longRttNanos) * 2 / (this.longWindow + 1);
+        }
+        // After a sustained slow down, let the average recover quickly once latency falls back
+        if (this.longRttNanos / rttNanos > 2) {
+            this.longRttNanos *= 0.95;
+        }
+        // Do not grow the limit when it is not being used
+        if (inFlight * 2 < this.limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, this.tolerance * this.longRttNanos / rttNanos));
+        double newLimit = this.limit * gradient + Math.sqrt(this.limit);
+        newLimit = this.limit * (1 - this.smoothing) + newLimit * this.smoothing;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+    }
+}
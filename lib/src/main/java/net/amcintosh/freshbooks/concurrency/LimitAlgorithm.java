@@ -0,0 +1,23 @@
+package net.amcintosh.freshbooks.concurrency;
+
+/**
+ * Algorithm that adjusts the number of requests a {@link ConcurrencyLimiter} allows in flight.
+ * <br><br>
+ * Implementations are called while the limiter's lock is held, so need not be thread-safe themselves.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @return The current limit on requests in flight, at least 1
+     */
+    int getLimit();
+
+    /**
+     * Update the limit from the outcome of a request.
+     *
+     * @param rttNanos Round trip time of the request in nanoseconds
+     * @param inFlight Number of requests in flight when the request was sent, including itself
+     * @param dropped If the request was rejected or failed from overload, eg. a 429 or 5xx response
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
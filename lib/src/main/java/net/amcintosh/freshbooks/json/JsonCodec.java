@@ -0,0 +1,48 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a model using its <code>@Key</code> field names without reflection.
+ * <br><br>
+ * Codecs are generated at build time for each model by the <code>codegen</code> annotation processor,
+ * and looked up through {@link JsonCodecs}.
+ *
+ * @param <T> The model class
+ */
+public interface JsonCodec<T> {
+
+    /**
+     * Read a model from the parser.
+     *
+     * @param parser Parser positioned at the <code>START_OBJECT</code> token of the model
+     * @return The model, with the parser left at its <code>END_OBJECT</code> token
+     * @throws IOException If the JSON cannot be read
+     */
+    default T read(JsonParser parser) throws IOException {
+        return this.read(parser, false);
+    }
+
+    /**
+     * Read a model from the parser.
+     *
+     * @param parser Parser positioned at the <code>START_OBJECT</code> token of the model
+     * @param lazy If models annotated with {@link LazyDecoding}, this one or those nested in it,
+     *             should be read lazily
+     * @return The model, with the parser left at its <code>END_OBJECT</code> token
+     * @throws IOException If the JSON cannot be read
+     */
+    T read(JsonParser parser, boolean lazy) throws IOException;
+
+    /**
+     * Write a model as a JSON object.
+     *
+     * @param generator Generator to write to
+     * @param value The model to write
+     * @throws IOException If the JSON cannot be written
+     */
+    void write(JsonGenerator generator, T value) throws IOException;
+}
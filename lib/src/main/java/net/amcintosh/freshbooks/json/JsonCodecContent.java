@@ -0,0 +1,48 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.http.AbstractHttpContent;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+
+/**
+ * JSON request content written with {@link JsonCodecs#serialize}, so any models in the data are
+ * written by their generated codecs. Otherwise equivalent to google-http-client's
+ * <code>JsonHttpContent</code>.
+ */
+public class JsonCodecContent extends AbstractHttpContent {
+
+    private final JsonFactory jsonFactory;
+    private final Object data;
+
+    /**
+     * @param jsonFactory Factory of the generator to write with
+     * @param data The data to write as the request body
+     */
+    public JsonCodecContent(JsonFactory jsonFactory, Object data) {
+        super(Json.MEDIA_TYPE);
+        this.jsonFactory = jsonFactory;
+        this.data = data;
+    }
+
+    /**
+     * @return The data written as the request body
+     */
+    public Object getData() {
+        return this.data;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        // The generator's own writer encodes every token separately, so buffer them
+        JsonGenerator generator = this.jsonFactory.createJsonGenerator(
+                new BufferedWriter(new OutputStreamWriter(out, this.getCharset())));
+        JsonCodecs.serialize(generator, this.data);
+        generator.flush();
+    }
+}
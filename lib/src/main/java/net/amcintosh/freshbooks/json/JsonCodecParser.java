@@ -0,0 +1,63 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.util.ObjectParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+/**
+ * Response parser that reads models with their generated codecs, for use as a request's
+ * <code>ObjectParser</code> in place of google-http-client's <code>JsonObjectParser</code>.
+ * Types without a codec are parsed by reflection as before.
+ */
+public class JsonCodecParser implements ObjectParser {
+
+    private final JsonFactory jsonFactory;
+    private final boolean lazy;
+
+    /**
+     * @param jsonFactory Factory of the parsers to read with
+     */
+    public JsonCodecParser(JsonFactory jsonFactory) {
+        this(jsonFactory, false);
+    }
+
+    /**
+     * @param jsonFactory Factory of the parsers to read with
+     * @param lazy If models annotated with {@link LazyDecoding} should be read lazily
+     */
+    public JsonCodecParser(JsonFactory jsonFactory, boolean lazy) {
+        this.jsonFactory = jsonFactory;
+        this.lazy = lazy;
+    }
+
+    @Override
+    public <T> T parseAndClose(InputStream in, Charset charset, Class<T> dataClass) throws IOException {
+        return JsonCodecs.parseAndClose(this.jsonFactory.createJsonParser(in, charset), dataClass, this.lazy);
+    }
+
+    @Override
+    public Object parseAndClose(InputStream in, Charset charset, Type dataType) throws IOException {
+        if (dataType instanceof Class<?>) {
+            return this.parseAndClose(in, charset, (Class<?>) dataType);
+        }
+        return this.jsonFactory.createJsonParser(in, charset).parse(dataType, true);
+    }
+
+    @Override
+    public <T> T parseAndClose(Reader reader, Class<T> dataClass) throws IOException {
+        return JsonCodecs.parseAndClose(this.jsonFactory.createJsonParser(reader), dataClass, this.lazy);
+    }
+
+    @Override
+    public Object parseAndClose(Reader reader, Type dataType) throws IOException {
+        if (dataType instanceof Class<?>) {
+            return this.parseAndClose(reader, (Class<?>) dataType);
+        }
+        return this.jsonFactory.createJsonParser(reader).parse(dataType, true);
+    }
+}
@@ -0,0 +1,364 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import com.google.api.client.util.Data;
+import com.google.api.client.util.GenericData;
+import net.amcintosh.freshbooks.models.api.ContentMap;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Looks up the generated {@link JsonCodec} of a model and uses it to read and write JSON, falling back to
+ * google-http-client's reflection based binding for classes without one.
+ * <br><br>
+ * The <code>read</code> and <code>write</code> helpers are used by the generated codecs. Each handles the
+ * common case for its type directly and hands anything else, such as a JSON <code>null</code>, to
+ * google-http-client so values are bound exactly as <code>parseAs</code> would bind them.
+ */
+public final class JsonCodecs {
+
+    private static final Map<Class<?>, JsonCodec<?>> CODECS = Collections.unmodifiableMap(GeneratedJsonCodecs.create());
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * Reads a single JSON value, starting at its first token.
+     *
+     * @param <T> Type of the value
+     */
+    @FunctionalInterface
+    public interface ValueReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Writes a single non-null value.
+     *
+     * @param <T> Type of the value
+     */
+    @FunctionalInterface
+    public interface ValueWriter<T> {
+        void write(JsonGenerator generator, T value) throws IOException;
+    }
+
+    /**
+     * Get the generated codec of a model.
+     *
+     * @param type The model class
+     * @return The codec, or null if none was generated for the class
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T> JsonCodec<T> get(Class<T> type) {
+        return (JsonCodec<T>) CODECS.get(type);
+    }
+
+    /**
+     * @param type The model class
+     * @return If a codec was generated for the class
+     */
+    public static boolean hasCodec(Class<?> type) {
+        return CODECS.containsKey(type);
+    }
+
+    /**
+     * Read a value from the start of the parser's input and close the parser.
+     *
+     * @param parser Parser at the start of the input
+     * @param type Class of the value
+     * @return The value
+     * @throws IOException If the JSON cannot be read
+     * @throws IllegalArgumentException If the JSON does not match the class
+     */
+    public static <T> T parseAndClose(JsonParser parser, Class<T> type) throws IOException {
+        return parseAndClose(parser, type, false);
+    }
+
+    /**
+     * Read a value from the start of the parser's input and close the parser.
+     *
+     * @param parser Parser at the start of the input
+     * @param type Class of the value
+     * @param lazy If models annotated with {@link LazyDecoding} should be read lazily
+     * @return The value
+     * @throws IOException If the JSON cannot be read
+     * @throws IllegalArgumentException If the JSON does not match the class
+     */
+    public static <T> T parseAndClose(JsonParser parser, Class<T> type, boolean lazy) throws IOException {
+        try {
+            if (parser.getCurrentToken() == null && parser.nextToken() == null) {
+                throw new IllegalArgumentException("no JSON input found");
+            }
+            return read(parser, type, lazy);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Read the value at the parser's current token, using the class's codec if it has one.
+     *
+     * @param parser Parser at the first token of the value
+     * @param type Class of the value
+     * @return The value
+     * @throws IOException If the JSON cannot be read
+     */
+    public static <T> T read(JsonParser parser, Class<T> type) throws IOException {
+        return read(parser, type, false);
+    }
+
+    /**
+     * Read the value at the parser's current token, using the class's codec if it has one.
+     *
+     * @param parser Parser at the first token of the value
+     * @param type Class of the value
+     * @param lazy If models annotated with {@link LazyDecoding} should be read lazily
+     * @return The value
+     * @throws IOException If the JSON cannot be read
+     */
+    public static <T> T read(JsonParser parser, Class<T> type, boolean lazy) throws IOException {
+        JsonCodec<T> codec = get(type);
+        if (codec != null && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+            return codec.read(parser, lazy);
+        }
+        return parser.parse(type);
+    }
+
+    /**
+     * Write a value, using the codec of each model it contains. Maps and collections are written
+     * entry by entry, and null entries are left out as <code>JsonGenerator.serialize</code> does.
+     * A <code>ContentMap</code> is written straight from its model's <code>writeContent</code>.
+     *
+     * @param generator Generator to write to
+     * @param value The value to write
+     * @throws IOException If the JSON cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public static void serialize(JsonGenerator generator, @Nullable Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (Data.isNull(value)) {
+            generator.writeNull();
+            return;
+        }
+        if (value instanceof String) {
+            generator.writeString((String) value);
+            return;
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+            return;
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+            return;
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+            return;
+        }
+        JsonCodec<Object> codec = (JsonCodec<Object>) CODECS.get(value.getClass());
+        if (codec != null) {
+            codec.write(generator, value);
+        } else if (value instanceof ContentMap) {
+            JsonContentWriter.write(generator, ((ContentMap) value).getModel());
+        } else if (value instanceof Map<?, ?> && !(value instanceof GenericData)) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    generator.writeFieldName(String.valueOf(entry.getKey()));
+                    serialize(generator, entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable<?>) {
+            generator.writeStartArray();
+            for (Object item : (Iterable<?>) value) {
+                serialize(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.serialize(value);
+        }
+    }
+
+    /**
+     * Move from the <code>START_OBJECT</code> token of a model to its first field.
+     *
+     * @return The <code>FIELD_NAME</code> of the first field, or <code>END_OBJECT</code> if it has none
+     */
+    public static JsonToken startObject(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON object but found " + token);
+        }
+        return token;
+    }
+
+    /**
+     * Read the value of a field that is not bound to a <code>@Key</code> field, as
+     * <code>GenericData</code> stores unknown keys.
+     */
+    public static Object readUnknown(JsonParser parser) throws IOException {
+        return parser.parse((Type) null, false);
+    }
+
+    public static String readString(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        return parser.parse(String.class);
+    }
+
+    public static Long readLong(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        return parser.parse(Long.class);
+    }
+
+    public static long readLongValue(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        return (Long) parser.parse(long.class, false);
+    }
+
+    public static Integer readInteger(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        return parser.parse(Integer.class);
+    }
+
+    public static int readIntValue(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        return (Integer) parser.parse(int.class, false);
+    }
+
+    public static Boolean readBoolean(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            return token == JsonToken.VALUE_TRUE;
+        }
+        return parser.parse(Boolean.class);
+    }
+
+    public static boolean readBooleanValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            return token == JsonToken.VALUE_TRUE;
+        }
+        return (Boolean) parser.parse(boolean.class, false);
+    }
+
+    public static <T> T readObject(JsonParser parser, JsonCodec<T> codec, Class<T> type, boolean lazy)
+            throws IOException {
+        if (parser.getCurrentToken() == JsonToken.START_OBJECT) {
+            return codec.read(parser, lazy);
+        }
+        return parser.parse(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ArrayList<T> readList(JsonParser parser, ValueReader<T> reader) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return Data.nullOf(ArrayList.class);
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected a JSON array but found " + token);
+        }
+        ArrayList<T> list = new ArrayList<>();
+        for (token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON array");
+            }
+            list.add(reader.read(parser));
+        }
+        return list;
+    }
+
+    public static void writeString(JsonGenerator generator, String value) throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    public static void writeLong(JsonGenerator generator, Long value) throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    public static void writeInteger(JsonGenerator generator, Integer value) throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    public static void writeBoolean(JsonGenerator generator, Boolean value) throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+
+    public static <T> void writeObject(JsonGenerator generator, JsonCodec<T> codec, T value) throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+        } else {
+            codec.write(generator, value);
+        }
+    }
+
+    public static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        serialize(generator, value);
+    }
+
+    public static <T> void writeList(JsonGenerator generator, Collection<T> value, ValueWriter<T> writer)
+            throws IOException {
+        if (Data.isNull(value)) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (T item : value) {
+            if (item != null) {
+                writer.write(generator, item);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Write the fields of a model that are not bound to a <code>@Key</code> field.
+     */
+    public static void writeUnknownKeys(JsonGenerator generator, GenericData value) throws IOException {
+        for (Map.Entry<String, Object> entry : value.getUnknownKeys().entrySet()) {
+            if (entry.getValue() != null) {
+                generator.writeFieldName(entry.getKey());
+                serialize(generator, entry.getValue());
+            }
+        }
+    }
+}
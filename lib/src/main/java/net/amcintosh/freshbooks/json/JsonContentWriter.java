@@ -0,0 +1,70 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonGenerator;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
+import net.amcintosh.freshbooks.models.api.ConvertibleContent;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the content of a <code>ConvertibleContent</code> model straight to a generator, producing the
+ * same JSON as serializing its <code>getContent()</code> Map without building the Map or those of the
+ * models nested in it.
+ */
+class JsonContentWriter implements ContentWriter {
+
+    private final JsonGenerator generator;
+
+    private JsonContentWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Write the content of a model as a JSON object.
+     *
+     * @param generator Generator to write to
+     * @param model The model to write
+     * @throws IOException If the JSON cannot be written
+     */
+    static void write(JsonGenerator generator, ConvertibleContent model) throws IOException {
+        new JsonContentWriter(generator).writeObject(model);
+    }
+
+    private void writeObject(ConvertibleContent model) throws IOException {
+        this.generator.writeStartObject();
+        model.writeContent(this);
+        this.generator.writeEndObject();
+    }
+
+    @Override
+    public void put(String key, @Nullable Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof List<?>) {
+            // As Util.convertContent, empty lists are left out
+            List<?> list = (List<?>) value;
+            if (list.isEmpty()) {
+                return;
+            }
+            this.generator.writeFieldName(key);
+            this.generator.writeStartArray();
+            for (Object item : list) {
+                if (item instanceof ConvertibleContent) {
+                    this.writeObject((ConvertibleContent) item);
+                } else {
+                    JsonCodecs.serialize(this.generator, item);
+                }
+            }
+            this.generator.writeEndArray();
+        } else if (value instanceof ConvertibleContent) {
+            this.generator.writeFieldName(key);
+            this.writeObject((ConvertibleContent) value);
+        } else {
+            this.generator.writeFieldName(key);
+            JsonCodecs.serialize(this.generator, value);
+        }
+    }
+}
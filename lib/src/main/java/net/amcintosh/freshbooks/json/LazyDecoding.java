@@ -0,0 +1,30 @@
+package net.amcintosh.freshbooks.json;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model that can be read lazily by clients built with
+ * <code>FreshBooksClientBuilder.withLazyDecoding()</code>.
+ * <br><br>
+ * The <code>codegen</code> processor generates a <code>&lt;Model&gt;_Lazy</code> subclass for the model. When
+ * read lazily, only the index fields named here are decoded. The JSON of the model's other <code>@Key</code>
+ * fields is kept and decoded the first time any other public method of the model is called.
+ * <br><br>
+ * Getters and setters of index fields do not decode the rest, so they must follow the
+ * <code>get</code>/<code>is</code>/<code>set</code> + field name convention and only use their own field.
+ * Eg. <code>dueDate</code> is read by <code>getDueDate()</code>.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface LazyDecoding {
+
+    /**
+     * @return The JSON names of the fields decoded as the model is read, eg. <code>due_date</code>
+     */
+    String[] value();
+}
@@ -0,0 +1,32 @@
+package net.amcintosh.freshbooks.json;
+
+/**
+ * A model read lazily, whose fields other than its {@link LazyDecoding} index fields are decoded when
+ * first used.
+ * <br><br>
+ * Lazy models are instances of the generated <code>&lt;Model&gt;_Lazy</code> subclass of their model class.
+ * Getters, setters, <code>equals</code>, <code>toString</code>, serialization, and reading the model as a
+ * <code>Map</code> all decode the remaining fields first. The exceptions are the final <code>GenericData</code>
+ * methods:
+ * <ul>
+ *     <li><code>get</code> and <code>remove</code> see fields that have not been decoded as <code>null</code>.
+ *     Call {@link #decode()} before using them with a model's <code>@Key</code> names.</li>
+ *     <li>A field given a value with <code>put</code> before the rest are decoded keeps that value.</li>
+ * </ul>
+ * <code>GenericData.equals</code> does not compare models of different classes, so a lazy model is only
+ * equal to other lazy models.
+ */
+public interface LazyModel {
+
+    /**
+     * Decode the remaining fields, if they have not already been decoded.
+     *
+     * @throws java.io.UncheckedIOException If the fields cannot be read
+     */
+    void decode();
+
+    /**
+     * @return If all the model's fields have been decoded
+     */
+    boolean isDecoded();
+}
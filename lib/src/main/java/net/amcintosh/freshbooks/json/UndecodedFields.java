@@ -0,0 +1,139 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Collects fields of a model read lazily as a compact JSON object, to be decoded later.
+ * <br><br>
+ * The parser does not expose where a value starts and ends in its input, so each field's tokens are
+ * appended to a buffer as they are read. Numbers are copied as their original text, so no precision is lost.
+ */
+public final class UndecodedFields {
+
+    private final StringBuilder json;
+
+    /**
+     * @param capacity Expected length of the copied fields, such as the length of the last model's
+     */
+    public UndecodedFields(int capacity) {
+        this.json = new StringBuilder(capacity).append('{');
+    }
+
+    /**
+     * Copy a field, leaving the parser at the last token of its value.
+     *
+     * @param name The field's JSON name
+     * @param parser Parser at the first token of the field's value
+     * @throws IOException If the value cannot be read
+     */
+    public void copy(String name, JsonParser parser) throws IOException {
+        if (this.json.length() > 1) {
+            this.json.append(',');
+        }
+        this.appendString(name);
+        this.json.append(':');
+        this.copyValue(parser);
+    }
+
+    /**
+     * @return The copied fields as a JSON object
+     */
+    public String toJson() {
+        return this.json.append('}').toString();
+    }
+
+    /**
+     * Create a parser at the start of fields collected by <code>toJson</code>.
+     *
+     * @param factory Factory the model was read with
+     * @param json The collected fields
+     * @return Parser at the <code>START_OBJECT</code> token of the fields
+     * @throws IOException If the JSON cannot be read
+     */
+    public static JsonParser parser(JsonFactory factory, String json) throws IOException {
+        JsonParser parser = factory.createJsonParser(json);
+        parser.nextToken();
+        return parser;
+    }
+
+    private void copyValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == null) {
+            throw new IOException("Unexpected end of JSON input");
+        }
+        switch (token) {
+            case START_OBJECT:
+                this.json.append('{');
+                for (token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                    if (this.json.charAt(this.json.length() - 1) != '{') {
+                        this.json.append(',');
+                    }
+                    this.appendString(parser.getText());
+                    this.json.append(':');
+                    parser.nextToken();
+                    this.copyValue(parser);
+                }
+                if (token != JsonToken.END_OBJECT) {
+                    throw new IOException("Unexpected end of JSON object");
+                }
+                this.json.append('}');
+                break;
+            case START_ARRAY:
+                this.json.append('[');
+                for (token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                    if (token == null) {
+                        throw new IOException("Unexpected end of JSON array");
+                    }
+                    if (this.json.charAt(this.json.length() - 1) != '[') {
+                        this.json.append(',');
+                    }
+                    this.copyValue(parser);
+                }
+                this.json.append(']');
+                break;
+            case VALUE_STRING:
+                this.appendString(parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                this.json.append(parser.getText());
+                break;
+            case VALUE_TRUE:
+                this.json.append("true");
+                break;
+            case VALUE_FALSE:
+                this.json.append("false");
+                break;
+            case VALUE_NULL:
+                this.json.append("null");
+                break;
+            default:
+                throw new IOException("Unexpected JSON token " + token);
+        }
+    }
+
+    /**
+     * Append a string as a JSON string, escaping only what the JSON grammar requires.
+     */
+    private void appendString(String value) {
+        StringBuilder json = this.json.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                json.append(value, start, i);
+                if (c == '"' || c == '\\') {
+                    json.append('\\').append(c);
+                } else {
+                    json.append(String.format("\\u%04x", (int) c));
+                }
+                start = i + 1;
+            }
+        }
+        json.append(value, start, value.length()).append('"');
+    }
+}
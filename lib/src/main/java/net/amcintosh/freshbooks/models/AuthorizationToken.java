@@ -98,6 +98,15 @@ public class AuthorizationToken {
         return Instant.ofEpochSecond(createdAt + expiresIn).atZone(Util.UTC_ZONE);
     }
 
+    /**
+     * If the token has creation and expiry times, ie. it came from an OAuth2 token response.
+     *
+     * @return True if {@link #getExpiresAt()} is known
+     */
+    public boolean hasExpiry() {
+        return createdAt != null && expiresIn != null;
+    }
+
     /**
      * Number of seconds since creation that the token will expire at.
      * <br><br>
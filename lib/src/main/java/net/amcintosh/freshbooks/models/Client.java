@@ -3,11 +3,13 @@ package net.amcintosh.freshbooks.models;
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.json.LazyDecoding;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -15,6 +17,7 @@ import java.util.Map;
  *
  * @see <a href="https://www.freshbooks.com/api/clients">FreshBooks API - Clients</a>
  */
+@LazyDecoding({"id", "email", "organization", "vis_state"})
 public class Client extends GenericJson implements ConvertibleContent {
 
     @Key Long id;
@@ -625,35 +628,38 @@ public class Client extends GenericJson implements ConvertibleContent {
     }
 
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "bus_phone", this.businessPhone);
-        Util.convertContent(content, "company_industry", this.companyIndustry);
-        Util.convertContent(content, "company_size", this.companySize);
-        Util.convertContent(content, "currency_code", this.currencyCode);
-        Util.convertContent(content, "email", this.email);
-        Util.convertContent(content, "fax", this.fax);
-        Util.convertContent(content, "fname", this.firstName);
-        Util.convertContent(content, "home_phone", this.homePhone);
-        Util.convertContent(content, "language", this.language);
-        Util.convertContent(content, "lname", this.lastName);
-        Util.convertContent(content, "note", this.note);
-        Util.convertContent(content, "organization", this.organization);
-        Util.convertContent(content, "p_city", this.billingCity);
-        Util.convertContent(content, "p_code", this.billingCode);
-        Util.convertContent(content, "p_country", this.billingCountry);
-        Util.convertContent(content, "p_province", this.billingProvince);
-        Util.convertContent(content, "p_street", this.billingStreet);
-        Util.convertContent(content, "p_street2", this.billingStreet2);
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("bus_phone", this.businessPhone);
+        content.put("company_industry", this.companyIndustry);
+        content.put("company_size", this.companySize);
+        content.put("currency_code", this.currencyCode);
+        content.put("email", this.email);
+        content.put("fax", this.fax);
+        content.put("fname", this.firstName);
+        content.put("home_phone", this.homePhone);
+        content.put("language", this.language);
+        content.put("lname", this.lastName);
+        content.put("note", this.note);
+        content.put("organization", this.organization);
+        content.put("p_city", this.billingCity);
+        content.put("p_code", this.billingCode);
+        content.put("p_country", this.billingCountry);
+        content.put("p_province", this.billingProvince);
+        content.put("p_street", this.billingStreet);
+        content.put("p_street2", this.billingStreet2);
         //@Key("pref_email") pref_email	bool	prefers email over ground mail
         //@Key("pref_gmail") pref_gmail	bool	prefers ground mail over email
-        Util.convertContent(content, "s_city", this.shippingCity);
-        Util.convertContent(content, "s_code", this.shippingCode);
-        Util.convertContent(content, "s_country", this.shippingCountry);
-        Util.convertContent(content, "s_province", this.shippingProvince);
-        Util.convertContent(content, "s_street", this.shippingStreet);
-        Util.convertContent(content, "s_street2", this.shippingStreet2);
-        Util.convertContent(content, "vat_name", this.vatName);
-        Util.convertContent(content, "vat_number", this.vatNumber);
-        return content;
+        content.put("s_city", this.shippingCity);
+        content.put("s_code", this.shippingCode);
+        content.put("s_country", this.shippingCountry);
+        content.put("s_province", this.shippingProvince);
+        content.put("s_street", this.shippingStreet);
+        content.put("s_street2", this.shippingStreet2);
+        content.put("vat_name", this.vatName);
+        content.put("vat_number", this.vatNumber);
     }
 }
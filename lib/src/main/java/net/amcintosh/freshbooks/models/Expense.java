@@ -4,8 +4,11 @@ import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import com.google.api.client.util.Value;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.json.LazyDecoding;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
@@ -16,6 +19,7 @@ import java.util.Map;
  *
  * @see <a href="https://www.freshbooks.com/api/expenses">FreshBooks API - Expenses</a>
  */
+@LazyDecoding({"id", "amount", "date", "vis_state"})
 public class Expense extends GenericJson implements ConvertibleContent {
 
     @Key("account_name") String accountName;
@@ -713,46 +717,45 @@ public class Expense extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        if (this.id == null) {
-            Util.convertContent(content, "status", this.status);
-        }
-        Util.convertContent(content, "account_name", this.accountName);
-        Util.convertContent(content, "accountid", this.accountId);
-        Util.convertContent(content, "amount", this.amount);
-        Util.convertContent(content, "bank_name", this.bankName);
-        Util.convertContent(content, "billable", this.billable);
-        Util.convertContent(content, "categoryid", this.categoryId);
-        Util.convertContent(content, "clientid", this.clientId);
-        Util.convertContent(content, "date", this.date);
-        Util.convertContent(content, "ext_accountid", this.extAccountId);
-        Util.convertContent(content, "ext_invoiceid", this.extInvoiceId);
-        Util.convertContent(content, "ext_systemid", this.extSystemId);
-        Util.convertContent(content, "has_receipt", this.hasReceipt);
-        Util.convertContent(content, "include_receipt", this.includeReceipt);
-        Util.convertContent(content, "invoiceid", this.invoiceId);
-        Util.convertContent(content, "is_cogs", this.isCogs);
-        Util.convertContent(content, "isduplicate", this.isDuplicate);
-        Util.convertContent(content, "markup_percent", this.markupPercent);
-        Util.convertContent(content, "modern_projectid", this.modernProjectId);
-        Util.convertContent(content, "notes", this.notes);
-        Util.convertContent(content, "potential_bill_payment", this.potentialBillPayment);
-        Util.convertContent(content, "projectid", this.projectId);
-        Util.convertContent(content, "staffid", this.staffId);
-        Util.convertContent(content, "status", this.status);
-        Util.convertContent(content, "taxAmount1", this.taxAmount1);
-        Util.convertContent(content, "taxAmount2", this.taxAmount2);
-        Util.convertContent(content, "taxName1", this.taxName1);
-        Util.convertContent(content, "taxName2", this.taxName2);
-        Util.convertContent(content, "taxPercent1", this.taxPercent1);
-        Util.convertContent(content, "taxPercent2", this.taxPercent2);
-        Util.convertContent(content, "transactionid", this.transactionId);
-        Util.convertContent(content, "vendor", this.vendor);
+        return ContentWriter.toMap(this);
+    }
 
-        // Includes and sub-resources
-        Util.convertContent(content, "attachment", this.attachment);
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("account_name", this.accountName);
+        content.put("accountid", this.accountId);
+        content.put("amount", this.amount);
+        content.put("bank_name", this.bankName);
+        content.put("billable", this.billable);
+        content.put("categoryid", this.categoryId);
+        content.put("clientid", this.clientId);
+        content.put("date", this.date);
+        content.put("ext_accountid", this.extAccountId);
+        content.put("ext_invoiceid", this.extInvoiceId);
+        content.put("ext_systemid", this.extSystemId);
+        content.put("has_receipt", this.hasReceipt);
+        content.put("include_receipt", this.includeReceipt);
+        content.put("invoiceid", this.invoiceId);
+        content.put("is_cogs", this.isCogs);
+        content.put("isduplicate", this.isDuplicate);
+        content.put("markup_percent", this.markupPercent);
+        content.put("modern_projectid", this.modernProjectId);
+        content.put("notes", this.notes);
+        content.put("potential_bill_payment", this.potentialBillPayment);
+        content.put("projectid", this.projectId);
+        content.put("staffid", this.staffId);
+        content.put("status", this.status);
+        content.put("taxAmount1", this.taxAmount1);
+        content.put("taxAmount2", this.taxAmount2);
+        content.put("taxName1", this.taxName1);
+        content.put("taxName2", this.taxName2);
+        content.put("taxPercent1", this.taxPercent1);
+        content.put("taxPercent2", this.taxPercent2);
+        content.put("transactionid", this.transactionId);
+        content.put("vendor", this.vendor);
 
-        return content;
+        // Includes and sub-resources
+        content.put("attachment", this.attachment);
     }
 
     public enum ExpenseStatus {
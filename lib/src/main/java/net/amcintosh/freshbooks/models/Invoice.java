@@ -5,8 +5,11 @@ import com.google.api.client.util.Key;
 import com.google.api.client.util.NullValue;
 import com.google.api.client.util.Value;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.json.LazyDecoding;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
@@ -21,6 +24,7 @@ import java.util.Map;
  *
  * @see <a href="https://www.freshbooks.com/api/invoices">FreshBooks API - Invoices</a>
  */
+@LazyDecoding({"id", "outstanding", "due_date", "vis_state"})
 public class Invoice extends GenericJson implements ConvertibleContent {
 
     @Key Long id;
@@ -1137,54 +1141,56 @@ public class Invoice extends GenericJson implements ConvertibleContent {
     }
 
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
         if (this.id == null) {
-            Util.convertContent(content, "ownerid", this.ownerId);
-            Util.convertContent(content, "estimateid", this.estimateId);
-            Util.convertContent(content, "sentid", this.sentId);
-            Util.convertContent(content, "status", this.status);
-            Util.convertContent(content, "display_status", this.displayStatus);
-            Util.convertContent(content, "autobill_status", this.autoBillStatus);
-            Util.convertContent(content, "payment_status", this.paymentStatus);
-            Util.convertContent(content, "last_order_status", this.lastOrderStatus);
-            Util.convertContent(content, "deposit_status", this.depositStatus);
-            Util.convertContent(content, "auto_bill", this.autoBill);
-            Util.convertContent(content, "v3_status", this.v3Status);
+            content.put("ownerid", this.ownerId);
+            content.put("estimateid", this.estimateId);
+            content.put("sentid", this.sentId);
+            content.put("status", this.status);
+            content.put("display_status", this.displayStatus);
+            content.put("autobill_status", this.autoBillStatus);
+            content.put("payment_status", this.paymentStatus);
+            content.put("last_order_status", this.lastOrderStatus);
+            content.put("deposit_status", this.depositStatus);
+            content.put("auto_bill", this.autoBill);
+            content.put("v3_status", this.v3Status);
         }
-        Util.convertContent(content, "invoice_number", this.invoiceNumber);
-        Util.convertContent(content, "customerid", this.customerId);
-        Util.convertContent(content, "create_date", this.createDate);
-        Util.convertContent(content, "generation_date", this.generationDate);
-        Util.convertContent(content, "discount_value", this.discountValue);
-        Util.convertContent(content, "discount_description", this.discountDescription);
-        Util.convertContent(content, "po_number", this.PONumber);
-        Util.convertContent(content, "currency_code", this.currencyCode);
-        Util.convertContent(content, "language", this.language);
-        Util.convertContent(content, "terms", this.terms);
-        Util.convertContent(content, "notes", this.notes);
-        Util.convertContent(content, "address", this.address);
-        Util.convertContent(content, "deposit_amount", this.depositAmount);
-        Util.convertContent(content, "deposit_percentage", this.depositPercentage);
-        Util.convertContent(content, "show_attachments", this.showAttachments);
-        Util.convertContent(content, "street", this.street);
-        Util.convertContent(content, "street2", this.street2);
-        Util.convertContent(content, "city", this.city);
-        Util.convertContent(content, "province", this.province);
-        Util.convertContent(content, "code", this.code);
-        Util.convertContent(content, "country", this.country);
-        Util.convertContent(content, "organization", this.organization);
-        Util.convertContent(content, "fname", this.fname);
-        Util.convertContent(content, "lname", this.lname);
-        Util.convertContent(content, "vat_name", this.VATName);
-        Util.convertContent(content, "vat_number", this.VATNumber);
-        Util.convertContent(content, "due_offset_days", this.dueOffsetDays);
-        Util.convertContent(content, "use_default_presentation", this.useDefaultPresentation);
+        content.put("invoice_number", this.invoiceNumber);
+        content.put("customerid", this.customerId);
+        content.put("create_date", this.createDate);
+        content.put("generation_date", this.generationDate);
+        content.put("discount_value", this.discountValue);
+        content.put("discount_description", this.discountDescription);
+        content.put("po_number", this.PONumber);
+        content.put("currency_code", this.currencyCode);
+        content.put("language", this.language);
+        content.put("terms", this.terms);
+        content.put("notes", this.notes);
+        content.put("address", this.address);
+        content.put("deposit_amount", this.depositAmount);
+        content.put("deposit_percentage", this.depositPercentage);
+        content.put("show_attachments", this.showAttachments);
+        content.put("street", this.street);
+        content.put("street2", this.street2);
+        content.put("city", this.city);
+        content.put("province", this.province);
+        content.put("code", this.code);
+        content.put("country", this.country);
+        content.put("organization", this.organization);
+        content.put("fname", this.fname);
+        content.put("lname", this.lname);
+        content.put("vat_name", this.VATName);
+        content.put("vat_number", this.VATNumber);
+        content.put("due_offset_days", this.dueOffsetDays);
+        content.put("use_default_presentation", this.useDefaultPresentation);
 
         // Includes and sub-resources
-        Util.convertContent(content, "lines", this.lines);
-        Util.convertContent(content, "presentation", this.presentation);
-
-        return content;
+        content.put("lines", this.lines);
+        content.put("presentation", this.presentation);
     }
 
 
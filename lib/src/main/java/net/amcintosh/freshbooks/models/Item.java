@@ -3,11 +3,12 @@ package net.amcintosh.freshbooks.models;
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -258,16 +259,18 @@ public class Item extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "description", this.description);
-        Util.convertContent(content, "inventory", this.inventory);
-        Util.convertContent(content, "name", this.name);
-        Util.convertContent(content, "qty", this.quantity);
-        Util.convertContent(content, "sku", this.sku);
-        Util.convertContent(content, "tax1", this.tax1);
-        Util.convertContent(content, "tax2", this.tax2);
-        Util.convertContent(content, "unit_cost", this.unitCost);
+        return ContentWriter.toMap(this);
+    }
 
-        return content;
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("description", this.description);
+        content.put("inventory", this.inventory);
+        content.put("name", this.name);
+        content.put("qty", this.quantity);
+        content.put("sku", this.sku);
+        content.put("tax1", this.tax1);
+        content.put("tax2", this.tax2);
+        content.put("unit_cost", this.unitCost);
     }
 }
@@ -4,8 +4,10 @@ import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import com.google.api.client.util.Value;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
@@ -298,19 +300,22 @@ public class LineItem extends GenericJson implements ConvertibleContent {
     }
 
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "lineid", this.lineId);
-        Util.convertContent(content, "description", this.description);
-        Util.convertContent(content, "expenseid", this.expenseId);
-        Util.convertContent(content, "name", this.name);
-        Util.convertContent(content, "qty", this.quantity);
-        Util.convertContent(content, "taxAmount1", this.taxAmount1);
-        Util.convertContent(content, "taxAmount2", this.taxAmount2);
-        Util.convertContent(content, "taxName1", this.taxName1);
-        Util.convertContent(content, "taxName2", this.taxName2);
-        Util.convertContent(content, "type", this.type);
-        Util.convertContent(content, "unit_cost", this.unitCost);
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("lineid", this.lineId);
+        content.put("description", this.description);
+        content.put("expenseid", this.expenseId);
+        content.put("name", this.name);
+        content.put("qty", this.quantity);
+        content.put("taxAmount1", this.taxAmount1);
+        content.put("taxAmount2", this.taxAmount2);
+        content.put("taxName1", this.taxName1);
+        content.put("taxName2", this.taxName2);
+        content.put("type", this.type);
+        content.put("unit_cost", this.unitCost);
     }
 
     /**
@@ -1,11 +1,11 @@
 package net.amcintosh.freshbooks.models;
 
 import com.google.api.client.util.Key;
-import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -71,9 +71,12 @@ public class Money implements ConvertibleContent {
     }
 
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "amount", this.amount);
-        Util.convertContent(content, "code", this.code);
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("amount", this.amount);
+        content.put("code", this.code);
     }
 }
@@ -3,11 +3,12 @@ package net.amcintosh.freshbooks.models;
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -232,15 +233,17 @@ public class OtherIncome extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "date", date);
-        Util.convertContent(content, "note", note);
-        Util.convertContent(content, "category_name", categoryName);
-        Util.convertContent(content, "payment_type", paymentType);
-        Util.convertContent(content, "source", source);
-        Util.convertContent(content, "amount", amount);
-        Util.convertContent(content, "taxes", taxes);
-
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("date", date);
+        content.put("note", note);
+        content.put("category_name", categoryName);
+        content.put("payment_type", paymentType);
+        content.put("source", source);
+        content.put("amount", amount);
+        content.put("taxes", taxes);
     }
 }
@@ -4,11 +4,12 @@ import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import com.google.api.client.util.Value;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -298,20 +299,22 @@ public class Payment extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "amount", this.amount);
-        Util.convertContent(content, "bulk_paymentid", this.bulkPaymentId);
-        Util.convertContent(content, "creditid", this.creditId);
-        Util.convertContent(content, "date", this.date);
-        Util.convertContent(content, "from_credit", this.fromCredit);
-        Util.convertContent(content, "invoiceid", this.invoiceId);
-        Util.convertContent(content, "note", this.note);
-        Util.convertContent(content, "orderid", this.orderId);
-        Util.convertContent(content, "overpaymentid", this.overpaymentId);
-        Util.convertContent(content, "send_client_notification", this.sendClientNotification);
-        Util.convertContent(content, "type", this.type);
-
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("amount", this.amount);
+        content.put("bulk_paymentid", this.bulkPaymentId);
+        content.put("creditid", this.creditId);
+        content.put("date", this.date);
+        content.put("from_credit", this.fromCredit);
+        content.put("invoiceid", this.invoiceId);
+        content.put("note", this.note);
+        content.put("orderid", this.orderId);
+        content.put("overpaymentid", this.overpaymentId);
+        content.put("send_client_notification", this.sendClientNotification);
+        content.put("type", this.type);
     }
 
     public enum PaymentType {
@@ -5,13 +5,14 @@ import com.google.api.client.util.Key;
 import com.google.api.client.util.NullValue;
 import com.google.api.client.util.Value;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -393,23 +394,26 @@ public class Project extends GenericJson implements ConvertibleContent {
     }
 
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "active", this.active);
-        Util.convertContent(content, "billing_method", this.billingMethod);
-        Util.convertContent(content, "budget", this.budget);
-        Util.convertContent(content, "client_id", this.clientId);
-        Util.convertContent(content, "complete", this.complete);
-        Util.convertContent(content, "description", this.description);
-        Util.convertContent(content, "due_date", this.dueDate);
-        Util.convertContent(content, "expense_markup", this.expenseMarkup);
-        Util.convertContent(content, "fixed_price", this.fixedPrice);
-        Util.convertContent(content, "internal", this.internal);
-        Util.convertContent(content, "project_manager_id", this.projectManagerId);
-        Util.convertContent(content, "project_type", this.projectType);
-        Util.convertContent(content, "rate", this.rate);
-        Util.convertContent(content, "retainer_id", this.retainerId);
-        Util.convertContent(content, "title", this.title);
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("active", this.active);
+        content.put("billing_method", this.billingMethod);
+        content.put("budget", this.budget);
+        content.put("client_id", this.clientId);
+        content.put("complete", this.complete);
+        content.put("description", this.description);
+        content.put("due_date", this.dueDate);
+        content.put("expense_markup", this.expenseMarkup);
+        content.put("fixed_price", this.fixedPrice);
+        content.put("internal", this.internal);
+        content.put("project_manager_id", this.projectManagerId);
+        content.put("project_type", this.projectType);
+        content.put("rate", this.rate);
+        content.put("retainer_id", this.retainerId);
+        content.put("title", this.title);
     }
 
     public static class ProjectGroup {
@@ -2,10 +2,10 @@ package net.amcintosh.freshbooks.models;
 
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
-import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -102,10 +102,12 @@ public class Service extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "name", name);
-        Util.convertContent(content, "billable", billable);
+        return ContentWriter.toMap(this);
+    }
 
-        return content;
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("name", name);
+        content.put("billable", billable);
     }
 }
@@ -3,10 +3,11 @@ package net.amcintosh.freshbooks.models;
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -188,12 +189,14 @@ public class Task extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-        Util.convertContent(content, "name", name);
-        Util.convertContent(content, "description", description);
-        Util.convertContent(content, "billable", billable);
-        Util.convertContent(content, "rate", rate);
+        return ContentWriter.toMap(this);
+    }
 
-        return content;
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("name", name);
+        content.put("description", description);
+        content.put("billable", billable);
+        content.put("rate", rate);
     }
 }
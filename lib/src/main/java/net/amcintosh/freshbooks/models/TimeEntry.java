@@ -3,13 +3,14 @@ package net.amcintosh.freshbooks.models;
 import com.google.api.client.json.GenericJson;
 import com.google.api.client.util.Key;
 import net.amcintosh.freshbooks.Util;
+import net.amcintosh.freshbooks.models.api.ContentWriter;
 import net.amcintosh.freshbooks.models.api.ConvertibleContent;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -384,27 +385,28 @@ public class TimeEntry extends GenericJson implements ConvertibleContent {
 
     @Override
     public Map<String, Object> getContent() {
-        Map<String, Object> content = new HashMap<>();
-
-        Util.convertContent(content, "active", this.active);
-        Util.convertContent(content, "billable", this.billable);
-        Util.convertContent(content, "billed", this.billed);
-        Util.convertContent(content, "client_id", this.clientId);
-        Util.convertContent(content, "duration", this.duration);
-        Util.convertContent(content, "client_id", this.clientId);
-        Util.convertContent(content, "identity_id", this.identityId);
-        Util.convertContent(content, "internal", this.internal);
-        Util.convertContent(content, "is_logged", this.isLogged);
-        Util.convertContent(content, "local_timezone", this.localTimezone);
-        Util.convertContent(content, "note", this.note);
-        Util.convertContent(content, "pending_client", this.pendingClient);
-        Util.convertContent(content, "pending_project", this.pendingProject);
-        Util.convertContent(content, "pending_task", this.pendingTask);
-        Util.convertContent(content, "project_id", this.projectId);
-        Util.convertContent(content, "retainer_id", this.retainerId);
-        Util.convertContent(content, "service_id", this.serviceId);
-        Util.convertContent(content, "started_at", this.startedAt);
-        Util.convertContent(content, "task_id", this.taskId);
-        return content;
+        return ContentWriter.toMap(this);
+    }
+
+    @Override
+    public void writeContent(ContentWriter content) throws IOException {
+        content.put("active", this.active);
+        content.put("billable", this.billable);
+        content.put("billed", this.billed);
+        content.put("client_id", this.clientId);
+        content.put("duration", this.duration);
+        content.put("identity_id", this.identityId);
+        content.put("internal", this.internal);
+        content.put("is_logged", this.isLogged);
+        content.put("local_timezone", this.localTimezone);
+        content.put("note", this.note);
+        content.put("pending_client", this.pendingClient);
+        content.put("pending_project", this.pendingProject);
+        content.put("pending_task", this.pendingTask);
+        content.put("project_id", this.projectId);
+        content.put("retainer_id", this.retainerId);
+        content.put("service_id", this.serviceId);
+        content.put("started_at", this.startedAt);
+        content.put("task_id", this.taskId);
     }
 }
@@ -0,0 +1,36 @@
+package net.amcintosh.freshbooks.models.api;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Read-only Map view of a model's <code>getContent()</code>, used as the request data of the
+ * <code>create</code> and <code>update</code> calls that take a model.
+ * <br><br>
+ * The request body is written straight from the model's <code>writeContent</code>, so the Map entries
+ * are only built if the view is read as a Map.
+ */
+public final class ContentMap extends AbstractMap<String, Object> {
+
+    private final ConvertibleContent model;
+
+    /**
+     * @param model The model to send
+     */
+    public ContentMap(ConvertibleContent model) {
+        this.model = model;
+    }
+
+    /**
+     * @return The model the content is written from
+     */
+    public ConvertibleContent getModel() {
+        return this.model;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(this.model.getContent()).entrySet();
+    }
+}
@@ -0,0 +1,46 @@
+package net.amcintosh.freshbooks.models.api;
+
+import net.amcintosh.freshbooks.Util;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Receives the values of a <code>ConvertibleContent</code> model, either collecting them into the Map
+ * returned by <code>getContent()</code> or writing them straight to a request body.
+ */
+@FunctionalInterface
+public interface ContentWriter {
+
+    /**
+     * Add a key/value to the content only if the value is not null.
+     * <br>
+     * Lists and objects implementing <code>ConvertibleContent</code> are converted as
+     * <code>Util.convertContent</code> does.
+     *
+     * @param key The key to add
+     * @param value The value of the key if not null
+     * @throws IOException If the value cannot be written
+     */
+    void put(String key, @Nullable Object value) throws IOException;
+
+    /**
+     * Collect the content of a model into a Map with <code>Util.convertContent</code>.
+     *
+     * @param model The model to convert
+     * @return Map of the model's content
+     */
+    static Map<String, Object> toMap(ConvertibleContent model) {
+        Map<String, Object> content = new HashMap<>();
+        try {
+            model.writeContent((key, value) -> Util.convertContent(content, key, value));
+        } catch (IOException e) {
+            // Not thrown when collecting into a Map
+            throw new UncheckedIOException(e);
+        }
+        return content;
+    }
+}
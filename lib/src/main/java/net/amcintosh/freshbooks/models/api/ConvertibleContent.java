@@ -1,5 +1,6 @@
 package net.amcintosh.freshbooks.models.api;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -14,4 +15,18 @@ public interface ConvertibleContent {
      * @return
      */
     public Map<String, Object> getContent();
+
+    /**
+     * Write the same values as <code>getContent()</code> to a writer, so a request body can be written
+     * without building the Map. The SDK's models write their fields directly; by default the entries
+     * of <code>getContent()</code> are written.
+     *
+     * @param content The writer to put each value to
+     * @throws IOException If the values cannot be written
+     */
+    default void writeContent(ContentWriter content) throws IOException {
+        for (Map.Entry<String, Object> entry : this.getContent().entrySet()) {
+            content.put(entry.getKey(), entry.getValue());
+        }
+    }
 }
@@ -70,6 +70,24 @@ public class PaginationQueryBuilder implements QueryBuilder {
         return this;
     }
 
+    /**
+     * Get the page number to query.
+     *
+     * @return The page number, or 0 if not set
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Get the number of results per page.
+     *
+     * @return The number of results per page, or 0 if not set
+     */
+    public int getPerPage() {
+        return perPage;
+    }
+
     @Override
     public String toString() {
         return "PaginationQueryBuilder{" +
@@ -0,0 +1,212 @@
+package net.amcintosh.freshbooks.ratelimit;
+
+import com.google.common.base.Ticker;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side rate limiter that throttles requests before they are sent.
+ * <br><br>
+ * Requests are limited by a token bucket for the whole client and, optionally, by a token bucket
+ * for each account or business. When FreshBooks responds with a 429, the rate of the bucket for that
+ * account or business (or the client-wide bucket if there is none) is halved, then recovers towards
+ * the configured rate as requests succeed.
+ *
+ * <pre>{@code
+ * RateLimiter rateLimiter = new RateLimiter(20)
+ *     .withTenantLimit(5)
+ *     .withTenantLimit("ABC123", 10);
+ * }</pre>
+ */
+public class RateLimiter {
+
+    private final Ticker ticker;
+    private final TokenBucket clientBucket;
+    private final Map<String, Double> tenantRates = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> tenantBuckets = new ConcurrentHashMap<>();
+    private double defaultTenantRate = 0;
+    private long maxWaitNanos = Long.MAX_VALUE;
+
+    /**
+     * @param requestsPerSecond Maximum rate of requests for the whole client
+     */
+    public RateLimiter(double requestsPerSecond) {
+        this(requestsPerSecond, Ticker.systemTicker());
+    }
+
+    RateLimiter(double requestsPerSecond, Ticker ticker) {
+        this.ticker = ticker;
+        this.clientBucket = new TokenBucket(requestsPerSecond, ticker);
+    }
+
+    /**
+     * Limit the rate of requests to each account or business.
+     *
+     * @param requestsPerSecond Maximum rate of requests to any one account or business
+     * @return The rate limiter instance
+     */
+    public RateLimiter withTenantLimit(double requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Requests per second must be positive, got " + requestsPerSecond);
+        }
+        this.defaultTenantRate = requestsPerSecond;
+        return this;
+    }
+
+    /**
+     * Limit the rate of requests to one account or business, overriding {@link #withTenantLimit(double)}.
+     *
+     * @param tenantId The accountId or businessId
+     * @param requestsPerSecond Maximum rate of requests to the account or business
+     * @return The rate limiter instance
+     */
+    public RateLimiter withTenantLimit(String tenantId, double requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Requests per second must be positive, got " + requestsPerSecond);
+        }
+        this.tenantRates.put(tenantId, requestsPerSecond);
+        return this;
+    }
+
+    /**
+     * Set the longest a request will wait for the rate limiter before failing. By default requests
+     * wait as long as needed. A wait of 0 fails requests immediately if the limit has been reached.
+     *
+     * @param maxWait Maximum time to wait
+     * @param unit Time unit of <code>maxWait</code>
+     * @return The rate limiter instance
+     */
+    public RateLimiter withMaxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * Wait until a request to the account or business is allowed, up to the maximum wait set
+     * with {@link #withMaxWait(long, TimeUnit)}.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     * @return true if the request may be sent, false if it could not be allowed within the maximum wait
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public boolean acquire(@Nullable String tenantId) throws InterruptedException {
+        return this.tryAcquire(tenantId, this.maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wait until a request to the account or business is allowed, up to the maximum wait set
+     * with {@link #withMaxWait(long, TimeUnit)} or the provided timeout, whichever is shorter.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     * @param timeout Maximum time to wait, such as the time left before a deadline
+     * @param unit Time unit of <code>timeout</code>
+     * @return true if the request may be sent, false if it could not be allowed within the wait
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public boolean acquire(@Nullable String tenantId, long timeout, TimeUnit unit) throws InterruptedException {
+        return this.tryAcquire(tenantId, Math.min(this.maxWaitNanos, unit.toNanos(timeout)), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Allow a request to the account or business only if it is within the limit right now.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     * @return true if the request may be sent
+     */
+    public boolean tryAcquire(@Nullable String tenantId) {
+        try {
+            return this.tryAcquire(tenantId, 0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Never waits
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Wait until a request to the account or business is allowed, up to the provided timeout.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     * @param timeout Maximum time to wait
+     * @param unit Time unit of <code>timeout</code>
+     * @return true if the request may be sent, false if it could not be allowed within the timeout
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public boolean tryAcquire(@Nullable String tenantId, long timeout, TimeUnit unit) throws InterruptedException {
+        long timeoutNanos = unit.toNanos(timeout);
+        TokenBucket tenantBucket = this.getTenantBucket(tenantId);
+
+        long waitNanos = this.clientBucket.take();
+        if (tenantBucket != null) {
+            waitNanos = Math.max(waitNanos, tenantBucket.take());
+        }
+        if (waitNanos > timeoutNanos) {
+            this.clientBucket.giveBack();
+            if (tenantBucket != null) {
+                tenantBucket.giveBack();
+            }
+            return false;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Record that FreshBooks rate limited a request, slowing down further requests.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     */
+    public void onRateLimited(@Nullable String tenantId) {
+        TokenBucket tenantBucket = this.getTenantBucket(tenantId);
+        if (tenantBucket != null) {
+            tenantBucket.backOff();
+        } else {
+            this.clientBucket.backOff();
+        }
+    }
+
+    /**
+     * Record that a request was not rate limited, letting a reduced rate recover.
+     *
+     * @param tenantId The accountId or businessId of the request, or <code>null</code> if it has none
+     */
+    public void onSuccess(@Nullable String tenantId) {
+        TokenBucket tenantBucket = this.getTenantBucket(tenantId);
+        if (tenantBucket != null) {
+            tenantBucket.recover();
+        }
+        this.clientBucket.recover();
+    }
+
+    /**
+     * Get the current allowed rate, which is lower than the configured rate after FreshBooks has
+     * rate limited requests.
+     *
+     * @param tenantId The accountId or businessId, or <code>null</code> for the client-wide rate
+     * @return The allowed requests per second
+     */
+    public double getRate(@Nullable String tenantId) {
+        TokenBucket tenantBucket = this.getTenantBucket(tenantId);
+        if (tenantBucket != null) {
+            return Math.min(tenantBucket.getRate(), this.clientBucket.getRate());
+        }
+        return this.clientBucket.getRate();
+    }
+
+    @Nullable
+    private TokenBucket getTenantBucket(@Nullable String tenantId) {
+        if (tenantId == null) {
+            return null;
+        }
+        double rate = this.tenantRates.getOrDefault(tenantId, this.defaultTenantRate);
+        if (rate <= 0) {
+            return null;
+        }
+        return this.tenantBuckets.computeIfAbsent(tenantId, id -> new TokenBucket(rate, this.ticker));
+    }
+}
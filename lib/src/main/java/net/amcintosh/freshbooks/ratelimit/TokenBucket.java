@@ -0,0 +1,94 @@
+package net.amcintosh.freshbooks.ratelimit;
+
+import com.google.common.base.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that refills at an adjustable rate up to one second's worth of tokens.
+ * <br><br>
+ * Taking a token may leave the bucket in debt, in which case the caller must wait for the
+ * returned time before making its request. This lets waiting happen outside the lock.
+ */
+class TokenBucket {
+
+    // Lowest rate the bucket will tune down to, as a fraction of the configured rate
+    private static final double MINIMUM_RATE_FRACTION = 0.05;
+    // Rate increase after each successful request, as a fraction of the configured rate
+    private static final double RECOVERY_FRACTION = 0.05;
+    private static final double BACK_OFF_FACTOR = 0.5;
+
+    private final Ticker ticker;
+    private final double configuredRate;
+    private final double capacity;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param requestsPerSecond The maximum sustained rate
+     * @param ticker Source of the current time
+     */
+    TokenBucket(double requestsPerSecond, Ticker ticker) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("Requests per second must be positive, got " + requestsPerSecond);
+        }
+        this.ticker = ticker;
+        this.configuredRate = requestsPerSecond;
+        this.capacity = Math.max(1, requestsPerSecond);
+        this.rate = requestsPerSecond;
+        this.tokens = this.capacity;
+        this.lastRefill = ticker.read();
+    }
+
+    /**
+     * Take a token, going into debt if none are available.
+     *
+     * @return Nanoseconds the caller must wait before using the token
+     */
+    synchronized long take() {
+        this.refill();
+        this.tokens -= 1;
+        if (this.tokens >= 0) {
+            return 0;
+        }
+        return (long) (-this.tokens / this.rate * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Return a token taken with {@link #take()} that was not used.
+     */
+    synchronized void giveBack() {
+        this.tokens = Math.min(this.capacity, this.tokens + 1);
+    }
+
+    /**
+     * Halve the rate after the server rate limited a request.
+     */
+    synchronized void backOff() {
+        this.refill();
+        this.rate = Math.max(this.configuredRate * MINIMUM_RATE_FRACTION, this.rate * BACK_OFF_FACTOR);
+    }
+
+    /**
+     * Move the rate back towards the configured rate after a successful request.
+     */
+    synchronized void recover() {
+        if (this.rate < this.configuredRate) {
+            this.refill();
+            this.rate = Math.min(this.configuredRate, this.rate + this.configuredRate * RECOVERY_FRACTION);
+        }
+    }
+
+    synchronized double getRate() {
+        return this.rate;
+    }
+
+    private void refill() {
+        long now = this.ticker.read();
+        double elapsedSeconds = (now - this.lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+        this.tokens = Math.min(this.capacity, this.tokens + elapsedSeconds * this.rate);
+        this.lastRefill = now;
+    }
+}
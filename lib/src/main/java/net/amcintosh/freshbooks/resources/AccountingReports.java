@@ -4,6 +4,7 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
 import net.amcintosh.freshbooks.models.builders.FilterQueryBuilder;
 import net.amcintosh.freshbooks.models.reports.ProfitAndLoss;
@@ -19,6 +20,10 @@ public class AccountingReports extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public AccountingReports(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected ResourceType getResourceType() {
         return ResourceType.ACCOUNTING_REPORT;
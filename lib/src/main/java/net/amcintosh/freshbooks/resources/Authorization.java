@@ -21,7 +21,10 @@ import java.util.Map;
 public class Authorization extends AuthResource {
     private static final Logger LOGGER = LoggerFactory.getLogger(Authorization.class);
 
-    private static final String API_TOKEN_PATH = "/auth/oauth/token";
+    /**
+     * Relative URL of the token endpoint, which access tokens are requested and refreshed from.
+     */
+    public static final String API_TOKEN_PATH = "/auth/oauth/token";
     private static final String AUTH_PATH = "/service/auth/oauth/authorize";
 
     /**
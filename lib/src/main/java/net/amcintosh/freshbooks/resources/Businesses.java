@@ -0,0 +1,203 @@
+package net.amcintosh.freshbooks.resources;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.auth.TokenManager;
+import net.amcintosh.freshbooks.models.Business;
+import net.amcintosh.freshbooks.models.Identity;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached businesses of the currently authorized user, from the FreshBooks /me endpoint.
+ * <br><br>
+ * Accounting resources take an <code>accountId</code>, while project-like resources take a
+ * <code>businessId</code>. This maps between the two without calling the /me endpoint for every lookup.
+ * The identity is loaded on first use and again once the time-to-live has passed or the client's
+ * token is replaced with a new authorization. Refreshing the token does not reload it.
+ * <br><br>
+ * Eg.
+ * <pre>
+ * long businessId = freshBooksClient.businesses().getBusinessId(accountId);
+ * ProjectList projects = freshBooksClient.projects().list(businessId);
+ * </pre>
+ */
+public class Businesses {
+
+    private final FreshBooksClient freshBooksClient;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param ttl Time-to-live of the cached identity
+     * @param unit Time unit of the time-to-live
+     */
+    public Businesses(FreshBooksClient freshBooksClient, long ttl, TimeUnit unit) {
+        this(freshBooksClient, ttl, unit, Ticker.systemTicker());
+    }
+
+    Businesses(FreshBooksClient freshBooksClient, long ttl, TimeUnit unit, Ticker ticker) {
+        this.freshBooksClient = freshBooksClient;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Get the currently authorized identity.
+     *
+     * @return Identity of the authorized user
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    public Identity getIdentity() throws FreshBooksException {
+        return this.get().identity;
+    }
+
+    /**
+     * Get the businesses the authorized user is a member of.
+     *
+     * @return The user's business memberships
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    public List<Identity.BusinessMembership> getMemberships() throws FreshBooksException {
+        return this.get().memberships;
+    }
+
+    /**
+     * Get a business the authorized user is a member of.
+     *
+     * @param businessId The business id
+     * @return The business, or null if the user is not a member of it
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    @Nullable
+    public Business getBusiness(long businessId) throws FreshBooksException {
+        return this.get().byBusinessId.get(businessId);
+    }
+
+    /**
+     * Get the business with an accounting account id.
+     *
+     * @param accountId The accounting account id
+     * @return The business, or null if the user is not a member of it
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    @Nullable
+    public Business getBusinessByAccountId(String accountId) throws FreshBooksException {
+        return this.get().byAccountId.get(accountId);
+    }
+
+    /**
+     * Get the business id of an accounting account id, eg. to make project calls for an account.
+     *
+     * @param accountId The accounting account id
+     * @return The business id, or null if the user is not a member of the business
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    @Nullable
+    public Long getBusinessId(String accountId) throws FreshBooksException {
+        Business business = this.getBusinessByAccountId(accountId);
+        return business != null ? business.getId() : null;
+    }
+
+    /**
+     * Get the accounting account id of a business, eg. to make accounting calls for a business.
+     *
+     * @param businessId The business id
+     * @return The account id, or null if the user is not a member of the business or it has no account
+     * @throws FreshBooksException If the identity needs to be loaded and the call is not successful
+     */
+    @Nullable
+    public String getAccountId(long businessId) throws FreshBooksException {
+        Business business = this.getBusiness(businessId);
+        return business != null ? business.getAccountId() : null;
+    }
+
+    /**
+     * Load the identity again now, eg. after the user has been added to a business.
+     *
+     * @throws FreshBooksException If the call is not successful
+     */
+    public void refresh() throws FreshBooksException {
+        this.load();
+    }
+
+    /**
+     * Discard the cached identity, so it is loaded again on next use.
+     */
+    public void invalidate() {
+        this.snapshot = null;
+    }
+
+    private Snapshot get() throws FreshBooksException {
+        Snapshot current = this.snapshot;
+        if (this.isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = this.snapshot;
+            if (this.isFresh(current)) {
+                return current;
+            }
+            return this.load();
+        }
+    }
+
+    private synchronized Snapshot load() throws FreshBooksException {
+        TokenManager tokenManager = this.freshBooksClient.getTokenManager();
+        long authorizationVersion = tokenManager != null ? tokenManager.getAuthorizationVersion() : 0;
+        Identity identity = new CurrentUser(this.freshBooksClient).get();
+        Snapshot loaded = new Snapshot(identity, tokenManager, authorizationVersion, this.ticker.read());
+        this.snapshot = loaded;
+        return loaded;
+    }
+
+    private boolean isFresh(@Nullable Snapshot current) {
+        if (current == null || this.ticker.read() - current.loadedAt >= this.ttlNanos) {
+            return false;
+        }
+        TokenManager tokenManager = this.freshBooksClient.getTokenManager();
+        long authorizationVersion = tokenManager != null ? tokenManager.getAuthorizationVersion() : 0;
+        return tokenManager == current.tokenManager && authorizationVersion == current.authorizationVersion;
+    }
+
+    private static class Snapshot {
+        final Identity identity;
+        final List<Identity.BusinessMembership> memberships;
+        final ImmutableMap<Long, Business> byBusinessId;
+        final ImmutableMap<String, Business> byAccountId;
+        final TokenManager tokenManager;
+        final long authorizationVersion;
+        final long loadedAt;
+
+        Snapshot(Identity identity, @Nullable TokenManager tokenManager, long authorizationVersion, long loadedAt) {
+            this.identity = identity;
+            this.memberships = identity.getBusinessMemberships() != null
+                    ? ImmutableList.copyOf(identity.getBusinessMemberships()) : ImmutableList.of();
+            ImmutableMap.Builder<Long, Business> byBusinessId = ImmutableMap.builder();
+            ImmutableMap.Builder<String, Business> byAccountId = ImmutableMap.builder();
+            for (Identity.BusinessMembership membership : this.memberships) {
+                Business business = membership.getBusiness();
+                if (business == null) {
+                    continue;
+                }
+                byBusinessId.put(business.getId(), business);
+                if (business.getAccountId() != null) {
+                    byAccountId.put(business.getAccountId(), business);
+                }
+            }
+            // A user with more than one role in a business has a membership for each
+            this.byBusinessId = byBusinessId.buildKeepingLast();
+            this.byAccountId = byAccountId.buildKeepingLast();
+            this.tokenManager = tokenManager;
+            this.authorizationVersion = authorizationVersion;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
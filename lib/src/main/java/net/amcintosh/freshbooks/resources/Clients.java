@@ -4,17 +4,21 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.Client;
 import net.amcintosh.freshbooks.models.ClientList;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.VisState;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks clients resource with calls to get, list, create, update, delete
@@ -25,6 +29,10 @@ public class Clients extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Clients(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "users/clients";
@@ -55,6 +63,36 @@ public class Clients extends AccountingResource {
         return new ClientList(result.response.result);
     }
 
+    /**
+     * Get a page of clients, handing each client to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each client in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Client> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of clients using the query strings generated by the QueryBuilder list, handing each
+     * client to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each client in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Client> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "clients", Client.class, consumer);
+    }
+
     /**
      * Get a single client with the corresponding id.
      *
@@ -88,7 +126,7 @@ public class Clients extends AccountingResource {
      * Create a new client from the provided Client model.
      * Makes a POST call against the client resource endpoint.
      *
-     * This calls `client.getContent()` to get a hash map of data.
+     * The request body is written straight from `client.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Client model with create data
@@ -97,7 +135,7 @@ public class Clients extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Client create(String accountId, Client data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -129,7 +167,7 @@ public class Clients extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Client update(String accountId, long clientId, Client data) throws FreshBooksException {
-        return this.update(accountId, clientId, data.getContent());
+        return this.update(accountId, clientId, new ContentMap(data));
     }
 
     /**
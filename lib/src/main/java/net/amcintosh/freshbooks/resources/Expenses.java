@@ -4,15 +4,18 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.*;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks expenses resource with calls to get, list, create, update, delete
@@ -23,6 +26,10 @@ public class Expenses extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Expenses(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "expenses/expenses";
@@ -53,6 +60,36 @@ public class Expenses extends AccountingResource {
         return new ExpenseList(result.response.result);
     }
 
+    /**
+     * Get a page of expenses, handing each expense to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each expense in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Expense> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of expenses using the query strings generated by the QueryBuilder list, handing each
+     * expense to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each expense in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Expense> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "expenses", Expense.class, consumer);
+    }
+
     /**
      * Get a single expense with the corresponding id.
      *
@@ -86,7 +123,7 @@ public class Expenses extends AccountingResource {
      * Create a new expense from the provided Expense model.
      * Makes a POST call against the expense resource endpoint.
      * <br><br>
-     * This calls <code>expense.getContent()</code> to get a hash map of data.
+     * The request body is written straight from <code>expense.writeContent()</code> without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Expense model with create data
@@ -95,7 +132,7 @@ public class Expenses extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Expense create(String accountId, Expense data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -127,7 +164,7 @@ public class Expenses extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Expense update(String accountId, long expenseId, Expense data) throws FreshBooksException {
-        return this.update(accountId, expenseId, data.getContent());
+        return this.update(accountId, expenseId, new ContentMap(data));
     }
 
     /**
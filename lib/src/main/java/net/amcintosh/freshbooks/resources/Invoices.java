@@ -4,16 +4,20 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.Invoice;
 import net.amcintosh.freshbooks.models.InvoiceList;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks invoices resource with calls to get, list, create, update, delete
@@ -24,6 +28,10 @@ public class Invoices extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Invoices(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "invoices/invoices";
@@ -54,6 +62,36 @@ public class Invoices extends AccountingResource {
         return new InvoiceList(result.response.result);
     }
 
+    /**
+     * Get a page of invoices, handing each invoice to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each invoice in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Invoice> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of invoices using the query strings generated by the QueryBuilder list, handing each
+     * invoice to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each invoice in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Invoice> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "invoices", Invoice.class, consumer);
+    }
+
     /**
      * Get a single invoice with the corresponding id.
      *
@@ -87,7 +125,7 @@ public class Invoices extends AccountingResource {
      * Create a new invoice from the provided Invoice model.
      * Makes a POST call against the invoice resource endpoint.
      *
-     * This calls `invoice.getContent()` to get a hash map of data.
+     * The request body is written straight from `invoice.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Invoice model with create data
@@ -96,7 +134,7 @@ public class Invoices extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Invoice create(String accountId, Invoice data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -128,7 +166,7 @@ public class Invoices extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Invoice update(String accountId, long invoiceId, Invoice data) throws FreshBooksException {
-        return this.update(accountId, invoiceId, data.getContent());
+        return this.update(accountId, invoiceId, new ContentMap(data));
     }
 
     /**
@@ -4,15 +4,18 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.*;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks items resource with calls to get, list, create, update, delete
@@ -23,6 +26,10 @@ public class Items extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Items(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "items/items";
@@ -53,6 +60,36 @@ public class Items extends AccountingResource {
         return new ItemList(result.response.result);
     }
 
+    /**
+     * Get a page of items, handing each item to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each item in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Item> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of items using the query strings generated by the QueryBuilder list, handing each
+     * item to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each item in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Item> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "items", Item.class, consumer);
+    }
+
     /**
      * Get a single item with the corresponding id.
      *
@@ -86,7 +123,7 @@ public class Items extends AccountingResource {
      * Create a new item from the provided Item model.
      * Makes a POST call against the item resource endpoint.
      *
-     * This calls `item.getContent()` to get a hash map of data.
+     * The request body is written straight from `item.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Ttem model with create data
@@ -95,7 +132,7 @@ public class Items extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Item create(String accountId, Item data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -127,7 +164,7 @@ public class Items extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Item update(String accountId, long itemId, Item data) throws FreshBooksException {
-        return this.update(accountId, itemId, data.getContent());
+        return this.update(accountId, itemId, new ContentMap(data));
     }
 
     /**
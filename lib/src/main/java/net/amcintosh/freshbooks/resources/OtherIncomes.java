@@ -4,15 +4,18 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.*;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks other incomes resource with calls to get, list, create, update, delete
@@ -23,6 +26,10 @@ public class OtherIncomes extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public OtherIncomes(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "other_incomes/other_incomes";
@@ -53,6 +60,36 @@ public class OtherIncomes extends AccountingResource {
         return new OtherIncomeList(result.response.result);
     }
 
+    /**
+     * Get a page of other incomes, handing each other income to the consumer as soon as it is read from
+     * the response rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each other income in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<OtherIncome> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of other incomes using the query strings generated by the QueryBuilder list, handing each
+     * other income to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each other income in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<OtherIncome> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "other_income", OtherIncome.class, consumer);
+    }
+
     /**
      * Get a single other income with the corresponding id.
      *
@@ -86,7 +123,7 @@ public class OtherIncomes extends AccountingResource {
      * Create a new other income from the provided OtherIncome model.
      * Makes a POST call against the other income resource endpoint.
      *
-     * This calls `otherIncome.getContent()` to get a hash map of data.
+     * The request body is written straight from `otherIncome.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data OtherIncome model with create data
@@ -95,7 +132,7 @@ public class OtherIncomes extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public OtherIncome create(String accountId, OtherIncome data) throws FreshBooksException {
-        return create(accountId, data.getContent());
+        return create(accountId, new ContentMap(data));
     }
 
     /**
@@ -127,7 +164,7 @@ public class OtherIncomes extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public OtherIncome update(String accountId, long otherIncomeId, OtherIncome data) throws FreshBooksException {
-        return update(accountId, otherIncomeId, data.getContent());
+        return update(accountId, otherIncomeId, new ContentMap(data));
     }
 
     /**
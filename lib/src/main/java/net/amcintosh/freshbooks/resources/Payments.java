@@ -4,15 +4,18 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.*;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class Payments extends AccountingResource {
 
@@ -20,6 +23,10 @@ public class Payments extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Payments(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "payments/payments";
@@ -50,6 +57,36 @@ public class Payments extends AccountingResource {
         return new PaymentList(result.response.result);
     }
 
+    /**
+     * Get a page of payments, handing each payment to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each payment in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Payment> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of payments using the query strings generated by the QueryBuilder list, handing each
+     * payment to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each payment in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Payment> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "payments", Payment.class, consumer);
+    }
+
     /**
      * Get a single payment with the corresponding id.
      *
@@ -83,7 +120,7 @@ public class Payments extends AccountingResource {
      * Create a new payment from the provided Payment model.
      * Makes a POST call against the payment resource endpoint.
      *
-     * This calls `payment.getContent()` to get a hash map of data.
+     * The request body is written straight from `payment.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Payment model with create data
@@ -92,7 +129,7 @@ public class Payments extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Payment create(String accountId, Payment data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -124,7 +161,7 @@ public class Payments extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Payment update(String accountId, long paymentId, Payment data) throws FreshBooksException {
-        return this.update(accountId, paymentId, data.getContent());
+        return this.update(accountId, paymentId, new ContentMap(data));
     }
 
     /**
@@ -4,8 +4,11 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.Project;
 import net.amcintosh.freshbooks.models.ProjectList;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.api.ProjectListResponse;
 import net.amcintosh.freshbooks.models.api.ProjectResponse;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
@@ -14,6 +17,7 @@ import net.amcintosh.freshbooks.resources.api.ProjectResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks projects resource with calls to get, list, create, update, delete
@@ -24,6 +28,10 @@ public class Projects extends ProjectResource {
         super(freshBooksClient);
     }
 
+    public Projects(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPathForList() {
         return "projects";
@@ -59,6 +67,36 @@ public class Projects extends ProjectResource {
         return new ProjectList(result);
     }
 
+    /**
+     * Get a page of projects, handing each project to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param consumer Receives each project in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, Consumer<Project> consumer) throws FreshBooksException {
+        return this.listEach(businessId, null, consumer);
+    }
+
+    /**
+     * Get a page of projects using the query strings generated by the QueryBuilder list, handing each
+     * project to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each project in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, List<QueryBuilder> builders, Consumer<Project> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(businessId, true, builders);
+        return this.handleListStream(url, "projects", Project.class, consumer);
+    }
+
     /**
      * Get a single project with the corresponding id.
      *
@@ -92,7 +130,7 @@ public class Projects extends ProjectResource {
      * Create a new project from the provided Project model.
      * Makes a POST call against the project resource endpoint.
      *
-     * This calls `project.getContent()` to get a hash map of data.
+     * The request body is written straight from `project.writeContent()` without building a hash map.
      *
      * @param businessId Id of the business
      * @param data Project model with create data
@@ -101,7 +139,7 @@ public class Projects extends ProjectResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Project create(long businessId, Project data) throws FreshBooksException {
-        return this.create(businessId, data.getContent());
+        return this.create(businessId, new ContentMap(data));
     }
 
     /**
@@ -133,7 +171,7 @@ public class Projects extends ProjectResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Project update(long businessId, long projectId, Project data) throws FreshBooksException {
-        return this.update(businessId, projectId, data.getContent());
+        return this.update(businessId, projectId, new ContentMap(data));
     }
 
     /**
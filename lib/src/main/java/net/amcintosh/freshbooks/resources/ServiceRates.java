@@ -4,8 +4,10 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.ServiceRate;
 import net.amcintosh.freshbooks.models.ServiceRateList;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.api.ProjectListResponse;
 import net.amcintosh.freshbooks.models.api.ProjectResponse;
 import net.amcintosh.freshbooks.resources.api.CommentSubResource;
@@ -21,6 +23,10 @@ public class ServiceRates extends CommentSubResource {
         super(freshBooksClient);
     }
 
+    public ServiceRates(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPathForParent() {
         return "service";
@@ -68,7 +74,7 @@ public class ServiceRates extends CommentSubResource {
      * Create a new service rate from the provided ServiceRate model.
      * Makes a POST call against the service rates resource endpoint.
      *
-     * This calls `serviceRate.getContent()` to get a hash map of data.
+     * The request body is written straight from `serviceRate.writeContent()` without building a hash map.
      *
      * @param businessId Id of the business
      * @param serviceId Id of the service to set the rate for
@@ -78,7 +84,7 @@ public class ServiceRates extends CommentSubResource {
      * @throws FreshBooksException If the call is not successful
      */
     public ServiceRate create(long businessId, long serviceId, ServiceRate data) throws FreshBooksException {
-        return this.create(businessId, serviceId, data.getContent());
+        return this.create(businessId, serviceId, new ContentMap(data));
     }
 
     /**
@@ -111,7 +117,7 @@ public class ServiceRates extends CommentSubResource {
      * @throws FreshBooksException If the call is not successful
      */
     public ServiceRate update(long businessId, long serviceId, ServiceRate data) throws FreshBooksException {
-        return this.update(businessId, serviceId, data.getContent());
+        return this.update(businessId, serviceId, new ContentMap(data));
     }
 
     /**
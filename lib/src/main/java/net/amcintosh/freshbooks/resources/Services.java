@@ -4,8 +4,11 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.Service;
 import net.amcintosh.freshbooks.models.ServiceList;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.api.ProjectListResponse;
 import net.amcintosh.freshbooks.models.api.ProjectResponse;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
@@ -14,6 +17,7 @@ import net.amcintosh.freshbooks.resources.api.CommentResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks services resource with calls to get, list, create, update, delete
@@ -24,6 +28,10 @@ public class Services extends CommentResource {
         super(freshBooksClient);
     }
 
+    public Services(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPathForSingle() {
         return "service";
@@ -60,6 +68,36 @@ public class Services extends CommentResource {
 
     }
 
+    /**
+     * Get a page of services, handing each service to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param consumer Receives each service in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, Consumer<Service> consumer) throws FreshBooksException {
+        return this.listEach(businessId, null, consumer);
+    }
+
+    /**
+     * Get a page of services using the query strings generated by the QueryBuilder list, handing each
+     * service to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each service in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, List<QueryBuilder> builders, Consumer<Service> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(businessId, true, builders);
+        return this.handleListStream(url, "services", Service.class, consumer);
+    }
+
     /**
      * Get a single service with the corresponding id.
      *
@@ -93,7 +131,7 @@ public class Services extends CommentResource {
      * Create a new service from the provided Service model.
      * Makes a POST call against the service resource endpoint.
      *
-     * This calls `service.getContent()` to get a hash map of data.
+     * The request body is written straight from `service.writeContent()` without building a hash map.
      *
      * @param businessId Id of the business
      * @param data Service model with create data
@@ -102,7 +140,7 @@ public class Services extends CommentResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Service create(long businessId, Service data) throws FreshBooksException {
-        return create(businessId, data.getContent());
+        return create(businessId, new ContentMap(data));
     }
 
     /**
@@ -134,7 +172,7 @@ public class Services extends CommentResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Service update(long businessId, long serviceId, Service data) throws FreshBooksException {
-        return this.update(businessId, serviceId, data.getContent());
+        return this.update(businessId, serviceId, new ContentMap(data));
     }
 
     /**
@@ -4,17 +4,21 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.Task;
 import net.amcintosh.freshbooks.models.TaskList;
 import net.amcintosh.freshbooks.models.VisState;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
 import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.api.AccountingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks tasks resource with calls to get, list, create, update, delete
@@ -25,6 +29,10 @@ public class Tasks extends AccountingResource {
         super(freshBooksClient);
     }
 
+    public Tasks(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPath() {
         return "projects/tasks";
@@ -55,6 +63,36 @@ public class Tasks extends AccountingResource {
         return new TaskList(result.response.result);
     }
 
+    /**
+     * Get a page of tasks, handing each task to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param consumer Receives each task in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, Consumer<Task> consumer) throws FreshBooksException {
+        return this.listEach(accountId, null, consumer);
+    }
+
+    /**
+     * Get a page of tasks using the query strings generated by the QueryBuilder list, handing each
+     * task to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param accountId Id of the account
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each task in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(String accountId, List<QueryBuilder> builders, Consumer<Task> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(accountId, builders);
+        return this.handleListStream(url, "tasks", Task.class, consumer);
+    }
+
     /**
      * Get a single task with the corresponding id.
      *
@@ -88,7 +126,7 @@ public class Tasks extends AccountingResource {
      * Create a new task from the provided Task model.
      * Makes a POST call against the task resource endpoint.
      *
-     * This calls `task.getContent()` to get a hash map of data.
+     * The request body is written straight from `task.writeContent()` without building a hash map.
      *
      * @param accountId The alpha-numeric account id
      * @param data Task model with create data
@@ -97,7 +135,7 @@ public class Tasks extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Task create(String accountId, Task data) throws FreshBooksException {
-        return this.create(accountId, data.getContent());
+        return this.create(accountId, new ContentMap(data));
     }
 
     /**
@@ -129,7 +167,7 @@ public class Tasks extends AccountingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public Task update(String accountId, long taskId, Task data) throws FreshBooksException {
-        return this.update(accountId, taskId, data.getContent());
+        return this.update(accountId, taskId, new ContentMap(data));
     }
 
     /**
@@ -4,8 +4,11 @@ import com.google.api.client.http.HttpMethods;
 import com.google.common.collect.ImmutableMap;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.TimeEntry;
 import net.amcintosh.freshbooks.models.TimeEntryList;
+import net.amcintosh.freshbooks.models.api.ContentMap;
 import net.amcintosh.freshbooks.models.api.ProjectListResponse;
 import net.amcintosh.freshbooks.models.api.ProjectResponse;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
@@ -14,6 +17,7 @@ import net.amcintosh.freshbooks.resources.api.TimeTrackingResource;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * FreshBooks TimeEntries resource with calls to get, list, create, update, delete
@@ -27,6 +31,10 @@ public class TimeEntries extends TimeTrackingResource {
         super(freshBooksClient);
     }
 
+    public TimeEntries(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected String getPathForSingle() {
         return "time_entries";
@@ -62,6 +70,36 @@ public class TimeEntries extends TimeTrackingResource {
         return new TimeEntryList(result);
     }
 
+    /**
+     * Get a page of time entries, handing each time entry to the consumer as soon as it is read from the response
+     * rather than after the whole page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param consumer Receives each time entry in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, Consumer<TimeEntry> consumer) throws FreshBooksException {
+        return this.listEach(businessId, null, consumer);
+    }
+
+    /**
+     * Get a page of time entries using the query strings generated by the QueryBuilder list, handing each
+     * time entry to the consumer as soon as it is read from the response rather than after the whole
+     * page has been parsed.
+     *
+     * @param businessId Id of the business
+     * @param builders List of QueryBuilders
+     * @param consumer Receives each time entry in turn
+     * @return The pagination details of the page
+     * @throws FreshBooksException If the call is not successful
+     */
+    public Pages listEach(long businessId, List<QueryBuilder> builders, Consumer<TimeEntry> consumer)
+            throws FreshBooksException {
+        String url = this.getUrl(businessId, builders);
+        return this.handleListStream(url, "time_entries", TimeEntry.class, consumer);
+    }
+
     /**
      * Get a single time entry with the corresponding id.
      *
@@ -95,7 +133,7 @@ public class TimeEntries extends TimeTrackingResource {
      * Create a new time entry from the provided TimeEntry model.
      * Makes a POST call against the time_entries resource endpoint.
      *
-     * This calls `timeEntry.getContent()` to get a hash map of data.
+     * The request body is written straight from `timeEntry.writeContent()` without building a hash map.
      *
      * @param businessId Id of the business
      * @param data TimeEntry model with create data
@@ -104,7 +142,7 @@ public class TimeEntries extends TimeTrackingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public TimeEntry create(long businessId, TimeEntry data) throws FreshBooksException {
-        return this.create(businessId, data.getContent());
+        return this.create(businessId, new ContentMap(data));
     }
 
     /**
@@ -136,7 +174,7 @@ public class TimeEntries extends TimeTrackingResource {
      * @throws FreshBooksException If the call is not successful
      */
     public TimeEntry update(long businessId, long timeEntryId, TimeEntry data) throws FreshBooksException {
-        return this.update(businessId, timeEntryId, data.getContent());
+        return this.update(businessId, timeEntryId, new ContentMap(data));
     }
 
     /**
@@ -3,9 +3,13 @@ package net.amcintosh.freshbooks.resources.api;
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpResponse;
+import com.google.api.client.json.JsonParser;
 import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.cache.ResponseCache;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.api.AccountingError;
 import net.amcintosh.freshbooks.models.api.AccountingErrorDetails;
 import net.amcintosh.freshbooks.models.api.AccountingListResponse;
@@ -16,6 +20,7 @@ import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Handles resources under the <code>/accounting</code> endpoints.
@@ -30,6 +35,15 @@ public abstract class AccountingResource extends Resource {
         super(freshBooksClient);
     }
 
+    /**
+     *
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param options Deadline and cancellation for calls made through this resource
+     */
+    public AccountingResource(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected ResourceType getResourceType() {
         return ResourceType.ACCOUNTING_LIKE;
@@ -37,6 +51,11 @@ public abstract class AccountingResource extends Resource {
 
     protected abstract String getPath();
 
+    @Override
+    protected List<String> getResourcePaths() {
+        return ImmutableList.of(this.getPath());
+    }
+
     protected String getUrl(String accountId) {
         return this.getUrl(accountId, null);
     }
@@ -74,18 +93,31 @@ public abstract class AccountingResource extends Resource {
     }
 
     protected AccountingResponse handleRequest(String method, String url, Map<String, Object> content) throws FreshBooksException {
+        return this.handleCall(method, url, () -> this.executeRequest(method, url, content));
+    }
+
+    private AccountingResponse executeRequest(String method, String url, Map<String, Object> content) throws FreshBooksException {
         HttpResponse response;
         AccountingResponse model = null;
         int statusCode = 0;
         String statusMessage = null;
+        ResponseCache cache = this.getResponseCache(method);
+        String body = null;
 
         try {
-            HttpRequest request = this.freshBooksClient.request(method, url, content);
-            response = request.execute();
+            String cachedBody = cache != null ? cache.get(this.getResponseKey(url)) : null;
+            if (cachedBody != null) {
+                return this.parseResponse(cachedBody, AccountingResponse.class);
+            }
+            HttpRequest request = this.buildRequest(method, url, content);
+            response = this.sendRequest(request);
             statusCode = response.getStatusCode();
             statusMessage = response.getStatusMessage();
 
-            if (response.getContent() != null) {
+            if (response.getContent() != null && cache != null) {
+                body = response.parseAsString();
+                model = this.parseResponse(body, AccountingResponse.class);
+            } else if (response.getContent() != null) {
                 model = response.parseAs(AccountingResponse.class);
             }
         } catch (IOException | IllegalArgumentException e) {
@@ -109,9 +141,15 @@ public abstract class AccountingResource extends Resource {
         }
 
         if (response.isSuccessStatusCode() && method.equals(HttpMethods.DELETE)  && model != null && model.response != null ) {
+            this.invalidateCachedResponses(url);
             return null;
         }
         if (response.isSuccessStatusCode() && model != null && model.response != null && model.response.result != null) {
+            if (cache != null) {
+                cache.put(this.getClass(), this.getResponseKey(url), body);
+            } else if (!method.equals(HttpMethods.GET)) {
+                this.invalidateCachedResponses(url);
+            }
             return model;
         }
 
@@ -119,34 +157,129 @@ public abstract class AccountingResource extends Resource {
     }
 
     protected AccountingListResponse handleListRequest(String url) throws FreshBooksException {
+        return this.handleCall(HttpMethods.GET, url, () -> this.executeListRequest(url));
+    }
+
+    private AccountingListResponse executeListRequest(String url) throws FreshBooksException {
         HttpResponse response;
         AccountingListResponse model = null;
         int statusCode = 0;
         String statusMessage = null;
+        ResponseCache cache = this.getResponseCache(HttpMethods.GET);
+        String body = null;
 
         try {
-            HttpRequest request = this.freshBooksClient.request(HttpMethods.GET, url);
-            response = request.execute();
+            String cachedBody = cache != null ? cache.get(this.getResponseKey(url)) : null;
+            if (cachedBody != null) {
+                return this.parseResponse(cachedBody, AccountingListResponse.class);
+            }
+            HttpRequest request = this.buildRequest(HttpMethods.GET, url);
+            response = this.sendRequest(request);
             statusCode = response.getStatusCode();
             statusMessage = response.getStatusMessage();
 
-            if (response.getContent() != null) {
+            if (response.getContent() != null && cache != null) {
+                body = response.parseAsString();
+                model = this.parseResponse(body, AccountingListResponse.class);
+            } else if (response.getContent() != null) {
                 model = response.parseAs(AccountingListResponse.class);
             }
         } catch (IOException e) {
             throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode, e);
         }
 
-        if (!response.isSuccessStatusCode() && model != null && model.response != null && model.response.errors != null) {
+        if (!response.isSuccessStatusCode()) {
+            this.throwListError(model, statusMessage, statusCode);
+        }
+
+        if (model != null && model.response != null && model.response.result != null) {
+            if (cache != null) {
+                cache.put(this.getClass(), this.getResponseKey(url), body);
+            }
+            return model;
+        }
+
+        throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode);
+    }
+
+    private void throwListError(AccountingListResponse model, String statusMessage, int statusCode)
+            throws FreshBooksException {
+        if (model != null && model.response != null && model.response.errors != null) {
             AccountingError error = model.response.errors.get(0);
             throw new FreshBooksException(error.message, statusMessage, statusCode,
                     error.errno, error.field, error.object, error.value);
         }
+        throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode);
+    }
 
-        if (response.isSuccessStatusCode() && model != null && model.response != null && model.response.result != null) {
-            return model;
+    /**
+     * Make a list request, handing each item to the consumer as soon as it is read from the response.
+     *
+     * @param url The request URL
+     * @param listKey Key of the list in the result, eg. <code>invoices</code>
+     * @param itemClass Model class of the list items
+     * @param consumer Receives each item as it is parsed
+     * @return The pagination details of the list
+     * @throws FreshBooksException If the call is not successful
+     */
+    protected <T> Pages handleListStream(String url, String listKey, Class<T> itemClass,
+                                         Consumer<? super T> consumer) throws FreshBooksException {
+        ListStreamParser<T> listParser = ListStreamParser.accounting(listKey, itemClass,
+                this.freshBooksClient.isLazyDecoding());
+        return this.handleStreamingCall(url, () -> this.executeListStream(url, listParser, consumer));
+    }
+
+    private <T> Pages executeListStream(String url, ListStreamParser<T> listParser, Consumer<? super T> consumer)
+            throws FreshBooksException {
+        HttpResponse response;
+        Pages pages;
+        int statusCode = 0;
+        String statusMessage = null;
+        ResponseCache cache = this.getResponseCache(HttpMethods.GET);
+
+        try {
+            String cachedBody = cache != null ? cache.get(this.getResponseKey(url)) : null;
+            if (cachedBody != null) {
+                try (JsonParser parser = this.createJsonParser(cachedBody)) {
+                    pages = listParser.parse(parser, consumer);
+                }
+                if (pages == null) {
+                    throw new FreshBooksException("Returned an unexpected response", null, 0);
+                }
+                return pages;
+            }
+            HttpRequest request = this.buildRequest(HttpMethods.GET, url);
+            response = this.sendRequest(request);
+            statusCode = response.getStatusCode();
+            statusMessage = response.getStatusMessage();
+
+            if (!response.isSuccessStatusCode() || response.getContent() == null) {
+                AccountingListResponse model = null;
+                if (response.getContent() != null) {
+                    model = response.parseAs(AccountingListResponse.class);
+                }
+                this.throwListError(model, statusMessage, statusCode);
+            }
+            if (cache != null) {
+                String body = response.parseAsString();
+                try (JsonParser parser = this.createJsonParser(body)) {
+                    pages = listParser.parse(parser, consumer);
+                }
+                if (pages != null) {
+                    cache.put(this.getClass(), this.getResponseKey(url), body);
+                }
+            } else {
+                try (JsonParser parser = this.createJsonParser(response.getContent(), response.getContentCharset())) {
+                    pages = listParser.parse(parser, consumer);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode, e);
         }
 
-        throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode);
+        if (pages == null) {
+            throw new FreshBooksException("Returned an unexpected response", statusMessage, statusCode);
+        }
+        return pages;
     }
 }
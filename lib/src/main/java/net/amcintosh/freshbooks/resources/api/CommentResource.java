@@ -2,6 +2,7 @@ package net.amcintosh.freshbooks.resources.api;
 
 import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 
@@ -22,6 +23,15 @@ public abstract class CommentResource extends ProjectResource {
         super(freshBooksClient);
     }
 
+    /**
+     *
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param options Deadline and cancellation for calls made through this resource
+     */
+    public CommentResource(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected ResourceType getResourceType() {
         return ResourceType.PROJECT_LIKE;
@@ -2,6 +2,7 @@ package net.amcintosh.freshbooks.resources.api;
 
 import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.RequestOptions;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 
@@ -24,6 +25,15 @@ public abstract class CommentSubResource extends ProjectResource {
         super(freshBooksClient);
     }
 
+    /**
+     *
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param options Deadline and cancellation for calls made through this resource
+     */
+    public CommentSubResource(FreshBooksClient freshBooksClient, RequestOptions options) {
+        super(freshBooksClient, options);
+    }
+
     @Override
     protected ResourceType getResourceType() {
         return ResourceType.PROJECT_LIKE;
@@ -31,6 +41,11 @@ public abstract class CommentSubResource extends ProjectResource {
 
     protected abstract String getPathForParent();
 
+    @Override
+    protected List<String> getResourcePaths() {
+        return ImmutableList.of(this.getPathForParent(), this.getPathForList());
+    }
+
     protected String getUrl(long businessId) {
         return this.getUrl(businessId, null);
     }
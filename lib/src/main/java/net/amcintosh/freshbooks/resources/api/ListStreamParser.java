@@ -0,0 +1,174 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.JsonToken;
+import net.amcintosh.freshbooks.json.JsonCodecs;
+import net.amcintosh.freshbooks.models.Pages;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Reads a list response one token at a time, handing each item to a consumer as soon as it has been
+ * parsed rather than building the whole page first. Only the list being read and the pagination details
+ * are decoded; any other fields are skipped.
+ * <br><br>
+ * Accounting lists are nested as <code>{"response": {"result": {"invoices": [...], "page": 1, ...}}}</code>,
+ * while project-like lists are <code>{"projects": [...], "meta": {"page": 1, ...}}</code>.
+ */
+class ListStreamParser<T> {
+
+    private final boolean accounting;
+    private final String listKey;
+    private final Class<T> itemClass;
+    private final boolean lazy;
+
+    private int page;
+    private int pages;
+    private int perPage;
+    private int total;
+    private boolean found;
+
+    private ListStreamParser(boolean accounting, String listKey, Class<T> itemClass, boolean lazy) {
+        this.accounting = accounting;
+        this.listKey = listKey;
+        this.itemClass = itemClass;
+        this.lazy = lazy;
+    }
+
+    /**
+     * @param listKey Key of the list in the result, eg. <code>invoices</code>
+     * @param itemClass Model class of the list items
+     * @param lazy If items annotated with <code>@LazyDecoding</code> should be read lazily
+     */
+    static <T> ListStreamParser<T> accounting(String listKey, Class<T> itemClass, boolean lazy) {
+        return new ListStreamParser<>(true, listKey, itemClass, lazy);
+    }
+
+    /**
+     * @param listKey Key of the list in the response, eg. <code>projects</code>
+     * @param itemClass Model class of the list items
+     * @param lazy If items annotated with <code>@LazyDecoding</code> should be read lazily
+     */
+    static <T> ListStreamParser<T> project(String listKey, Class<T> itemClass, boolean lazy) {
+        return new ListStreamParser<>(false, listKey, itemClass, lazy);
+    }
+
+    /**
+     * Read the list, handing each item to the consumer.
+     *
+     * @param parser Parser at the start of the response body
+     * @param consumer Receives each item as it is parsed
+     * @return The pagination details, or null if the response has no result
+     * @throws IOException If the response cannot be read or is not a list response
+     */
+    @Nullable
+    Pages parse(JsonParser parser, Consumer<? super T> consumer) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object");
+        }
+        if (this.accounting) {
+            this.parseAccountingResponse(parser, consumer);
+        } else {
+            this.parseResult(parser, consumer);
+        }
+        if (!this.found) {
+            return null;
+        }
+        return new Pages(this.page, this.pages, this.perPage, this.total);
+    }
+
+    private void parseAccountingResponse(JsonParser parser, Consumer<? super T> consumer) throws IOException {
+        for (String name = nextField(parser); name != null; name = nextField(parser)) {
+            if (name.equals("response") && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+                for (String inner = nextField(parser); inner != null; inner = nextField(parser)) {
+                    if (inner.equals("result") && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+                        this.parseResult(parser, consumer);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Read the object holding the list, with the pagination details either alongside it
+     * or in a <code>meta</code> object.
+     */
+    private void parseResult(JsonParser parser, Consumer<? super T> consumer) throws IOException {
+        for (String name = nextField(parser); name != null; name = nextField(parser)) {
+            JsonToken token = parser.getCurrentToken();
+            if (name.equals(this.listKey) && token == JsonToken.START_ARRAY) {
+                this.found = true;
+                this.parseItems(parser, consumer);
+            } else if (this.accounting && token == JsonToken.VALUE_NUMBER_INT) {
+                this.readPageField(parser, name);
+            } else if (!this.accounting && name.equals("meta") && token == JsonToken.START_OBJECT) {
+                for (String meta = nextField(parser); meta != null; meta = nextField(parser)) {
+                    if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+                        this.readPageField(parser, meta);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseItems(JsonParser parser, Consumer<? super T> consumer) throws IOException {
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("Unexpected end of JSON list");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                consumer.accept(JsonCodecs.read(parser, this.itemClass, this.lazy));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPageField(JsonParser parser, String name) throws IOException {
+        switch (name) {
+            case "page":
+                this.page = parser.getIntValue();
+                break;
+            case "pages":
+                this.pages = parser.getIntValue();
+                break;
+            case "per_page":
+                this.perPage = parser.getIntValue();
+                break;
+            case "total":
+                this.total = parser.getIntValue();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Move to the value of the next field of the current object.
+     *
+     * @return The field name, or null at the end of the object
+     */
+    @Nullable
+    private static String nextField(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_OBJECT) {
+            return null;
+        }
+        if (token != JsonToken.FIELD_NAME) {
+            throw new IOException("Unexpected JSON token " + token);
+        }
+        String name = parser.getCurrentName();
+        parser.nextToken();
+        return name;
+    }
+}
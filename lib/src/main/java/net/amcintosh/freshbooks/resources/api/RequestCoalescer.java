@@ -0,0 +1,83 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces identical concurrent requests so that only one is in flight at a time.
+ * <br><br>
+ * The first caller for a key makes the call. Callers with the same key that arrive while it is
+ * in flight wait for it and receive the same result object, or the same exception.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * A call that can be shared between concurrent callers.
+     *
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws FreshBooksException;
+    }
+
+    /**
+     * Make the call, or wait for an identical call already in flight.
+     *
+     * @param key Key identifying identical calls, eg. the request URL
+     * @param call The call to make if none is in flight for the key
+     * @return The result of the call
+     * @throws FreshBooksException If the call fails or the thread is interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Call<T> call) throws FreshBooksException {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) this.await(existing);
+        }
+
+        T result;
+        try {
+            result = call.call();
+        } catch (FreshBooksException | RuntimeException | Error e) {
+            this.inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        this.inFlight.remove(key, future);
+        future.complete(result);
+        return result;
+    }
+
+    /**
+     * @return The number of calls currently in flight
+     */
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> future) throws FreshBooksException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FreshBooksException("Interrupted waiting for a response", null, 0, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FreshBooksException) {
+                throw (FreshBooksException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+}
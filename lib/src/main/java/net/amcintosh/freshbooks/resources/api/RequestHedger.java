@@ -0,0 +1,384 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.amcintosh.freshbooks.FreshBooksException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges slow <code>get</code> and <code>list</code> calls by sending a second, identical request
+ * when the first has not answered within a percentile of the latency recently observed for the
+ * endpoint. The first attempt to succeed is used and the other is cancelled.
+ * <br><br>
+ * Eg.
+ * <pre>
+ * new RequestHedger()
+ *     .withPercentile(95)
+ *     .withLatencyWindow(100, 20)
+ *     .withMinimumDelay(50, TimeUnit.MILLISECONDS)
+ * </pre>
+ * Calls are not hedged until enough latencies have been observed for the endpoint. An attempt that
+ * fails before the hedge is sent fails the call; retries are left to the client's retry handling.
+ * <br><br>
+ * The first attempt runs on the calling thread, and hedges on a pool of at most
+ * {@value #DEFAULT_THREADS} daemon threads owned by the hedger. Cancelling an attempt closes the connection
+ * of the response it is reading, so a call won by the hedge returns once the first attempt has received
+ * its response, or has failed. Threads are not interrupted.
+ */
+public class RequestHedger {
+
+    private static final int DEFAULT_THREADS = 8;
+
+    private double percentile = 95;
+    private int windowSize = 100;
+    private int minimumSamples = 20;
+    private long minimumDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private Executor executor;
+    private ScheduledThreadPoolExecutor scheduler;
+    private boolean shutdown = false;
+
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<Thread, Attempt> running = new ConcurrentHashMap<>();
+    private final AtomicLong hedgeCount = new AtomicLong();
+
+    /**
+     * Set the percentile of recent latencies an attempt may take before a hedge is sent.
+     * Defaults to 95.
+     *
+     * @param percentile Percentile, greater than 0 and up to 100
+     * @return The hedger instance
+     */
+    public RequestHedger withPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be greater than 0 and up to 100");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Set how many of the most recent latencies of an endpoint the percentile is calculated from,
+     * and how many must be observed before calls to it are hedged. Defaults to 100 and 20.
+     *
+     * @param windowSize Number of latencies kept for each endpoint
+     * @param minimumSamples Number of latencies needed before hedging
+     * @return The hedger instance
+     */
+    public RequestHedger withLatencyWindow(int windowSize, int minimumSamples) {
+        if (windowSize < 1 || minimumSamples < 1 || minimumSamples > windowSize) {
+            throw new IllegalArgumentException("Minimum samples must be between 1 and the window size");
+        }
+        this.windowSize = windowSize;
+        this.minimumSamples = minimumSamples;
+        this.latencies.clear();
+        return this;
+    }
+
+    /**
+     * Set the shortest time to wait before sending a hedge, so fast endpoints are not hedged on
+     * small variations in latency. Defaults to 10 milliseconds.
+     *
+     * @param delay Minimum hedge delay
+     * @param unit Time unit of the delay
+     * @return The hedger instance
+     */
+    public RequestHedger withMinimumDelay(long delay, TimeUnit unit) {
+        this.minimumDelayNanos = unit.toNanos(delay);
+        return this;
+    }
+
+    /**
+     * Set the executor hedges are sent on. By default they are sent on the pool of daemon threads owned
+     * by the hedger, which then only times when hedges are due.
+     *
+     * @param executor Executor to send hedges on
+     * @return The hedger instance
+     */
+    public RequestHedger withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Make the call, sending a hedge if it is slower than the recent latency of the endpoint.
+     *
+     * @param endpoint The endpoint latencies are tracked under
+     * @param call The call to make
+     * @return The result of the first attempt to succeed
+     * @throws FreshBooksException If all attempts fail, or the thread is interrupted while waiting
+     */
+    public <T> T execute(String endpoint, RequestCoalescer.Call<T> call) throws FreshBooksException {
+        LatencyWindow window = this.latencies.computeIfAbsent(endpoint, key -> new LatencyWindow(this.windowSize));
+        long delay = window.percentile(this.percentile, this.minimumSamples);
+        if (delay < 0) {
+            return this.timed(window, call);
+        }
+
+        Attempt first = new Attempt();
+        Attempt hedge = new Attempt();
+        AtomicBoolean decided = new AtomicBoolean();
+        CompletableFuture<T> hedged = new CompletableFuture<>();
+        ScheduledFuture<?> timer;
+        try {
+            timer = this.getScheduler().schedule(() -> {
+                if (decided.compareAndSet(false, true)) {
+                    this.sendHedge(first, hedge, window, call, hedged);
+                }
+            }, Math.max(delay, this.minimumDelayNanos), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return this.timed(window, call);
+        }
+
+        T result;
+        try {
+            result = this.attempt(first, window, call);
+        } catch (FreshBooksException e) {
+            if (decided.compareAndSet(false, true)) {
+                timer.cancel(false);
+                throw e;
+            }
+            return this.awaitHedge(hedge, hedged, e);
+        } catch (RuntimeException | Error e) {
+            this.cancelHedge(decided, timer, hedge);
+            throw e;
+        }
+        this.cancelHedge(decided, timer, hedge);
+        return result;
+    }
+
+    /**
+     * Stop the hedger's threads. Calls made afterwards are not hedged.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+        }
+    }
+
+    /**
+     * @return The number of hedges sent
+     */
+    public long getHedgeCount() {
+        return this.hedgeCount.get();
+    }
+
+    /**
+     * Get how long a call to the endpoint may take before a hedge is sent.
+     *
+     * @param endpoint The endpoint latencies are tracked under
+     * @param unit Time unit of the result
+     * @return The hedge delay, or -1 if not enough latencies have been observed for the endpoint
+     */
+    public long getHedgeDelay(String endpoint, TimeUnit unit) {
+        LatencyWindow window = this.latencies.get(endpoint);
+        long delay = window != null ? window.percentile(this.percentile, this.minimumSamples) : -1;
+        if (delay < 0) {
+            return -1;
+        }
+        return unit.convert(Math.max(delay, this.minimumDelayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Check each attempt of the request is still wanted before it is sent, and note the response it reads
+     * so it can be closed if the other attempt wins.
+     *
+     * @param request A request made by a call this hedger may be running
+     */
+    void track(HttpRequest request) {
+        HttpExecuteInterceptor interceptor = request.getInterceptor();
+        request.setInterceptor(httpRequest -> {
+            Attempt attempt = this.running.get(Thread.currentThread());
+            if (attempt != null) {
+                attempt.checkActive();
+            }
+            if (interceptor != null) {
+                interceptor.intercept(httpRequest);
+            }
+        });
+        HttpResponseInterceptor responseInterceptor = request.getResponseInterceptor();
+        request.setResponseInterceptor(response -> {
+            if (responseInterceptor != null) {
+                responseInterceptor.interceptResponse(response);
+            }
+            Attempt attempt = this.running.get(Thread.currentThread());
+            if (attempt != null) {
+                attempt.reading(response);
+            }
+        });
+    }
+
+    private void cancelHedge(AtomicBoolean decided, ScheduledFuture<?> timer, Attempt hedge) {
+        if (decided.compareAndSet(false, true)) {
+            timer.cancel(false);
+        } else {
+            hedge.cancel();
+        }
+    }
+
+    private <T> void sendHedge(Attempt first, Attempt hedge, LatencyWindow window, RequestCoalescer.Call<T> call,
+                               CompletableFuture<T> hedged) {
+        this.hedgeCount.incrementAndGet();
+        Runnable send = () -> {
+            try {
+                if (hedged.complete(this.attempt(hedge, window, call))) {
+                    first.cancel();
+                }
+            } catch (Throwable t) {
+                hedged.completeExceptionally(t);
+            }
+        };
+        if (this.executor == null) {
+            send.run();
+            return;
+        }
+        try {
+            this.executor.execute(send);
+        } catch (RejectedExecutionException e) {
+            hedged.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Wait for the hedge after the first attempt failed, using the failure of whichever attempt failed first
+     * if both do.
+     */
+    private <T> T awaitHedge(Attempt hedge, CompletableFuture<T> hedged, FreshBooksException failure)
+            throws FreshBooksException {
+        boolean hedgeFailedFirst = hedged.isCompletedExceptionally();
+        try {
+            return hedged.get();
+        } catch (ExecutionException e) {
+            if (hedgeFailedFirst && e.getCause() instanceof FreshBooksException) {
+                throw (FreshBooksException) e.getCause();
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            hedge.cancel();
+            Thread.currentThread().interrupt();
+            throw new FreshBooksException("Interrupted waiting for a response", null, 0, e);
+        }
+    }
+
+    private <T> T attempt(Attempt attempt, LatencyWindow window, RequestCoalescer.Call<T> call)
+            throws FreshBooksException {
+        Thread thread = Thread.currentThread();
+        this.running.put(thread, attempt);
+        try {
+            return this.timed(window, call);
+        } finally {
+            this.running.remove(thread);
+        }
+    }
+
+    private <T> T timed(LatencyWindow window, RequestCoalescer.Call<T> call) throws FreshBooksException {
+        long start = System.nanoTime();
+        T result = call.call();
+        window.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getScheduler() {
+        if (this.shutdown) {
+            throw new RejectedExecutionException("Request hedger is shut down");
+        }
+        if (this.scheduler == null) {
+            this.scheduler = new ScheduledThreadPoolExecutor(DEFAULT_THREADS, new ThreadFactoryBuilder()
+                    .setNameFormat("freshbooks-hedge-%d")
+                    .setDaemon(true)
+                    .build());
+            this.scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+            this.scheduler.allowCoreThreadTimeOut(true);
+            this.scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * One attempt of a hedged call, which can be cancelled by closing the response it is reading.
+     */
+    private static class Attempt {
+        private boolean cancelled = false;
+        private HttpResponse response;
+
+        synchronized void checkActive() throws InterruptedIOException {
+            if (this.cancelled) {
+                throw new InterruptedIOException("Request cancelled");
+            }
+        }
+
+        void reading(HttpResponse response) throws IOException {
+            synchronized (this) {
+                if (!this.cancelled) {
+                    this.response = response;
+                    return;
+                }
+            }
+            response.disconnect();
+            throw new InterruptedIOException("Request cancelled");
+        }
+
+        void cancel() {
+            HttpResponse reading;
+            synchronized (this) {
+                this.cancelled = true;
+                reading = this.response;
+            }
+            if (reading == null) {
+                return;
+            }
+            try {
+                reading.disconnect();
+            } catch (IOException | RuntimeException e) {
+                // The response is being abandoned; there is nothing else to release.
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of the most recent successful attempt latencies of an endpoint.
+     */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int position = 0;
+        private int count = 0;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            this.samples[this.position] = nanos;
+            this.position = (this.position + 1) % this.samples.length;
+            this.count = Math.min(this.count + 1, this.samples.length);
+        }
+
+        synchronized long percentile(double percentile, int minimumSamples) {
+            if (this.count < minimumSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(this.samples, this.count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+    }
+}
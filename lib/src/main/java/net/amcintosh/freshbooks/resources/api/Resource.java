@@ -1,14 +1,40 @@
 package net.amcintosh.freshbooks.resources.api;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.FreshBooksConnectionException;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreaker;
+import net.amcintosh.freshbooks.concurrency.Bulkhead;
+import net.amcintosh.freshbooks.cache.ResponseCache;
+import net.amcintosh.freshbooks.json.JsonCodecs;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Base class for API resources.
  */
 public abstract class Resource {
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
     protected FreshBooksClient freshBooksClient;
+    protected RequestOptions requestOptions;
 
     protected abstract ResourceType getResourceType();
 
@@ -20,6 +46,96 @@ public abstract class Resource {
         this.freshBooksClient = freshBooksClient;
     }
 
+    /**
+     *
+     * @param freshBooksClient Initialized instance of FreshBooksClient
+     * @param options Deadline and cancellation for calls made through this resource
+     */
+    public Resource(FreshBooksClient freshBooksClient, RequestOptions options) {
+        this.freshBooksClient = freshBooksClient;
+        this.requestOptions = options;
+    }
+
+    /**
+     * Build a request with the client, applying this resource's request options if it has any.
+     *
+     * @param method The request method
+     * @param url The request URL
+     * @param content The request data, or null
+     * @return The request
+     * @throws IOException If the request cannot be built
+     */
+    protected HttpRequest buildRequest(String method, String url, Map<String, Object> content) throws IOException {
+        if (this.requestOptions != null) {
+            return this.freshBooksClient.request(method, url, content, this.requestOptions);
+        }
+        return this.freshBooksClient.request(method, url, content);
+    }
+
+    /**
+     * Build a request with no data with the client, applying this resource's request options if it has any.
+     *
+     * @param method The request method
+     * @param url The request URL
+     * @return The request
+     * @throws IOException If the request cannot be built
+     */
+    protected HttpRequest buildRequest(String method, String url) throws IOException {
+        if (this.requestOptions != null) {
+            return this.freshBooksClient.request(method, url, null, this.requestOptions);
+        }
+        return this.freshBooksClient.request(method, url);
+    }
+
+    /**
+     * Send a request, throwing a {@link FreshBooksConnectionException} if the request could not be sent
+     * or its response could not be received. A request sent by the client's request hedger can be
+     * cancelled by it if the other attempt wins. Errors from the client's own handling of the request, such
+     * as its limits, deadline, cancellation, or token refresh, are thrown as they are.
+     *
+     * @param request The request
+     * @return The response
+     * @throws FreshBooksConnectionException If the connection to the API fails
+     * @throws IOException If the client does not make the request
+     */
+    protected HttpResponse sendRequest(HttpRequest request) throws FreshBooksConnectionException, IOException {
+        RequestHedger hedger = this.getRequestHedger(request.getRequestMethod());
+        if (hedger != null) {
+            hedger.track(request);
+        }
+        // The exception handler is only called when the transport fails, and is reset before each attempt
+        // so that an attempt stopped by the client after a failed one is not counted as a failure.
+        AtomicBoolean transportFailed = new AtomicBoolean();
+        HttpExecuteInterceptor interceptor = request.getInterceptor();
+        request.setInterceptor(httpRequest -> {
+            transportFailed.set(false);
+            if (interceptor != null) {
+                interceptor.intercept(httpRequest);
+            }
+        });
+        HttpIOExceptionHandler ioExceptionHandler = request.getIOExceptionHandler();
+        request.setIOExceptionHandler((httpRequest, supportsRetry) -> {
+            transportFailed.set(true);
+            return ioExceptionHandler != null && ioExceptionHandler.handleIOException(httpRequest, supportsRetry);
+        });
+        try {
+            return request.execute();
+        } catch (IOException e) {
+            if (transportFailed.get() && !(e instanceof InterruptedIOException) && this.isActive()) {
+                throw new FreshBooksConnectionException("Returned an unexpected response", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return If this resource's request options, if any, have not been cancelled or run out of time
+     */
+    private boolean isActive() {
+        return this.requestOptions == null
+                || (!this.requestOptions.isCancelled() && this.requestOptions.getRemaining(TimeUnit.NANOSECONDS) > 0);
+    }
+
     /**
      * Construct the http call query string from the List of QueryBuilders provided.
      *
@@ -36,4 +152,243 @@ public abstract class Resource {
         }
         return "";
     }
+
+    /**
+     * The paths of this resource following the account or business id, used to find the cached
+     * responses to invalidate when the resource is changed.
+     *
+     * @return List of resource paths
+     */
+    protected List<String> getResourcePaths() {
+        return ImmutableList.of();
+    }
+
+    /**
+     * Get the client's response cache if the request can be served from it.
+     *
+     * @param method The request method
+     * @return The response cache, or null if the client has none or the request is not a GET
+     */
+    protected ResponseCache getResponseCache(String method) {
+        if (!method.equals(HttpMethods.GET)) {
+            return null;
+        }
+        return this.freshBooksClient.getResponseCache();
+    }
+
+    /**
+     * Get the key a request's response is cached and coalesced under.
+     * <br><br>
+     * Responses are only shared between calls made with the same token, so the URLs of clients made with
+     * <code>forTenant</code> are prefixed with their tenant. The tenant id is length-prefixed so that no tenant
+     * id and URL can produce another tenant's key, and plain relative URLs always start with <code>/</code>.
+     *
+     * @param url The relative URL of the request
+     * @return The URL, scoped to the client's tenant if it has one
+     */
+    protected String getResponseKey(String url) {
+        String tenantId = this.freshBooksClient.getTenant();
+        if (tenantId == null) {
+            return url;
+        }
+        return "tenant:" + tenantId.length() + ":" + tenantId + url;
+    }
+
+    /**
+     * Get the client's request coalescer if concurrent identical requests can share a response.
+     * Calls with request options are not coalesced, so that cancelling one does not fail another.
+     *
+     * @param method The request method
+     * @return The request coalescer, or null if the client has none, the request is not a GET,
+     * or this resource has request options
+     */
+    protected RequestCoalescer getRequestCoalescer(String method) {
+        if (!method.equals(HttpMethods.GET) || this.requestOptions != null) {
+            return null;
+        }
+        return this.freshBooksClient.getRequestCoalescer();
+    }
+
+    /**
+     * Get the client's request hedger if slow requests can be sent again.
+     *
+     * @param method The request method
+     * @return The request hedger, or null if the client has none or the request is not a GET
+     */
+    protected RequestHedger getRequestHedger(String method) {
+        if (!method.equals(HttpMethods.GET)) {
+            return null;
+        }
+        return this.freshBooksClient.getRequestHedger();
+    }
+
+    /**
+     * The endpoint this resource is tracked as by the client's circuit breaker.
+     *
+     * @return The resource type and path, eg. <code>ACCOUNTING_LIKE users/clients</code>
+     */
+    protected String getEndpoint() {
+        List<String> paths = this.getResourcePaths();
+        if (paths.isEmpty()) {
+            return this.getResourceType().name();
+        }
+        return this.getResourceType().name() + " " + paths.get(0);
+    }
+
+    /**
+     * Make a call through the client's request coalescer, bulkhead, circuit breaker, and request hedger,
+     * if it has them.
+     *
+     * @param method The request method
+     * @param url The request URL
+     * @param call Makes the request and handles the response
+     * @return The result of the call
+     * @throws FreshBooksException If the call fails or the circuit breaker is open
+     */
+    protected <T> T handleCall(String method, String url, RequestCoalescer.Call<T> call) throws FreshBooksException {
+        RequestCoalescer.Call<T> tracked = this.trackCall(call);
+        RequestCoalescer coalescer = this.getRequestCoalescer(method);
+        RequestHedger hedger = this.getRequestHedger(method);
+        if (coalescer != null) {
+            return coalescer.execute(this.getResponseKey(url), () -> this.callWithBulkhead(url, hedger, tracked));
+        }
+        return this.callWithBulkhead(url, hedger, tracked);
+    }
+
+    /**
+     * Make a call that hands its results to the caller as they are read through the client's bulkhead
+     * and circuit breaker, if it has them. These calls are not coalesced or hedged, as their results
+     * cannot be shared or read twice.
+     *
+     * @param url The request URL
+     * @param call Makes the request and handles the response
+     * @return The result of the call
+     * @throws FreshBooksException If the call fails or the circuit breaker is open
+     */
+    protected <T> T handleStreamingCall(String url, RequestCoalescer.Call<T> call) throws FreshBooksException {
+        return this.callWithBulkhead(url, null, this.trackCall(call));
+    }
+
+    /**
+     * Make each attempt of a call through this resource's request options, so that cancelling them closes
+     * the response the attempt is reading, and the response is released once the attempt returns.
+     */
+    private <T> RequestCoalescer.Call<T> trackCall(RequestCoalescer.Call<T> call) {
+        RequestOptions options = this.requestOptions;
+        if (options == null) {
+            return call;
+        }
+        return () -> options.track(call);
+    }
+
+    private <T> T callWithBulkhead(String url, RequestHedger hedger, RequestCoalescer.Call<T> call)
+            throws FreshBooksException {
+        Bulkhead bulkhead = this.freshBooksClient.getBulkhead();
+        if (bulkhead == null) {
+            return this.callWithCircuitBreaker(hedger, call);
+        }
+        String tenantId = FreshBooksClient.getTenantId(url);
+        if (this.requestOptions != null) {
+            try {
+                this.requestOptions.await(timeout ->
+                        bulkhead.acquire(tenantId, this.getClass(), timeout, TimeUnit.NANOSECONDS));
+            } catch (InterruptedIOException e) {
+                // Cancelled or past its deadline before a request was made
+                throw new FreshBooksException(e.getMessage(), null, 0, e);
+            }
+        } else {
+            bulkhead.acquire(tenantId, this.getClass());
+        }
+        try {
+            return this.callWithCircuitBreaker(hedger, call);
+        } finally {
+            bulkhead.release(tenantId, this.getClass());
+        }
+    }
+
+    private <T> T callWithCircuitBreaker(RequestHedger hedger, RequestCoalescer.Call<T> call) throws FreshBooksException {
+        if (hedger != null) {
+            RequestCoalescer.Call<T> attempt = call;
+            call = () -> hedger.execute(this.getEndpoint(), attempt);
+        }
+        CircuitBreaker circuitBreaker = this.freshBooksClient.getCircuitBreaker();
+        if (circuitBreaker == null) {
+            return call.call();
+        }
+        String endpoint = this.getEndpoint();
+        circuitBreaker.acquirePermission(endpoint);
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return call.call();
+        } catch (FreshBooksException e) {
+            // Only connection failures and server errors are the endpoint's. Client errors mean it is working,
+            // and the client's own limits, deadlines, and cancellation, or a listEach consumer, say nothing of it.
+            failed = e instanceof FreshBooksConnectionException || e.statusCode / 100 == 5;
+            throw e;
+        } finally {
+            circuitBreaker.onResult(endpoint, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Parse a cached response body.
+     *
+     * @param body The response body
+     * @param responseClass The response model class
+     * @return The response model
+     * @throws IOException If the body cannot be parsed
+     */
+    protected <T> T parseResponse(String body, Class<T> responseClass) throws IOException {
+        return JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(body), responseClass,
+                this.freshBooksClient.isLazyDecoding());
+    }
+
+    /**
+     * Create a parser to read a response body token by token.
+     *
+     * @param content The response body stream
+     * @param charset The charset of the response body
+     * @return The JSON parser
+     * @throws IOException If the parser cannot be created
+     */
+    protected JsonParser createJsonParser(InputStream content, Charset charset) throws IOException {
+        return JSON_FACTORY.createJsonParser(content, charset);
+    }
+
+    /**
+     * Create a parser to read a cached response body token by token.
+     *
+     * @param body The response body
+     * @return The JSON parser
+     * @throws IOException If the parser cannot be created
+     */
+    protected JsonParser createJsonParser(String body) throws IOException {
+        return JSON_FACTORY.createJsonParser(body);
+    }
+
+    /**
+     * Remove the cached responses of this resource under the account or business in the provided URL.
+     *
+     * @param url The URL of a successful create, update, or delete request
+     */
+    protected void invalidateCachedResponses(String url) {
+        ResponseCache cache = this.freshBooksClient.getResponseCache();
+        if (cache == null) {
+            return;
+        }
+        // Relative URLs start with the account or business, eg. /accounting/account/{accountId}
+        int end = 0;
+        for (int i = 0; i < 3 && end >= 0; i++) {
+            end = url.indexOf('/', end + 1);
+        }
+        if (end < 0) {
+            cache.invalidate(this.getResponseKey(url));
+            return;
+        }
+        String prefix = url.substring(0, end);
+        for (String path : this.getResourcePaths()) {
+            cache.invalidate(this.getResponseKey(prefix + "/" + path));
+        }
+    }
 }
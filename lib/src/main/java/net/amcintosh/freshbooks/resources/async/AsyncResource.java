@@ -0,0 +1,220 @@
+package net.amcintosh.freshbooks.resources.async;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.models.ListResult;
+import net.amcintosh.freshbooks.models.builders.QueryBuilder;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Asynchronous calls for a FreshBooks API resource.
+ * <br><br>
+ * Runs calls to the blocking resource on an <code>Executor</code> and returns a
+ * <code>CompletableFuture</code> of their result. Unsuccessful calls complete the future
+ * exceptionally with a <code>FreshBooksException</code>.
+ * <br><br>
+ * Each call is made through a resource with its own <code>RequestOptions</code>, and cancelling the
+ * returned future cancels them, so a call waiting on the client's limits or reading a response stops.
+ * Options given with the call, eg. for a deadline, are cancelled the same way.
+ *
+ * <pre>{@code
+ * CompletableFuture<InvoiceList> invoices = freshBooksClient.async().invoices()
+ *     .call(resource -> resource.list(accountId));
+ * invoices.cancel(true);
+ * }</pre>
+ *
+ * @param <R> Type of the blocking resource
+ */
+public class AsyncResource<R> {
+    private final Function<RequestOptions, R> resources;
+    private final Executor executor;
+
+    /**
+     * @param resources Creates the blocking resource to make a call on, given the options of the call
+     * @param executor Executor to run calls on
+     */
+    public AsyncResource(Function<RequestOptions, R> resources, Executor executor) {
+        this.resources = resources;
+        this.executor = executor;
+    }
+
+    /**
+     * A blocking resource call that returns a result.
+     *
+     * @param <R> Type of the blocking resource
+     * @param <T> Type of the result
+     */
+    @FunctionalInterface
+    public interface ResourceCall<R, T> {
+        /**
+         * @param resource The blocking resource
+         * @return The result of the call
+         * @throws FreshBooksException If the call is not successful
+         */
+        T call(R resource) throws FreshBooksException;
+    }
+
+    /**
+     * A blocking resource call without a result.
+     *
+     * @param <R> Type of the blocking resource
+     */
+    @FunctionalInterface
+    public interface VoidResourceCall<R> {
+        /**
+         * @param resource The blocking resource
+         * @throws FreshBooksException If the call is not successful
+         */
+        void call(R resource) throws FreshBooksException;
+    }
+
+    /**
+     * A blocking list call for one page of results.
+     *
+     * @param <R> Type of the blocking resource
+     * @param <L> The list result type returned by the list call
+     */
+    @FunctionalInterface
+    public interface ListCall<R, L> {
+        /**
+         * @param resource The blocking resource
+         * @param builders The list call's query builders with pagination set for the page
+         * @return The list result for the page
+         * @throws FreshBooksException If the call is not successful
+         */
+        L list(R resource, List<QueryBuilder> builders) throws FreshBooksException;
+    }
+
+    /**
+     * Run the call on the executor. Cancelling the returned future cancels the call.
+     * <br><br>
+     * Eg. <code>call(invoices -&gt; invoices.get(accountId, invoiceId))</code>
+     *
+     * @param call The blocking resource call
+     * @param <T> Type of the result
+     * @return Future completed with the result of the call, or exceptionally with the error it threw
+     */
+    public <T> CompletableFuture<T> call(ResourceCall<R, T> call) {
+        return this.call(new RequestOptions(), call);
+    }
+
+    /**
+     * Run the call on the executor with the provided options, eg. a deadline. Cancelling the returned
+     * future cancels the options.
+     *
+     * @param options Deadline and cancellation for the call
+     * @param call The blocking resource call
+     * @param <T> Type of the result
+     * @return Future completed with the result of the call, or exceptionally with the error it threw
+     */
+    public <T> CompletableFuture<T> call(RequestOptions options, ResourceCall<R, T> call) {
+        CompletableFuture<T> future = new CancellableFuture<>(options);
+        try {
+            this.executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(call.call(this.resources.apply(options)));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run the call on the executor, discarding any result. Cancelling the returned future cancels the call.
+     * <br><br>
+     * Eg. <code>run(invoices -&gt; invoices.delete(accountId, invoiceId))</code>
+     *
+     * @param call The blocking resource call
+     * @return Future completed when the call finishes, or exceptionally with the error it threw
+     */
+    public CompletableFuture<Void> run(VoidResourceCall<R> call) {
+        return this.run(new RequestOptions(), call);
+    }
+
+    /**
+     * Run the call on the executor with the provided options, eg. a deadline, discarding any result.
+     * Cancelling the returned future cancels the options.
+     *
+     * @param options Deadline and cancellation for the call
+     * @param call The blocking resource call
+     * @return Future completed when the call finishes, or exceptionally with the error it threw
+     */
+    public CompletableFuture<Void> run(RequestOptions options, VoidResourceCall<R> call) {
+        return this.call(options, resource -> {
+            call.call(resource);
+            return null;
+        });
+    }
+
+    /**
+     * Publish every item of a paginated list, fetching each page of results on the executor only as
+     * the subscriber requests more.
+     * <br><br>
+     * Eg. <code>listPublisher((invoices, builders) -&gt; invoices.list(accountId, builders),
+     * InvoiceList::getInvoices)</code>
+     *
+     * @param list Makes the list call for a page
+     * @param items Returns the items from a list result
+     * @param <L> The list result type returned by the list call
+     * @param <T> The type of the items in the list
+     * @return Publisher of the list items
+     * @see ListPublisher
+     */
+    public <L extends ListResult, T> Publisher<T> listPublisher(
+            ListCall<R, L> list, Function<L, ? extends List<T>> items) {
+        return this.listPublisher(null, list, items);
+    }
+
+    /**
+     * Publish every item of a paginated list using the query strings generated by the QueryBuilder list,
+     * fetching each page of results on the executor only as the subscriber requests more.
+     * <br><br>
+     * A <code>PaginationQueryBuilder</code> in the list sets the first page and number of results per page.
+     *
+     * @param builders List of QueryBuilders
+     * @param list Makes the list call for a page
+     * @param items Returns the items from a list result
+     * @param <L> The list result type returned by the list call
+     * @param <T> The type of the items in the list
+     * @return Publisher of the list items
+     * @see ListPublisher
+     */
+    public <L extends ListResult, T> Publisher<T> listPublisher(
+            List<QueryBuilder> builders, ListCall<R, L> list, Function<L, ? extends List<T>> items) {
+        R resource = this.resources.apply(null);
+        return new ListPublisher<>(this.executor, builders, pageBuilders -> list.list(resource, pageBuilders), items);
+    }
+
+    /**
+     * Future that cancels the options of its call when it is cancelled.
+     */
+    private static class CancellableFuture<T> extends CompletableFuture<T> {
+        private final RequestOptions options;
+
+        CancellableFuture(RequestOptions options) {
+            this.options = options;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                this.options.cancel();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package net.amcintosh.freshbooks.resources.async;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.ListResult;
+import net.amcintosh.freshbooks.models.Pages;
+import net.amcintosh.freshbooks.models.builders.PaginationQueryBuilder;
+import net.amcintosh.freshbooks.models.builders.QueryBuilder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Reactive Streams <code>Publisher</code> of the items of a paginated list call.
+ * <br><br>
+ * Pages are fetched one at a time as subscribers signal demand, so at most one page of
+ * results is held in memory per subscription. Each subscription starts again from the first
+ * page requested. Page fetches and signals to the subscriber run on the provided executor.
+ * <br><br>
+ * On Java 9+ this can be adapted to a <code>java.util.concurrent.Flow.Publisher</code> with
+ * <code>org.reactivestreams.FlowAdapters.toFlowPublisher()</code>.
+ *
+ * @param <L> The list result type returned by the list call
+ * @param <T> The type of the items in the list
+ */
+public class ListPublisher<L extends ListResult, T> implements Publisher<T> {
+
+    private static final int DEFAULT_PER_PAGE = 100;
+
+    private final Executor executor;
+    private final PageCall<L> pageCall;
+    private final Function<L, ? extends List<T>> items;
+    private final int firstPage;
+
+    /**
+     * Fetches a single page of a list call.
+     *
+     * @param <L> The list result type returned by the list call
+     */
+    @FunctionalInterface
+    public interface PageFetcher<L> {
+        /**
+         * @param builders The list call's query builders with pagination set for the page
+         * @return The list result for the page
+         * @throws FreshBooksException If the call is not successful
+         */
+        L fetch(List<QueryBuilder> builders) throws FreshBooksException;
+    }
+
+    /**
+     * @param executor Executor to fetch pages and signal subscribers on
+     * @param builders The query builders for the list call. Pagination settings are used for the
+     *                 first page and number of results per page.
+     * @param fetcher Makes the list call for a page
+     * @param items Returns the items from a list result
+     */
+    public ListPublisher(Executor executor, List<QueryBuilder> builders, PageFetcher<L> fetcher,
+                         Function<L, ? extends List<T>> items) {
+        this.executor = executor;
+        this.items = items;
+
+        PaginationQueryBuilder pagination = null;
+        List<QueryBuilder> otherBuilders = new ArrayList<>();
+        if (builders != null) {
+            for (QueryBuilder builder : builders) {
+                if (builder instanceof PaginationQueryBuilder) {
+                    pagination = (PaginationQueryBuilder) builder;
+                } else {
+                    otherBuilders.add(builder);
+                }
+            }
+        }
+        this.firstPage = pagination != null && pagination.getPage() > 0 ? pagination.getPage() : 1;
+        int perPage = pagination != null && pagination.getPerPage() > 0 ? pagination.getPerPage() : DEFAULT_PER_PAGE;
+        this.pageCall = page -> {
+            List<QueryBuilder> pageBuilders = new ArrayList<>(otherBuilders);
+            pageBuilders.add(new PaginationQueryBuilder(page, perPage));
+            return fetcher.fetch(pageBuilders);
+        };
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        ListSubscription subscription = new ListSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    @FunctionalInterface
+    private interface PageCall<L> {
+        L fetch(int page) throws FreshBooksException;
+    }
+
+    private class ListSubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        // Only accessed from drain(), which never runs concurrently with itself.
+        private final Deque<T> buffer = new ArrayDeque<>();
+        private int nextPage = firstPage;
+        private int lastPage = Integer.MAX_VALUE;
+        private boolean done;
+
+        ListSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.invalidRequest = new IllegalArgumentException("Requested items must be positive, got " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = this.requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!this.requested.compareAndSet(current, next));
+            }
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (this.wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    this.cancelled = true;
+                    this.subscriber.onError(e);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!this.cancelled && !this.done) {
+                    if (this.invalidRequest != null) {
+                        this.finish(this.invalidRequest);
+                        break;
+                    }
+                    long demand = this.requested.get();
+                    if (demand == 0) {
+                        break;
+                    }
+                    if (this.buffer.isEmpty()) {
+                        if (this.nextPage > this.lastPage) {
+                            this.finish(null);
+                            break;
+                        }
+                        try {
+                            this.fetchNextPage();
+                        } catch (Throwable t) {
+                            this.finish(t);
+                            break;
+                        }
+                        continue;
+                    }
+                    this.subscriber.onNext(this.buffer.poll());
+                    if (demand != Long.MAX_VALUE) {
+                        this.requested.decrementAndGet();
+                    }
+                }
+                if (this.cancelled) {
+                    this.buffer.clear();
+                }
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fetchNextPage() throws FreshBooksException {
+            L result = pageCall.fetch(this.nextPage);
+            List<T> pageItems = items.apply(result);
+            Pages pages = result.getPages();
+            this.lastPage = pages != null ? pages.getPages() : this.nextPage;
+            if (pageItems == null || pageItems.isEmpty()) {
+                this.lastPage = this.nextPage;
+            } else {
+                this.buffer.addAll(pageItems);
+            }
+            this.nextPage++;
+        }
+
+        private void finish(Throwable error) {
+            this.done = true;
+            if (error == null) {
+                this.subscriber.onComplete();
+            } else {
+                this.subscriber.onError(error);
+            }
+        }
+    }
+}
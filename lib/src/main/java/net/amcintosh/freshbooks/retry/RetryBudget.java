@@ -0,0 +1,65 @@
+package net.amcintosh.freshbooks.retry;
+
+/**
+ * Limits retries to a fraction of requests, so that retries cannot multiply load during an outage.
+ * <br><br>
+ * The budget holds up to <code>maxTokens</code> tokens. Each request that is not retried adds
+ * <code>tokenRatio</code> tokens, and each failed attempt removes one. Retries are only allowed while
+ * more than half of the tokens remain. With the defaults, retries stop once failures outnumber about
+ * one in ten requests, and resume as requests succeed again.
+ * <br><br>
+ * To budget retries across the whole process, share one instance between all retry policies.
+ */
+public class RetryBudget {
+
+    private static final int DEFAULT_MAX_TOKENS = 100;
+    private static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+    private final double maxTokens;
+    private final double tokenRatio;
+    private double tokens;
+
+    /**
+     * Create a retry budget of 100 tokens, adding 0.1 tokens per successful request.
+     */
+    public RetryBudget() {
+        this(DEFAULT_MAX_TOKENS, DEFAULT_TOKEN_RATIO);
+    }
+
+    /**
+     * @param maxTokens Maximum number of tokens. Up to half this many retries can be made in a burst.
+     * @param tokenRatio Tokens added by each successful request, ie. the sustained ratio of retries to requests
+     */
+    public RetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens <= 0 || tokenRatio <= 0) {
+            throw new IllegalArgumentException("Retry budget tokens and ratio must be positive");
+        }
+        this.maxTokens = maxTokens;
+        this.tokenRatio = tokenRatio;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Record a request that completed without needing a retry.
+     */
+    public synchronized void onSuccess() {
+        this.tokens = Math.min(this.maxTokens, this.tokens + this.tokenRatio);
+    }
+
+    /**
+     * Record a failed attempt that could be retried.
+     *
+     * @return true if the budget allows the retry
+     */
+    public synchronized boolean tryRetry() {
+        this.tokens = Math.max(0, this.tokens - 1);
+        return this.tokens > this.maxTokens / 2;
+    }
+
+    /**
+     * @return The number of tokens currently in the budget
+     */
+    public synchronized double getTokens() {
+        return this.tokens;
+    }
+}
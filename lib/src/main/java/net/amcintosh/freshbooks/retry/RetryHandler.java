@@ -0,0 +1,136 @@
+package net.amcintosh.freshbooks.retry;
+
+import com.google.api.client.http.HttpIOExceptionHandler;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.Sleeper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retries a single request according to a {@link RetryPolicy}.
+ */
+class RetryHandler implements HttpUnsuccessfulResponseHandler, HttpIOExceptionHandler {
+
+    private final RetryPolicy policy;
+    private final Sleeper sleeper;
+    private final boolean idempotent;
+    private final long startNanos;
+    private int retries = 0;
+    private long previousIntervalMillis;
+
+    RetryHandler(RetryPolicy policy, String method, Sleeper sleeper) {
+        this.policy = policy;
+        this.sleeper = sleeper;
+        this.idempotent = policy.isIdempotent(method);
+        this.startNanos = System.nanoTime();
+        this.previousIntervalMillis = policy.getInitialIntervalMillis();
+    }
+
+    @Override
+    public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry)
+            throws IOException {
+        int statusCode = response.getStatusCode();
+        boolean retryable = statusCode == 429 || (statusCode / 100 == 5 && this.idempotent);
+        if (!supportsRetry || !retryable) {
+            return false;
+        }
+        Long retryAfterMillis = null;
+        if (this.policy.isHonourRetryAfter()) {
+            retryAfterMillis = parseRetryAfter(response.getHeaders().getFirstHeaderStringValue("Retry-After"));
+        }
+        return this.retry(retryAfterMillis);
+    }
+
+    @Override
+    public boolean handleIOException(HttpRequest request, boolean supportsRetry) throws IOException {
+        return supportsRetry && this.idempotent && this.retry(null);
+    }
+
+    /**
+     * Called with the final response of the request once retries are finished.
+     */
+    void onComplete(HttpResponse response) {
+        RetryBudget budget = this.policy.getRetryBudget();
+        int statusCode = response.getStatusCode();
+        if (budget != null && statusCode != 429 && statusCode / 100 != 5) {
+            budget.onSuccess();
+        }
+    }
+
+    private boolean retry(Long retryAfterMillis) throws IOException {
+        RetryBudget budget = this.policy.getRetryBudget();
+        if (budget != null && !budget.tryRetry()) {
+            return false;
+        }
+        if (this.retries >= this.policy.getMaxRetries()) {
+            return false;
+        }
+        long intervalMillis = retryAfterMillis != null ? retryAfterMillis : this.nextIntervalMillis();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos);
+        if (elapsedMillis + intervalMillis > this.policy.getMaxElapsedTimeMillis()) {
+            return false;
+        }
+        this.retries++;
+        try {
+            this.sleeper.sleep(intervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private long nextIntervalMillis() {
+        long initial = this.policy.getInitialIntervalMillis();
+        long max = this.policy.getMaxIntervalMillis();
+        long interval;
+        switch (this.policy.getJitter()) {
+            case DECORRELATED:
+                long upper = Math.max(initial, Math.min(max, this.previousIntervalMillis * 3));
+                interval = initial + (long) (ThreadLocalRandom.current().nextDouble() * (upper - initial));
+                break;
+            case FULL:
+                interval = (long) (ThreadLocalRandom.current().nextDouble() * this.exponentialIntervalMillis());
+                break;
+            default:
+                interval = this.exponentialIntervalMillis();
+        }
+        this.previousIntervalMillis = interval;
+        return interval;
+    }
+
+    private long exponentialIntervalMillis() {
+        double interval = this.policy.getInitialIntervalMillis() * Math.pow(this.policy.getMultiplier(), this.retries);
+        return (long) Math.min(interval, this.policy.getMaxIntervalMillis());
+    }
+
+    /**
+     * Parse a <code>Retry-After</code> header, which is either a number of seconds or an HTTP date.
+     *
+     * @return The time to wait in milliseconds, or null if there is no valid header
+     */
+    static Long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return null;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
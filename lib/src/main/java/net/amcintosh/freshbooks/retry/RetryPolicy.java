@@ -0,0 +1,214 @@
+package net.amcintosh.freshbooks.retry;
+
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.api.client.util.Sleeper;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls how requests are retried after a 429 or 5xx response, or a network error.
+ * <br><br>
+ * Retries wait with exponential back off and jitter, or for the time in the <code>Retry-After</code>
+ * header when FreshBooks sends one. A 429 means the request was not processed, so it is retried for any
+ * method. Server errors and network errors are only retried for idempotent methods, which by default
+ * are <code>GET</code>, <code>PUT</code>, and <code>DELETE</code>, as a <code>POST</code> may have
+ * created the resource before failing.
+ *
+ * <pre>{@code
+ * RetryPolicy retryPolicy = new RetryPolicy()
+ *     .withMaxRetries(5)
+ *     .withMaxElapsedTime(30, TimeUnit.SECONDS)
+ *     .withJitter(RetryPolicy.Jitter.DECORRELATED)
+ *     .withRetryBudget(sharedRetryBudget);
+ * }</pre>
+ */
+public class RetryPolicy {
+
+    /**
+     * How the wait between retries is randomized, so that clients that failed together do not retry together.
+     */
+    public enum Jitter {
+        /**
+         * Wait the full exponential back off interval.
+         */
+        NONE,
+        /**
+         * Wait a random time between zero and the exponential back off interval.
+         */
+        FULL,
+        /**
+         * Wait a random time between the initial interval and three times the previous wait.
+         */
+        DECORRELATED
+    }
+
+    private int maxRetries = 10;
+    private long initialIntervalMillis = 500;
+    private double multiplier = 1.5;
+    private long maxIntervalMillis = 60000;
+    private long maxElapsedTimeMillis = 900000;
+    private Jitter jitter = Jitter.FULL;
+    private boolean honourRetryAfter = true;
+    private Set<String> idempotentMethods = ImmutableSet.of(HttpMethods.GET, HttpMethods.PUT, HttpMethods.DELETE);
+    private RetryBudget retryBudget;
+    private Sleeper sleeper = Sleeper.DEFAULT;
+
+    /**
+     * Set the maximum number of retries of a request. Defaults to 10.
+     *
+     * @param maxRetries Maximum number of retries
+     * @return The retry policy instance
+     */
+    public RetryPolicy withMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Set the exponential back off intervals. Defaults to an initial interval of 500 milliseconds,
+     * multiplied by 1.5 after each retry up to 60 seconds.
+     *
+     * @param initialInterval Interval before the first retry
+     * @param multiplier Factor to increase the interval by after each retry
+     * @param maxInterval Maximum interval between retries
+     * @param unit Time unit of the intervals
+     * @return The retry policy instance
+     */
+    public RetryPolicy withBackOff(long initialInterval, double multiplier, long maxInterval, TimeUnit unit) {
+        this.initialIntervalMillis = unit.toMillis(initialInterval);
+        this.multiplier = multiplier;
+        this.maxIntervalMillis = unit.toMillis(maxInterval);
+        return this;
+    }
+
+    /**
+     * Stop retrying once this much time has passed since the request was first sent. Defaults to 15 minutes.
+     *
+     * @param maxElapsedTime Maximum time to spend on a request including retries
+     * @param unit Time unit of <code>maxElapsedTime</code>
+     * @return The retry policy instance
+     */
+    public RetryPolicy withMaxElapsedTime(long maxElapsedTime, TimeUnit unit) {
+        this.maxElapsedTimeMillis = unit.toMillis(maxElapsedTime);
+        return this;
+    }
+
+    /**
+     * Set how the wait between retries is randomized. Defaults to {@link Jitter#FULL}.
+     *
+     * @param jitter The jitter to use
+     * @return The retry policy instance
+     */
+    public RetryPolicy withJitter(Jitter jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Use the back off interval even when the response has a <code>Retry-After</code> header.
+     *
+     * @return The retry policy instance
+     */
+    public RetryPolicy withoutRetryAfter() {
+        this.honourRetryAfter = false;
+        return this;
+    }
+
+    /**
+     * Set the HTTP methods that are safe to retry after a server or network error.
+     * Defaults to <code>GET</code>, <code>PUT</code>, and <code>DELETE</code>.
+     *
+     * @param methods The idempotent HTTP methods
+     * @return The retry policy instance
+     */
+    public RetryPolicy withIdempotentMethods(String... methods) {
+        this.idempotentMethods = ImmutableSet.copyOf(methods);
+        return this;
+    }
+
+    /**
+     * Only retry while the budget allows. See {@link RetryBudget}.
+     *
+     * @param retryBudget The retry budget, which may be shared with other retry policies
+     * @return The retry policy instance
+     */
+    public RetryPolicy withRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+        return this;
+    }
+
+    RetryPolicy withSleeper(Sleeper sleeper) {
+        this.sleeper = sleeper;
+        return this;
+    }
+
+    /**
+     * Set up retries on a request according to this policy.
+     *
+     * @param request The request to retry
+     */
+    public void applyTo(HttpRequest request) {
+        this.applyTo(request, this.sleeper);
+    }
+
+    /**
+     * Set up retries on a request according to this policy, waiting between attempts with the
+     * provided sleeper, eg. one that stops waiting at a call's deadline.
+     *
+     * @param request The request to retry
+     * @param sleeper Sleeper to wait between attempts with
+     */
+    public void applyTo(HttpRequest request, Sleeper sleeper) {
+        RetryHandler handler = new RetryHandler(this, request.getRequestMethod(), sleeper);
+        request.setNumberOfRetries(this.maxRetries);
+        request.setUnsuccessfulResponseHandler(handler);
+        request.setIOExceptionHandler(handler);
+        HttpResponseInterceptor responseInterceptor = request.getResponseInterceptor();
+        request.setResponseInterceptor(response -> {
+            handler.onComplete(response);
+            if (responseInterceptor != null) {
+                responseInterceptor.interceptResponse(response);
+            }
+        });
+    }
+
+    int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    long getInitialIntervalMillis() {
+        return this.initialIntervalMillis;
+    }
+
+    double getMultiplier() {
+        return this.multiplier;
+    }
+
+    long getMaxIntervalMillis() {
+        return this.maxIntervalMillis;
+    }
+
+    long getMaxElapsedTimeMillis() {
+        return this.maxElapsedTimeMillis;
+    }
+
+    Jitter getJitter() {
+        return this.jitter;
+    }
+
+    boolean isHonourRetryAfter() {
+        return this.honourRetryAfter;
+    }
+
+    boolean isIdempotent(String method) {
+        return this.idempotentMethods.contains(method);
+    }
+
+    RetryBudget getRetryBudget() {
+        return this.retryBudget;
+    }
+}
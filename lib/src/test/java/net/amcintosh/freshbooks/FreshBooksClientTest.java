@@ -3,17 +3,50 @@ package net.amcintosh.freshbooks;
 import com.google.api.client.http.HttpContent;
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.amcintosh.freshbooks.auth.InMemoryTokenStore;
+import net.amcintosh.freshbooks.cache.InMemoryResponseCache;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreaker;
+import net.amcintosh.freshbooks.concurrency.AimdLimit;
+import net.amcintosh.freshbooks.concurrency.ConcurrencyLimiter;
+import net.amcintosh.freshbooks.json.LazyModel;
 import net.amcintosh.freshbooks.models.AuthorizationToken;
+import net.amcintosh.freshbooks.models.Client;
+import net.amcintosh.freshbooks.models.Project;
+import net.amcintosh.freshbooks.ratelimit.RateLimiter;
+import net.amcintosh.freshbooks.retry.RetryPolicy;
 import net.amcintosh.freshbooks.resources.Authorization;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -21,6 +54,18 @@ import static org.mockito.Mockito.when;
 
 public class FreshBooksClientTest {
 
+    private static MockHttpTransport buildMockTransport(int statusCode, String content) {
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url).setResponse(new MockLowLevelHttpResponse()
+                        .setStatusCode(statusCode)
+                        .setContentType(Json.MEDIA_TYPE)
+                        .setContent(content));
+            }
+        };
+    }
+
     @Test
     public void FreshBooksClientBuilder_WithTimeouts() throws IOException {
         FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
@@ -78,6 +123,433 @@ public class FreshBooksClientTest {
         assertNull(request.getUnsuccessfulResponseHandler());
     }
 
+    @Test
+    public void FreshBooksClientBuilder_ReusesTransport() throws IOException {
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id").build();
+
+        HttpRequest request = freshBooksClient.request(HttpMethods.GET, "http://some_url.amcintosh.net");
+        HttpRequest otherRequest = freshBooksClient.request(HttpMethods.GET, "http://some_url.amcintosh.net");
+
+        assertTrue(request.getTransport() instanceof NetHttpTransport);
+        assertSame(request.getTransport(), otherRequest.getTransport());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithConnectionPool() throws IOException {
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withConnectionPool(50, 10)
+                .withConnectionTimeToLive(60000)
+                .withIdleConnectionTimeout(30000)
+                .build();
+
+        HttpRequest request = freshBooksClient.request(HttpMethods.GET, "http://some_url.amcintosh.net");
+        HttpRequest otherRequest = freshBooksClient.request(HttpMethods.GET, "http://some_url.amcintosh.net");
+
+        assertTrue(request.getTransport() instanceof ApacheHttpTransport);
+        assertSame(request.getTransport(), otherRequest.getTransport());
+        freshBooksClient.close();
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithHttpTransport_Accounting() throws IOException, FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .build();
+
+        Client client = freshBooksClient.clients().get("ABC123", 12345);
+
+        assertEquals(12345, client.getId());
+        assertEquals("https://api.freshbooks.com/accounting/account/ABC123/users/clients/12345",
+                transport.getLowLevelHttpRequest().getUrl());
+        assertEquals("Bearer my_valid_token",
+                transport.getLowLevelHttpRequest().getFirstHeaderValue("Authorization"));
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithHttpTransport_Project() throws IOException, FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/get_project_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .build();
+
+        Project project = freshBooksClient.projects().get(32, 654321);
+
+        assertEquals(654321, project.getId());
+        assertEquals("https://api.freshbooks.com/projects/business/32/project/654321",
+                transport.getLowLevelHttpRequest().getUrl());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithConnectionWarmUp() {
+        AtomicReference<String> warmUpRequest = new AtomicReference<>();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                warmUpRequest.set(method + " " + url);
+                return new MockLowLevelHttpRequest(url).setResponse(new MockLowLevelHttpResponse().setStatusCode(404));
+            }
+        };
+
+        new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withConnectionWarmUp()
+                .build();
+
+        assertEquals("HEAD https://api.freshbooks.com", warmUpRequest.get());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithConnectionWarmUp_Unreachable() {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                throw new IOException("Unknown host");
+            }
+        };
+
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withConnectionWarmUp()
+                .build();
+
+        assertNotNull(freshBooksClient);
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithGzipCompression() throws IOException, FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/create_client_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withGzipCompression()
+                .build();
+
+        freshBooksClient.clients().create("ABC123", ImmutableMap.of("email", "john.doe@abcorp.com"));
+
+        MockLowLevelHttpRequest request = transport.getLowLevelHttpRequest();
+        assertEquals("gzip", request.getContentEncoding());
+        assertEquals("{\"client\":{\"email\":\"john.doe@abcorp.com\"}}", request.getContentAsString());
+    }
+
+    @Test
+    public void FreshBooksClient_ModelRequestBody() throws IOException, FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/create_client_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .build();
+        Client client = new Client();
+        client.setEmail("john.doe@abcorp.com");
+
+        freshBooksClient.clients().create("ABC123", client);
+
+        MockLowLevelHttpRequest request = transport.getLowLevelHttpRequest();
+        assertEquals("{\"client\":{\"email\":\"john.doe@abcorp.com\"}}", request.getContentAsString());
+    }
+
+    @Test
+    public void FreshBooksClient_LazyDecoding() throws FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withLazyDecoding()
+                .build();
+
+        Client client = freshBooksClient.clients().get("ABC123", 12345);
+
+        assertTrue(freshBooksClient.isLazyDecoding());
+        assertTrue(client instanceof LazyModel);
+        assertEquals(12345L, client.getId());
+        assertFalse(((LazyModel) client).isDecoded());
+        assertEquals("Gordon", client.getFirstName());
+        assertTrue(((LazyModel) client).isDecoded());
+    }
+
+    @Test
+    public void FreshBooksClient_GzipResponse() throws IOException, FreshBooksException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(TestUtil.loadTestJson("fixtures/get_client_response.json").getBytes(StandardCharsets.UTF_8));
+        }
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContentEncoding("gzip")
+                .setContent(compressed.toByteArray());
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .build();
+
+        Client client = freshBooksClient.clients().get("ABC123", 12345);
+
+        assertEquals(12345, client.getId());
+        assertEquals("gzip", transport.getLowLevelHttpRequest().getFirstHeaderValue("Accept-Encoding"));
+    }
+
+    @Test
+    public void FreshBooksClient_GetTenantId() {
+        assertEquals("ABC123", FreshBooksClient.getTenantId("/accounting/account/ABC123/users/clients/12345"));
+        assertEquals("439000", FreshBooksClient.getTenantId("/projects/business/439000/projects?page=2"));
+        assertEquals("439000", FreshBooksClient.getTenantId("/timetracking/business/439000/time_entries"));
+        assertNull(FreshBooksClient.getTenantId("/auth/api/v1/users/me"));
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithRateLimiter() throws IOException, FreshBooksException {
+        MockHttpTransport transport = buildMockTransport(200,
+                TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        RateLimiter rateLimiter = new RateLimiter(100).withTenantLimit(1).withMaxWait(0, TimeUnit.SECONDS);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withRateLimiter(rateLimiter)
+                .build();
+
+        assertEquals(12345, freshBooksClient.clients().get("ABC123", 12345).getId());
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.clients().get("ABC123", 12345));
+        assertEquals("Client rate limit exceeded", exception.getCause().getMessage());
+        assertEquals(12345, freshBooksClient.clients().get("XYZ789", 12345).getId());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithRateLimiter_TooManyRequests() {
+        MockHttpTransport transport = buildMockTransport(429,
+                TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json"));
+        RateLimiter rateLimiter = new RateLimiter(100).withTenantLimit(10);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withRateLimiter(rateLimiter)
+                .withoutRetries()
+                .build();
+
+        assertThrows(FreshBooksException.class, () -> freshBooksClient.clients().get("ABC123", 12345));
+        assertEquals(5, rateLimiter.getRate("ABC123"), 0.001);
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithCircuitBreaker_connectionFailuresOpen() {
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest() {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        throw new IOException("Connection reset");
+                    }
+                };
+            }
+        };
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withCircuitBreaker(circuitBreaker)
+                .withoutRetries()
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            FreshBooksException exception = assertThrows(FreshBooksConnectionException.class,
+                    () -> freshBooksClient.clients().get("ABC123", 12345));
+            assertEquals("Connection reset", exception.getCause().getMessage());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState("ACCOUNTING_LIKE users/clients"));
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithCircuitBreaker_clientFailuresDoNotOpen() throws FreshBooksException {
+        MockHttpTransport transport = buildMockTransport(200,
+                TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        RateLimiter rateLimiter = new RateLimiter(100).withTenantLimit(1).withMaxWait(0, TimeUnit.SECONDS);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withCircuitBreaker(circuitBreaker)
+                .withRateLimiter(rateLimiter)
+                .build();
+        RequestOptions cancelled = new RequestOptions();
+        cancelled.cancel();
+        RequestOptions expired = new RequestOptions().withTimeout(0, TimeUnit.SECONDS);
+
+        assertEquals(12345, freshBooksClient.clients().get("ABC123", 12345).getId());
+        for (int i = 0; i < 2; i++) {
+            FreshBooksException exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients(cancelled).get("XYZ789", 12345));
+            assertEquals("Request cancelled", exception.getCause().getMessage());
+            exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients(expired).get("XYZ789", 12345));
+            assertEquals("Request deadline exceeded", exception.getCause().getMessage());
+            exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients().get("ABC123", 12345));
+            assertEquals("Client rate limit exceeded", exception.getCause().getMessage());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("ACCOUNTING_LIKE users/clients"));
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithConcurrencyLimiter() throws IOException, FreshBooksException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(2, 1, 20));
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildMockTransport(200, TestUtil.loadTestJson("fixtures/get_client_response.json")))
+                .withConcurrencyLimiter(limiter)
+                .build();
+
+        Client client = freshBooksClient.clients().get("ABC123", 12345);
+
+        assertEquals(12345, client.getId());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithConcurrencyLimiter_ServerError() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(10, 1, 20));
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildMockTransport(503,
+                        TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json")))
+                .withoutRetries()
+                .withConcurrencyLimiter(limiter)
+                .build();
+
+        assertThrows(FreshBooksException.class, () -> freshBooksClient.clients().get("ABC123", 12345));
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithRetryPolicy() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                attempts.incrementAndGet();
+                return new MockLowLevelHttpRequest(url).setResponse(new MockLowLevelHttpResponse()
+                        .setStatusCode(500)
+                        .setContentType(Json.MEDIA_TYPE)
+                        .setContent(TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json")));
+            }
+        };
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withRetryPolicy(new RetryPolicy().withMaxRetries(2).withBackOff(1, 1, 1, TimeUnit.MILLISECONDS))
+                .build();
+
+        assertThrows(FreshBooksException.class, () -> freshBooksClient.clients().get("ABC123", 12345));
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        assertThrows(FreshBooksException.class, () -> freshBooksClient.clients().create("ABC123",
+                ImmutableMap.of("email", "john.doe@abcorp.com")));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void FreshBooksClient_Async() throws IOException, ExecutionException, InterruptedException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        MockHttpTransport transport = new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .build();
+
+        CompletableFuture<Client> future = freshBooksClient.async().clients()
+                .call(clients -> clients.get("ABC123", 12345));
+
+        assertEquals(12345, future.get().getId());
+        freshBooksClient.close();
+    }
+
+    @Test
+    public void FreshBooksClient_AsyncDefaultExecutorBounded() throws Exception {
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .build();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(freshBooksClient.async().clients().run(clients -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Uninterruptibles.awaitUninterruptibly(release);
+                running.decrementAndGet();
+            }));
+        }
+        while (running.get() < 20) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        assertEquals(20, maxRunning.get());
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(20, maxRunning.get());
+        freshBooksClient.close();
+    }
+
+    @Test
+    public void FreshBooksClientBuilder_WithVirtualThreads() throws Exception {
+        boolean supported = Arrays.stream(Executors.class.getMethods())
+                .anyMatch(m -> m.getName().equals("newVirtualThreadPerTaskExecutor"));
+        FreshBooksClient.FreshBooksClientBuilder builder = new FreshBooksClient.FreshBooksClientBuilder("some_client_id");
+        if (!supported) {
+            assertThrows(UnsupportedOperationException.class, builder::withVirtualThreads);
+            return;
+        }
+
+        AtomicReference<Thread> callThread = new AtomicReference<>();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) throws IOException {
+                callThread.set(Thread.currentThread());
+                return super.buildRequest(method, url);
+            }
+        };
+        FreshBooksClient freshBooksClient = builder
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(transport)
+                .withVirtualThreads()
+                .build();
+
+        freshBooksClient.async().clients()
+                .call(clients -> clients.get("ABC123", 12345))
+                .handle((client, e) -> null).get();
+
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(callThread.get()));
+        freshBooksClient.close();
+    }
+
     @Test
     public void FreshBooksClient_AuthTokenHeader() throws IOException {
         FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
@@ -150,6 +622,285 @@ public class FreshBooksClientTest {
         assertEquals(ImmutableList.of("some:scope", "some:other:scope"), token.getScopes());
     }
 
+    @Test
+    public void FreshBooksClient_automaticTokenRefresh() throws IOException {
+        String expiredToken = "{\"access_token\": \"old_access_token\", \"refresh_token\": \"old_refresh_token\", "
+                + "\"created_at\": 1627318626, \"expires_in\": 100}";
+        String jsonResponse = TestUtil.loadTestJson("fixtures/auth_token_response.json");
+        AtomicReference<String> tokenRequest = new AtomicReference<>();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        tokenRequest.set(this.getContentAsString());
+                        return super.execute();
+                    }
+                }.setResponse(new MockLowLevelHttpResponse()
+                        .setContentType(Json.MEDIA_TYPE)
+                        .setContent(jsonResponse));
+            }
+        };
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withAuthorizationToken(GsonFactory.getDefaultInstance().fromString(expiredToken, AuthorizationToken.class))
+                .withAutomaticTokenRefresh()
+                .withHttpTransport(transport)
+                .build();
+
+        HttpRequest request = freshBooksClient.request(HttpMethods.GET, "/some/url");
+
+        assertEquals("Bearer my_access_token", request.getHeaders().getAuthorization());
+        assertEquals("my_refresh_token", freshBooksClient.getTokenManager().getToken().getRefreshToken());
+        assertTrue(tokenRequest.get().contains("\"refresh_token\":\"old_refresh_token\""));
+        assertTrue(tokenRequest.get().contains("\"grant_type\":\"refresh_token\""));
+    }
+
+    @Test
+    public void FreshBooksClient_refreshOnUnauthorized() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/auth_token_response.json");
+        AtomicInteger tokenRequests = new AtomicInteger();
+        List<String> authorizations = new CopyOnWriteArrayList<>();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        if (url.endsWith("/auth/oauth/token")) {
+                            tokenRequests.incrementAndGet();
+                            return new MockLowLevelHttpResponse()
+                                    .setContentType(Json.MEDIA_TYPE)
+                                    .setContent(jsonResponse);
+                        }
+                        String authorization = this.getFirstHeaderValue("Authorization");
+                        authorizations.add(authorization);
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(authorization.equals("Bearer my_access_token") ? 200 : 401)
+                                .setContentType(Json.MEDIA_TYPE)
+                                .setContent("{}");
+                    }
+                };
+            }
+        };
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withAuthorizationToken(new AuthorizationToken("revoked_access_token", "old_refresh_token"))
+                .withHttpTransport(transport)
+                .build();
+
+        assertEquals(200, freshBooksClient.request(HttpMethods.GET, "/some/url").execute().getStatusCode());
+        assertEquals(200, freshBooksClient.request(HttpMethods.GET, "/some/url").execute().getStatusCode());
+
+        assertEquals(1, tokenRequests.get());
+        assertEquals(ImmutableList.of("Bearer revoked_access_token", "Bearer my_access_token", "Bearer my_access_token"),
+                authorizations);
+    }
+
+    @Test
+    public void FreshBooksClient_refreshOnUnauthorized_replaysOnce() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/auth_token_response.json");
+        AtomicInteger apiRequests = new AtomicInteger();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        if (url.endsWith("/auth/oauth/token")) {
+                            return new MockLowLevelHttpResponse()
+                                    .setContentType(Json.MEDIA_TYPE)
+                                    .setContent(jsonResponse);
+                        }
+                        apiRequests.incrementAndGet();
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(401)
+                                .setContentType(Json.MEDIA_TYPE)
+                                .setContent("{}");
+                    }
+                };
+            }
+        };
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withAuthorizationToken(new AuthorizationToken("revoked_access_token", "old_refresh_token"))
+                .withHttpTransport(transport)
+                .build();
+
+        assertEquals(401, freshBooksClient.request(HttpMethods.GET, "/some/url").execute().getStatusCode());
+        assertEquals(2, apiRequests.get());
+    }
+
+    @Test
+    public void FreshBooksClient_refreshOnUnauthorized_notForTokenRequests() throws IOException {
+        AtomicInteger tokenRequests = new AtomicInteger();
+        AtomicInteger apiRequests = new AtomicInteger();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        if (url.endsWith("/auth/oauth/token")) {
+                            tokenRequests.incrementAndGet();
+                        } else {
+                            apiRequests.incrementAndGet();
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(401)
+                                .setContentType(Json.MEDIA_TYPE)
+                                .setContent("{}");
+                    }
+                };
+            }
+        };
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withAuthorizationToken(new AuthorizationToken("revoked_access_token", "old_refresh_token"))
+                .withHttpTransport(transport)
+                .build();
+
+        assertThrows(FreshBooksException.class, freshBooksClient::refreshAccessToken);
+        assertEquals(1, tokenRequests.get());
+        assertThrows(FreshBooksException.class, () -> freshBooksClient.getAccessToken("some_grant"));
+        assertEquals(2, tokenRequests.get());
+
+        HttpRequest request = freshBooksClient.request(HttpMethods.GET, "/some/url");
+        request.getHeaders().setAuthorization("Bearer other_access_token");
+        assertEquals(401, request.execute().getStatusCode());
+        assertEquals(2, tokenRequests.get());
+        assertEquals(1, apiRequests.get());
+    }
+
+    @Test
+    public void FreshBooksClient_forTenant() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/auth_token_response.json");
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        if (url.endsWith("/auth/oauth/token")) {
+                            return new MockLowLevelHttpResponse()
+                                    .setContentType(Json.MEDIA_TYPE)
+                                    .setContent(jsonResponse);
+                        }
+                        String authorization = this.getFirstHeaderValue("Authorization");
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(authorization.equals("Bearer revoked_b_token") ? 401 : 200)
+                                .setContentType(Json.MEDIA_TYPE)
+                                .setContent("{}");
+                    }
+                };
+            }
+        };
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        tokenStore.save("tenant_a", new AuthorizationToken("a_token", "a_refresh_token"));
+        tokenStore.save("tenant_b", new AuthorizationToken("revoked_b_token", "b_refresh_token"));
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withTokenStore(tokenStore)
+                .withHttpTransport(transport)
+                .build();
+
+        HttpRequest requestA = freshBooksClient.forTenant("tenant_a").request(HttpMethods.GET, "/some/url");
+        HttpRequest requestB = freshBooksClient.forTenant("tenant_b").request(HttpMethods.GET, "/some/url");
+
+        assertEquals("Bearer a_token", requestA.getHeaders().getAuthorization());
+        assertEquals("Bearer revoked_b_token", requestB.getHeaders().getAuthorization());
+        assertEquals(200, requestB.execute().getStatusCode());
+        assertEquals("my_access_token", tokenStore.load("tenant_b").getAccessToken());
+        assertEquals("a_token", tokenStore.load("tenant_a").getAccessToken());
+        assertThrows(IllegalStateException.class, () -> new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .build().forTenant("tenant_a"));
+    }
+
+    /**
+     * Transport where only tenant_b's token can read client 12345 of account ABC123. Requests with
+     * tenant_b's token wait for <code>release</code>, so a concurrent request can be made while one is in flight.
+     */
+    private static MockHttpTransport tenantTransport(List<String> tokens, CountDownLatch release) {
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        String authorization = this.getFirstHeaderValue("Authorization");
+                        tokens.add(authorization);
+                        if (!authorization.equals("Bearer b_token")) {
+                            return new MockLowLevelHttpResponse()
+                                    .setStatusCode(404)
+                                    .setContentType(Json.MEDIA_TYPE)
+                                    .setContent(TestUtil.loadTestJson(
+                                            "fixtures/get_client_response__not_found_old.json"));
+                        }
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setContentType(Json.MEDIA_TYPE)
+                                .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json"));
+                    }
+                };
+            }
+        };
+    }
+
+    private static FreshBooksClient tenantClient(MockHttpTransport transport) {
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        tokenStore.save("tenant_a", new AuthorizationToken("a_token", "a_refresh_token"));
+        tokenStore.save("tenant_b", new AuthorizationToken("b_token", "b_refresh_token"));
+        return new FreshBooksClient.FreshBooksClientBuilder(
+                "some_client_id", "some_secret", "https://my.redirect.url")
+                .withTokenStore(tokenStore)
+                .withHttpTransport(transport)
+                .withResponseCache(new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES))
+                .withRequestCoalescing()
+                .build();
+    }
+
+    @Test
+    public void FreshBooksClient_forTenant_responseCacheNotShared() throws FreshBooksException {
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        FreshBooksClient freshBooksClient = tenantClient(tenantTransport(tokens, new CountDownLatch(0)));
+
+        assertEquals(12345, freshBooksClient.forTenant("tenant_b").clients().get("ABC123", 12345).getId());
+        assertEquals(12345, freshBooksClient.forTenant("tenant_b").clients().get("ABC123", 12345).getId());
+        assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.forTenant("tenant_a").clients().get("ABC123", 12345));
+
+        assertEquals(ImmutableList.of("Bearer b_token", "Bearer a_token"), tokens);
+    }
+
+    @Test
+    public void FreshBooksClient_forTenant_requestsNotCoalesced() throws Exception {
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        FreshBooksClient freshBooksClient = tenantClient(tenantTransport(tokens, release));
+
+        CompletableFuture<Client> tenantB = CompletableFuture.supplyAsync(() -> {
+            try {
+                return freshBooksClient.forTenant("tenant_b").clients().get("ABC123", 12345);
+            } catch (FreshBooksException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        while (tokens.isEmpty()) {
+            Thread.sleep(1);
+        }
+        assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.forTenant("tenant_a").clients().get("ABC123", 12345));
+        release.countDown();
+
+        assertEquals(12345, tenantB.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(ImmutableList.of("Bearer b_token", "Bearer a_token"), tokens);
+    }
+
     @Test
     public void FreshBooksClient_getAccessToken_badResponse() throws IOException, FreshBooksException {
         ImmutableMap<String, Object> data = ImmutableMap.of(
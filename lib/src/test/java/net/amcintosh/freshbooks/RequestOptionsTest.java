@@ -0,0 +1,322 @@
+package net.amcintosh.freshbooks;
+
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreaker;
+import net.amcintosh.freshbooks.concurrency.AimdLimit;
+import net.amcintosh.freshbooks.concurrency.Bulkhead;
+import net.amcintosh.freshbooks.concurrency.ConcurrencyLimiter;
+import net.amcintosh.freshbooks.ratelimit.RateLimiter;
+import net.amcintosh.freshbooks.resources.Clients;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestOptionsTest {
+
+    private static MockHttpTransport buildCountingTransport(AtomicInteger requests, int statusCode) {
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                requests.incrementAndGet();
+                return new MockLowLevelHttpRequest(url).setResponse(new MockLowLevelHttpResponse()
+                        .setStatusCode(statusCode)
+                        .setContentType(Json.MEDIA_TYPE)
+                        .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json")));
+            }
+        };
+    }
+
+    @Test
+    public void noDeadline() throws InterruptedIOException {
+        RequestOptions options = new RequestOptions();
+
+        options.checkActive();
+        assertEquals(Long.MAX_VALUE, options.getRemaining(TimeUnit.MILLISECONDS));
+        assertFalse(options.isCancelled());
+    }
+
+    @Test
+    public void deadlineExceeded() throws InterruptedIOException {
+        RequestOptions options = new RequestOptions().withTimeout(1, TimeUnit.HOURS);
+        options.checkActive();
+        assertTrue(options.getRemaining(TimeUnit.MINUTES) >= 59);
+
+        options.withTimeout(0, TimeUnit.SECONDS);
+        InterruptedIOException exception = assertThrows(InterruptedIOException.class, options::checkActive);
+        assertEquals("Request deadline exceeded", exception.getMessage());
+    }
+
+    @Test
+    public void cancelled() {
+        RequestOptions options = new RequestOptions();
+        options.cancel();
+
+        assertTrue(options.isCancelled());
+        InterruptedIOException exception = assertThrows(InterruptedIOException.class, options::checkActive);
+        assertEquals("Request cancelled", exception.getMessage());
+    }
+
+    @Test
+    public void sleeperStopsAtDeadline() throws InterruptedException {
+        RequestOptions options = new RequestOptions().withTimeout(50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        options.getSleeper().sleep(10000);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void sleeperWakesOnCancel() throws InterruptedException {
+        RequestOptions options = new RequestOptions();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(options::cancel, 50, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            options.getSleeper().sleep(10000);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void timeoutsCappedToDeadline() throws IOException {
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withReadTimeout(20000)
+                .withConnectTimeout(0)
+                .build();
+        RequestOptions options = new RequestOptions().withTimeout(5, TimeUnit.SECONDS);
+
+        HttpRequest request = freshBooksClient.request(HttpMethods.GET, "/accounting/account/ABC123/users/clients",
+                null, options);
+        request.getInterceptor().intercept(request);
+
+        assertTrue(request.getReadTimeout() <= 5000);
+        assertTrue(request.getConnectTimeout() > 0 && request.getConnectTimeout() <= 5000);
+    }
+
+    @Test
+    public void deadlineCapsRetries() {
+        AtomicInteger requests = new AtomicInteger();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 503))
+                .build();
+        RequestOptions options = new RequestOptions().withTimeout(200, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.clients(options).get("ABC123", 12345));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(exception.getCause() instanceof InterruptedIOException);
+        assertEquals("Request deadline exceeded", exception.getCause().getMessage());
+        assertTrue(requests.get() >= 1);
+    }
+
+    @Test
+    public void cancelledBeforeCall() {
+        AtomicInteger requests = new AtomicInteger();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .build();
+        RequestOptions options = new RequestOptions();
+        options.cancel();
+
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.clients(options).get("ABC123", 12345));
+
+        assertEquals("Request cancelled", exception.getCause().getMessage());
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void callWithOptions() throws FreshBooksException {
+        AtomicInteger requests = new AtomicInteger();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .build();
+        RequestOptions options = new RequestOptions().withTimeout(10, TimeUnit.SECONDS);
+
+        assertEquals(12345, freshBooksClient.clients(options).get("ABC123", 12345).getId());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void responseReleasedAfterCall() throws FreshBooksException {
+        MockLowLevelHttpResponse response = new MockLowLevelHttpResponse()
+                .setStatusCode(200)
+                .setContentType(Json.MEDIA_TYPE)
+                .setContent(TestUtil.loadTestJson("fixtures/get_client_response.json"));
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(new MockHttpTransport.Builder().setLowLevelHttpResponse(response).build())
+                .build();
+        RequestOptions options = new RequestOptions();
+
+        freshBooksClient.clients(options).get("ABC123", 12345);
+        options.cancel();
+
+        assertFalse(response.isDisconnected());
+    }
+
+    private static void assertCancelledWhileWaiting(FreshBooksClient freshBooksClient) {
+        RequestOptions options = new RequestOptions();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(options::cancel, 50, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            FreshBooksException exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients(options).get("ABC123", 12345));
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals("Request cancelled", exception.getCause().getMessage());
+            assertFalse(Thread.interrupted());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static void assertDeadlineWhileWaiting(FreshBooksClient freshBooksClient) {
+        RequestOptions options = new RequestOptions().withTimeout(100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> freshBooksClient.clients(options).get("ABC123", 12345));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(exception.getCause() instanceof IOException);
+    }
+
+    @Test
+    public void rateLimiterWaitBoundedByOptions() {
+        AtomicInteger requests = new AtomicInteger();
+        RateLimiter rateLimiter = new RateLimiter(0.01);
+        while (rateLimiter.tryAcquire(null)) {
+            // Use up the burst so the next request waits
+        }
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .withRateLimiter(rateLimiter)
+                .build();
+
+        assertDeadlineWhileWaiting(freshBooksClient);
+        assertCancelledWhileWaiting(freshBooksClient);
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void concurrencyLimiterWaitBoundedByOptions() throws InterruptedException {
+        AtomicInteger requests = new AtomicInteger();
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(new AimdLimit(1, 1, 1));
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .withConcurrencyLimiter(concurrencyLimiter)
+                .build();
+
+        assertDeadlineWhileWaiting(freshBooksClient);
+        assertCancelledWhileWaiting(freshBooksClient);
+        assertEquals(0, requests.get());
+        assertEquals(0, concurrencyLimiter.getWaiting());
+
+        permit.release();
+        assertEquals(0, concurrencyLimiter.getInFlight());
+    }
+
+    @Test
+    public void bulkheadWaitBoundedByOptions() throws FreshBooksException {
+        AtomicInteger requests = new AtomicInteger();
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(1).withMaxWait(1, TimeUnit.HOURS);
+        bulkhead.acquire("ABC123", Clients.class);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .withBulkhead(bulkhead)
+                .build();
+
+        assertDeadlineWhileWaiting(freshBooksClient);
+        assertCancelledWhileWaiting(freshBooksClient);
+        assertEquals(0, requests.get());
+
+        bulkhead.release("ABC123", Clients.class);
+        assertEquals(1, bulkhead.getAvailable("ABC123"));
+    }
+
+    @Test
+    public void bulkheadCancelWhileWaitingForResource() throws FreshBooksException {
+        AtomicInteger requests = new AtomicInteger();
+        Bulkhead bulkhead = new Bulkhead()
+                .withTenantLimit(2)
+                .withResourceLimit(Clients.class, 1)
+                .withMaxWait(1, TimeUnit.HOURS);
+        bulkhead.acquire("XYZ789", Clients.class);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .withBulkhead(bulkhead)
+                .build();
+
+        assertCancelledWhileWaiting(freshBooksClient);
+        assertCancelledWhileWaiting(freshBooksClient);
+        assertEquals(0, requests.get());
+        assertEquals(2, bulkhead.getAvailable("ABC123"));
+
+        bulkhead.release("XYZ789", Clients.class);
+        assertEquals(1, bulkhead.getAvailable(Clients.class));
+    }
+
+    @Test
+    public void bulkheadWaitStoppedByOptions() throws FreshBooksException {
+        AtomicInteger requests = new AtomicInteger();
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(1).withMaxWait(1, TimeUnit.HOURS);
+        bulkhead.acquire("ABC123", Clients.class);
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(buildCountingTransport(requests, 200))
+                .withBulkhead(bulkhead)
+                .withCircuitBreaker(circuitBreaker)
+                .build();
+        RequestOptions cancelled = new RequestOptions();
+        cancelled.cancel();
+        RequestOptions expired = new RequestOptions().withTimeout(0, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 2; i++) {
+            FreshBooksException exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients(cancelled).get("ABC123", 12345));
+            assertEquals("Request cancelled", exception.getMessage());
+            assertTrue(exception.getCause() instanceof InterruptedIOException);
+            exception = assertThrows(FreshBooksException.class,
+                    () -> freshBooksClient.clients(expired).get("ABC123", 12345));
+            assertEquals("Request deadline exceeded", exception.getMessage());
+            assertTrue(exception.getCause() instanceof InterruptedIOException);
+        }
+
+        assertEquals(0, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("ACCOUNTING_LIKE users/clients"));
+        bulkhead.release("ABC123", Clients.class);
+    }
+}
@@ -0,0 +1,72 @@
+package net.amcintosh.freshbooks.auth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileRefreshLockTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void exclusiveBetweenInstances() throws Exception {
+        // Two instances on one directory, as if in different processes
+        FileRefreshLock first = new FileRefreshLock(this.directory);
+        FileRefreshLock second = new FileRefreshLock(this.directory);
+
+        RefreshLock.Lease lease = first.acquire("ABC123", 1, TimeUnit.SECONDS);
+        assertNotNull(lease);
+        assertNull(second.acquire("ABC123", 50, TimeUnit.MILLISECONDS));
+
+        RefreshLock.Lease other = second.acquire("XYZ789", 1, TimeUnit.SECONDS);
+        assertNotNull(other);
+        other.close();
+
+        lease.close();
+        RefreshLock.Lease next = second.acquire("ABC123", 1, TimeUnit.SECONDS);
+        assertNotNull(next);
+        next.close();
+    }
+
+    @Test
+    public void exclusiveBetweenThreads() throws Exception {
+        FileRefreshLock refreshLock = new FileRefreshLock(this.directory);
+
+        RefreshLock.Lease lease = refreshLock.acquire("ABC123", 1, TimeUnit.SECONDS);
+        CompletableFuture<RefreshLock.Lease> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return refreshLock.acquire("ABC123", 5, TimeUnit.SECONDS);
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        lease.close();
+        RefreshLock.Lease next = waiting.get(5, TimeUnit.SECONDS);
+        assertNotNull(next);
+        next.close();
+    }
+
+    @Test
+    public void releaseTwice() throws Exception {
+        FileRefreshLock refreshLock = new FileRefreshLock(this.directory);
+
+        RefreshLock.Lease lease = refreshLock.acquire("ABC123", 1, TimeUnit.SECONDS);
+        lease.close();
+        lease.close();
+
+        RefreshLock.Lease next = refreshLock.acquire("ABC123", 1, TimeUnit.SECONDS);
+        assertNotNull(next);
+        assertNull(refreshLock.acquire("ABC123", 50, TimeUnit.MILLISECONDS));
+        next.close();
+    }
+}
@@ -0,0 +1,79 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileTokenStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        FileTokenStore tokenStore = new FileTokenStore(this.directory.resolve("tokens"));
+        AuthorizationToken token = GsonFactory.getDefaultInstance().fromString(
+                "{\"access_token\": \"my_access_token\", \"refresh_token\": \"my_refresh_token\", "
+                        + "\"created_at\": 1627318626, \"expires_in\": 100, \"scope\": \"some:scope\"}",
+                AuthorizationToken.class);
+
+        tokenStore.save("ABC123", token);
+        AuthorizationToken loaded = new FileTokenStore(this.directory.resolve("tokens")).load("ABC123");
+
+        assertEquals("my_access_token", loaded.getAccessToken());
+        assertEquals("my_refresh_token", loaded.getRefreshToken());
+        assertEquals(token.getExpiresAt(), loaded.getExpiresAt());
+        assertEquals(token.getScopes(), loaded.getScopes());
+    }
+
+    @Test
+    public void saveReplaces() throws IOException {
+        FileTokenStore tokenStore = new FileTokenStore(this.directory);
+
+        tokenStore.save("ABC123", new AuthorizationToken("first", "first_refresh"));
+        tokenStore.save("ABC123", new AuthorizationToken("second", "second_refresh"));
+
+        assertEquals("second", tokenStore.load("ABC123").getAccessToken());
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void loadMissing() throws IOException {
+        FileTokenStore tokenStore = new FileTokenStore(this.directory);
+
+        assertNull(tokenStore.load("ABC123"));
+    }
+
+    @Test
+    public void delete() throws IOException {
+        FileTokenStore tokenStore = new FileTokenStore(this.directory);
+        tokenStore.save("ABC123", new AuthorizationToken("first", "first_refresh"));
+
+        tokenStore.delete("ABC123");
+        tokenStore.delete("ABC123");
+
+        assertNull(tokenStore.load("ABC123"));
+    }
+
+    @Test
+    public void tenantIdCannotLeaveDirectory() throws IOException {
+        FileTokenStore tokenStore = new FileTokenStore(this.directory.resolve("tokens"));
+
+        tokenStore.save("../outside", new AuthorizationToken("first", "first_refresh"));
+
+        assertEquals("first", tokenStore.load("../outside").getAccessToken());
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TenantTokensTest {
+
+    private static final long CREATED_AT = 1627318626;
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochSecond(CREATED_AT + 50), ZoneOffset.UTC);
+
+    private static AuthorizationToken token(String accessToken, long createdAt) {
+        String json = String.format(
+                "{\"access_token\": \"%s\", \"refresh_token\": \"%s_refresh\", \"created_at\": %d, \"expires_in\": 100}",
+                accessToken, accessToken, createdAt);
+        try {
+            return GsonFactory.getDefaultInstance().fromString(json, AuthorizationToken.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class CountingTokenStore extends InMemoryTokenStore {
+        final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public AuthorizationToken load(String tenantId) {
+            this.loads.incrementAndGet();
+            return super.load(tenantId);
+        }
+    }
+
+    @Test
+    public void loadsOnceAndCaches() throws IOException, FreshBooksException {
+        CountingTokenStore tokenStore = new CountingTokenStore();
+        tokenStore.save("tenant_a", token("a_token", CREATED_AT));
+        tokenStore.save("tenant_b", token("b_token", CREATED_AT));
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, 10_000, CLOCK);
+
+        assertEquals("a_token", tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals("a_token", tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals("b_token", tenantTokens.get("tenant_b").getAccessToken());
+        assertSame(tenantTokens.get("tenant_a"), tenantTokens.get("tenant_a"));
+        assertEquals(2, tokenStore.loads.get());
+    }
+
+    @Test
+    public void missingTenant() {
+        TenantTokens tenantTokens = new TenantTokens(new InMemoryTokenStore(), tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, -1, CLOCK);
+
+        IOException exception = assertThrows(IOException.class, () -> tenantTokens.get("tenant_a"));
+        assertEquals("No authorization token stored for tenant tenant_a", exception.getMessage());
+    }
+
+    @Test
+    public void loadOutsideCacheLock() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore() {
+            @Override
+            public AuthorizationToken load(String tenantId) {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.load(tenantId);
+            }
+        };
+        tokenStore.save("tenant_a", token("stored", CREATED_AT));
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, 10_000, CLOCK);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<TokenManager> loaded = executor.submit(() -> tenantTokens.get("tenant_a"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            tenantTokens.put("tenant_a", token("put", CREATED_AT));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            release.countDown();
+
+            assertEquals("put", loaded.get(5, TimeUnit.SECONDS).getAccessToken());
+            assertEquals("put", tenantTokens.get("tenant_a").getAccessToken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refreshedTokenSaved() throws IOException, FreshBooksException {
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        tokenStore.save("tenant_a", token("first", CREATED_AT - 60));
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            assertEquals("tenant_a", tenant);
+            assertEquals("first_refresh", token.getRefreshToken());
+            return token("second", CREATED_AT + 50);
+        }, 100, 60_000, CLOCK);
+
+        assertEquals("second", tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals("second", tokenStore.load("tenant_a").getAccessToken());
+    }
+
+    @Test
+    public void expiredTokenReloaded() throws IOException, FreshBooksException {
+        CountingTokenStore tokenStore = new CountingTokenStore();
+        tokenStore.save("tenant_a", token("first", CREATED_AT - 100));
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, -1, CLOCK);
+
+        TokenManager expired = tenantTokens.get("tenant_a");
+        assertEquals("first", expired.getAccessToken());
+
+        // Another process refreshes the token
+        tokenStore.save("tenant_a", token("second", CREATED_AT));
+
+        assertEquals("second", tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals(2, tokenStore.loads.get());
+    }
+
+    @Test
+    public void putSavesAndCaches() throws IOException, FreshBooksException {
+        CountingTokenStore tokenStore = new CountingTokenStore();
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, -1, CLOCK);
+
+        tenantTokens.put("tenant_a", token("first", CREATED_AT));
+
+        assertEquals("first", tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals("first", tokenStore.load("tenant_a").getAccessToken());
+        assertEquals(1, tokenStore.loads.get());
+    }
+
+    @Test
+    public void refreshLockSharedBetweenNodes(@TempDir Path directory) throws Exception {
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        tokenStore.save("tenant_a", token("first", CREATED_AT - 60));
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenManager.Refresher refresher = token -> {
+            assertEquals("first_refresh", token.getRefreshToken(), "Refresh token used twice");
+            refreshes.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return token("second", CREATED_AT + 50);
+        };
+        // Two nodes, each with their own cache and lock instance
+        TenantTokens first = new TenantTokens(tokenStore, tenant -> refresher, 100, 60_000, CLOCK)
+                .withRefreshLock(new FileRefreshLock(directory), 5, TimeUnit.SECONDS);
+        TenantTokens second = new TenantTokens(tokenStore, tenant -> refresher, 100, 60_000, CLOCK)
+                .withRefreshLock(new FileRefreshLock(directory), 5, TimeUnit.SECONDS);
+        TokenManager firstManager = first.get("tenant_a");
+        TokenManager secondManager = second.get("tenant_a");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> firstToken = executor.submit(firstManager::getAccessToken);
+            Future<String> secondToken = executor.submit(secondManager::getAccessToken);
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("second", firstToken.get(5, TimeUnit.SECONDS));
+            assertEquals("second", secondToken.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, refreshes.get());
+        assertEquals("second", tokenStore.load("tenant_a").getAccessToken());
+    }
+
+    @Test
+    public void refreshLockTimeout() throws IOException {
+        InMemoryTokenStore tokenStore = new InMemoryTokenStore();
+        tokenStore.save("tenant_a", token("first", CREATED_AT - 60));
+        TenantTokens tenantTokens = new TenantTokens(tokenStore, tenant -> token -> {
+            throw new AssertionError("Should not refresh");
+        }, 100, 60_000, CLOCK).withRefreshLock((key, timeout, unit) -> null, 1, TimeUnit.SECONDS);
+
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> tenantTokens.get("tenant_a").getAccessToken());
+        assertEquals("Timed out waiting for the token refresh lock", exception.getMessage());
+    }
+}
@@ -0,0 +1,307 @@
+package net.amcintosh.freshbooks.auth;
+
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenManagerTest {
+
+    private static final long CREATED_AT = 1627318626;
+
+    private static class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+
+    private static AuthorizationToken token(String accessToken, long createdAt, long expiresIn) {
+        String json = String.format(
+                "{\"access_token\": \"%s\", \"refresh_token\": \"%s_refresh\", \"created_at\": %d, \"expires_in\": %d}",
+                accessToken, accessToken, createdAt, expiresIn);
+        try {
+            return GsonFactory.getDefaultInstance().fromString(json, AuthorizationToken.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    public void noRefreshBeforeMargin() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 30));
+        AtomicInteger refreshes = new AtomicInteger();
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            return token("second", CREATED_AT + 100, 100);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        assertEquals("first", tokenManager.getAccessToken());
+        assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    public void refreshWithinMargin() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 50));
+        List<String> refreshTokens = new ArrayList<>();
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshTokens.add(token.getRefreshToken());
+            return token("second", CREATED_AT + 50, 100);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        assertEquals("second", tokenManager.getAccessToken());
+        assertEquals("second", tokenManager.getAccessToken());
+        assertEquals("second", tokenManager.getToken().getAccessToken());
+        assertEquals(1, refreshTokens.size());
+        assertEquals("first_refresh", refreshTokens.get(0));
+    }
+
+    @Test
+    public void noRefreshWithoutMargin() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 200));
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            throw new AssertionError("Should not refresh");
+        }, clock);
+
+        assertEquals("first", tokenManager.getAccessToken());
+    }
+
+    @Test
+    public void noRefreshWithoutRefreshToken() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 200));
+        TokenManager tokenManager = new TokenManager(new AuthorizationToken("first"), token -> {
+            throw new AssertionError("Should not refresh");
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        assertEquals("first", tokenManager.getAccessToken());
+    }
+
+    @Test
+    public void expiredTokenRefreshedOnce() throws Exception {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 200));
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return token("second", CREATED_AT + 200, 100);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(tokenManager::getAccessToken));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("second", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void validTokenUsedWhileRefreshing() throws Exception {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return token("second", CREATED_AT + 50, 100);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> refreshing = executor.submit(tokenManager::getAccessToken);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals("first", tokenManager.getAccessToken());
+
+            release.countDown();
+            assertEquals("second", refreshing.get(5, TimeUnit.SECONDS));
+            assertEquals("second", tokenManager.getAccessToken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refreshFailure() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 50));
+        AtomicInteger refreshes = new AtomicInteger();
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            throw new FreshBooksException("Invalid grant", "Unauthorized", 401);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        assertEquals("first", tokenManager.getAccessToken());
+
+        clock.set(Instant.ofEpochSecond(CREATED_AT + 100));
+        FreshBooksException exception = assertThrows(FreshBooksException.class, tokenManager::getAccessToken);
+        assertEquals("Invalid grant", exception.getMessage());
+        assertEquals(2, refreshes.get());
+    }
+
+    @Test
+    public void refreshIsReentrant() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 200));
+        AtomicInteger refreshes = new AtomicInteger();
+        TokenManager[] tokenManager = new TokenManager[1];
+        tokenManager[0] = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            // The token request is made through the client, which asks for a bearer token
+            assertEquals("first", tokenManager[0].getAccessToken());
+            return token("second", CREATED_AT + 200, 100);
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        assertEquals("second", tokenManager[0].getAccessToken());
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void setToken() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 200));
+        TokenManager tokenManager = new TokenManager(new AuthorizationToken(), token -> {
+            throw new AssertionError("Should not refresh");
+        }, clock).withRefreshMargin(60, TimeUnit.SECONDS);
+
+        tokenManager.setToken(token("first", CREATED_AT + 200, 100));
+
+        assertEquals("first", tokenManager.getAccessToken());
+    }
+
+    @Test
+    public void setTokenDuringRefresh() throws Exception {
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return token("refreshed", CREATED_AT + 100, 100);
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<AuthorizationToken> refresh = executor.submit(tokenManager::refresh);
+            assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+
+            AuthorizationToken authorized = token("authorized", CREATED_AT + 50, 100);
+            tokenManager.setToken(authorized);
+            release.countDown();
+
+            assertSame(authorized, refresh.get(5, TimeUnit.SECONDS));
+            assertSame(authorized, tokenManager.getToken());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void refreshRejected() throws FreshBooksException {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 10));
+        AtomicInteger refreshes = new AtomicInteger();
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            return token("second", CREATED_AT + 10, 100);
+        }, clock);
+
+        assertEquals("second", tokenManager.refreshRejected("first").getAccessToken());
+        // A second request rejected with the same token uses the new one without refreshing again
+        assertEquals("second", tokenManager.refreshRejected("first").getAccessToken());
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void refreshRejectedConcurrently() throws Exception {
+        MutableClock clock = new MutableClock(Instant.ofEpochSecond(CREATED_AT + 10));
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        TokenManager tokenManager = new TokenManager(token("first", CREATED_AT, 100), token -> {
+            refreshes.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return token("second", CREATED_AT + 10, 100);
+        }, clock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<AuthorizationToken>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> tokenManager.refreshRejected("first")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<AuthorizationToken> result : results) {
+                assertEquals("second", result.get(5, TimeUnit.SECONDS).getAccessToken());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void refreshRejectedWithoutRefreshToken() throws FreshBooksException {
+        TokenManager tokenManager = new TokenManager(new AuthorizationToken("first"), token -> {
+            throw new AssertionError("Should not refresh");
+        });
+
+        assertNull(tokenManager.refreshRejected("first"));
+    }
+}
@@ -0,0 +1,99 @@
+package net.amcintosh.freshbooks.cache;
+
+import com.google.common.base.Ticker;
+import net.amcintosh.freshbooks.resources.Clients;
+import net.amcintosh.freshbooks.resources.Taxes;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryResponseCacheTest {
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+
+    @Test
+    public void getPut() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.get("/accounting/account/ABC123/users/clients/1"));
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/1", "{\"id\": 1}");
+
+        assertEquals("{\"id\": 1}", cache.get("/accounting/account/ABC123/users/clients/1"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void expiresAfterTtl() {
+        FakeTicker ticker = new FakeTicker();
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024, 30, TimeUnit.SECONDS, ticker)
+                .withResourceTtl(Taxes.class, 10, TimeUnit.MINUTES);
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients", "clients");
+        cache.put(Taxes.class, "/accounting/account/ABC123/taxes/taxes", "taxes");
+
+        ticker.advance(29, TimeUnit.SECONDS);
+        assertEquals("clients", cache.get("/accounting/account/ABC123/users/clients"));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertNull(cache.get("/accounting/account/ABC123/users/clients"));
+        assertEquals("taxes", cache.get("/accounting/account/ABC123/taxes/taxes"));
+
+        ticker.advance(10, TimeUnit.MINUTES);
+        assertNull(cache.get("/accounting/account/ABC123/taxes/taxes"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void zeroTtlNotCached() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024, 1, TimeUnit.MINUTES)
+                .withResourceTtl(Clients.class, 0, TimeUnit.SECONDS);
+
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients", "clients");
+
+        assertNull(cache.get("/accounting/account/ABC123/users/clients"));
+    }
+
+    @Test
+    public void invalidatePrefix() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024, 1, TimeUnit.MINUTES);
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/1", "one");
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients?page=2", "list");
+        cache.put(Taxes.class, "/accounting/account/ABC123/taxes/taxes/1", "tax");
+
+        cache.invalidate("/accounting/account/ABC123/users/clients");
+
+        assertNull(cache.get("/accounting/account/ABC123/users/clients/1"));
+        assertNull(cache.get("/accounting/account/ABC123/users/clients?page=2"));
+        assertEquals("tax", cache.get("/accounting/account/ABC123/taxes/taxes/1"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedOverSize() {
+        String body = new String(new char[200]);
+        // Each entry is about 550 bytes
+        InMemoryResponseCache cache = new InMemoryResponseCache(1200, 1, TimeUnit.MINUTES);
+
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/1", body);
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/2", body);
+        cache.get("/accounting/account/ABC123/users/clients/1");
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/3", body);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/accounting/account/ABC123/users/clients/1"));
+        assertNull(cache.get("/accounting/account/ABC123/users/clients/2"));
+        assertNotNull(cache.get("/accounting/account/ABC123/users/clients/3"));
+    }
+}
@@ -0,0 +1,120 @@
+package net.amcintosh.freshbooks.circuitbreaker;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private static final String ACCOUNTING = "ACCOUNTING_LIKE users/clients";
+    private static final String PROJECTS = "PROJECT_LIKE project";
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+
+    private static void call(CircuitBreaker circuitBreaker, String endpoint, long duration, boolean failed)
+            throws CircuitBreakerOpenException {
+        circuitBreaker.acquirePermission(endpoint);
+        circuitBreaker.onResult(endpoint, duration, failed);
+    }
+
+    @Test
+    public void opensOnFailureRate() throws CircuitBreakerOpenException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(new FakeTicker()).withSlidingWindow(10, 4);
+
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(ACCOUNTING));
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState(ACCOUNTING));
+        CircuitBreakerOpenException exception = assertThrows(CircuitBreakerOpenException.class,
+                () -> circuitBreaker.acquirePermission(ACCOUNTING));
+        assertEquals(ACCOUNTING, exception.endpoint);
+        assertEquals("Circuit breaker is open for ACCOUNTING_LIKE users/clients", exception.getMessage());
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(PROJECTS));
+        call(circuitBreaker, PROJECTS, FAST, false);
+    }
+
+    @Test
+    public void opensOnSlowCallRate() throws CircuitBreakerOpenException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(new FakeTicker())
+                .withSlidingWindow(4, 4)
+                .withSlowCallThreshold(75, 10, TimeUnit.SECONDS);
+
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+        call(circuitBreaker, ACCOUNTING, SLOW, false);
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+        call(circuitBreaker, ACCOUNTING, SLOW, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(ACCOUNTING));
+
+        call(circuitBreaker, ACCOUNTING, SLOW, false);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState(ACCOUNTING));
+    }
+
+    @Test
+    public void halfOpenCloses() throws CircuitBreakerOpenException {
+        FakeTicker ticker = new FakeTicker();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(ticker)
+                .withSlidingWindow(2, 2)
+                .withWaitInOpenState(30, TimeUnit.SECONDS)
+                .withHalfOpenCalls(2);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+
+        ticker.advance(29, TimeUnit.SECONDS);
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission(ACCOUNTING));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState(ACCOUNTING));
+        circuitBreaker.acquirePermission(ACCOUNTING);
+        circuitBreaker.acquirePermission(ACCOUNTING);
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission(ACCOUNTING));
+
+        circuitBreaker.onResult(ACCOUNTING, FAST, false);
+        circuitBreaker.onResult(ACCOUNTING, FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(ACCOUNTING));
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+    }
+
+    @Test
+    public void halfOpenReopens() throws CircuitBreakerOpenException {
+        FakeTicker ticker = new FakeTicker();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(ticker)
+                .withSlidingWindow(2, 2)
+                .withHalfOpenCalls(2);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+        ticker.advance(30, TimeUnit.SECONDS);
+
+        call(circuitBreaker, ACCOUNTING, FAST, false);
+        call(circuitBreaker, ACCOUNTING, FAST, true);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState(ACCOUNTING));
+        assertThrows(CircuitBreakerOpenException.class, () -> circuitBreaker.acquirePermission(ACCOUNTING));
+    }
+
+    @Test
+    public void invalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker().withSlidingWindow(5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker().withHalfOpenCalls(0));
+    }
+}
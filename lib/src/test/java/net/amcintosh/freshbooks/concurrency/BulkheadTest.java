@@ -0,0 +1,81 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.resources.Clients;
+import net.amcintosh.freshbooks.resources.Expenses;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    @Test
+    public void tenantLimit() throws FreshBooksException {
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(2).withTenantLimit("ABC123", 1);
+
+        bulkhead.acquire("ABC123", Clients.class);
+        BulkheadFullException exception = assertThrows(BulkheadFullException.class,
+                () -> bulkhead.acquire("ABC123", Clients.class));
+        assertEquals("Bulkhead is full for ABC123", exception.getMessage());
+        assertEquals("ABC123", exception.compartment);
+
+        bulkhead.acquire("XYZ789", Clients.class);
+        bulkhead.acquire("XYZ789", Expenses.class);
+        assertThrows(BulkheadFullException.class, () -> bulkhead.acquire("XYZ789", Clients.class));
+        assertEquals(0, bulkhead.getAvailable("XYZ789"));
+
+        bulkhead.release("ABC123", Clients.class);
+        bulkhead.acquire("ABC123", Clients.class);
+    }
+
+    @Test
+    public void resourceLimit() throws FreshBooksException {
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(5).withResourceLimit(Expenses.class, 1);
+
+        bulkhead.acquire("ABC123", Expenses.class);
+        BulkheadFullException exception = assertThrows(BulkheadFullException.class,
+                () -> bulkhead.acquire("XYZ789", Expenses.class));
+
+        assertEquals("Bulkhead is full for Expenses", exception.getMessage());
+        assertEquals(5, bulkhead.getAvailable("XYZ789"));
+        assertEquals(0, bulkhead.getAvailable(Expenses.class));
+        assertEquals(Integer.MAX_VALUE, bulkhead.getAvailable(Clients.class));
+        bulkhead.acquire("XYZ789", Clients.class);
+    }
+
+    @Test
+    public void unlimitedWithoutTenant() throws FreshBooksException {
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(1);
+
+        bulkhead.acquire(null, Clients.class);
+        bulkhead.acquire(null, Clients.class);
+
+        assertEquals(Integer.MAX_VALUE, bulkhead.getAvailable(Clients.class));
+    }
+
+    @Test
+    public void waitsForPlace() throws FreshBooksException {
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(1).withMaxWait(5, TimeUnit.SECONDS);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            bulkhead.acquire("ABC123", Clients.class);
+            scheduler.schedule(() -> bulkhead.release("ABC123", Clients.class), 20, TimeUnit.MILLISECONDS);
+
+            bulkhead.acquire("ABC123", Clients.class);
+
+            assertEquals(0, bulkhead.getAvailable("ABC123"));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void invalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead().withTenantLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead().withResourceLimit(Clients.class, -1));
+    }
+}
@@ -0,0 +1,97 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void limitsInFlight() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(2, 1, 2));
+
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        first.onSuccess();
+        first.onSuccess();
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    public void acquireAsyncWaitsInOrder() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(1, 1, 1));
+        ConcurrencyLimiter.Permit held = limiter.tryAcquire();
+
+        CompletableFuture<ConcurrencyLimiter.Permit> first = limiter.acquireAsync();
+        CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquireAsync();
+        assertFalse(first.isDone());
+        assertEquals(2, limiter.getWaiting());
+        assertNull(limiter.tryAcquire());
+
+        held.release();
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        first.join().onSuccess();
+        assertTrue(second.isDone());
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void cancelledWaiterSkipped() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(1, 1, 1));
+        ConcurrencyLimiter.Permit held = limiter.tryAcquire();
+        CompletableFuture<ConcurrencyLimiter.Permit> cancelled = limiter.acquireAsync();
+        CompletableFuture<ConcurrencyLimiter.Permit> waiting = limiter.acquireAsync();
+
+        cancelled.cancel(false);
+        held.release();
+
+        assertTrue(waiting.isDone());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void acquireTimesOut() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(1, 1, 1))
+                .withMaxWait(10, TimeUnit.MILLISECONDS);
+        ConcurrencyLimiter.Permit held = limiter.acquire();
+
+        assertNotNull(held);
+        assertNull(limiter.acquire());
+        assertEquals(0, limiter.getWaiting());
+
+        held.onSuccess();
+        assertNotNull(limiter.acquire());
+    }
+
+    @Test
+    public void acquireWithoutWait() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(1, 1, 1))
+                .withMaxWait(0, TimeUnit.SECONDS);
+
+        assertNotNull(limiter.acquire());
+        assertNull(limiter.acquire());
+    }
+
+    @Test
+    public void droppedRequestsLowerLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new AimdLimit(10, 1, 10));
+
+        limiter.tryAcquire().onDropped();
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,90 @@
+package net.amcintosh.freshbooks.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitAlgorithmTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void aimdIncreasesWhenUsed() {
+        AimdLimit limit = new AimdLimit(10, 1, 12);
+
+        limit.onSample(RTT, 2, false);
+        assertEquals(10, limit.getLimit());
+
+        limit.onSample(RTT, 5, false);
+        limit.onSample(RTT, 10, false);
+        assertEquals(12, limit.getLimit());
+        limit.onSample(RTT, 12, false);
+        assertEquals(12, limit.getLimit());
+    }
+
+    @Test
+    public void aimdDecreasesOnDrop() {
+        AimdLimit limit = new AimdLimit(10, 4, 20).withBackOffRatio(0.5);
+
+        limit.onSample(RTT, 10, true);
+        assertEquals(5, limit.getLimit());
+        limit.onSample(RTT, 5, true);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void gradientGrowsAtSteadyLatency() {
+        GradientLimit limit = new GradientLimit(10, 1, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "Limit was " + limit.getLimit());
+    }
+
+    @Test
+    public void gradientShrinksAsLatencyRises() {
+        GradientLimit limit = new GradientLimit(50, 1, 100).withLongWindow(1000);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, 50, false);
+        }
+        int steady = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT * 4, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < steady, "Limit was " + limit.getLimit() + ", steady " + steady);
+    }
+
+    @Test
+    public void gradientUnusedLimitDoesNotGrow() {
+        GradientLimit limit = new GradientLimit(20, 1, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(RTT, 1, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+        assertEquals(RTT, limit.getLongRttNanos());
+    }
+
+    @Test
+    public void gradientDecreasesOnDrop() {
+        GradientLimit limit = new GradientLimit(20, 1, 100);
+
+        limit.onSample(RTT, 20, true);
+
+        assertEquals(18, limit.getLimit());
+    }
+
+    @Test
+    public void invalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit(5, 10, 20));
+        assertThrows(IllegalArgumentException.class, () -> new GradientLimit(30, 1, 20));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit().withBackOffRatio(1));
+    }
+}
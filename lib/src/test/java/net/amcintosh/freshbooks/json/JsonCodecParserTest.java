@@ -0,0 +1,103 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonObjectParser;
+import com.google.api.client.json.gson.GsonFactory;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.Client;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonCodecParserTest {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void parseStream_matchesJsonObjectParser() throws IOException {
+        JsonObjectParser expectedParser = new JsonObjectParser(JSON_FACTORY);
+        JsonCodecParser parser = new JsonCodecParser(JSON_FACTORY);
+        for (Map.Entry<String, Class<?>> fixture : JsonCodecsTest.FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+
+            Object expected = expectedParser.parseAndClose(stream(json), StandardCharsets.UTF_8, fixture.getValue());
+            Object actual = parser.parseAndClose(stream(json), StandardCharsets.UTF_8, fixture.getValue());
+
+            assertSame(fixture.getValue(), actual.getClass());
+            assertEquals(JSON_FACTORY.toString(expected), JSON_FACTORY.toString(actual), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void parseReader_matchesJsonObjectParser() throws IOException {
+        JsonObjectParser expectedParser = new JsonObjectParser(JSON_FACTORY);
+        JsonCodecParser parser = new JsonCodecParser(JSON_FACTORY);
+        for (Map.Entry<String, Class<?>> fixture : JsonCodecsTest.FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+
+            Object expected = expectedParser.parseAndClose(new StringReader(json), fixture.getValue());
+            Object actual = parser.parseAndClose(new StringReader(json), (Type) fixture.getValue());
+
+            assertSame(fixture.getValue(), actual.getClass());
+            assertEquals(JSON_FACTORY.toString(expected), JSON_FACTORY.toString(actual), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void parseLazy_matchesJsonObjectParser() throws IOException {
+        JsonObjectParser expectedParser = new JsonObjectParser(JSON_FACTORY);
+        JsonCodecParser parser = new JsonCodecParser(JSON_FACTORY, true);
+        for (Map.Entry<String, Class<?>> fixture : JsonCodecsTest.FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+
+            Object expected = expectedParser.parseAndClose(stream(json), StandardCharsets.UTF_8, fixture.getValue());
+            Object actual = parser.parseAndClose(stream(json), StandardCharsets.UTF_8, fixture.getValue());
+
+            assertEquals(JSON_FACTORY.toString(expected), JSON_FACTORY.toString(actual), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void parseLazy_invoice() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_invoice_response.json");
+
+        Invoice eager = new JsonCodecParser(JSON_FACTORY)
+                .parseAndClose(stream(json), StandardCharsets.UTF_8, AccountingResponse.class)
+                .response.result.invoice;
+        Invoice lazy = new JsonCodecParser(JSON_FACTORY, true)
+                .parseAndClose(stream(json), StandardCharsets.UTF_8, AccountingResponse.class)
+                .response.result.invoice;
+
+        assertFalse(eager instanceof LazyModel);
+        assertTrue(lazy instanceof LazyModel);
+        assertEquals(eager.getInvoiceNumber(), lazy.getInvoiceNumber());
+    }
+
+    @Test
+    public void responseParseAs_matchesJsonObjectParser() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        HttpRequest expectedRequest = TestUtil.buildMockHttpRequest(200, json);
+        HttpRequest request = TestUtil.buildMockHttpRequest(200, json).setParser(new JsonCodecParser(JSON_FACTORY));
+
+        Client expected = expectedRequest.execute().parseAs(AccountingResponse.class).response.result.client;
+        Client actual = request.execute().parseAs(AccountingResponse.class).response.result.client;
+
+        assertEquals(expected, actual);
+        assertEquals(12345, actual.getId());
+    }
+}
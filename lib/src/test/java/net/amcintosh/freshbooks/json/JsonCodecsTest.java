@@ -0,0 +1,298 @@
+package net.amcintosh.freshbooks.json;
+
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.Data;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import net.amcintosh.freshbooks.models.Client;
+import net.amcintosh.freshbooks.models.ClientList;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.LineItem;
+import net.amcintosh.freshbooks.models.Money;
+import net.amcintosh.freshbooks.models.Project;
+import net.amcintosh.freshbooks.models.VisState;
+import net.amcintosh.freshbooks.models.api.AccountingListResponse;
+import net.amcintosh.freshbooks.models.api.AccountingResponse;
+import net.amcintosh.freshbooks.models.api.AuthErrorResponse;
+import net.amcintosh.freshbooks.models.api.AuthMeResponse;
+import net.amcintosh.freshbooks.models.api.ContentMap;
+import net.amcintosh.freshbooks.models.api.ConvertibleContent;
+import net.amcintosh.freshbooks.models.api.ProjectListResponse;
+import net.amcintosh.freshbooks.models.api.ProjectResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonCodecsTest {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    static final Map<String, Class<?>> FIXTURES = ImmutableMap.<String, Class<?>>builder()
+            .put("auth_me_response.json", AuthMeResponse.class)
+            .put("auth_response__no_auth.json", AuthErrorResponse.class)
+            .put("auth_token_response.json", AuthorizationToken.class)
+            .put("create_client_response.json", AccountingResponse.class)
+            .put("create_project_response.json", ProjectResponse.class)
+            .put("get_client_response.json", AccountingResponse.class)
+            .put("get_client_response__no_auth.json", AccountingResponse.class)
+            .put("get_client_response__not_found_new.json", AccountingResponse.class)
+            .put("get_client_response__not_found_old.json", AccountingResponse.class)
+            .put("get_expense_response.json", AccountingResponse.class)
+            .put("get_invoice_response.json", AccountingResponse.class)
+            .put("get_item_response.json", AccountingResponse.class)
+            .put("get_other_income_response.json", AccountingResponse.class)
+            .put("get_payment_response.json", AccountingResponse.class)
+            .put("get_project_response.json", ProjectResponse.class)
+            .put("get_project_response__not_found.json", ProjectListResponse.class)
+            .put("get_service_rate_response.json", ProjectResponse.class)
+            .put("get_service_response.json", ProjectResponse.class)
+            .put("get_task_response.json", AccountingResponse.class)
+            .put("get_tax_response.json", AccountingResponse.class)
+            .put("get_time_entry_response.json", ProjectResponse.class)
+            .put("list_clients_response.json", AccountingListResponse.class)
+            .put("list_expenses_response.json", AccountingListResponse.class)
+            .put("list_invoices_response.json", AccountingListResponse.class)
+            .put("list_items_response.json", AccountingListResponse.class)
+            .put("list_other_incomes_response.json", AccountingListResponse.class)
+            .put("list_payments_response.json", AccountingListResponse.class)
+            .put("list_projects_response.json", ProjectListResponse.class)
+            .put("list_service_rates_response.json", ProjectListResponse.class)
+            .put("list_services_response.json", ProjectListResponse.class)
+            .put("list_tasks_response.json", AccountingListResponse.class)
+            .put("list_taxes_response.json", AccountingListResponse.class)
+            .put("list_time_entries_response.json", ProjectListResponse.class)
+            .put("report_profit_and_loss.json", AccountingResponse.class)
+            .build();
+
+    private static String write(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = JSON_FACTORY.createJsonGenerator(out, StandardCharsets.UTF_8);
+        JsonCodecs.serialize(generator, value);
+        generator.flush();
+        return out.toString("UTF-8");
+    }
+
+    @Test
+    public void codecsGenerated() {
+        assertTrue(JsonCodecs.hasCodec(Client.class));
+        assertTrue(JsonCodecs.hasCodec(Invoice.class));
+        assertTrue(JsonCodecs.hasCodec(LineItem.class));
+        assertTrue(JsonCodecs.hasCodec(AccountingResponse.class));
+        assertTrue(JsonCodecs.hasCodec(ProjectListResponse.ProjectMeta.class));
+
+        // Final fields cannot be set by a codec, so the list results keep their reflective binding
+        assertFalse(JsonCodecs.hasCodec(ClientList.class));
+        assertNull(JsonCodecs.get(ClientList.class));
+    }
+
+    @Test
+    public void readFixtures_matchesReflection() throws IOException {
+        for (Map.Entry<String, Class<?>> fixture : FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+
+            Object expected = JSON_FACTORY.fromString(json, fixture.getValue());
+            Object actual = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), fixture.getValue());
+
+            assertSame(fixture.getValue(), actual.getClass());
+            assertEquals(JSON_FACTORY.toString(expected), JSON_FACTORY.toString(actual), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void writeFixtures_matchesReflection() throws IOException {
+        for (Map.Entry<String, Class<?>> fixture : FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+            Object model = JSON_FACTORY.fromString(json, fixture.getValue());
+
+            assertEquals(JSON_FACTORY.toString(model), write(model), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void writeContent_matchesContentMap() throws IOException {
+        for (Map.Entry<String, Class<?>> fixture : FIXTURES.entrySet()) {
+            if (!fixture.getKey().startsWith("get_") || fixture.getKey().contains("__")) {
+                continue;
+            }
+            Object response = JSON_FACTORY.fromString(
+                    TestUtil.loadTestJson("fixtures/" + fixture.getKey()), fixture.getValue());
+            ConvertibleContent model = null;
+            if (response instanceof AccountingResponse) {
+                AccountingResponse.AccountingResult result = ((AccountingResponse) response).response.result;
+                model = firstNonNull(result.client, result.expense, result.invoice, result.item, result.payment,
+                        result.tax, result.task, result.otherIncome);
+            } else {
+                ProjectResponse result = (ProjectResponse) response;
+                model = firstNonNull(result.project, result.service, result.serviceRate, result.timeEntry);
+            }
+
+            assertEquals(JSON_FACTORY.fromString(write(model.getContent()), GenericJson.class),
+                    JSON_FACTORY.fromString(write(new ContentMap(model)), GenericJson.class), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void writeContent_newModel() throws IOException {
+        LineItem line = new LineItem();
+        line.setName("Bowls");
+        line.setUnitCost(new Money(new BigDecimal("20.00"), "CAD"));
+        line.setQuantity(new BigDecimal(4));
+        Invoice invoice = new Invoice();
+        invoice.setCustomerId(12345);
+        invoice.setLines(ImmutableList.of(line));
+        ContentMap content = new ContentMap(invoice);
+
+        assertEquals("{\"auto_bill\":false,\"customerid\":12345,\"show_attachments\":false,\"due_offset_days\":0,"
+                + "\"lines\":[{\"name\":\"Bowls\",\"qty\":\"4\",\"type\":0,"
+                + "\"unit_cost\":{\"amount\":\"20.00\",\"code\":\"CAD\"}}]}", write(content));
+        assertEquals(invoice.getContent(), content);
+    }
+
+    private static ConvertibleContent firstNonNull(ConvertibleContent... models) {
+        for (ConvertibleContent model : models) {
+            if (model != null) {
+                return model;
+            }
+        }
+        throw new AssertionError("No model in response");
+    }
+
+    @Test
+    public void readLazy_matchesEager() throws IOException {
+        for (Map.Entry<String, Class<?>> fixture : FIXTURES.entrySet()) {
+            String json = TestUtil.loadTestJson("fixtures/" + fixture.getKey());
+
+            Object expected = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), fixture.getValue());
+            Object actual = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), fixture.getValue(), true);
+
+            assertEquals(JSON_FACTORY.toString(expected), JSON_FACTORY.toString(actual), fixture.getKey());
+            actual = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), fixture.getValue(), true);
+            assertEquals(write(expected), write(actual), fixture.getKey());
+        }
+    }
+
+    @Test
+    public void readLazy_decodesOnFirstUse() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_invoice_response.json");
+        AccountingResponse response = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class, true);
+        Invoice invoice = response.response.result.invoice;
+
+        assertTrue(invoice instanceof LazyModel);
+        LazyModel lazy = (LazyModel) invoice;
+        assertEquals(987654L, invoice.getId());
+        assertEquals(VisState.ACTIVE, invoice.getVisState());
+        assertEquals(LocalDate.of(2021, 4, 16), invoice.getDueDate());
+        assertNotNull(invoice.getOutstanding());
+        assertFalse(lazy.isDecoded());
+
+        assertEquals("ACM0002", invoice.getInvoiceNumber());
+        assertTrue(lazy.isDecoded());
+        assertEquals("Thanks for your business", invoice.getNotes());
+        assertEquals(2, invoice.getLines().size());
+    }
+
+    @Test
+    public void readLazy_setBeforeDecode() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_invoice_response.json");
+        Invoice invoice = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class, true).response.result.invoice;
+
+        invoice.setVisState(VisState.DELETED);
+        assertFalse(((LazyModel) invoice).isDecoded());
+        invoice.setNotes("Updated notes");
+
+        assertTrue(((LazyModel) invoice).isDecoded());
+        assertEquals("Updated notes", invoice.getNotes());
+        assertEquals(VisState.DELETED, invoice.getVisState());
+        assertEquals("ACM0002", invoice.getInvoiceNumber());
+    }
+
+    @Test
+    public void readLazy_mapAccessBeforeDecode() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_invoice_response.json");
+        Invoice invoice = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class, true).response.result.invoice;
+
+        // GenericData.get and put are final, so they see the fields as read until the rest are decoded
+        assertEquals(987654L, invoice.get("id"));
+        assertNull(invoice.get("notes"));
+        invoice.put("current_organization", "Renamed Org");
+        assertFalse(((LazyModel) invoice).isDecoded());
+        invoice.entrySet();
+
+        assertTrue(((LazyModel) invoice).isDecoded());
+        assertEquals("Thanks for your business", invoice.get("notes"));
+        assertEquals("Renamed Org", invoice.get("current_organization"));
+    }
+
+    @Test
+    public void readLazy_equals() throws IOException {
+        String json = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        Client eager = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class).response.result.client;
+        Client otherEager = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class).response.result.client;
+        Client lazy = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class, true).response.result.client;
+        Client otherLazy = JsonCodecs.parseAndClose(
+                JSON_FACTORY.createJsonParser(json), AccountingResponse.class, true).response.result.client;
+
+        assertEquals(eager, otherEager);
+        assertEquals(lazy, otherLazy);
+        assertEquals(lazy.hashCode(), otherLazy.hashCode());
+        // GenericData only compares models of the same class
+        assertNotEquals(eager, lazy);
+        assertNotEquals(lazy, eager);
+    }
+
+    @Test
+    public void read_nullsAndUnknownKeys() throws IOException {
+        String json = "{\"id\": 1, \"fname\": null, \"email\": \"a@b.c\", \"not_a_field\": {\"nested\": [1, 2]}}";
+
+        Client client = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), Client.class);
+
+        assertEquals(1L, client.getId());
+        assertTrue(Data.isNull(client.getFirstName()));
+        assertEquals("a@b.c", client.getEmail());
+        assertNotNull(client.get("not_a_field"));
+        assertEquals(JSON_FACTORY.toString(JSON_FACTORY.fromString(json, Client.class)), write(client));
+    }
+
+    @Test
+    public void read_enumNullValue() throws IOException {
+        String json = "{\"id\": 1, \"billing_method\": null, \"project_type\": \"fixed_price\"}";
+
+        Project project = JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(json), Project.class);
+
+        assertEquals(Project.ProjectBillingMethod.NONE, project.getBillingMethod());
+        assertEquals(Project.ProjectType.FIXED_PRICE, project.getProjectType());
+        assertEquals(JSON_FACTORY.toString(JSON_FACTORY.fromString(json, Project.class)), write(project));
+    }
+
+    @Test
+    public void read_noInput() throws IOException {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser(""), Client.class));
+
+        assertEquals("no JSON input found", e.getMessage());
+    }
+
+    @Test
+    public void read_notAnObject() throws IOException {
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonCodecs.parseAndClose(JSON_FACTORY.createJsonParser("{\"lines\": 1}"), Invoice.class));
+    }
+}
@@ -0,0 +1,121 @@
+package net.amcintosh.freshbooks.ratelimit;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+
+    @Test
+    public void clientLimit() {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(2, ticker);
+
+        assertTrue(rateLimiter.tryAcquire("ABC123"));
+        assertTrue(rateLimiter.tryAcquire("XYZ789"));
+        assertFalse(rateLimiter.tryAcquire(null));
+
+        ticker.advance(500, TimeUnit.MILLISECONDS);
+        assertTrue(rateLimiter.tryAcquire(null));
+        assertFalse(rateLimiter.tryAcquire(null));
+    }
+
+    @Test
+    public void tenantLimit() {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(100, ticker)
+                .withTenantLimit(1)
+                .withTenantLimit("ABC123", 2);
+
+        assertTrue(rateLimiter.tryAcquire("ABC123"));
+        assertTrue(rateLimiter.tryAcquire("ABC123"));
+        assertFalse(rateLimiter.tryAcquire("ABC123"));
+
+        assertTrue(rateLimiter.tryAcquire("XYZ789"));
+        assertFalse(rateLimiter.tryAcquire("XYZ789"));
+
+        assertTrue(rateLimiter.tryAcquire("439000"));
+        assertTrue(rateLimiter.tryAcquire(null));
+    }
+
+    @Test
+    public void rejectedRequestDoesNotUseClientLimit() {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(2, ticker).withTenantLimit(1);
+
+        assertTrue(rateLimiter.tryAcquire("ABC123"));
+        assertFalse(rateLimiter.tryAcquire("ABC123"));
+
+        assertTrue(rateLimiter.tryAcquire("XYZ789"));
+        assertFalse(rateLimiter.tryAcquire("QWE456"));
+    }
+
+    @Test
+    public void tryAcquire_timeout() throws InterruptedException {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(1000, ticker);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(rateLimiter.tryAcquire(null));
+        }
+
+        assertFalse(rateLimiter.tryAcquire(null, 0, TimeUnit.MILLISECONDS));
+        long start = System.nanoTime();
+        assertTrue(rateLimiter.tryAcquire(null, 1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void acquire_maxWait() throws InterruptedException {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(1, ticker).withMaxWait(0, TimeUnit.SECONDS);
+
+        assertTrue(rateLimiter.acquire("ABC123"));
+        assertFalse(rateLimiter.acquire("ABC123"));
+    }
+
+    @Test
+    public void tunesRateFromRateLimitedResponses() {
+        FakeTicker ticker = new FakeTicker();
+        RateLimiter rateLimiter = new RateLimiter(100, ticker).withTenantLimit(10);
+
+        rateLimiter.onRateLimited("ABC123");
+        assertEquals(5, rateLimiter.getRate("ABC123"), 0.001);
+        assertEquals(10, rateLimiter.getRate("XYZ789"), 0.001);
+        assertEquals(100, rateLimiter.getRate(null), 0.001);
+
+        rateLimiter.onRateLimited(null);
+        assertEquals(50, rateLimiter.getRate(null), 0.001);
+
+        rateLimiter.onSuccess("ABC123");
+        assertEquals(5.5, rateLimiter.getRate("ABC123"), 0.001);
+        assertEquals(55, rateLimiter.getRate(null), 0.001);
+        for (int i = 0; i < 20; i++) {
+            rateLimiter.onSuccess("ABC123");
+        }
+        assertEquals(10, rateLimiter.getRate("ABC123"), 0.001);
+        assertEquals(100, rateLimiter.getRate(null), 0.001);
+    }
+
+    @Test
+    public void invalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(10).withTenantLimit(-1));
+    }
+}
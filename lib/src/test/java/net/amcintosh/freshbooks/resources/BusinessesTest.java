@@ -0,0 +1,112 @@
+package net.amcintosh.freshbooks.resources;
+
+import com.google.api.client.http.HttpMethods;
+import com.google.common.base.Ticker;
+import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.auth.TokenManager;
+import net.amcintosh.freshbooks.models.AuthorizationToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BusinessesTest {
+
+    private FreshBooksClient mockedFreshBooksClient;
+    private TokenManager tokenManager;
+    private FakeTicker ticker;
+
+    private static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long time, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/auth_me_response.json");
+        this.mockedFreshBooksClient = mock(FreshBooksClient.class);
+        when(this.mockedFreshBooksClient.request(HttpMethods.GET, "/auth/api/v1/users/me", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse));
+        this.tokenManager = new TokenManager(new AuthorizationToken("my_access_token"), token -> token);
+        when(this.mockedFreshBooksClient.getTokenManager()).thenReturn(this.tokenManager);
+        this.ticker = new FakeTicker();
+    }
+
+    @Test
+    public void lookups() throws FreshBooksException, IOException {
+        Businesses businesses = new Businesses(this.mockedFreshBooksClient, 10, TimeUnit.MINUTES, this.ticker);
+
+        assertEquals(12345, businesses.getIdentity().getIdentityId());
+        assertEquals(2, businesses.getMemberships().size());
+        assertEquals(439000L, businesses.getBusinessId("ABC123"));
+        assertEquals(438000L, businesses.getBusinessId("ABC124"));
+        assertNull(businesses.getBusinessId("ZZZ999"));
+        assertEquals("ABC123", businesses.getAccountId(439000));
+        assertEquals("ABC124", businesses.getAccountId(438000));
+        assertNull(businesses.getAccountId(1));
+        assertEquals("Commonwealth of Independent Systems", businesses.getBusiness(439000).getName());
+        assertEquals(438000, businesses.getBusinessByAccountId("ABC124").getId());
+
+        verify(this.mockedFreshBooksClient, times(1)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+    }
+
+    @Test
+    public void reloadAfterTtl() throws FreshBooksException, IOException {
+        Businesses businesses = new Businesses(this.mockedFreshBooksClient, 10, TimeUnit.MINUTES, this.ticker);
+
+        businesses.getBusinessId("ABC123");
+        this.ticker.advance(9, TimeUnit.MINUTES);
+        businesses.getBusinessId("ABC123");
+        verify(this.mockedFreshBooksClient, times(1)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+
+        this.ticker.advance(1, TimeUnit.MINUTES);
+        businesses.getBusinessId("ABC123");
+        verify(this.mockedFreshBooksClient, times(2)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+    }
+
+    @Test
+    public void reloadAfterNewAuthorization() throws FreshBooksException, IOException {
+        Businesses businesses = new Businesses(this.mockedFreshBooksClient, 10, TimeUnit.MINUTES, this.ticker);
+
+        businesses.getBusinessId("ABC123");
+        this.tokenManager.refresh();
+        businesses.getBusinessId("ABC123");
+        verify(this.mockedFreshBooksClient, times(1)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+
+        this.tokenManager.setToken(new AuthorizationToken("other_access_token"));
+        businesses.getBusinessId("ABC123");
+        verify(this.mockedFreshBooksClient, times(2)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+    }
+
+    @Test
+    public void refreshAndInvalidate() throws FreshBooksException, IOException {
+        Businesses businesses = new Businesses(this.mockedFreshBooksClient, 10, TimeUnit.MINUTES, this.ticker);
+
+        businesses.getBusinessId("ABC123");
+        businesses.refresh();
+        verify(this.mockedFreshBooksClient, times(2)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+
+        businesses.invalidate();
+        businesses.getBusinessId("ABC123");
+        businesses.getBusinessId("ABC123");
+        verify(this.mockedFreshBooksClient, times(3)).request(HttpMethods.GET, "/auth/api/v1/users/me", null);
+    }
+}
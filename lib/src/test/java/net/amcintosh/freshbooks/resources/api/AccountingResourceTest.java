@@ -2,25 +2,43 @@ package net.amcintosh.freshbooks.resources.api;
 
 import com.google.api.client.http.HttpMethods;
 import com.google.api.client.http.HttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.JsonObjectParser;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.HttpTesting;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Uninterruptibles;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
 import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.cache.InMemoryResponseCache;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreaker;
+import net.amcintosh.freshbooks.circuitbreaker.CircuitBreakerOpenException;
+import net.amcintosh.freshbooks.concurrency.Bulkhead;
+import net.amcintosh.freshbooks.concurrency.BulkheadFullException;
 import net.amcintosh.freshbooks.models.Client;
 import net.amcintosh.freshbooks.models.ClientList;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.PaginationQueryBuilder;
 import net.amcintosh.freshbooks.models.builders.QueryBuilder;
 import net.amcintosh.freshbooks.resources.Clients;
+import net.amcintosh.freshbooks.resources.Invoices;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 public class AccountingResourceTest {
 
@@ -204,4 +222,324 @@ public class AccountingResourceTest {
         Clients clients = new Clients(mockedFreshBooksClient);
         clients.list("ABC123", builders);
     }
+
+    @Test
+    public void listResource_streamed() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_clients_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients?page=1&per_page=15")).thenReturn(mockRequest);
+
+        List<QueryBuilder> builders = ImmutableList.of(new PaginationQueryBuilder(1, 15));
+        List<Long> clientIds = new ArrayList<>();
+        Clients clients = new Clients(mockedFreshBooksClient);
+        Pages pages = clients.listEach("ABC123", builders, client -> clientIds.add(client.getId()));
+
+        assertEquals(ImmutableList.of(12345L, 12346L, 12457L), clientIds);
+        assertEquals(1, pages.getPage());
+        assertEquals(1, pages.getPages());
+        assertEquals(15, pages.getPerPage());
+        assertEquals(3, pages.getTotal());
+    }
+
+    @Test
+    public void listResource_streamedError() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(404, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients")).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> clients.listEach("ABC123", client -> fail("No clients expected")));
+
+        assertEquals(404, exception.statusCode);
+        assertEquals("Client not found.", exception.getMessage());
+        assertEquals(1012, exception.errorNo);
+    }
+
+    @Test
+    public void listResource_streamedMissingResponse() throws IOException {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, "{\"foo\": \"bar\"}");
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients")).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> clients.listEach("ABC123", client -> fail("No clients expected")));
+
+        assertEquals(200, exception.statusCode);
+        assertEquals("Returned an unexpected response", exception.getMessage());
+    }
+
+    @Test
+    public void listResource_streamedCached() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_clients_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        when(mockedFreshBooksClient.getResponseCache())
+                .thenReturn(new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES));
+        when(mockedFreshBooksClient.request(HttpMethods.GET, "/accounting/account/ABC123/users/clients"))
+                .thenReturn(TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        List<Long> clientIds = new ArrayList<>();
+        Clients clients = new Clients(mockedFreshBooksClient);
+        clients.listEach("ABC123", client -> clientIds.add(client.getId()));
+        ClientList clientList = clients.list("ABC123");
+
+        assertEquals(3, clientIds.size());
+        assertEquals(3, clientList.getClients().size());
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients");
+    }
+
+    @Test
+    public void getResource_cached() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.getResponseCache())
+                .thenReturn(new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null)).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        Client client = clients.get("ABC123", 12345);
+        Client cachedClient = clients.get("ABC123", 12345);
+
+        assertEquals(12345, client.getId());
+        assertEquals(12345, cachedClient.getId());
+        assertNotSame(client, cachedClient);
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null);
+    }
+
+    @Test
+    public void getResource_cachedErrorsNotCached() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(404, jsonResponse);
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        when(mockedFreshBooksClient.getResponseCache()).thenReturn(cache);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null)).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+
+        assertThrows(FreshBooksException.class, () -> clients.get("ABC123", 12345));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void listResource_cachedByQuery() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_clients_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        when(mockedFreshBooksClient.getResponseCache())
+                .thenReturn(new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients?page=1&per_page=3"))
+                .thenReturn(TestUtil.buildMockHttpRequest(200, jsonResponse));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients?page=2&per_page=3"))
+                .thenReturn(TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        clients.list("ABC123", ImmutableList.of(new PaginationQueryBuilder(1, 3)));
+        clients.list("ABC123", ImmutableList.of(new PaginationQueryBuilder(2, 3)));
+        ClientList clientList = clients.list("ABC123", ImmutableList.of(new PaginationQueryBuilder(1, 3)));
+
+        assertEquals(3, clientList.getPages().getTotal());
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients?page=1&per_page=3");
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients?page=2&per_page=3");
+    }
+
+    @Test
+    public void updateResource_invalidatesCache() throws FreshBooksException, IOException {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients/56789", "{}");
+        cache.put(Clients.class, "/accounting/account/ABC123/users/clients?page=1", "{}");
+        cache.put(Clients.class, "/accounting/account/XYZ789/users/clients/56789", "{}");
+        cache.put(Invoices.class, "/accounting/account/ABC123/invoices/invoices/56789", "{}");
+        when(mockedFreshBooksClient.getResponseCache()).thenReturn(cache);
+        Map<String, Object> data = ImmutableMap.of("email", "john.doe@abcorp.com");
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200,
+                TestUtil.loadTestJson("fixtures/create_client_response.json"));
+        when(mockedFreshBooksClient.request(HttpMethods.PUT, "/accounting/account/ABC123/users/clients/56789",
+                ImmutableMap.of("client", data))).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        clients.update("ABC123", 56789, data);
+
+        assertNull(cache.get("/accounting/account/ABC123/users/clients/56789"));
+        assertNull(cache.get("/accounting/account/ABC123/users/clients?page=1"));
+        assertEquals("{}", cache.get("/accounting/account/XYZ789/users/clients/56789"));
+        assertEquals("{}", cache.get("/accounting/account/ABC123/invoices/invoices/56789"));
+    }
+
+    @Test
+    public void getResource_coalesced() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        RequestCoalescer coalescer = new RequestCoalescer();
+        when(mockedFreshBooksClient.getRequestCoalescer()).thenReturn(coalescer);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null)).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        Client client = clients.get("ABC123", 12345);
+
+        assertEquals(12345, client.getId());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void getResource_circuitBreakerOpens() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        when(mockedFreshBooksClient.getCircuitBreaker()).thenReturn(circuitBreaker);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(503, jsonResponse));
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200,
+                TestUtil.loadTestJson("fixtures/list_clients_response.json"));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients")).thenReturn(mockRequest);
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        assertThrows(FreshBooksException.class, () -> clients.get("ABC123", 12345));
+        assertThrows(FreshBooksException.class, () -> clients.get("ABC123", 12345));
+        FreshBooksException exception = assertThrows(CircuitBreakerOpenException.class,
+                () -> clients.list("ABC123"));
+
+        assertEquals("Circuit breaker is open for ACCOUNTING_LIKE users/clients", exception.getMessage());
+        verify(mockedFreshBooksClient, times(2)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null);
+        verify(mockedFreshBooksClient, never()).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("ACCOUNTING_LIKE invoices/invoices"));
+    }
+
+    @Test
+    public void getResource_clientErrorsDoNotOpenCircuitBreaker() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        when(mockedFreshBooksClient.getCircuitBreaker()).thenReturn(circuitBreaker);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(404, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        for (int i = 0; i < 3; i++) {
+            FreshBooksException exception = assertThrows(FreshBooksException.class,
+                    () -> clients.get("ABC123", 12345));
+            assertEquals(404, exception.statusCode);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("ACCOUNTING_LIKE users/clients"));
+    }
+
+    @Test
+    public void listEach_consumerErrorsDoNotOpenCircuitBreaker() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_clients_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        CircuitBreaker circuitBreaker = new CircuitBreaker().withSlidingWindow(2, 2);
+        when(mockedFreshBooksClient.getCircuitBreaker()).thenReturn(circuitBreaker);
+        when(mockedFreshBooksClient.request(HttpMethods.GET, "/accounting/account/ABC123/users/clients"))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> clients.listEach("ABC123", client -> {
+                throw new IllegalStateException("Consumer failed");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState("ACCOUNTING_LIKE users/clients"));
+    }
+
+    @Test
+    public void getResource_hedged() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        RequestHedger hedger = new RequestHedger().withLatencyWindow(1, 1);
+        when(mockedFreshBooksClient.getRequestHedger()).thenReturn(hedger);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        assertEquals(12345, clients.get("ABC123", 12345).getId());
+        assertEquals(12345, clients.get("ABC123", 12345).getId());
+
+        assertTrue(hedger.getHedgeDelay("ACCOUNTING_LIKE users/clients", TimeUnit.MILLISECONDS) >= 0);
+    }
+
+    @Test
+    public void getResource_hedgeClosesSlowResponse() throws FreshBooksException, IOException, InterruptedException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        RequestHedger hedger = new RequestHedger().withLatencyWindow(1, 1);
+        when(mockedFreshBooksClient.getRequestHedger()).thenReturn(hedger);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        MockLowLevelHttpResponse slowResponse = new MockLowLevelHttpResponse() {
+            @Override
+            public void disconnect() throws IOException {
+                super.disconnect();
+                disconnected.countDown();
+            }
+        };
+        slowResponse.setContentType(Json.MEDIA_TYPE);
+        slowResponse.setContent(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                Uninterruptibles.awaitUninterruptibly(disconnected, 5, TimeUnit.SECONDS);
+                throw new IOException("Socket closed");
+            }
+        });
+        HttpRequest slowRequest = new MockHttpTransport.Builder().setLowLevelHttpResponse(slowResponse).build()
+                .createRequestFactory().buildGetRequest(HttpTesting.SIMPLE_GENERIC_URL)
+                .setParser(new JsonObjectParser(GsonFactory.getDefaultInstance()));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse))
+                .thenReturn(slowRequest)
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        assertEquals(12345, clients.get("ABC123", 12345).getId());
+        long start = System.nanoTime();
+        assertEquals(12345, clients.get("ABC123", 12345).getId());
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(slowResponse.isDisconnected());
+        assertEquals(1, hedger.getHedgeCount());
+        hedger.shutdown();
+    }
+
+    @Test
+    public void getResource_bulkhead() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        Bulkhead bulkhead = new Bulkhead().withTenantLimit(1);
+        when(mockedFreshBooksClient.getBulkhead()).thenReturn(bulkhead);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null))
+                .thenAnswer(invocation -> TestUtil.buildMockHttpRequest(200, jsonResponse));
+
+        Clients clients = new Clients(mockedFreshBooksClient);
+        assertEquals(12345, clients.get("ABC123", 12345).getId());
+        assertEquals(1, bulkhead.getAvailable("ABC123"));
+
+        bulkhead.acquire("ABC123", Invoices.class);
+        assertThrows(BulkheadFullException.class, () -> clients.get("ABC123", 12345));
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/accounting/account/ABC123/users/clients/12345", null);
+    }
 }
+
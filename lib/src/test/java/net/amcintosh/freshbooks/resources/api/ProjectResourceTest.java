@@ -6,6 +6,8 @@ import com.google.common.collect.ImmutableList;
 import net.amcintosh.freshbooks.FreshBooksClient;
 import net.amcintosh.freshbooks.FreshBooksException;
 import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.cache.InMemoryResponseCache;
+import net.amcintosh.freshbooks.models.Pages;
 import net.amcintosh.freshbooks.models.Project;
 import net.amcintosh.freshbooks.models.ProjectList;
 import net.amcintosh.freshbooks.models.builders.IncludesQueryBuilder;
@@ -15,12 +17,13 @@ import net.amcintosh.freshbooks.resources.Projects;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class ProjectResourceTest {
 
@@ -158,4 +161,78 @@ public class ProjectResourceTest {
         Projects projects = new Projects(mockedFreshBooksClient);
         projects.list(439000, builders);
     }
+
+    @Test
+    public void listResource_streamed() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_projects_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/projects/business/439000/projects")).thenReturn(mockRequest);
+
+        List<String> titles = new ArrayList<>();
+        Projects projects = new Projects(mockedFreshBooksClient);
+        Pages pages = projects.listEach(439000, project -> titles.add(project.getTitle()));
+
+        assertEquals(3, titles.size());
+        assertEquals("Awesome Project", titles.get(0));
+        assertEquals(1, pages.getPage());
+        assertEquals(30, pages.getPerPage());
+        assertEquals(3, pages.getTotal());
+    }
+
+    @Test
+    public void getProject_cached() throws FreshBooksException, IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_project_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.getResponseCache())
+                .thenReturn(new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES));
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/projects/business/439000/project/654321", null)).thenReturn(mockRequest);
+
+        Projects projects = new Projects(mockedFreshBooksClient);
+        projects.get(439000, 654321);
+        Project project = projects.get(439000, 654321);
+
+        assertEquals(654321, project.getId());
+        verify(mockedFreshBooksClient, times(1)).request(HttpMethods.GET,
+                "/projects/business/439000/project/654321", null);
+    }
+
+    @Test
+    public void deleteProject_invalidatesCache() throws FreshBooksException, IOException {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        cache.put(Projects.class, "/projects/business/439000/project/12345", "{}");
+        cache.put(Projects.class, "/projects/business/439000/projects", "{}");
+        cache.put(Projects.class, "/projects/business/111111/projects", "{}");
+        when(mockedFreshBooksClient.getResponseCache()).thenReturn(cache);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(204, "");
+        when(mockedFreshBooksClient.request(HttpMethods.DELETE,
+                "/projects/business/439000/project/12345", null)).thenReturn(mockRequest);
+
+        Projects projects = new Projects(mockedFreshBooksClient);
+        projects.delete(439000, 12345);
+
+        assertNull(cache.get("/projects/business/439000/project/12345"));
+        assertNull(cache.get("/projects/business/439000/projects"));
+        assertEquals("{}", cache.get("/projects/business/111111/projects"));
+    }
+
+    @Test
+    public void getProject_noContentKeepsCache() throws FreshBooksException, IOException {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        InMemoryResponseCache cache = new InMemoryResponseCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        cache.put(Projects.class, "/projects/business/439000/projects", "{}");
+        when(mockedFreshBooksClient.getResponseCache()).thenReturn(cache);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(204, "");
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/projects/business/439000/project/12345", null)).thenReturn(mockRequest);
+
+        Projects projects = new Projects(mockedFreshBooksClient);
+
+        assertNull(projects.handleRequest(HttpMethods.GET, "/projects/business/439000/project/12345"));
+        assertEquals("{}", cache.get("/projects/business/439000/projects"));
+    }
 }
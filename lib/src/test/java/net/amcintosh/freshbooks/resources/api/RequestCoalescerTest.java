@@ -0,0 +1,113 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.amcintosh.freshbooks.FreshBooksException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest {
+
+    private static final int THREADS = 5;
+
+    @Test
+    public void coalescesConcurrentCalls() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> coalescer.execute("/url", () -> {
+                    calls.incrementAndGet();
+                    Uninterruptibles.awaitUninterruptibly(release);
+                    return result;
+                })));
+            }
+            while (calls.get() == 0) {
+                Thread.sleep(1);
+            }
+            // Give the other callers time to find the call in flight
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Object> future : futures) {
+                assertSame(result, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, coalescer.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sharesException() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        FreshBooksException error = new FreshBooksException("Too Many Requests", "Too Many Requests", 429);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Throwable>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        coalescer.execute("/url", () -> {
+                            calls.incrementAndGet();
+                            Uninterruptibles.awaitUninterruptibly(release);
+                            throw error;
+                        });
+                        return null;
+                    } catch (FreshBooksException e) {
+                        return e;
+                    }
+                }));
+            }
+            while (calls.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Throwable> future : futures) {
+                assertSame(error, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void differentKeysNotCoalesced() throws FreshBooksException {
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        String inner = coalescer.execute("/one", () -> coalescer.execute("/two", () -> "two"));
+
+        assertEquals("two", inner);
+    }
+
+    @Test
+    public void sequentialCallsNotCoalesced() throws FreshBooksException {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.execute("/url", calls::incrementAndGet);
+        coalescer.execute("/url", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+}
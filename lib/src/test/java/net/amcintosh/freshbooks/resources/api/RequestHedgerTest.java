@@ -0,0 +1,140 @@
+package net.amcintosh.freshbooks.resources.api;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.amcintosh.freshbooks.FreshBooksException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestHedgerTest {
+
+    private static final String ENDPOINT = "ACCOUNTING_LIKE invoices/invoices";
+
+    private static RequestHedger warmedUp() throws FreshBooksException {
+        RequestHedger hedger = new RequestHedger()
+                .withLatencyWindow(10, 3)
+                .withMinimumDelay(10, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 3; i++) {
+            hedger.execute(ENDPOINT, () -> "warm");
+        }
+        return hedger;
+    }
+
+    @Test
+    public void notHedgedBeforeMinimumSamples() throws FreshBooksException {
+        RequestHedger hedger = new RequestHedger()
+                .withLatencyWindow(10, 3)
+                .withMinimumDelay(1, TimeUnit.MILLISECONDS);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.execute(ENDPOINT, () -> {
+            attempts.incrementAndGet();
+            Uninterruptibles.sleepUninterruptibly(20, TimeUnit.MILLISECONDS);
+            return "slow";
+        });
+
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedger.getHedgeCount());
+        assertEquals(-1, hedger.getHedgeDelay(ENDPOINT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void hedgesSlowCall() throws Exception {
+        RequestHedger hedger = warmedUp();
+        assertTrue(hedger.getHedgeDelay(ENDPOINT, TimeUnit.MILLISECONDS) >= 10);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Thread> firstThread = new AtomicReference<>();
+
+        String result = hedger.execute(ENDPOINT, () -> {
+            if (attempts.incrementAndGet() == 2) {
+                return "hedge";
+            }
+            firstThread.set(Thread.currentThread());
+            Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+            throw new FreshBooksException("Cancelled", null, 0);
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, hedger.getHedgeCount());
+        assertSame(Thread.currentThread(), firstThread.get());
+        assertFalse(Thread.interrupted());
+    }
+
+    @Test
+    public void notHedgedAfterShutdown() throws FreshBooksException {
+        RequestHedger hedger = warmedUp();
+        hedger.shutdown();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.execute(ENDPOINT, () -> {
+            attempts.incrementAndGet();
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            return "slow";
+        });
+
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void fastCallNotHedged() throws FreshBooksException {
+        RequestHedger hedger = warmedUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.execute(ENDPOINT, () -> {
+            attempts.incrementAndGet();
+            return "fast";
+        });
+
+        assertEquals("fast", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void failureBeforeHedgeFails() throws FreshBooksException {
+        RequestHedger hedger = warmedUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> hedger.execute(ENDPOINT, () -> {
+                    attempts.incrementAndGet();
+                    throw new FreshBooksException("Not found", "Not Found", 404);
+                }));
+
+        assertEquals(404, exception.statusCode);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedger.getHedgeCount());
+    }
+
+    @Test
+    public void allAttemptsFail() throws FreshBooksException {
+        RequestHedger hedger = warmedUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        FreshBooksException exception = assertThrows(FreshBooksException.class,
+                () -> hedger.execute(ENDPOINT, () -> {
+                    if (attempts.incrementAndGet() == 2) {
+                        throw new FreshBooksException("Hedge failed", null, 0);
+                    }
+                    Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+                    throw new FreshBooksException("First attempt failed", null, 0);
+                }));
+
+        assertEquals("Hedge failed", exception.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void invalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestHedger().withPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> new RequestHedger().withLatencyWindow(5, 10));
+    }
+}
@@ -0,0 +1,239 @@
+package net.amcintosh.freshbooks.resources.async;
+
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.amcintosh.freshbooks.FreshBooksClient;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.RequestOptions;
+import net.amcintosh.freshbooks.TestUtil;
+import net.amcintosh.freshbooks.models.Client;
+import net.amcintosh.freshbooks.models.Invoice;
+import net.amcintosh.freshbooks.models.InvoiceList;
+import net.amcintosh.freshbooks.models.ProjectList;
+import net.amcintosh.freshbooks.resources.Clients;
+import net.amcintosh.freshbooks.resources.Invoices;
+import net.amcintosh.freshbooks.resources.Projects;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncResourceTest {
+
+    @Test
+    public void getInvoice() throws IOException, ExecutionException, InterruptedException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_invoice_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/invoices/invoices/987654", null)).thenReturn(mockRequest);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncResource<Invoices> invoices = new AsyncResource<>(
+                options -> new Invoices(mockedFreshBooksClient), executor);
+        CompletableFuture<Invoice> future = invoices.call(resource -> resource.get("ABC123", 987654));
+
+        assertEquals(987654, future.get().getId());
+        executor.shutdown();
+    }
+
+    @Test
+    public void getInvoice_notFound() throws IOException, InterruptedException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/get_client_response__not_found_old.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(404, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/invoices/invoices/987654", null)).thenReturn(mockRequest);
+
+        AsyncResource<Invoices> invoices = new AsyncResource<>(
+                options -> new Invoices(mockedFreshBooksClient), Runnable::run);
+        CompletableFuture<Invoice> future = invoices.call(resource -> resource.get("ABC123", 987654));
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof FreshBooksException);
+        assertEquals(404, ((FreshBooksException) e.getCause()).statusCode);
+    }
+
+    @Test
+    public void listInvoices() throws IOException, ExecutionException, InterruptedException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_invoices_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/invoices/invoices")).thenReturn(mockRequest);
+
+        AsyncResource<Invoices> invoices = new AsyncResource<>(
+                options -> new Invoices(mockedFreshBooksClient), Runnable::run);
+        InvoiceList invoiceList = invoices.call(resource -> resource.list("ABC123")).get();
+
+        assertEquals(1, invoiceList.getPages().getTotal());
+        assertEquals(987654, invoiceList.getInvoices().get(0).getId());
+    }
+
+    @Test
+    public void listPublisherInvoices() throws IOException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_invoices_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/accounting/account/ABC123/invoices/invoices?page=1&per_page=100")).thenReturn(mockRequest);
+
+        AsyncResource<Invoices> invoices = new AsyncResource<>(
+                options -> new Invoices(mockedFreshBooksClient), Runnable::run);
+        List<Invoice> received = new ArrayList<>();
+        AtomicBoolean complete = new AtomicBoolean();
+        invoices.listPublisher((resource, builders) -> resource.list("ABC123", builders),
+                InvoiceList::getInvoices).subscribe(new Subscriber<Invoice>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Invoice invoice) {
+                received.add(invoice);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                complete.set(true);
+            }
+        });
+
+        assertEquals(1, received.size());
+        assertEquals(987654, received.get(0).getId());
+        assertTrue(complete.get());
+    }
+
+    @Test
+    public void deleteInvoice() throws IOException, ExecutionException, InterruptedException {
+        String jsonResponse = "{\n\"response\": {}\n}";
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.DELETE,
+                "/accounting/account/ABC123/invoices/invoices/987654", null)).thenReturn(mockRequest);
+
+        AsyncResource<Invoices> invoices = new AsyncResource<>(
+                options -> new Invoices(mockedFreshBooksClient), Runnable::run);
+
+        assertNull(invoices.run(resource -> resource.delete("ABC123", 987654)).get());
+    }
+
+    @Test
+    public void listProjects() throws IOException, ExecutionException, InterruptedException {
+        String jsonResponse = TestUtil.loadTestJson("fixtures/list_projects_response.json");
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        HttpRequest mockRequest = TestUtil.buildMockHttpRequest(200, jsonResponse);
+        when(mockedFreshBooksClient.request(HttpMethods.GET,
+                "/projects/business/439000/projects")).thenReturn(mockRequest);
+
+        AsyncResource<Projects> projects = new AsyncResource<>(
+                options -> new Projects(mockedFreshBooksClient), Runnable::run);
+        ProjectList projectList = projects.call(resource -> resource.list(439000)).get();
+
+        assertEquals(3, projectList.getPages().getTotal());
+        assertEquals("Awesome Project", projectList.getProjects().get(0).getTitle());
+    }
+
+    @Test
+    public void listProjects_rejected() {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+
+        AsyncResource<Projects> projects = new AsyncResource<>(
+                options -> new Projects(mockedFreshBooksClient), command -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> projects.call(resource -> resource.list(439000)).get());
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void getClient_cancelAbortsRequest() throws InterruptedException {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        MockLowLevelHttpResponse slowResponse = new MockLowLevelHttpResponse() {
+            @Override
+            public void disconnect() throws IOException {
+                super.disconnect();
+                disconnected.countDown();
+            }
+        };
+        slowResponse.setContentType(Json.MEDIA_TYPE);
+        slowResponse.setContent(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                Uninterruptibles.awaitUninterruptibly(disconnected, 5, TimeUnit.SECONDS);
+                throw new IOException("Socket closed");
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        FreshBooksClient freshBooksClient = new FreshBooksClient.FreshBooksClientBuilder("some_client_id")
+                .withAccessToken("my_valid_token")
+                .withHttpTransport(new MockHttpTransport.Builder().setLowLevelHttpResponse(slowResponse).build())
+                .withExecutor(executor)
+                .build();
+
+        CompletableFuture<Client> future = freshBooksClient.async().clients()
+                .call(resource -> resource.get("ABC123", 12345));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        assertTrue(future.cancel(true));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+        assertTrue(slowResponse.isDisconnected());
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void getClient_cancelBeforeRun() throws IOException {
+        FreshBooksClient mockedFreshBooksClient = mock(FreshBooksClient.class);
+        List<Runnable> queued = new ArrayList<>();
+        List<RequestOptions> created = new ArrayList<>();
+        AsyncResource<Clients> clients = new AsyncResource<>(options -> {
+            created.add(options);
+            return new Clients(mockedFreshBooksClient, options);
+        }, queued::add);
+        RequestOptions options = new RequestOptions();
+
+        CompletableFuture<Client> future = clients.call(options, resource -> resource.get("ABC123", 12345));
+        future.cancel(true);
+        queued.forEach(Runnable::run);
+
+        assertTrue(options.isCancelled());
+        assertTrue(created.isEmpty());
+        verify(mockedFreshBooksClient, never()).request(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,179 @@
+package net.amcintosh.freshbooks.resources.async;
+
+import com.google.common.collect.ImmutableList;
+import net.amcintosh.freshbooks.FreshBooksException;
+import net.amcintosh.freshbooks.models.ListResult;
+import net.amcintosh.freshbooks.models.Pages;
+import net.amcintosh.freshbooks.models.builders.FilterQueryBuilder;
+import net.amcintosh.freshbooks.models.builders.PaginationQueryBuilder;
+import net.amcintosh.freshbooks.models.builders.QueryBuilder;
+import net.amcintosh.freshbooks.resources.api.ResourceType;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListPublisherTest {
+
+    private static class NumberList extends ListResult {
+        private final List<Integer> numbers;
+
+        NumberList(List<Integer> numbers, int page, int pages) {
+            this.numbers = numbers;
+            this.pages = new Pages(page, pages, numbers.size(), 0);
+        }
+
+        List<Integer> getNumbers() {
+            return numbers;
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+        Subscription subscription;
+        List<Integer> items = new ArrayList<>();
+        Throwable error;
+        boolean complete;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    private static int getPage(List<QueryBuilder> builders) {
+        for (QueryBuilder builder : builders) {
+            if (builder instanceof PaginationQueryBuilder) {
+                return ((PaginationQueryBuilder) builder).getPage();
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    public void fetchesPagesOnDemand() {
+        List<List<QueryBuilder>> fetched = new ArrayList<>();
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, null, builders -> {
+            fetched.add(builders);
+            int page = getPage(builders);
+            return new NumberList(ImmutableList.of(page * 10 + 1, page * 10 + 2), page, 3);
+        }, NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        assertEquals(0, fetched.size());
+
+        subscriber.subscription.request(1);
+        assertEquals(ImmutableList.of(11), subscriber.items);
+        assertEquals(1, fetched.size());
+        assertEquals("&page=1&per_page=100", fetched.get(0).get(0).build(ResourceType.ACCOUNTING_LIKE));
+
+        subscriber.subscription.request(2);
+        assertEquals(ImmutableList.of(11, 12, 21), subscriber.items);
+        assertEquals(2, fetched.size());
+        assertFalse(subscriber.complete);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(ImmutableList.of(11, 12, 21, 22, 31, 32), subscriber.items);
+        assertEquals(3, fetched.size());
+        assertTrue(subscriber.complete);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void usesPaginationAndKeepsOtherBuilders() {
+        List<List<QueryBuilder>> fetched = new ArrayList<>();
+        FilterQueryBuilder filter = new FilterQueryBuilder().addEquals("userid", 1);
+        List<QueryBuilder> builders = ImmutableList.of(new PaginationQueryBuilder(2, 5), filter);
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, builders, pageBuilders -> {
+            fetched.add(pageBuilders);
+            return new NumberList(ImmutableList.of(getPage(pageBuilders)), getPage(pageBuilders), 2);
+        }, NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        assertEquals(ImmutableList.of(2), subscriber.items);
+        assertTrue(subscriber.complete);
+        assertSame(filter, fetched.get(0).get(0));
+        assertEquals("&page=2&per_page=5", fetched.get(0).get(1).build(ResourceType.ACCOUNTING_LIKE));
+    }
+
+    @Test
+    public void completesOnEmptyPage() {
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, null,
+                builders -> new NumberList(ImmutableList.of(), 1, 0), NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertTrue(subscriber.items.isEmpty());
+        assertTrue(subscriber.complete);
+    }
+
+    @Test
+    public void signalsErrorFromFetch() {
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, null, builders -> {
+            throw new FreshBooksException("Returned an unexpected response", "Internal Server Error", 500);
+        }, NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertTrue(subscriber.error instanceof FreshBooksException);
+        assertEquals(500, ((FreshBooksException) subscriber.error).statusCode);
+        assertFalse(subscriber.complete);
+    }
+
+    @Test
+    public void rejectsNonPositiveRequest() {
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, null,
+                builders -> new NumberList(ImmutableList.of(1), 1, 1), NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void stopsAfterCancel() {
+        List<Integer> fetchedPages = new ArrayList<>();
+        ListPublisher<NumberList, Integer> publisher = new ListPublisher<>(Runnable::run, null, builders -> {
+            fetchedPages.add(getPage(builders));
+            return new NumberList(ImmutableList.of(getPage(builders)), getPage(builders), 5);
+        }, NumberList::getNumbers);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+
+        assertEquals(ImmutableList.of(1), subscriber.items);
+        assertEquals(ImmutableList.of(1), fetchedPages);
+        assertFalse(subscriber.complete);
+    }
+}
@@ -0,0 +1,276 @@
+package net.amcintosh.freshbooks.retry;
+
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.HttpMethods;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.HttpTesting;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.client.util.Sleeper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryPolicyTest {
+
+    private static class RecordingSleeper implements Sleeper {
+        List<Long> sleeps = new ArrayList<>();
+
+        @Override
+        public void sleep(long millis) {
+            sleeps.add(millis);
+        }
+    }
+
+    private static class SequenceTransport extends MockHttpTransport {
+        private final Deque<Object> responses;
+        int attempts = 0;
+
+        SequenceTransport(Object... responses) {
+            this.responses = new ArrayDeque<>(Arrays.asList(responses));
+        }
+
+        @Override
+        public LowLevelHttpRequest buildRequest(String method, String url) {
+            attempts++;
+            Object next = responses.size() > 1 ? responses.poll() : responses.peek();
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    if (next instanceof IOException) {
+                        throw (IOException) next;
+                    }
+                    return (LowLevelHttpResponse) next;
+                }
+            };
+        }
+    }
+
+    private static MockLowLevelHttpResponse response(int statusCode) {
+        return new MockLowLevelHttpResponse().setStatusCode(statusCode).setContent("{}");
+    }
+
+    private static HttpResponse execute(SequenceTransport transport, String method, RetryPolicy policy)
+            throws IOException {
+        ByteArrayContent content = method.equals(HttpMethods.GET) ? null
+                : new ByteArrayContent("application/json", "{}".getBytes());
+        HttpRequest request = transport.createRequestFactory()
+                .buildRequest(method, HttpTesting.SIMPLE_GENERIC_URL, content)
+                .setThrowExceptionOnExecuteError(false);
+        policy.applyTo(request);
+        return request.execute();
+    }
+
+    @Test
+    public void retriesServerErrorWithBackOff() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy()
+                .withJitter(RetryPolicy.Jitter.NONE)
+                .withBackOff(100, 2, 300, TimeUnit.MILLISECONDS)
+                .withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(
+                response(500), response(502), response(503), response(503), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(5, transport.attempts);
+        assertEquals(Arrays.asList(100L, 200L, 300L, 300L), sleeper.sleeps);
+    }
+
+    @Test
+    public void maxRetries() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withMaxRetries(2).withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(500));
+
+        HttpResponse response = execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(500, response.getStatusCode());
+        assertEquals(3, transport.attempts);
+    }
+
+    @Test
+    public void fullJitter() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy()
+                .withMaxRetries(20)
+                .withBackOff(100, 2, 1000, TimeUnit.MILLISECONDS)
+                .withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(503));
+
+        execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(20, sleeper.sleeps.size());
+        for (int i = 0; i < sleeper.sleeps.size(); i++) {
+            long max = Math.min(1000, 100L << i);
+            assertTrue(sleeper.sleeps.get(i) >= 0 && sleeper.sleeps.get(i) <= max);
+        }
+        assertTrue(sleeper.sleeps.stream().distinct().count() > 1);
+    }
+
+    @Test
+    public void decorrelatedJitter() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy()
+                .withMaxRetries(20)
+                .withJitter(RetryPolicy.Jitter.DECORRELATED)
+                .withBackOff(100, 2, 1000, TimeUnit.MILLISECONDS)
+                .withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(503));
+
+        execute(transport, HttpMethods.GET, policy);
+
+        long previous = 100;
+        for (long sleep : sleeper.sleeps) {
+            assertTrue(sleep >= 100 && sleep <= Math.min(1000, Math.max(100, previous * 3)));
+            previous = sleep;
+        }
+    }
+
+    @Test
+    public void honoursRetryAfterSeconds() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(
+                response(429).addHeader("Retry-After", "3"), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(Arrays.asList(3000L), sleeper.sleeps);
+    }
+
+    @Test
+    public void withoutRetryAfter() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy()
+                .withoutRetryAfter()
+                .withJitter(RetryPolicy.Jitter.NONE)
+                .withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(
+                response(429).addHeader("Retry-After", "3"), response(200));
+
+        execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(Arrays.asList(500L), sleeper.sleeps);
+    }
+
+    @Test
+    public void parseRetryAfter() {
+        assertNull(RetryHandler.parseRetryAfter(null));
+        assertNull(RetryHandler.parseRetryAfter("soon"));
+        assertEquals(120000L, RetryHandler.parseRetryAfter("120"));
+        String date = ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        long millis = RetryHandler.parseRetryAfter(date);
+        assertTrue(millis > 55000 && millis <= 60000);
+        String past = ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(60).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        assertEquals(0L, RetryHandler.parseRetryAfter(past));
+    }
+
+    @Test
+    public void maxElapsedTime() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withMaxElapsedTime(10, TimeUnit.SECONDS).withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(
+                response(429).addHeader("Retry-After", "60"), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(429, response.getStatusCode());
+        assertEquals(1, transport.attempts);
+        assertTrue(sleeper.sleeps.isEmpty());
+    }
+
+    @Test
+    public void postNotRetriedOnServerError() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(500), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.POST, policy);
+
+        assertEquals(500, response.getStatusCode());
+        assertEquals(1, transport.attempts);
+    }
+
+    @Test
+    public void postRetriedWhenRateLimited() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(429), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.POST, policy);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, transport.attempts);
+    }
+
+    @Test
+    public void idempotentMethods() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withIdempotentMethods(HttpMethods.GET).withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(response(500), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.PUT, policy);
+
+        assertEquals(500, response.getStatusCode());
+        assertEquals(1, transport.attempts);
+    }
+
+    @Test
+    public void retriesNetworkErrorForIdempotentMethods() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryPolicy policy = new RetryPolicy().withSleeper(sleeper);
+        SequenceTransport transport = new SequenceTransport(new IOException("Connection reset"), response(200));
+
+        HttpResponse response = execute(transport, HttpMethods.GET, policy);
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, transport.attempts);
+
+        SequenceTransport postTransport = new SequenceTransport(new IOException("Connection reset"), response(200));
+        assertThrows(IOException.class, () -> execute(postTransport, HttpMethods.POST, policy));
+        assertEquals(1, postTransport.attempts);
+    }
+
+    @Test
+    public void retryBudget() throws IOException {
+        RecordingSleeper sleeper = new RecordingSleeper();
+        RetryBudget budget = new RetryBudget(10, 0.5);
+        RetryPolicy policy = new RetryPolicy().withRetryBudget(budget).withSleeper(sleeper);
+
+        SequenceTransport transport = new SequenceTransport(response(503));
+        execute(transport, HttpMethods.GET, policy);
+
+        // Retries stop once half of the tokens are used
+        assertEquals(5, transport.attempts);
+        assertEquals(5, budget.getTokens(), 0.001);
+
+        SequenceTransport failingTransport = new SequenceTransport(response(503));
+        execute(failingTransport, HttpMethods.GET, policy);
+        assertEquals(1, failingTransport.attempts);
+
+        for (int i = 0; i < 6; i++) {
+            execute(new SequenceTransport(response(200)), HttpMethods.GET, policy);
+        }
+        assertEquals(7, budget.getTokens(), 0.001);
+        SequenceTransport recoveredTransport = new SequenceTransport(response(503), response(200));
+        assertEquals(200, execute(recoveredTransport, HttpMethods.GET, policy).getStatusCode());
+    }
+}